@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.test;
+
+import android.os.SystemClock;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import com.miz.functions.MizLib;
+import com.miz.identification.FilenameParser;
+import com.miz.identification.MovieStructure;
+import com.miz.identification.ShowStructure;
+
+import java.util.Random;
+
+public class FilenameParserTests extends AndroidTestCase {
+
+	// The pattern that was used to remove release tags before FilenameParser
+	private static final String RELEASE_TAG_PATTERN = "(?i)(dvdscreener|dvdscreen|dvdscr|dvdrip|dvd5|dvd|xvid|divx|m\\-480p|m\\-576p|m\\-720p|m\\-864p|m\\-900p|m\\-1080p|m480p|m576p|m720p|m864p|m900p|m1080p|480p|576p|720p|864p|900p|1080p|1080i|720i|mhd|brrip|bdrip|brscreener|brscreen|brscr|aac|x264|bluray|dts|screener|hdtv|ac3|repack|2\\.1|5\\.1|ac3_6|7\\.1|h264|hdrip|ntsc|proper|readnfo|rerip|subbed|vcd|scvd|pdtv|sdtv|hqts|hdcam|multisubs|650mb|700mb|750mb|webdl|web-dl|bts|korrip|webrip|korsub|1link|sample|tvrip|tvr|extended.editions?|directors cut|tfe|unrated|\\(.*?torrent.*?\\)|\\[.*?\\]|\\(.*?\\)|\\{.*?\\}|part[0-9]|cd[0-9])|\\)|\\(|\\[|\\]|\\{|\\}|\\'|\\<|\\>|\\-";
+
+	private static final String[] FRAGMENTS = {"The Movie", " ", ".", "_", "-", "dvd", "DVDSCR", "eener", "screener",
+		"m-", "720p", "1080", "p", "i", "AC3", "_6", "2.1", "extended", "Extended.Edition", "s", "directors cut",
+		"(", ")", "[", "]", "{", "}", "torrent", "part", "cd", "3", "'", "<", ">", "web-dl", "tvr", "proper", "pdtv"};
+
+	private static final String[] PATHS = {
+		"/2 Broke Girls/Season 1/2 Broke Girls - S01E01 - Reboot in Brooklyn.avi",
+		"/The.British.Empire.in.Colour/Season1 /The British Empire in Colour Part 1.mkv",
+		"/An Idiot Abroad s02e02.thebox.hannibal-LF.mkv",
+		"/Movies/The.Dark.Knight.2008.1080p.BluRay.x264.DTS-GROUP/The.Dark.Knight.2008.1080p.BluRay.x264.DTS-GROUP.mkv",
+		"/Movies/[SET Alien] Aliens (1986) [Directors Cut] tt0090605.mkv",
+		"/TV/Doctor Who (2005)/Series 7/Doctor.Who.2005.7x05.The.Angels.Take.Manhattan.720p.HDTV.x264-FoV.mkv"
+	};
+
+	public void testReleaseTagsMatchPattern() {
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int count = random.nextInt(12);
+			for (int j = 0; j < count; j++)
+				sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+
+			String input = sb.toString();
+			assertEquals(input, input.replaceAll(RELEASE_TAG_PATTERN, ""), FilenameParser.stripReleaseTags(input));
+		}
+	}
+
+	public void testParse100kPaths() {
+		int count = 100000;
+
+		// Parsed results of the first round, which every later round is checked against
+		String[] expected = new String[PATHS.length * 2];
+
+		long start = SystemClock.elapsedRealtime();
+		for (int i = 0; i < count; i++) {
+			String path = PATHS[i % PATHS.length];
+			String result;
+			if (i % 2 == 0) {
+				ShowStructure ss = new ShowStructure(path);
+				ss.setCustomTags("GROUP<MiZ>FoV");
+				result = ss.getDecryptedFilename() + "|" + ss.getDecryptedShowFolderName();
+			} else {
+				MovieStructure ms = new MovieStructure(path);
+				ms.setCustomTags("GROUP<MiZ>FoV");
+				result = ms.getDecryptedFilename() + "|" + ms.getDecryptedParentFolderName() + "|" + ms.getReleaseYear();
+			}
+
+			int round = i % expected.length;
+			if (i < expected.length)
+				expected[round] = result;
+			else if (i % 1000 < expected.length)
+				assertEquals(path, expected[round], result);
+		}
+		long time = SystemClock.elapsedRealtime() - start;
+
+		Log.d("FilenameParserTests", "Parsed " + count + " paths in " + time + " ms");
+
+		// A sample of the results, which don't depend on the custom tags
+		assertEquals("2 Broke Girls|2 Broke Girls", expected[0]);
+		assertTrue(expected[2], expected[2].startsWith("An Idiot Abroad|"));
+
+		// Only meant to catch severe regressions, i.e. patterns being compiled for every path
+		assertTrue("Parsing " + count + " paths took " + time + " ms", time < 60 * MizLib.SECOND);
+	}
+}
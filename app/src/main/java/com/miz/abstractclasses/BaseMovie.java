@@ -35,12 +35,19 @@ public abstract class BaseMovie implements Comparable<BaseMovie> {
 	protected String mTitle, mTmdbId;
 
 	public BaseMovie(Context context, String title, String tmdbId) {
+		this(context, title, tmdbId, null);
+	}
+
+	/**
+	 * @param filepaths Filepaths of the movie, or null to look them up
+	 */
+	public BaseMovie(Context context, String title, String tmdbId, List<String> filepaths) {
 		// Set up movie fields based on constructor
 		mContext = context;
 		mTitle = title;
 		mTmdbId = tmdbId;
 
-        List<String> paths = MizuuApplication.getMovieFilepaths(mTmdbId);
+        List<String> paths = filepaths != null ? filepaths : MizuuApplication.getMovieFilepaths(mTmdbId);
         if (paths != null)
             setFilepaths(paths);
         else
@@ -21,13 +21,16 @@ import android.text.TextUtils;
 
 import com.miz.functions.Filepath;
 import com.miz.functions.MizLib;
+import com.miz.loader.FilterableMovie;
+import com.miz.loader.SortableMovie;
 import com.miz.mizuu.R;
 import com.miz.utils.FileUtils;
 
 import java.io.File;
+import java.util.List;
 
 
-public abstract class MediumBaseMovie extends BaseMovie {
+public abstract class MediumBaseMovie extends BaseMovie implements SortableMovie, FilterableMovie {
 
 	protected String TO_WATCH, COLLECTION, COLLECTION_ID, RATING, FAVOURITE, HAS_WATCHED, RELEASEDATE, DATE_ADDED, GENRES, CAST, CERTIFICATION, RUNTIME;
 	protected String mGetReleaseYear, mWeightedCompatibility, mDateAdded, mRuntime, mReleaseDate;
@@ -35,7 +38,14 @@ public abstract class MediumBaseMovie extends BaseMovie {
 	public MediumBaseMovie(Context context, String title, String tmdbId, String rating, String releasedate,
 			String genres, String favourite, String cast, String collection, String collectionId, String toWatch, String hasWatched,
 			String date_added, String certification, String runtime) {
-		super(context, title, tmdbId);
+		this(context, title, tmdbId, rating, releasedate, genres, favourite, cast, collection, collectionId,
+				toWatch, hasWatched, date_added, certification, runtime, null);
+	}
+
+	public MediumBaseMovie(Context context, String title, String tmdbId, String rating, String releasedate,
+			String genres, String favourite, String cast, String collection, String collectionId, String toWatch, String hasWatched,
+			String date_added, String certification, String runtime, List<String> filepaths) {
+		super(context, title, tmdbId, filepaths);
 		
 		RATING = rating;
 		RELEASEDATE = releasedate;
@@ -51,23 +61,7 @@ public abstract class MediumBaseMovie extends BaseMovie {
 		RUNTIME = runtime.replace("min", "").trim();
 		
 		// getReleaseYear()
-		if (!TextUtils.isEmpty(RELEASEDATE)) {
-			String YEAR = RELEASEDATE.trim();
-			try {
-				if (YEAR.substring(4,5).equals("-") && YEAR.substring(7,8).equals("-")) {
-					mGetReleaseYear = YEAR.substring(0,4);
-				} else {
-					mGetReleaseYear = mContext.getString(R.string.unknownYear);
-				}
-			} catch (Exception e) {
-				if (YEAR.length() == 4)
-					mGetReleaseYear = YEAR;
-				else
-					mGetReleaseYear = mContext.getString(R.string.unknownYear);
-			}
-		} else {
-			mGetReleaseYear = mContext.getString(R.string.unknownYear);
-		}
+		mGetReleaseYear = getReleaseYear(mContext, RELEASEDATE);
 		
 		// Weighted compatibility
 		mWeightedCompatibility = (int) (getWeightedRating() * 10) + "% " + mContext.getString(R.string.compatibility);
@@ -114,11 +108,15 @@ public abstract class MediumBaseMovie extends BaseMovie {
 	}
 	
 	public double getWeightedRating() {
-		if (isFavourite())
-			return (10 + getRawRating()) / 2;
-		if (hasWatched())
-			return (6 + getRawRating()) / 2;
-		return (getRawRating() + 5) / 2;
+		return getWeightedRating(getRawRating(), isFavourite(), hasWatched());
+	}
+
+	public static double getWeightedRating(double rating, boolean favourite, boolean watched) {
+		if (favourite)
+			return (10 + rating) / 2;
+		if (watched)
+			return (6 + rating) / 2;
+		return (rating + 5) / 2;
 	}
 	
 	public String getWeightedCompatibility() {
@@ -162,6 +160,25 @@ public abstract class MediumBaseMovie extends BaseMovie {
 	public String getReleaseYear() {
 		return mGetReleaseYear;
 	}
+
+	/**
+	 * Gets the year of a release date, i.e. "2014" for "2014-05-21".
+	 * @return The year, or the string for an unknown year
+	 */
+	public static String getReleaseYear(Context context, String releaseDate) {
+		if (!TextUtils.isEmpty(releaseDate)) {
+			String YEAR = releaseDate.trim();
+			try {
+				if (YEAR.substring(4,5).equals("-") && YEAR.substring(7,8).equals("-"))
+					return YEAR.substring(0,4);
+			} catch (Exception e) {
+				if (YEAR.length() == 4)
+					return YEAR;
+			}
+		}
+
+		return context.getString(R.string.unknownYear);
+	}
 	
 	public String getDateAdded() {
 		if (TextUtils.isEmpty(DATE_ADDED) || !MizLib.isNumber(DATE_ADDED))
@@ -196,7 +213,7 @@ public abstract class MediumBaseMovie extends BaseMovie {
 	}
 	
 	public boolean hasOfflineCopy(Filepath path) {
-		return getOfflineCopyFile(path).exists();
+		return FileUtils.hasOfflineCopy(mContext, path);
 	}
 	
 	public String getOfflineCopyUri(Filepath path) {
@@ -8,6 +8,7 @@ import com.miz.abstractclasses.MovieApiService;
 import com.miz.db.DbAdapterMovies;
 import com.miz.functions.Actor;
 import com.miz.functions.CompleteActor;
+import com.miz.functions.ImageProfile;
 import com.miz.functions.MizLib;
 import com.miz.functions.WebMovie;
 
@@ -80,7 +81,7 @@ public class TMDbMovieService extends MovieApiService {
 			JSONArray array = jObject.getJSONArray("movie_results");
 
 			String baseUrl = MizLib.getTmdbImageBaseUrl(mContext);
-			String imageSizeUrl = MizLib.getImageUrlSize(mContext);
+			String imageSizeUrl = ImageProfile.get(mContext).getCoverUrlSize();
 
 			for (int i = 0; i < array.length(); i++) {
 				Movie movie = new Movie();
@@ -109,135 +110,124 @@ public class TMDbMovieService extends MovieApiService {
 		try {
 			// Get the base URL from the preferences
 			String baseUrl = MizLib.getTmdbImageBaseUrl(mContext);
+			ImageProfile imageProfile = ImageProfile.get(mContext);
 
 			JSONObject jObject = null;
 			if (TextUtils.isEmpty(json))
-				jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "?api_key=" + mTmdbApiKey + (language.equals("en") ? "" : "&language=" + language) + "&append_to_response=releases,trailers,credits,images");
+				jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "?api_key=" + mTmdbApiKey + TMDbTranslations.getParameters(language, "releases,trailers,credits,images"));
 			else
 				jObject = new JSONObject(json);
 
-			movie.setTitle(MizLib.getStringFromJSONObject(jObject, "title", ""));
+			readMovie(movie, jObject, language, baseUrl, imageProfile.getCoverUrlSize(), imageProfile.getBackdropUrlSize());
 
-			movie.setPlot(MizLib.getStringFromJSONObject(jObject, "overview", ""));
-
-			movie.setImdbId(MizLib.getStringFromJSONObject(jObject, "imdb_id", ""));
+		} catch (Exception e) {
+			// If something goes wrong here, i.e. API error, we won't get any details
+			// about the movie - in other words, it's unidentified
+			movie.setId(DbAdapterMovies.UNIDENTIFIED_ID);
+		}
 
-			movie.setRating(MizLib.getStringFromJSONObject(jObject, "vote_average", "0.0"));
+		return movie;
+	}
 
-			movie.setTagline(MizLib.getStringFromJSONObject(jObject, "tagline", ""));
+	/**
+	 * Reads the details of a movie from a TMDb movie response with releases,
+	 * trailers, credits and images appended, without making any requests.
+	 * @param coverSize Cover size part of the image URL, i.e. "w342"
+	 * @param backdropSize Backdrop size part of the image URL, i.e. "w1280"
+	 */
+	public static void readMovie(Movie movie, JSONObject jObject, String language, String baseUrl, String coverSize, String backdropSize) {
+		movie.setTitle(MizLib.getStringFromJSONObject(jObject, "title", ""));
 
-			movie.setReleasedate(MizLib.getStringFromJSONObject(jObject, "release_date", ""));
+		movie.setPlot(MizLib.getStringFromJSONObject(jObject, "overview", ""));
 
-			movie.setRuntime(MizLib.getStringFromJSONObject(jObject, "runtime", "0"));
+		movie.setImdbId(MizLib.getStringFromJSONObject(jObject, "imdb_id", ""));
 
-			if (!language.equals("en")) { // This is a localized search - let's fill in the blanks
-				JSONObject englishResults = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "?api_key=" + mTmdbApiKey + "&language=en&append_to_response=releases");
+		movie.setRating(MizLib.getStringFromJSONObject(jObject, "vote_average", "0.0"));
 
-				if (TextUtils.isEmpty(movie.getTitle()))
-					movie.setTitle(MizLib.getStringFromJSONObject(englishResults, "title", ""));
+		movie.setTagline(MizLib.getStringFromJSONObject(jObject, "tagline", ""));
 
-				if (TextUtils.isEmpty(movie.getPlot()))
-					movie.setPlot(MizLib.getStringFromJSONObject(englishResults, "overview", ""));
+		movie.setReleasedate(MizLib.getStringFromJSONObject(jObject, "release_date", ""));
 
-				if (TextUtils.isEmpty(movie.getTagline()))
-					movie.setTagline(MizLib.getStringFromJSONObject(englishResults, "tagline", ""));
+		movie.setRuntime(MizLib.getStringFromJSONObject(jObject, "runtime", "0"));
 
-				if (TextUtils.isEmpty(movie.getRating()))
-					movie.setRating(MizLib.getStringFromJSONObject(englishResults, "vote_average", "0.0"));
+		if (!language.equals("en")) { // This is a localized request - let's fill in the blanks
+			JSONObject english = TMDbTranslations.get(jObject, "en");
 
-				if (TextUtils.isEmpty(movie.getReleasedate()))
-					movie.setReleasedate(MizLib.getStringFromJSONObject(englishResults, "release_date", ""));
+			if (TextUtils.isEmpty(movie.getTitle()))
+				movie.setTitle(MizLib.getStringFromJSONObject(english, "title", ""));
 
-				if (movie.getRuntime().equals("0"))
-					movie.setRuntime(MizLib.getStringFromJSONObject(englishResults, "runtime", "0"));
-			}
+			if (TextUtils.isEmpty(movie.getPlot()))
+				movie.setPlot(MizLib.getStringFromJSONObject(english, "overview", ""));
 
-			try {
-				movie.setCover(baseUrl + MizLib.getImageUrlSize(mContext) + jObject.getString("poster_path"));
-			} catch (Exception e) {}
+			if (TextUtils.isEmpty(movie.getTagline()))
+				movie.setTagline(MizLib.getStringFromJSONObject(english, "tagline", ""));
+		}
 
-			try {
-				movie.setCollectionTitle(jObject.getJSONObject("belongs_to_collection").getString("name"));
-				movie.setCollectionId(jObject.getJSONObject("belongs_to_collection").getString("id"));
-			} catch (Exception e) {}
+		try {
+			movie.setCover(baseUrl + coverSize + jObject.getString("poster_path"));
+		} catch (Exception e) {}
 
-			if (!TextUtils.isEmpty(movie.getCollectionId()) && json == null) {
-				JSONObject collection = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/collection/" + movie.getCollectionId() + "/images?api_key=" + mTmdbApiKey);
-				JSONArray array = collection.getJSONArray("posters");
-				if (array.length() > 0)
-					movie.setCollectionImage(baseUrl + MizLib.getImageUrlSize(mContext) + array.getJSONObject(0).getString("file_path"));
-			}
+		try {
+			JSONObject collection = jObject.getJSONObject("belongs_to_collection");
+			movie.setCollectionTitle(collection.getString("name"));
+			movie.setCollectionId(collection.getString("id"));
 
-			try {
-				String genres = "";
-				for (int i = 0; i < jObject.getJSONArray("genres").length(); i++)
-					genres = genres + jObject.getJSONArray("genres").getJSONObject(i).getString("name") + ", ";
-				movie.setGenres(genres.substring(0, genres.length() - 2));
-			} catch (Exception e) {}
+			String collectionPoster = MizLib.getStringFromJSONObject(collection, "poster_path", "");
+			if (!TextUtils.isEmpty(collectionPoster))
+				movie.setCollectionImage(baseUrl + coverSize + collectionPoster);
+		} catch (Exception e) {}
 
-			try {
-				if (jObject.getJSONObject("trailers").getJSONArray("youtube").length() > 0) {
-
-					// Go through all YouTube links and looks for trailers
-					JSONArray youtube = jObject.getJSONObject("trailers").getJSONArray("youtube");
-					for (int i = 0; i < youtube.length(); i++) {
-						if (youtube.getJSONObject(i).getString("type").equals("Trailer")) {
-							movie.setTrailer("http://www.youtube.com/watch?v=" + youtube.getJSONObject(i).getString("source"));
-							break;
-						}
-					}
+		try {
+			String genres = "";
+			for (int i = 0; i < jObject.getJSONArray("genres").length(); i++)
+				genres = genres + jObject.getJSONArray("genres").getJSONObject(i).getString("name") + ", ";
+			movie.setGenres(genres.substring(0, genres.length() - 2));
+		} catch (Exception e) {}
 
-					// If no trailer was set, use whatever YouTube link is available (featurette, interviews, etc.)
-					if (TextUtils.isEmpty(movie.getTrailer())) {
-						movie.setTrailer("http://www.youtube.com/watch?v=" + jObject.getJSONObject("trailers").getJSONArray("youtube").getJSONObject(0).getString("source"));
+		try {
+			if (jObject.getJSONObject("trailers").getJSONArray("youtube").length() > 0) {
+
+				// Go through all YouTube links and looks for trailers
+				JSONArray youtube = jObject.getJSONObject("trailers").getJSONArray("youtube");
+				for (int i = 0; i < youtube.length(); i++) {
+					if (youtube.getJSONObject(i).getString("type").equals("Trailer")) {
+						movie.setTrailer("http://www.youtube.com/watch?v=" + youtube.getJSONObject(i).getString("source"));
+						break;
 					}
 				}
-			} catch (Exception e) {}
 
-			try {
-				for (int i = 0; i < jObject.getJSONObject("releases").getJSONArray("countries").length(); i++) {
-					JSONObject jo = jObject.getJSONObject("releases").getJSONArray("countries").getJSONObject(i);
-					if (jo.getString("iso_3166_1").equalsIgnoreCase("us") || jo.getString("iso_3166_1").equalsIgnoreCase(language))
-						movie.setCertification(jo.getString("certification"));
+				// If no trailer was set, use whatever YouTube link is available (featurette, interviews, etc.)
+				if (TextUtils.isEmpty(movie.getTrailer())) {
+					movie.setTrailer("http://www.youtube.com/watch?v=" + jObject.getJSONObject("trailers").getJSONArray("youtube").getJSONObject(0).getString("source"));
 				}
-			} catch (Exception e) {}
+			}
+		} catch (Exception e) {}
 
-			try {
-				StringBuilder cast = new StringBuilder();
+		try {
+			for (int i = 0; i < jObject.getJSONObject("releases").getJSONArray("countries").length(); i++) {
+				JSONObject jo = jObject.getJSONObject("releases").getJSONArray("countries").getJSONObject(i);
+				if (jo.getString("iso_3166_1").equalsIgnoreCase("us") || jo.getString("iso_3166_1").equalsIgnoreCase(language))
+					movie.setCertification(jo.getString("certification"));
+			}
+		} catch (Exception e) {}
 
-				JSONArray array = jObject.getJSONObject("credits").getJSONArray("cast");
-				for (int i = 0; i < array.length(); i++) {
-					cast.append(array.getJSONObject(i).getString("name"));
-					cast.append("|");
-				}
+		try {
+			StringBuilder cast = new StringBuilder();
 
-				movie.setCast(cast.toString());
-			} catch (Exception e) {}
+			JSONArray array = jObject.getJSONObject("credits").getJSONArray("cast");
+			for (int i = 0; i < array.length(); i++) {
+				cast.append(array.getJSONObject(i).getString("name"));
+				cast.append("|");
+			}
 
-			try {
-				JSONArray array = jObject.getJSONObject("images").getJSONArray("backdrops");
-
-				if (array.length() > 0) {
-					movie.setBackdrop(baseUrl + MizLib.getBackdropUrlSize(mContext) + array.getJSONObject(0).getString("file_path"));
-				} else { // Try with English set as the language, if no results are returned (usually caused by a server-side cache error)
-					try {
-						jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "/images?api_key=" + mTmdbApiKey);
-
-						JSONArray array2 = jObject.getJSONArray("backdrops");
-						if (array2.length() > 0) {
-							movie.setBackdrop(baseUrl + MizLib.getBackdropUrlSize(mContext) + array2.getJSONObject(0).getString("file_path"));
-						}
-					} catch (Exception e) {}
-				}
-			} catch (Exception e) {}
+			movie.setCast(cast.toString());
+		} catch (Exception e) {}
 
-		} catch (Exception e) {
-			// If something goes wrong here, i.e. API error, we won't get any details
-			// about the movie - in other words, it's unidentified
-			movie.setId(DbAdapterMovies.UNIDENTIFIED_ID);
-		}
-
-		return movie;
+		try {
+			JSONArray array = jObject.getJSONObject("images").getJSONArray("backdrops");
+			if (array.length() > 0)
+				movie.setBackdrop(baseUrl + backdropSize + array.getJSONObject(0).getString("file_path"));
+		} catch (Exception e) {}
 	}
 
 	@Override
@@ -255,82 +245,11 @@ public class TMDbMovieService extends MovieApiService {
 		try {
 			// Get the base URL from the preferences
 			String baseUrl = MizLib.getTmdbImageBaseUrl(mContext);
+			ImageProfile imageProfile = ImageProfile.get(mContext);
 
-			JSONObject jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "?api_key=" + mTmdbApiKey + (language.equals("en") ? "" : "&language=" + language) + "&append_to_response=releases,trailers,credits,images,similar_movies");
-
-			movie.setTitle(MizLib.getStringFromJSONObject(jObject, "title", ""));
-
-			movie.setPlot(MizLib.getStringFromJSONObject(jObject, "overview", ""));
-
-			movie.setImdbId(MizLib.getStringFromJSONObject(jObject, "imdb_id", ""));
-
-			movie.setRating(MizLib.getStringFromJSONObject(jObject, "vote_average", "0.0"));
-
-			movie.setTagline(MizLib.getStringFromJSONObject(jObject, "tagline", ""));
+			JSONObject jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "?api_key=" + mTmdbApiKey + TMDbTranslations.getParameters(language, "releases,trailers,credits,images,similar_movies"));
 
-			movie.setReleasedate(MizLib.getStringFromJSONObject(jObject, "release_date", ""));
-
-			movie.setRuntime(MizLib.getStringFromJSONObject(jObject, "runtime", "0"));
-
-			if (!language.equals("en")) { // This is a localized search - let's fill in the blanks
-				JSONObject englishResults = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "?api_key=" + mTmdbApiKey + "&language=en&append_to_response=releases");
-
-				if (TextUtils.isEmpty(movie.getTitle()))
-					movie.setTitle(MizLib.getStringFromJSONObject(englishResults, "title", ""));
-
-				if (TextUtils.isEmpty(movie.getPlot()))
-					movie.setPlot(MizLib.getStringFromJSONObject(englishResults, "overview", ""));
-
-				if (TextUtils.isEmpty(movie.getTagline()))
-					movie.setTagline(MizLib.getStringFromJSONObject(englishResults, "tagline", ""));
-
-				if (TextUtils.isEmpty(movie.getRating()))
-					movie.setRating(MizLib.getStringFromJSONObject(englishResults, "vote_average", "0.0"));
-
-				if (TextUtils.isEmpty(movie.getReleasedate()))
-					movie.setReleasedate(MizLib.getStringFromJSONObject(englishResults, "release_date", ""));
-
-				if (movie.getRuntime().equals("0"))
-					movie.setRuntime(MizLib.getStringFromJSONObject(englishResults, "runtime", "0"));
-			}
-
-			try {
-				movie.setCover(baseUrl + MizLib.getImageUrlSize(mContext) + jObject.getString("poster_path"));
-			} catch (Exception e) {}
-
-			try {
-				String genres = "";
-				for (int i = 0; i < jObject.getJSONArray("genres").length(); i++)
-					genres = genres + jObject.getJSONArray("genres").getJSONObject(i).getString("name") + ", ";
-				movie.setGenres(genres.substring(0, genres.length() - 2));
-			} catch (Exception e) {}
-
-			try {
-				if (jObject.getJSONObject("trailers").getJSONArray("youtube").length() > 0) {
-
-					// Go through all YouTube links and looks for trailers
-					JSONArray youtube = jObject.getJSONObject("trailers").getJSONArray("youtube");
-					for (int i = 0; i < youtube.length(); i++) {
-						if (youtube.getJSONObject(i).getString("type").equals("Trailer")) {
-							movie.setTrailer("http://www.youtube.com/watch?v=" + youtube.getJSONObject(i).getString("source"));
-							break;
-						}
-					}
-
-					// If no trailer was set, use whatever YouTube link is available (featurette, interviews, etc.)
-					if (TextUtils.isEmpty(movie.getTrailer())) {
-						movie.setTrailer("http://www.youtube.com/watch?v=" + jObject.getJSONObject("trailers").getJSONArray("youtube").getJSONObject(0).getString("source"));
-					}
-				}
-			} catch (Exception e) {}
-
-			try {
-				for (int i = 0; i < jObject.getJSONObject("releases").getJSONArray("countries").length(); i++) {
-					JSONObject jo = jObject.getJSONObject("releases").getJSONArray("countries").getJSONObject(i);
-					if (jo.getString("iso_3166_1").equalsIgnoreCase("us") || jo.getString("iso_3166_1").equalsIgnoreCase(language))
-						movie.setCertification(jo.getString("certification"));
-				}
-			} catch (Exception e) {}
+			readMovie(movie, jObject, language, baseUrl, imageProfile.getCoverUrlSize(), imageProfile.getBackdropUrlSize());
 
 			try {
 				ArrayList<Actor> actors = new ArrayList<Actor>();
@@ -346,7 +265,7 @@ public class TMDbMovieService extends MovieApiService {
 								array.getJSONObject(i).getString("name"),
 								array.getJSONObject(i).getString("character"),
 								array.getJSONObject(i).getString("id"),
-								baseUrl + MizLib.getActorUrlSize(mContext) + array.getJSONObject(i).getString("profile_path")));
+								baseUrl + imageProfile.getActorUrlSize() + array.getJSONObject(i).getString("profile_path")));
 					}
 				}
 
@@ -362,7 +281,7 @@ public class TMDbMovieService extends MovieApiService {
 						similarMovies.add(new WebMovie(mContext,
 								jArray.getJSONObject(i).getString("original_title"),
 								jArray.getJSONObject(i).getString("id"),
-								baseUrl + MizLib.getImageUrlSize(mContext) + jArray.getJSONObject(i).getString("poster_path"),
+								baseUrl + imageProfile.getCoverUrlSize() + jArray.getJSONObject(i).getString("poster_path"),
 								jArray.getJSONObject(i).getString("release_date")));
 					}
 				}
@@ -370,23 +289,6 @@ public class TMDbMovieService extends MovieApiService {
 				movie.setSimilarMovies(similarMovies);
 			} catch (Exception ignored) {}
 
-			try {
-				JSONArray array = jObject.getJSONObject("images").getJSONArray("backdrops");
-
-				if (array.length() > 0) {
-					movie.setBackdrop(baseUrl + MizLib.getBackdropUrlSize(mContext) + array.getJSONObject(0).getString("file_path"));
-				} else { // Try with English set as the language, if no results are returned (usually caused by a server-side cache error)
-					try {
-						jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "/images?api_key=" + mTmdbApiKey);
-
-						JSONArray array2 = jObject.getJSONArray("backdrops");
-						if (array2.length() > 0) {
-							movie.setBackdrop(baseUrl + MizLib.getBackdropUrlSize(mContext) + array2.getJSONObject(0).getString("file_path"));
-						}
-					} catch (Exception e) {}
-				}
-			} catch (Exception e) {}
-
 		} catch (Exception e) {
 			// If something goes wrong here, i.e. API error, we won't get any details
 			// about the movie - in other words, it's unidentified
@@ -405,7 +307,7 @@ public class TMDbMovieService extends MovieApiService {
 			JSONObject jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "/images" + "?api_key=" + mTmdbApiKey);
 			JSONArray jArray = jObject.getJSONArray("posters");
 			for (int i = 0; i < jArray.length(); i++) {
-				covers.add(baseUrl + MizLib.getImageUrlSize(mContext) + MizLib.getStringFromJSONObject(jArray.getJSONObject(i), "file_path", ""));
+				covers.add(baseUrl + ImageProfile.get(mContext).getCoverUrlSize() + MizLib.getStringFromJSONObject(jArray.getJSONObject(i), "file_path", ""));
 			}
 		} catch (JSONException e) {}
 
@@ -421,7 +323,7 @@ public class TMDbMovieService extends MovieApiService {
 			JSONObject jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/movie/" + id + "/images" + "?api_key=" + mTmdbApiKey);
 			JSONArray jArray = jObject.getJSONArray("backdrops");
 			for (int i = 0; i < jArray.length(); i++) {
-				covers.add(baseUrl + MizLib.getBackdropThumbUrlSize(mContext) + MizLib.getStringFromJSONObject(jArray.getJSONObject(i), "file_path", ""));
+				covers.add(baseUrl + ImageProfile.get(mContext).getBackdropThumbUrlSize() + MizLib.getStringFromJSONObject(jArray.getJSONObject(i), "file_path", ""));
 			}
 		} catch (JSONException e) {}
 
@@ -436,7 +338,7 @@ public class TMDbMovieService extends MovieApiService {
 			JSONArray array = jObject.getJSONArray("results");
 
 			String baseUrl = MizLib.getTmdbImageBaseUrl(mContext);
-			String imageSizeUrl = MizLib.getImageUrlSize(mContext);
+			String imageSizeUrl = ImageProfile.get(mContext).getCoverUrlSize();
 
 			for (int i = 0; i < array.length(); i++) {
 				Movie movie = new Movie();
@@ -487,7 +389,7 @@ public class TMDbMovieService extends MovieApiService {
 							jArray.getJSONObject(i).getString("name"),
 							jArray.getJSONObject(i).getString("character"),
 							jArray.getJSONObject(i).getString("id"),
-							baseUrl + MizLib.getActorUrlSize(mContext) + jArray.getJSONObject(i).getString("profile_path")));
+							baseUrl + ImageProfile.get(mContext).getActorUrlSize() + jArray.getJSONObject(i).getString("profile_path")));
 				}
 			}
 		} catch (Exception ignored) {}
@@ -510,7 +412,7 @@ public class TMDbMovieService extends MovieApiService {
 					results.add(new WebMovie(mContext,
 							jArray.getJSONObject(i).getString("original_title"),
 							jArray.getJSONObject(i).getString("id"),
-							baseUrl + MizLib.getImageUrlSize(mContext) + jArray.getJSONObject(i).getString("poster_path"),
+							baseUrl + ImageProfile.get(mContext).getCoverUrlSize() + jArray.getJSONObject(i).getString("poster_path"),
 							jArray.getJSONObject(i).getString("release_date")));
 				}
 			}
@@ -539,7 +441,7 @@ public class TMDbMovieService extends MovieApiService {
 
         String profilePhotoThumb = MizLib.getStringFromJSONObject(json, "profile_path", "");
         if (!TextUtils.isEmpty(profilePhoto))
-            profilePhotoThumb = baseUrl + MizLib.getActorUrlSize(mContext) + profilePhoto;
+            profilePhotoThumb = baseUrl + ImageProfile.get(mContext).getActorUrlSize() + profilePhoto;
         actor.setProfilePhotoThumb(profilePhotoThumb);
 
 		// Set up movies
@@ -561,7 +463,7 @@ public class TMDbMovieService extends MovieApiService {
 				WebMovie movie = new WebMovie(mContext,
 						MizLib.getStringFromJSONObject(thisObject, "title", ""),
 						String.valueOf(thisObject.getInt("id")),
-						baseUrl + MizLib.getImageUrlSize(mContext) + MizLib.getStringFromJSONObject(thisObject, "poster_path", ""),
+						baseUrl + ImageProfile.get(mContext).getCoverUrlSize() + MizLib.getStringFromJSONObject(thisObject, "poster_path", ""),
 						MizLib.getStringFromJSONObject(thisObject, "release_date", ""));
 
 				movies.add(movie);
@@ -589,7 +491,7 @@ public class TMDbMovieService extends MovieApiService {
 				WebMovie show = new WebMovie(mContext,
 						MizLib.getStringFromJSONObject(thisObject, "name", ""),
 						String.valueOf(thisObject.getInt("id")),
-						baseUrl + MizLib.getImageUrlSize(mContext) + MizLib.getStringFromJSONObject(thisObject, "poster_path", ""),
+						baseUrl + ImageProfile.get(mContext).getCoverUrlSize() + MizLib.getStringFromJSONObject(thisObject, "poster_path", ""),
 						MizLib.getStringFromJSONObject(thisObject, "first_air_date", ""));
 
 				shows.add(show);
@@ -611,7 +513,7 @@ public class TMDbMovieService extends MovieApiService {
 		try {
 			JSONArray photoArray = json.getJSONObject("images").getJSONArray("profiles");
 			for (int i = 0; i < photoArray.length(); i++) {
-				photos.add(baseUrl + MizLib.getImageUrlSize(mContext) + photoArray.getJSONObject(i).getString("file_path"));
+				photos.add(baseUrl + ImageProfile.get(mContext).getCoverUrlSize() + photoArray.getJSONObject(i).getString("file_path"));
 			}
 		} catch (JSONException ignored) {} finally {
 			actor.setPhotos(photos);
@@ -622,7 +524,7 @@ public class TMDbMovieService extends MovieApiService {
 			JSONArray photoArray = json.getJSONObject("tagged_images").getJSONArray("results");
 			for (int i = 0; i < photoArray.length(); i++) {
 				if (photoArray.getJSONObject(i).getString("image_type").equals("backdrop"))
-					taggedPhotos.add(baseUrl + MizLib.getBackdropThumbUrlSize(mContext) + photoArray.getJSONObject(i).getString("file_path"));
+					taggedPhotos.add(baseUrl + ImageProfile.get(mContext).getBackdropThumbUrlSize() + photoArray.getJSONObject(i).getString("file_path"));
 			}
 		} catch (JSONException ignored) {} finally {
 			actor.setTaggedPhotos(taggedPhotos);
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.apis.tmdb;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Helps getting localized details from TMDb in a single request. The
+ * translations are appended to the response, so blank fields can be
+ * filled in from the English translation without requesting the
+ * details again in English.
+ */
+final class TMDbTranslations {
+
+	private TMDbTranslations() {} // No instantiation
+
+	/**
+	 * Builds the language and append_to_response parameters of a details request.
+	 * Images are always requested in English and without a language as well, since
+	 * most backdrops don't have any text. Localized requests also get the translations
+	 * and images in the language.
+	 * @param language Two-letter ISO 639-1 language code
+	 * @param appendToResponse Comma separated list of what to append, i.e. "credits,images"
+	 */
+	static String getParameters(String language, String appendToResponse) {
+		if (language.equals("en"))
+			return "&include_image_language=en,null&append_to_response=" + appendToResponse;
+
+		return "&language=" + language + "&include_image_language=" + language + ",en,null" +
+				"&append_to_response=" + appendToResponse + ",translations";
+	}
+
+	/**
+	 * Gets the translated fields in a language from a response with translations appended.
+	 * @param language Two-letter ISO 639-1 language code
+	 * @return The translated fields, or an empty {@link JSONObject} if there's no translation
+	 */
+	static JSONObject get(JSONObject jObject, String language) {
+		try {
+			JSONArray array = jObject.getJSONObject("translations").getJSONArray("translations");
+			for (int i = 0; i < array.length(); i++) {
+				JSONObject translation = array.getJSONObject(i);
+				if (language.equals(translation.optString("iso_639_1")) && translation.optJSONObject("data") != null)
+					return translation.getJSONObject("data");
+			}
+		} catch (JSONException e) {}
+
+		return new JSONObject();
+	}
+}
@@ -8,6 +8,7 @@ import com.miz.apis.thetvdb.Episode;
 import com.miz.apis.thetvdb.Season;
 import com.miz.apis.thetvdb.TvShow;
 import com.miz.functions.Actor;
+import com.miz.functions.ImageProfile;
 import com.miz.functions.MizLib;
 
 import org.json.JSONArray;
@@ -76,7 +77,7 @@ public class TMDbTvShowService extends TvShowApiService {
 			JSONArray array = jObject.getJSONArray("tv_results");
 
 			String baseUrl = MizLib.getTmdbImageBaseUrl(mContext);
-			String imageSizeUrl = MizLib.getImageUrlSize(mContext);
+			String imageSizeUrl = ImageProfile.get(mContext).getCoverUrlSize();
 
 			for (int i = 0; i < array.length(); i++) {
 				TvShow show = new TvShow();
@@ -103,7 +104,7 @@ public class TMDbTvShowService extends TvShowApiService {
 
 		String baseUrl = MizLib.getTmdbImageBaseUrl(mContext);
 
-		JSONObject jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/tv/" + id + "?api_key=" + mTmdbApiKey + "&language=" + language + "&append_to_response=credits,images,external_ids");
+		JSONObject jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/tv/" + id + "?api_key=" + mTmdbApiKey + TMDbTranslations.getParameters(language, "credits,images,external_ids"));
 
 		// Set title
 		show.setTitle(MizLib.getStringFromJSONObject(jObject, "name", ""));
@@ -111,14 +112,14 @@ public class TMDbTvShowService extends TvShowApiService {
 		// Set description
 		show.setDescription(MizLib.getStringFromJSONObject(jObject, "overview", ""));
 
-		if (!language.equals("en")) { // This is a localized search - let's fill in the blanks
-			JSONObject englishResults = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/tv/" + id + "?api_key=" + mTmdbApiKey + "&language=en");
+		if (!language.equals("en")) { // This is a localized request - let's fill in the blanks
+			JSONObject english = TMDbTranslations.get(jObject, "en");
 
 			if (TextUtils.isEmpty(show.getTitle()))
-				show.setTitle(MizLib.getStringFromJSONObject(englishResults, "name", ""));
+				show.setTitle(MizLib.getStringFromJSONObject(english, "name", ""));
 
 			if (TextUtils.isEmpty(show.getDescription()))
-				show.setDescription(MizLib.getStringFromJSONObject(englishResults, "overview", ""));
+				show.setDescription(MizLib.getStringFromJSONObject(english, "overview", ""));
 		}
 
 		// Set actors
@@ -146,10 +147,10 @@ public class TMDbTvShowService extends TvShowApiService {
 		show.setRating(MizLib.getStringFromJSONObject(jObject, "vote_average", "0.0"));
 
 		// Set cover path
-		show.setCoverUrl(baseUrl + MizLib.getImageUrlSize(mContext) + MizLib.getStringFromJSONObject(jObject, "poster_path", ""));
+		show.setCoverUrl(baseUrl + ImageProfile.get(mContext).getCoverUrlSize() + MizLib.getStringFromJSONObject(jObject, "poster_path", ""));
 
 		// Set backdrop path
-		show.setBackdropUrl(baseUrl + MizLib.getBackdropUrlSize(mContext) + MizLib.getStringFromJSONObject(jObject, "backdrop_path", ""));
+		show.setBackdropUrl(baseUrl + ImageProfile.get(mContext).getBackdropUrlSize() + MizLib.getStringFromJSONObject(jObject, "backdrop_path", ""));
 
 		// Set certification - not available with TMDb
 		show.setCertification("");
@@ -175,7 +176,7 @@ public class TMDbTvShowService extends TvShowApiService {
 				Season s = new Season();
 
 				s.setSeason(seasons.getJSONObject(i).getInt("season_number"));
-				s.setCoverPath(baseUrl + MizLib.getImageUrlSize(mContext) + MizLib.getStringFromJSONObject(seasons.getJSONObject(i), "poster_path", ""));
+				s.setCoverPath(baseUrl + ImageProfile.get(mContext).getCoverUrlSize() + MizLib.getStringFromJSONObject(seasons.getJSONObject(i), "poster_path", ""));
 
 				show.addSeason(s);
 			}
@@ -209,7 +210,7 @@ public class TMDbTvShowService extends TvShowApiService {
 							if (width < 500) {
 								ep.setScreenshotUrl(baseUrl + "original" + MizLib.getStringFromJSONObject(firstImage, "file_path", ""));
 							} else {
-								ep.setScreenshotUrl(baseUrl + MizLib.getBackdropThumbUrlSize(mContext) + MizLib.getStringFromJSONObject(firstImage, "file_path", ""));
+								ep.setScreenshotUrl(baseUrl + ImageProfile.get(mContext).getBackdropThumbUrlSize() + MizLib.getStringFromJSONObject(firstImage, "file_path", ""));
 							}
 						}
 
@@ -264,7 +265,7 @@ public class TMDbTvShowService extends TvShowApiService {
 			JSONArray array = jObject.getJSONArray("results");
 
 			String baseUrl = MizLib.getTmdbImageBaseUrl(mContext);
-			String imageSizeUrl = MizLib.getImageUrlSize(mContext);
+			String imageSizeUrl = ImageProfile.get(mContext).getCoverUrlSize();
 
 			for (int i = 0; i < array.length(); i++) {
 				TvShow show = new TvShow();
@@ -291,7 +292,7 @@ public class TMDbTvShowService extends TvShowApiService {
 			JSONObject jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/tv/" + id + "/images" + "?api_key=" + mTmdbApiKey);
 			JSONArray jArray = jObject.getJSONArray("posters");
 			for (int i = 0; i < jArray.length(); i++) {
-				covers.add(baseUrl + MizLib.getImageUrlSize(mContext) + MizLib.getStringFromJSONObject(jArray.getJSONObject(i), "file_path", ""));
+				covers.add(baseUrl + ImageProfile.get(mContext).getCoverUrlSize() + MizLib.getStringFromJSONObject(jArray.getJSONObject(i), "file_path", ""));
 			}
 		} catch (JSONException e) {}
 
@@ -307,7 +308,7 @@ public class TMDbTvShowService extends TvShowApiService {
 			JSONObject jObject = MizLib.getJSONObject(mContext, "https://api.themoviedb.org/3/tv/" + id + "/images" + "?api_key=" + mTmdbApiKey);
 			JSONArray jArray = jObject.getJSONArray("backdrops");
 			for (int i = 0; i < jArray.length(); i++) {
-				covers.add(baseUrl + MizLib.getBackdropThumbUrlSize(mContext) + MizLib.getStringFromJSONObject(jArray.getJSONObject(i), "file_path", ""));
+				covers.add(baseUrl + ImageProfile.get(mContext).getBackdropThumbUrlSize() + MizLib.getStringFromJSONObject(jArray.getJSONObject(i), "file_path", ""));
 			}
 		} catch (JSONException e) {}
 
@@ -360,7 +361,7 @@ public class TMDbTvShowService extends TvShowApiService {
 							jArray.getJSONObject(i).getString("name"),
 							jArray.getJSONObject(i).getString("character"),
 							jArray.getJSONObject(i).getString("id"),
-							baseUrl + MizLib.getActorUrlSize(mContext) + jArray.getJSONObject(i).getString("profile_path")));
+							baseUrl + ImageProfile.get(mContext).getActorUrlSize() + jArray.getJSONObject(i).getString("profile_path")));
 				}
 			}
 		} catch (Exception ignored) {}
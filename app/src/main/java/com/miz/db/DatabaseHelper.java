@@ -21,7 +21,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 	protected static final String TAG = "Mizuu";
 
 	public static final String DATABASE_NAME = "mizuu_data";
-	protected static final int DATABASE_VERSION = 5;
+	protected static final int DATABASE_VERSION = 7;
 
 	/**
 	 * Create movie table SQL statement
@@ -46,6 +46,13 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 	private static final String DATABASE_CREATE_MOVIE_COLLECTIONS = "create table " + DbAdapterCollections.DATABASE_TABLE +
 			" (" + DbAdapterCollections.KEY_COLLECTION_ID + " TEXT PRIMARY KEY, " + DbAdapterCollections.KEY_COLLECTION + " TEXT);";
 
+	/**
+	 * Create collection cache table SQL statement
+	 */
+	private static final String DATABASE_CREATE_COLLECTION_CACHE = "create table if not exists " + DbAdapterCollectionCache.DATABASE_TABLE + " (" +
+			DbAdapterCollectionCache.KEY_COLLECTION_ID + " TEXT PRIMARY KEY, " + DbAdapterCollectionCache.KEY_NAME + " TEXT, " +
+			DbAdapterCollectionCache.KEY_POSTER_URL + " TEXT, " + DbAdapterCollectionCache.KEY_POSTER_DOWNLOADED + " INTEGER);";
+
 	/**
 	 * Create TV show table SQL statements
 	 */
@@ -76,6 +83,13 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 	private static final String DATABASE_CREATE_FILESOURCES = "create table sources (_id INTEGER PRIMARY KEY AUTOINCREMENT, filepath TEXT," +
 			"type TEXT, is_smb INTEGER, user TEXT, password TEXT, domain TEXT);";
 
+	/**
+	 * Create palettes table SQL statement
+	 */
+	private static final String DATABASE_CREATE_PALETTES = "create table if not exists " + DbAdapterPalettes.DATABASE_TABLE + " (" +
+			DbAdapterPalettes.KEY_IMAGE + " TEXT PRIMARY KEY, " + DbAdapterPalettes.KEY_DARK_VIBRANT + " INTEGER, " +
+			DbAdapterPalettes.KEY_DARK_MUTED + " INTEGER, " + DbAdapterPalettes.KEY_VIBRANT + " INTEGER);";
+
 	private static DatabaseHelper mInstance;
 
 	private DatabaseHelper(Context context) {
@@ -100,6 +114,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
 		// Movie collections
 		database.execSQL(DATABASE_CREATE_MOVIE_COLLECTIONS);
+		database.execSQL(DATABASE_CREATE_COLLECTION_CACHE);
 
 		// TV show table and index
 		database.execSQL(DATABASE_CREATE_TV_SHOWS);
@@ -114,6 +129,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
 		// File source table
 		database.execSQL(DATABASE_CREATE_FILESOURCES);
+
+		// Palette table
+		database.execSQL(DATABASE_CREATE_PALETTES);
 	}
 
 	@Override
@@ -130,10 +148,17 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
 			// Move file sources database to mizuu_data database
 			moveFileSourcesDb(MizuuApplication.getContext(), database);
-		} else {
+		} else if (oldVersion < 4) {
 			database.execSQL("DROP TABLE IF EXISTS movie");
 			onCreate(database);
+			return;
 		}
+
+		if (oldVersion < 6) // Palettes were added in version 6
+			database.execSQL(DATABASE_CREATE_PALETTES);
+
+		if (oldVersion < 7) // The collection cache was added in version 7
+			database.execSQL(DATABASE_CREATE_COLLECTION_CACHE);
 	}
 
 	private void upgradeMovieTable(SQLiteDatabase database) {
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.db;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+
+/**
+ * Stores the name and poster of every collection seen during identification,
+ * and whether the poster has been downloaded. Unlike the collections table,
+ * entries aren't removed with the movies, so the poster of a collection is
+ * only downloaded once, even if the library is cleared and updated again.
+ */
+public class DbAdapterCollectionCache extends AbstractDbAdapter {
+
+	public static final String KEY_COLLECTION_ID = "collection_id";
+	public static final String KEY_NAME = "name";
+	public static final String KEY_POSTER_URL = "poster_url";
+	public static final String KEY_POSTER_DOWNLOADED = "poster_downloaded";
+
+	public static final String DATABASE_TABLE = "collection_cache";
+
+	public static final String[] ALL_COLUMNS = new String[]{KEY_COLLECTION_ID, KEY_NAME, KEY_POSTER_URL, KEY_POSTER_DOWNLOADED};
+
+	public DbAdapterCollectionCache(Context context) {
+		super(context);
+	}
+
+	/**
+	 * Saves the name and poster of a collection. The download state is kept
+	 * if the poster is the same as before, and reset if it has changed.
+	 */
+	public long createOrUpdateCollection(String collectionId, String name, String posterUrl) {
+		boolean downloaded = isPosterDownloaded(collectionId, posterUrl);
+
+		ContentValues values = new ContentValues();
+		values.put(KEY_COLLECTION_ID, collectionId);
+		values.put(KEY_NAME, name);
+		values.put(KEY_POSTER_URL, posterUrl);
+		values.put(KEY_POSTER_DOWNLOADED, downloaded ? 1 : 0);
+
+		return mDatabase.insertWithOnConflict(DATABASE_TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+	}
+
+	/**
+	 * Gets the poster URL of a collection.
+	 * @return Poster URL, or an empty String if the collection isn't cached
+	 */
+	public String getPosterUrl(String collectionId) {
+		Cursor cursor = mDatabase.query(DATABASE_TABLE, ALL_COLUMNS, KEY_COLLECTION_ID + " = ?", new String[]{collectionId}, null, null, null);
+		String posterUrl = "";
+
+		if (cursor != null) {
+			try {
+				if (cursor.moveToFirst())
+					posterUrl = cursor.getString(cursor.getColumnIndex(KEY_POSTER_URL));
+			} catch (Exception e) {
+			} finally {
+				cursor.close();
+			}
+		}
+
+		return posterUrl != null ? posterUrl : "";
+	}
+
+	/**
+	 * Checks if the given poster of a collection has been downloaded.
+	 */
+	public boolean isPosterDownloaded(String collectionId, String posterUrl) {
+		if (TextUtils.isEmpty(posterUrl))
+			return false;
+
+		Cursor cursor = mDatabase.query(DATABASE_TABLE, ALL_COLUMNS, KEY_COLLECTION_ID + " = ? AND " + KEY_POSTER_URL + " = ? AND " +
+				KEY_POSTER_DOWNLOADED + " = 1", new String[]{collectionId, posterUrl}, null, null, null);
+		boolean downloaded = false;
+
+		if (cursor != null) {
+			try {
+				downloaded = cursor.getCount() > 0;
+			} catch (Exception e) {
+			} finally {
+				cursor.close();
+			}
+		}
+
+		return downloaded;
+	}
+
+	public boolean setPosterDownloaded(String collectionId) {
+		ContentValues values = new ContentValues();
+		values.put(KEY_POSTER_DOWNLOADED, 1);
+
+		return mDatabase.update(DATABASE_TABLE, values, KEY_COLLECTION_ID + " = ?", new String[]{collectionId}) > 0;
+	}
+
+	public boolean deleteAllCollections() {
+		return mDatabase.delete(DATABASE_TABLE, null, null) > 0;
+	}
+}
@@ -22,6 +22,7 @@ import android.database.Cursor;
 import android.text.TextUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 public class DbAdapterMovieMappings extends AbstractDbAdapter {
 
@@ -57,6 +58,30 @@ public class DbAdapterMovieMappings extends AbstractDbAdapter {
 		return mDatabase.query(DATABASE_TABLE, ALL_COLUMNS, includeRemoved ? null : "NOT(" + KEY_IGNORED + " = '1')", null, null, null, null);
 	}
 
+	/**
+	 * Gets the filepaths of the movies with the given IDs, except the removed ones.
+	 * @param tmdbIds Movie IDs. SQLite limits the number of arguments, so keep this below 999.
+	 */
+	public Cursor getFilepaths(Collection<String> tmdbIds) {
+		StringBuilder where = new StringBuilder(KEY_TMDB_ID).append(" IN (");
+		for (int i = 0; i < tmdbIds.size(); i++)
+			where.append(i == 0 ? "?" : ",?");
+		where.append(") AND NOT(").append(KEY_IGNORED).append(" = '1')");
+
+		return mDatabase.query(DATABASE_TABLE, ALL_COLUMNS, where.toString(), tmdbIds.toArray(new String[tmdbIds.size()]), null, null, null);
+	}
+
+	/**
+	 * Gets the filepaths of the movies that match a selection on the movie table.
+	 * @param movieSelection Selection, or null for every identified movie
+	 */
+	public Cursor getFilepathsInSelection(String movieSelection) {
+		String where = KEY_TMDB_ID + " IN (SELECT " + DbAdapterMovies.KEY_TMDB_ID + " FROM " + DbAdapterMovies.DATABASE_TABLE +
+				(movieSelection == null ? "" : " WHERE " + movieSelection) + ") AND NOT(" + KEY_IGNORED + " = '1')";
+
+		return mDatabase.query(DATABASE_TABLE, new String[]{KEY_FILEPATH}, where, null, null, null, null);
+	}
+
 	public Cursor getAllUnidentifiedFilepaths() {
 		return mDatabase.query(DATABASE_TABLE, ALL_COLUMNS, "NOT(" + KEY_IGNORED + " = '1') AND " + KEY_TMDB_ID + "='" + DbAdapterMovies.UNIDENTIFIED_ID + "'", null, null, null, null);
 	}
@@ -19,6 +19,7 @@ package com.miz.db;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteException;
 import android.text.TextUtils;
@@ -26,6 +27,7 @@ import android.text.TextUtils;
 import com.miz.mizuu.MizuuApplication;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 public class DbAdapterMovies extends AbstractDbAdapter {
 
@@ -55,6 +57,13 @@ public class DbAdapterMovies extends AbstractDbAdapter {
     public static final String[] SELECT_ALL = new String[] {KEY_TMDB_ID, KEY_TITLE, KEY_PLOT, KEY_IMDB_ID, KEY_RATING, KEY_TAGLINE, KEY_RELEASEDATE, KEY_CERTIFICATION,
             KEY_RUNTIME, KEY_TRAILER, KEY_GENRES, KEY_FAVOURITE, KEY_ACTORS, KEY_COLLECTION_ID, KEY_TO_WATCH, KEY_HAS_WATCHED, KEY_DATE_ADDED};
 
+    // Selections for the library sections
+    public static final String SELECTION_FAVORITES = KEY_FAVOURITE + " = 1";
+    public static final String SELECTION_NEW_RELEASES = KEY_RELEASEDATE + " >= date('now', '-9 months')";
+    public static final String SELECTION_WATCHED = KEY_HAS_WATCHED + " = 1";
+    public static final String SELECTION_UNWATCHED = KEY_HAS_WATCHED + " = 0";
+    public static final String SELECTION_WATCHLIST = KEY_TO_WATCH + " = 1";
+
     public DbAdapterMovies(Context context) {
         super(context);
     }
@@ -178,24 +187,50 @@ public class DbAdapterMovies extends AbstractDbAdapter {
     }
 
     public Cursor getFavorites() {
-        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, KEY_FAVOURITE + " = 1", null, null, null, KEY_TITLE + " ASC");
+        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, SELECTION_FAVORITES, null, null, null, KEY_TITLE + " ASC");
     }
 
     public Cursor getNewReleases() {
-        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, KEY_RELEASEDATE +
-                " >= date('now', '-9 months')", null, null, null, KEY_RELEASEDATE + " DESC");
+        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, SELECTION_NEW_RELEASES, null, null, null, KEY_RELEASEDATE + " DESC");
     }
 
     public Cursor getWatched() {
-        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, KEY_HAS_WATCHED + " = 1", null, null, null, KEY_TITLE + " ASC");
+        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, SELECTION_WATCHED, null, null, null, KEY_TITLE + " ASC");
     }
 
     public Cursor getUnwatched() {
-        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, KEY_HAS_WATCHED + " = 0", null, null, null, KEY_TITLE + " ASC");
+        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, SELECTION_UNWATCHED, null, null, null, KEY_TITLE + " ASC");
     }
 
     public Cursor getWatchlist() {
-        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, KEY_TO_WATCH + " = 1", null, null, null, KEY_TITLE + " ASC");
+        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, SELECTION_WATCHLIST, null, null, null, KEY_TITLE + " ASC");
+    }
+
+    /**
+     * Gets the ID and the fields used for sorting of every movie that
+     * matches a selection. Used to build the index of paged libraries.
+     * @param selection One of the <code>SELECTION_</code> constants, or null for all movies
+     */
+    public Cursor getMovieIndex(String selection) {
+        return mDatabase.query(DATABASE_TABLE, new String[]{KEY_TMDB_ID, KEY_TITLE, KEY_RATING, KEY_RELEASEDATE, KEY_FAVOURITE,
+                KEY_HAS_WATCHED, KEY_DATE_ADDED, KEY_RUNTIME}, selection, null, null, null, KEY_TITLE + " ASC");
+    }
+
+    /**
+     * Gets the movies with the given IDs that match a selection.
+     * @param selection One of the <code>SELECTION_</code> constants, or null for all movies
+     * @param tmdbIds Movie IDs. SQLite limits the number of arguments, so keep this below 999.
+     */
+    public Cursor getMovies(String selection, Collection<String> tmdbIds) {
+        StringBuilder where = new StringBuilder(KEY_TMDB_ID).append(" IN (");
+        for (int i = 0; i < tmdbIds.size(); i++)
+            where.append(i == 0 ? "?" : ",?");
+        where.append(")");
+
+        if (selection != null)
+            where.append(" AND (").append(selection).append(")");
+
+        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, where.toString(), tmdbIds.toArray(new String[tmdbIds.size()]), null, null, null);
     }
 
     public Cursor fetchMovie(String movieId) throws SQLException {
@@ -272,6 +307,23 @@ public class DbAdapterMovies extends AbstractDbAdapter {
         return count;
     }
 
+    /**
+     * Counts the movies that match a selection.
+     * @param selection One of the <code>SELECTION_</code> constants, or null for all movies
+     */
+    public long count(String selection) {
+        return DatabaseUtils.queryNumEntries(mDatabase, DATABASE_TABLE, selection);
+    }
+
+    /**
+     * Counts the movies with each distinct value of a column, i.e. for the library filters.
+     * @param selection Movies to count, or null for all of them
+     * @return Cursor with the value and the number of movies
+     */
+    public Cursor countValues(String column, String selection) {
+        return mDatabase.query(DATABASE_TABLE, new String[]{column, "COUNT(*)"}, selection, null, column, null, null);
+    }
+
     public int countWatchlist() {
         Cursor c = mDatabase.query(DATABASE_TABLE, new String[] {KEY_TO_WATCH}, KEY_TO_WATCH + " = '1'", null, null, null, null);
         int count = c.getCount();
@@ -279,6 +331,26 @@ public class DbAdapterMovies extends AbstractDbAdapter {
         return count;
     }
 
+    /**
+     * Gets the IDs of all identified movies.
+     */
+    public ArrayList<String> getMovieIds() {
+        ArrayList<String> ids = new ArrayList<String>();
+        Cursor cursor = mDatabase.query(DATABASE_TABLE, new String[]{KEY_TMDB_ID}, "NOT(" + KEY_TMDB_ID + " = '" + UNIDENTIFIED_ID + "')", null, null, null, null);
+
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext())
+                    ids.add(cursor.getString(0));
+            } catch (Exception e) {
+            } finally {
+                cursor.close();
+            }
+        }
+
+        return ids;
+    }
+
     public ArrayList<String> getCertifications() {
         ArrayList<String> certifications = new ArrayList<String>();
         Cursor cursor = mDatabase.query(DATABASE_TABLE, new String[]{KEY_CERTIFICATION}, null, null, KEY_CERTIFICATION, null, null);
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.db;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Stores the swatch colors extracted from images, so palettes
+ * don't have to be generated again after the app is restarted.
+ */
+public class DbAdapterPalettes extends AbstractDbAdapter {
+
+	public static final String KEY_IMAGE = "image";
+	public static final String KEY_DARK_VIBRANT = "dark_vibrant";
+	public static final String KEY_DARK_MUTED = "dark_muted";
+	public static final String KEY_VIBRANT = "vibrant";
+
+	public static final String DATABASE_TABLE = "palettes";
+
+	public static final String[] ALL_COLUMNS = new String[]{KEY_IMAGE, KEY_DARK_VIBRANT, KEY_DARK_MUTED, KEY_VIBRANT};
+
+	public DbAdapterPalettes(Context context) {
+		super(context);
+	}
+
+	/**
+	 * Saves the swatch colors of an image. Missing swatches are stored as 0.
+	 * @param image Image key
+	 * @param colors Dark vibrant, dark muted and vibrant swatch colors
+	 */
+	public long createOrUpdatePalette(String image, int[] colors) {
+		ContentValues values = new ContentValues();
+		values.put(KEY_IMAGE, image);
+		values.put(KEY_DARK_VIBRANT, colors[0]);
+		values.put(KEY_DARK_MUTED, colors[1]);
+		values.put(KEY_VIBRANT, colors[2]);
+
+		return mDatabase.insertWithOnConflict(DATABASE_TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+	}
+
+	/**
+	 * Gets the swatch colors of an image.
+	 * @param image Image key
+	 * @return Dark vibrant, dark muted and vibrant swatch colors, or null if there's no palette for the image
+	 */
+	public int[] getPalette(String image) {
+		Cursor cursor = mDatabase.query(DATABASE_TABLE, ALL_COLUMNS, KEY_IMAGE + " = ?", new String[]{image}, null, null, null);
+		int[] colors = null;
+
+		if (cursor != null) {
+			try {
+				if (cursor.moveToFirst()) {
+					colors = new int[]{
+							cursor.getInt(cursor.getColumnIndex(KEY_DARK_VIBRANT)),
+							cursor.getInt(cursor.getColumnIndex(KEY_DARK_MUTED)),
+							cursor.getInt(cursor.getColumnIndex(KEY_VIBRANT))
+					};
+				}
+			} catch (Exception e) {
+			} finally {
+				cursor.close();
+			}
+		}
+
+		return colors;
+	}
+
+	public boolean deletePalette(String image) {
+		return mDatabase.delete(DATABASE_TABLE, KEY_IMAGE + " = ?", new String[]{image}) > 0;
+	}
+
+	public boolean deleteAllPalettes() {
+		return mDatabase.delete(DATABASE_TABLE, null, null) > 0;
+	}
+}
@@ -23,6 +23,7 @@ import android.database.SQLException;
 import android.text.TextUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 public class DbAdapterTvShows extends AbstractDbAdapter {
 
@@ -44,6 +45,10 @@ public class DbAdapterTvShows extends AbstractDbAdapter {
 		KEY_SHOW_GENRES, KEY_SHOW_RATING, KEY_SHOW_RATING, KEY_SHOW_CERTIFICATION, KEY_SHOW_RUNTIME,
 		KEY_SHOW_FIRST_AIRDATE, KEY_SHOW_FAVOURITE};
 
+	// Selections for the library sections
+	public static final String SELECTION_ALL = "NOT(" + KEY_SHOW_ID + " = '" + UNIDENTIFIED_ID + "')";
+	public static final String SELECTION_FAVORITES = KEY_SHOW_FAVOURITE + " = '1' AND " + SELECTION_ALL;
+
 	public DbAdapterTvShows(Context context) {
 		super(context);
 	}
@@ -149,13 +154,27 @@ public class DbAdapterTvShows extends AbstractDbAdapter {
 	}
 
 	public Cursor getAllShows() {
-		return mDatabase.query(DATABASE_TABLE, SELECT_ALL, "NOT(" + KEY_SHOW_ID + " = '" + UNIDENTIFIED_ID + "')", null, null, null, KEY_SHOW_TITLE + " ASC");
+		return mDatabase.query(DATABASE_TABLE, SELECT_ALL, SELECTION_ALL, null, null, null, KEY_SHOW_TITLE + " ASC");
 	}
 
     public Cursor getAllFavorites() {
-        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, KEY_SHOW_FAVOURITE + " = '1' AND NOT(" + KEY_SHOW_ID + " = '" + UNIDENTIFIED_ID + "')", null, null, null, KEY_SHOW_TITLE + " ASC");
+        return mDatabase.query(DATABASE_TABLE, SELECT_ALL, SELECTION_FAVORITES, null, null, null, KEY_SHOW_TITLE + " ASC");
     }
 
+	/**
+	 * Gets the shows with the given IDs that match a selection.
+	 * @param selection One of the <code>SELECTION_</code> constants
+	 * @param showIds Show IDs. SQLite limits the number of arguments, so keep this below 999.
+	 */
+	public Cursor getShows(String selection, Collection<String> showIds) {
+		StringBuilder where = new StringBuilder(KEY_SHOW_ID).append(" IN (");
+		for (int i = 0; i < showIds.size(); i++)
+			where.append(i == 0 ? "?" : ",?");
+		where.append(") AND (").append(selection).append(")");
+
+		return mDatabase.query(DATABASE_TABLE, SELECT_ALL, where.toString(), showIds.toArray(new String[showIds.size()]), null, null, null);
+	}
+
 	public boolean deleteShow(String showId) {
 		return mDatabase.delete(DATABASE_TABLE, KEY_SHOW_ID + "= '" + showId + "'", null) > 0;
 	}
@@ -188,6 +207,26 @@ public class DbAdapterTvShows extends AbstractDbAdapter {
 		return values;
 	}
 
+	/**
+	 * Gets the IDs of all identified shows.
+	 */
+	public ArrayList<String> getShowIds() {
+		ArrayList<String> ids = new ArrayList<String>();
+		Cursor cursor = mDatabase.query(DATABASE_TABLE, new String[]{KEY_SHOW_ID}, "NOT(" + KEY_SHOW_ID + " = '" + UNIDENTIFIED_ID + "')", null, KEY_SHOW_ID, null, null);
+
+		if (cursor != null) {
+			try {
+				while (cursor.moveToNext())
+					ids.add(cursor.getString(0));
+			} catch (Exception e) {
+			} finally {
+				cursor.close();
+			}
+		}
+
+		return ids;
+	}
+
 	public ArrayList<String> getCertifications() {
 		ArrayList<String> certifications = new ArrayList<String>();
 		Cursor cursor = mDatabase.query(DATABASE_TABLE, new String[]{KEY_SHOW_CERTIFICATION}, null, null, KEY_SHOW_CERTIFICATION, null, null);
@@ -27,7 +27,9 @@ import com.miz.functions.ColumnIndexCache;
 import com.miz.functions.DbEpisode;
 import com.miz.functions.FileSource;
 import com.miz.functions.MizLib;
+import com.miz.functions.PaletteLoader;
 import com.miz.mizuu.MizuuApplication;
+import com.miz.utils.TvShowDatabaseUtils;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -103,13 +105,13 @@ public class FileTvShow extends TvShowFileSource<File> {
                 DbAdapterTvShows dbShow = MizuuApplication.getTvDbAdapter();
                 boolean deleted = dbShow.deleteShow(removedEpisodes.get(i).getShowId());
 
-                if (deleted) {
-                    MizLib.deleteFile(new File(removedEpisodes.get(i).getThumbnail()));
-                    MizLib.deleteFile(new File(removedEpisodes.get(i).getBackdrop()));
-                }
+                if (deleted)
+                    TvShowDatabaseUtils.deleteShowImages(getContext(), removedEpisodes.get(i).getShowId());
             }
 
-            MizLib.deleteFile(new File(removedEpisodes.get(i).getEpisodeCoverPath()));
+            File photo = new File(removedEpisodes.get(i).getEpisodeCoverPath());
+            MizLib.deleteFile(photo);
+            PaletteLoader.delete(photo);
         }
 
         // Clean up
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.filesources;
+
+import com.miz.functions.FileSource;
+import com.miz.functions.FileSourceRegistry;
+import com.miz.functions.MizLib;
+import com.miz.functions.SmbLogin;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jcifs.smb.SmbFile;
+
+/**
+ * Checks which of many network files still exist, with as few requests as
+ * possible. SMB files are grouped by folder, and each folder is listed once.
+ * UPnP servers can't list a folder by its path, so each server is probed once
+ * and its files are then checked a few at a time. Files on a source that
+ * can't be reached are left out of the result, so they're never mistaken
+ * for files that have been removed.
+ */
+final class NetworkFileChecker {
+
+	static final int EXISTS = 0, MISSING = 1, NO_SOURCE = 2;
+
+	private static final int PROBE_TIMEOUT = 3000; // ms
+	private static final int UPNP_THREADS = 4;
+
+	private NetworkFileChecker() {} // No instantiation
+
+	/**
+	 * Checks a number of SMB files against the listings of their folders.
+	 * @param type {@link MizLib#TYPE_MOVIE} or {@link MizLib#TYPE_SHOWS}, for the sources of the files
+	 * @param filepaths Paths of the files without login details
+	 * @return {@link #EXISTS} or {@link #MISSING} for each file on a reachable source,
+	 * and {@link #NO_SOURCE} for files that don't belong to any source
+	 */
+	static Map<String, Integer> checkSmbFiles(int type, Collection<String> filepaths) {
+		Map<String, Integer> result = new HashMap<String, Integer>();
+
+		// Group the files by folder, keeping the source of each folder
+		Map<String, List<String>> folders = new LinkedHashMap<String, List<String>>();
+		Map<String, FileSource> folderSources = new HashMap<String, FileSource>();
+
+		for (String filepath : filepaths) {
+			FileSource source = FileSourceRegistry.findSource(type, filepath);
+			if (source == null) {
+				result.put(filepath, NO_SOURCE);
+				continue;
+			}
+
+			String folder = filepath.substring(0, filepath.lastIndexOf("/") + 1);
+			List<String> files = folders.get(folder);
+			if (files == null) {
+				files = new ArrayList<String>();
+				folders.put(folder, files);
+				folderSources.put(folder, source);
+			}
+			files.add(filepath);
+		}
+
+		Map<FileSource, Boolean> reachable = new HashMap<FileSource, Boolean>();
+
+		for (Map.Entry<String, List<String>> entry : folders.entrySet()) {
+			String folder = entry.getKey();
+			FileSource source = folderSources.get(folder);
+			SmbLogin login = MizLib.getLoginFromFilesource(source);
+
+			String[] list = MizLib.getSmbFolderListing(folder, login);
+			if (list == null) {
+				// The folder has been removed if the source itself can still be reached
+				Boolean sourceReachable = reachable.get(source);
+				if (sourceReachable == null) {
+					sourceReachable = exists(source.getFilepath(), login);
+					reachable.put(source, sourceReachable);
+				}
+
+				if (sourceReachable)
+					for (String filepath : entry.getValue())
+						result.put(filepath, MISSING);
+				continue;
+			}
+
+			Set<String> names = new HashSet<String>(Arrays.asList(list));
+			for (String filepath : entry.getValue())
+				result.put(filepath, names.contains(filepath.substring(folder.length())) ? EXISTS : MISSING);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Checks a number of UPnP files. Each server is probed once, and
+	 * the files on reachable servers are checked in parallel.
+	 * @return {@link #EXISTS} or {@link #MISSING} for each file on a reachable server
+	 */
+	static Map<String, Integer> checkUpnpFiles(Collection<String> filepaths) {
+		final Map<String, Integer> result = new ConcurrentHashMap<String, Integer>();
+		Map<String, Boolean> reachable = new HashMap<String, Boolean>();
+		List<String> toCheck = new ArrayList<String>();
+
+		for (String filepath : filepaths) {
+			try {
+				URL url = new URL(filepath);
+				String server = url.getHost() + ":" + (url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+
+				Boolean serverReachable = reachable.get(server);
+				if (serverReachable == null) {
+					serverReachable = canConnect(url.getHost(), url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+					reachable.put(server, serverReachable);
+				}
+
+				if (serverReachable)
+					toCheck.add(filepath);
+			} catch (Exception e) {
+				result.put(filepath, MISSING);
+			}
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(UPNP_THREADS);
+		for (final String filepath : toCheck)
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					result.put(filepath, MizLib.exists(filepath) ? EXISTS : MISSING);
+				}
+			});
+
+		executor.shutdown();
+		try {
+			executor.awaitTermination(10, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+
+		return new HashMap<String, Integer>(result);
+	}
+
+	private static boolean exists(String filepath, SmbLogin login) {
+		try {
+			return new SmbFile(MizLib.createSmbLoginString(
+					login.getDomain(),
+					login.getUsername(),
+					login.getPassword(),
+					filepath,
+					true)).exists();
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	private static boolean canConnect(String host, int port) {
+		Socket socket = new Socket();
+		try {
+			socket.connect(new InetSocketAddress(host, port), PROBE_TIMEOUT);
+			return true;
+		} catch (Exception e) {
+			return false;
+		} finally {
+			try {
+				socket.close();
+			} catch (Exception ignored) {}
+		}
+	}
+}
@@ -30,9 +30,12 @@ import com.miz.utils.MovieDatabaseUtils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 
 import jcifs.smb.SmbException;
@@ -49,92 +52,59 @@ public class SmbMovie extends MovieFileSource<SmbFile> {
 
 	@Override
 	public void removeUnidentifiedFiles() {
-		List<DbMovie> dbMovies = getDbMovies();
-
-		ArrayList<FileSource> filesources = MizLib.getFileSources(MizLib.TYPE_MOVIE, true);
-
-		FileSource source;
-		SmbFile temp;
-		int count = dbMovies.size();
-		if (MizLib.isWifiConnected(getContext())) {
-			for (int i = 0; i < count; i++) {
-				if (dbMovies.get(i).isNetworkFile()) {
-					try {
-						source = null;
-
-						for (int j = 0; j < filesources.size(); j++)
-							if (dbMovies.get(i).getFilepath().contains(filesources.get(j).getFilepath())) {
-								source = filesources.get(j);
-								break;
-							}
-
-						if (source == null) {
-							if (dbMovies.get(i).isUnidentified())
-								MovieDatabaseUtils.deleteMovie(mContext, dbMovies.get(i).getTmdbId());
-							continue;
-						}
-
-						temp = new SmbFile(
-								MizLib.createSmbLoginString(
-										source.getDomain(),
-										source.getUser(),
-										source.getPassword(),
-										dbMovies.get(i).getFilepath(),
-										false
-								));
-
-						if (temp.exists() && dbMovies.get(i).isUnidentified())
-							MovieDatabaseUtils.deleteMovie(mContext, dbMovies.get(i).getTmdbId());
-					} catch (Exception e) {}  // Do nothing - the file isn't available (either MalformedURLException or SmbException)
-				}
-			}
+		if (!MizLib.isWifiConnected(getContext()))
+			return;
+
+		List<DbMovie> dbMovies = new ArrayList<DbMovie>();
+		for (DbMovie movie : getDbMovies())
+			if (movie.isNetworkFile() && movie.isUnidentified())
+				dbMovies.add(movie);
+
+		Map<String, Integer> files = checkFiles(dbMovies);
+
+		// Unidentified files that are still there are removed, so we can try to identify them again
+		Set<String> tmdbIds = new HashSet<String>();
+		for (DbMovie movie : dbMovies) {
+			Integer state = files.get(movie.getFilepath());
+			if (state != null && state != NetworkFileChecker.MISSING)
+				tmdbIds.add(movie.getTmdbId());
 		}
+
+		MovieDatabaseUtils.deleteMovies(mContext, tmdbIds);
 	}
 
 	@Override
 	public void removeUnavailableFiles() {
-		List<DbMovie> dbMovies = getDbMovies();
-		ArrayList<FileSource> filesources = MizLib.getFileSources(MizLib.TYPE_MOVIE, true);
-
-		FileSource source;
-		SmbFile temp;
-		int count = dbMovies.size();
-		if (MizLib.isWifiConnected(getContext())) {
-			for (int i = 0; i < count; i++) {
-				if (dbMovies.get(i).isNetworkFile() && !dbMovies.get(i).hasOfflineCopy()) {
-					try {
-						source = null;
-
-						for (int j = 0; j < filesources.size(); j++)
-							if (dbMovies.get(i).getFilepath().contains(filesources.get(j).getFilepath())) {
-								source = filesources.get(j);
-								break;
-							}
+		if (!MizLib.isWifiConnected(getContext()))
+			return;
 
-						if (source == null) {
-							MovieDatabaseUtils.deleteMovie(mContext, dbMovies.get(i).getTmdbId());
-							continue;
-						}
+		List<DbMovie> dbMovies = new ArrayList<DbMovie>();
+		for (DbMovie movie : getDbMovies())
+			if (movie.isNetworkFile() && !movie.hasOfflineCopy())
+				dbMovies.add(movie);
 
-						temp = new SmbFile(
-								MizLib.createSmbLoginString(
-										source.getDomain(),
-										source.getUser(),
-										source.getPassword(),
-										dbMovies.get(i).getFilepath(),
-										false
-								));
-
-						if (!temp.exists()) {
-							MovieDatabaseUtils.deleteMovie(mContext, dbMovies.get(i).getTmdbId());
-						}
-					} catch (Exception e) {}  // Do nothing - the file isn't available (either MalformedURLException or SmbException)
-				}
-			}
+		Map<String, Integer> files = checkFiles(dbMovies);
+
+		Set<String> tmdbIds = new HashSet<String>();
+		for (DbMovie movie : dbMovies) {
+			Integer state = files.get(movie.getFilepath());
+			if (state != null && state != NetworkFileChecker.EXISTS)
+				tmdbIds.add(movie.getTmdbId());
 		}
 
-		// Clean up
-		filesources.clear();
+		MovieDatabaseUtils.deleteMovies(mContext, tmdbIds);
+	}
+
+	/**
+	 * Checks the files of a number of movies, listing each folder once.
+	 * Files on a source that can't be reached are left out.
+	 */
+	private Map<String, Integer> checkFiles(List<DbMovie> dbMovies) {
+		List<String> filepaths = new ArrayList<String>(dbMovies.size());
+		for (DbMovie movie : dbMovies)
+			filepaths.add(movie.getFilepath());
+
+		return NetworkFileChecker.checkSmbFiles(MizLib.TYPE_MOVIE, filepaths);
 	}
 
 	@Override
@@ -201,6 +171,7 @@ public class SmbMovie extends MovieFileSource<SmbFile> {
 					}
 				} else {
 					String[] childs = folder.list();
+					MizuuApplication.putCifsFilesList(folder.getCanonicalPath(), childs); // Share the listing with later lookups
 					for (int i = 0; i < childs.length; i++) {
 						tempSmbFile = new SmbFile(folder.getCanonicalPath() + childs[i] + "/");
 						if (tempSmbFile.isDirectory()) {
@@ -22,18 +22,18 @@ import android.database.Cursor;
 import com.miz.abstractclasses.TvShowFileSource;
 import com.miz.db.DbAdapterTvShowEpisodeMappings;
 import com.miz.db.DbAdapterTvShowEpisodes;
-import com.miz.db.DbAdapterTvShows;
 import com.miz.functions.ColumnIndexCache;
 import com.miz.functions.DbEpisode;
 import com.miz.functions.FileSource;
 import com.miz.functions.MizLib;
 import com.miz.mizuu.MizuuApplication;
+import com.miz.utils.TvShowDatabaseUtils;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 
 import jcifs.smb.SmbException;
@@ -50,50 +50,33 @@ public class SmbTvShow extends TvShowFileSource<SmbFile> {
 
     @Override
     public void removeUnidentifiedFiles() {
-        DbAdapterTvShowEpisodes db = MizuuApplication.getTvEpisodeDbAdapter();
-        List<DbEpisode> dbEpisodes = getDbEpisodes();
-
-        ArrayList<FileSource> filesources = MizLib.getFileSources(MizLib.TYPE_SHOWS, true);
-
-        FileSource source;
-        SmbFile tempFile;
-        int count = dbEpisodes.size();
-        if (MizLib.isWifiConnected(getContext())) {
-            for (int i = 0; i < count; i++) {
-                if (dbEpisodes.get(i).isUnidentified()) {
-                    source = null;
-
-                    for (int j = 0; j < filesources.size(); j++) {
-                        if (dbEpisodes.get(i).getFilepath().contains(filesources.get(j).getFilepath())) {
-                            source = filesources.get(j);
-                            break;
-                        }
-                    }
+        if (!MizLib.isWifiConnected(getContext()))
+            return;
 
-                    if (source != null) {
-                        try {
-                            tempFile = new SmbFile(
-                                    MizLib.createSmbLoginString(
-                                            source.getDomain(),
-                                            source.getUser(),
-                                            source.getPassword(),
-                                            dbEpisodes.get(i).getFilepath(),
-                                            false
-                                    ));
-
-                            if (tempFile.exists())
-                                db.deleteEpisode(dbEpisodes.get(i).getShowId(), MizLib.getInteger(dbEpisodes.get(i).getSeason()), MizLib.getInteger(dbEpisodes.get(i).getEpisode()));
-
-                        } catch (Exception e) {}
-                    }
-                }
-            }
+        List<DbEpisode> dbEpisodes = new ArrayList<DbEpisode>();
+        for (DbEpisode episode : getDbEpisodes())
+            if (episode.isNetworkFile() && episode.isUnidentified())
+                dbEpisodes.add(episode);
+
+        Map<String, Integer> files = checkFiles(dbEpisodes);
+
+        // Unidentified files that are still there are removed, so we can try to identify them again
+        List<DbEpisode> removedEpisodes = new ArrayList<DbEpisode>();
+        for (DbEpisode episode : dbEpisodes) {
+            Integer state = files.get(episode.getFilepath());
+            if (state != null && state == NetworkFileChecker.EXISTS)
+                removedEpisodes.add(episode);
         }
+
+        TvShowDatabaseUtils.deleteEpisodes(mContext, removedEpisodes);
     }
 
     @Override
     public void removeUnavailableFiles() {
-        ArrayList<DbEpisode> dbEpisodes = new ArrayList<DbEpisode>(), removedEpisodes = new ArrayList<DbEpisode>();
+        if (!MizLib.isWifiConnected(getContext()))
+            return;
+
+        ArrayList<DbEpisode> dbEpisodes = new ArrayList<DbEpisode>();
 
         // Fetch all the episodes from the database
         DbAdapterTvShowEpisodes db = MizuuApplication.getTvEpisodeDbAdapter();
@@ -118,68 +101,34 @@ public class SmbTvShow extends TvShowFileSource<SmbFile> {
             cache.clear();
         }
 
-        ArrayList<FileSource> filesources = MizLib.getFileSources(MizLib.TYPE_SHOWS, true);
+        // Only SMB files are checked here, the other file sources check their own files
+        Iterator<DbEpisode> iterator = dbEpisodes.iterator();
+        while (iterator.hasNext())
+            if (!iterator.next().isNetworkFile())
+                iterator.remove();
 
-        SmbFile tempFile;
-        int count = dbEpisodes.size();
-        if (MizLib.isWifiConnected(getContext())) {
-            for (int i = 0; i < dbEpisodes.size(); i++) {
-                FileSource source = null;
+        Map<String, Integer> files = checkFiles(dbEpisodes);
 
-                for (int j = 0; j < filesources.size(); j++)
-                    if (dbEpisodes.get(i).getFilepath().contains(filesources.get(j).getFilepath())) {
-                        source = filesources.get(j);
-                        break;
-                    }
-
-                if (source == null) {
-                    boolean deleted = db.deleteEpisode(dbEpisodes.get(i).getShowId(), MizLib.getInteger(dbEpisodes.get(i).getSeason()), MizLib.getInteger(dbEpisodes.get(i).getEpisode()));
-                    if (deleted)
-                        removedEpisodes.add(dbEpisodes.get(i));
-                    continue;
-                }
-
-                try {
-                    tempFile = new SmbFile(
-                            MizLib.createSmbLoginString(
-                                    source.getDomain(),
-                                    source.getUser(),
-                                    source.getPassword(),
-                                    dbEpisodes.get(i).getFilepath(),
-                                    false
-                            ));
-
-                    if (!tempFile.exists()) {
-                        boolean deleted = db.deleteEpisode(dbEpisodes.get(i).getShowId(), MizLib.getInteger(dbEpisodes.get(i).getSeason()), MizLib.getInteger(dbEpisodes.get(i).getEpisode()));
-                        if (deleted)
-                            removedEpisodes.add(dbEpisodes.get(i));
-                    }
-                } catch (Exception e) {
-                    boolean deleted = db.deleteEpisode(dbEpisodes.get(i).getShowId(), MizLib.getInteger(dbEpisodes.get(i).getSeason()), MizLib.getInteger(dbEpisodes.get(i).getEpisode()));
-                    if (deleted)
-                        removedEpisodes.add(dbEpisodes.get(i));
-                }
-            }
+        List<DbEpisode> removedEpisodes = new ArrayList<DbEpisode>();
+        for (DbEpisode episode : dbEpisodes) {
+            Integer state = files.get(episode.getFilepath());
+            if (state != null && state != NetworkFileChecker.EXISTS)
+                removedEpisodes.add(episode);
         }
 
-        count = removedEpisodes.size();
-        for (int i = 0; i < count; i++) {
-            if (db.getEpisodeCount(removedEpisodes.get(i).getShowId()) == 0) { // No more episodes for this show
-                DbAdapterTvShows dbShow = MizuuApplication.getTvDbAdapter();
-                boolean deleted = dbShow.deleteShow(removedEpisodes.get(i).getShowId());
-
-                if (deleted) {
-                    MizLib.deleteFile(new File(removedEpisodes.get(i).getThumbnail()));
-                    MizLib.deleteFile(new File(removedEpisodes.get(i).getBackdrop()));
-                }
-            }
+        TvShowDatabaseUtils.deleteEpisodes(mContext, removedEpisodes);
+    }
 
-            MizLib.deleteFile(new File(removedEpisodes.get(i).getEpisodeCoverPath()));
-        }
+    /**
+     * Checks the files of a number of episodes, listing each folder once.
+     * Files on a source that can't be reached are left out.
+     */
+    private Map<String, Integer> checkFiles(List<DbEpisode> dbEpisodes) {
+        List<String> filepaths = new ArrayList<String>(dbEpisodes.size());
+        for (DbEpisode episode : dbEpisodes)
+            filepaths.add(episode.getFilepath());
 
-        // Clean up
-        dbEpisodes.clear();
-        removedEpisodes.clear();
+        return NetworkFileChecker.checkSmbFiles(MizLib.TYPE_SHOWS, filepaths);
     }
 
     @Override
@@ -216,6 +165,7 @@ public class SmbTvShow extends TvShowFileSource<SmbFile> {
         try {
             if (folder.isDirectory()) {
                 String[] childs = folder.list();
+                MizuuApplication.putCifsFilesList(folder.getCanonicalPath(), childs); // Share the listing with later lookups
                 for (int i = 0; i < childs.length; i++) {
                     tempSmbFile = new SmbFile(folder.getCanonicalPath() + childs[i] + "/");
                     if (tempSmbFile.isDirectory()) {
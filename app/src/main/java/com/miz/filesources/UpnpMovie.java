@@ -53,9 +53,12 @@ import org.teleal.cling.support.model.item.Item;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -73,25 +76,53 @@ public class UpnpMovie extends MovieFileSource<String> {
 
 	@Override
 	public void removeUnidentifiedFiles() {
-		List<DbMovie> dbMovies = getDbMovies();
-
-		int count = dbMovies.size();
-		for (int i = 0; i < count; i++) {
-			if (dbMovies.get(i).isUpnpFile() && dbMovies.get(i).isUnidentified() && MizLib.exists(dbMovies.get(i).getFilepath()))
-                MovieDatabaseUtils.deleteMovie(mContext, dbMovies.get(i).getTmdbId());
+		List<DbMovie> dbMovies = new ArrayList<DbMovie>();
+		for (DbMovie movie : getDbMovies())
+			if (movie.isUpnpFile() && movie.isUnidentified())
+				dbMovies.add(movie);
+
+		Map<String, Integer> files = checkFiles(dbMovies);
+
+		// Unidentified files that are still there are removed, so we can try to identify them again
+		Set<String> tmdbIds = new HashSet<String>();
+		for (DbMovie movie : dbMovies) {
+			Integer state = files.get(movie.getFilepath());
+			if (state != null && state == NetworkFileChecker.EXISTS)
+				tmdbIds.add(movie.getTmdbId());
 		}
+
+		MovieDatabaseUtils.deleteMovies(mContext, tmdbIds);
 	}
 
 	@Override
 	public void removeUnavailableFiles() {
-		List<DbMovie> dbMovies = getDbMovies();
-
-		int count = dbMovies.size();
-		for (int i = 0; i < count; i++) {
-			if (dbMovies.get(i).isUpnpFile() && !MizLib.exists(dbMovies.get(i).getFilepath())) {
-                MovieDatabaseUtils.deleteMovie(mContext, dbMovies.get(i).getTmdbId());
-			}
+		List<DbMovie> dbMovies = new ArrayList<DbMovie>();
+		for (DbMovie movie : getDbMovies())
+			if (movie.isUpnpFile())
+				dbMovies.add(movie);
+
+		Map<String, Integer> files = checkFiles(dbMovies);
+
+		Set<String> tmdbIds = new HashSet<String>();
+		for (DbMovie movie : dbMovies) {
+			Integer state = files.get(movie.getFilepath());
+			if (state != null && state != NetworkFileChecker.EXISTS)
+				tmdbIds.add(movie.getTmdbId());
 		}
+
+		MovieDatabaseUtils.deleteMovies(mContext, tmdbIds);
+	}
+
+	/**
+	 * Checks the files of a number of movies, probing each server once.
+	 * Files on a server that can't be reached are left out.
+	 */
+	private Map<String, Integer> checkFiles(List<DbMovie> dbMovies) {
+		List<String> filepaths = new ArrayList<String>(dbMovies.size());
+		for (DbMovie movie : dbMovies)
+			filepaths.add(movie.getFilepath());
+
+		return NetworkFileChecker.checkUpnpFiles(filepaths);
 	}
 
 	@Override
@@ -27,13 +27,13 @@ import android.text.TextUtils;
 import com.miz.abstractclasses.TvShowFileSource;
 import com.miz.db.DbAdapterTvShowEpisodeMappings;
 import com.miz.db.DbAdapterTvShowEpisodes;
-import com.miz.db.DbAdapterTvShows;
 import com.miz.functions.ColumnIndexCache;
 import com.miz.functions.DbEpisode;
 import com.miz.functions.FileSource;
 import com.miz.functions.MizLib;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.service.WireUpnpService;
+import com.miz.utils.TvShowDatabaseUtils;
 
 import org.teleal.cling.android.AndroidUpnpService;
 import org.teleal.cling.model.action.ActionInvocation;
@@ -52,11 +52,11 @@ import org.teleal.cling.support.model.SortCriterion;
 import org.teleal.cling.support.model.container.Container;
 import org.teleal.cling.support.model.item.Item;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -74,20 +74,27 @@ public class UpnpTvShow extends TvShowFileSource<String> {
 
     @Override
     public void removeUnidentifiedFiles() {
-        DbAdapterTvShowEpisodes db = MizuuApplication.getTvEpisodeDbAdapter();
-        List<DbEpisode> dbEpisodes = getDbEpisodes();
-
-        int count = dbEpisodes.size();
-        for (int i = 0; i < count; i++) {
-            if (dbEpisodes.get(i).isUpnpFile() && dbEpisodes.get(i).isUnidentified() && MizLib.exists(dbEpisodes.get(i).getFilepath())) {
-                db.deleteEpisode(dbEpisodes.get(i).getShowId(), MizLib.getInteger(dbEpisodes.get(i).getSeason()), MizLib.getInteger(dbEpisodes.get(i).getEpisode()));
-            }
+        List<DbEpisode> dbEpisodes = new ArrayList<DbEpisode>();
+        for (DbEpisode episode : getDbEpisodes())
+            if (episode.isUpnpFile() && episode.isUnidentified())
+                dbEpisodes.add(episode);
+
+        Map<String, Integer> files = checkFiles(dbEpisodes);
+
+        // Unidentified files that are still there are removed, so we can try to identify them again
+        List<DbEpisode> removedEpisodes = new ArrayList<DbEpisode>();
+        for (DbEpisode episode : dbEpisodes) {
+            Integer state = files.get(episode.getFilepath());
+            if (state != null && state == NetworkFileChecker.EXISTS)
+                removedEpisodes.add(episode);
         }
+
+        TvShowDatabaseUtils.deleteEpisodes(mContext, removedEpisodes);
     }
 
     @Override
     public void removeUnavailableFiles() {
-        ArrayList<DbEpisode> dbEpisodes = new ArrayList<DbEpisode>(), removedEpisodes = new ArrayList<DbEpisode>();
+        ArrayList<DbEpisode> dbEpisodes = new ArrayList<DbEpisode>();
 
         // Fetch all the episodes from the database
         DbAdapterTvShowEpisodes db = MizuuApplication.getTvEpisodeDbAdapter();
@@ -112,33 +119,33 @@ public class UpnpTvShow extends TvShowFileSource<String> {
             cache.clear();
         }
 
-        int count = dbEpisodes.size();
-        for (int i = 0; i < dbEpisodes.size(); i++) {
-            if (dbEpisodes.get(i).isUpnpFile() && !MizLib.exists(dbEpisodes.get(i).getFilepath())) {
-                boolean deleted = db.deleteEpisode(dbEpisodes.get(i).getShowId(), MizLib.getInteger(dbEpisodes.get(i).getSeason()), MizLib.getInteger(dbEpisodes.get(i).getEpisode()));
-                if (deleted)
-                    removedEpisodes.add(dbEpisodes.get(i));
-            }
-        }
-
-        count = removedEpisodes.size();
-        for (int i = 0; i < count; i++) {
-            if (db.getEpisodeCount(removedEpisodes.get(i).getShowId()) == 0) { // No more episodes for this show
-                DbAdapterTvShows dbShow = MizuuApplication.getTvDbAdapter();
-                boolean deleted = dbShow.deleteShow(removedEpisodes.get(i).getShowId());
+        Iterator<DbEpisode> iterator = dbEpisodes.iterator();
+        while (iterator.hasNext())
+            if (!iterator.next().isUpnpFile())
+                iterator.remove();
 
-                if (deleted) {
-                    MizLib.deleteFile(new File(removedEpisodes.get(i).getThumbnail()));
-                    MizLib.deleteFile(new File(removedEpisodes.get(i).getBackdrop()));
-                }
-            }
+        Map<String, Integer> files = checkFiles(dbEpisodes);
 
-            MizLib.deleteFile(new File(removedEpisodes.get(i).getEpisodeCoverPath()));
+        List<DbEpisode> removedEpisodes = new ArrayList<DbEpisode>();
+        for (DbEpisode episode : dbEpisodes) {
+            Integer state = files.get(episode.getFilepath());
+            if (state != null && state != NetworkFileChecker.EXISTS)
+                removedEpisodes.add(episode);
         }
 
-        // Clean up
-        dbEpisodes.clear();
-        removedEpisodes.clear();
+        TvShowDatabaseUtils.deleteEpisodes(mContext, removedEpisodes);
+    }
+
+    /**
+     * Checks the files of a number of episodes, probing each server once.
+     * Files on a server that can't be reached are left out.
+     */
+    private Map<String, Integer> checkFiles(List<DbEpisode> dbEpisodes) {
+        List<String> filepaths = new ArrayList<String>(dbEpisodes.size());
+        for (DbEpisode episode : dbEpisodes)
+            filepaths.add(episode.getFilepath());
+
+        return NetworkFileChecker.checkUpnpFiles(filepaths);
     }
 
     @Override
@@ -0,0 +1,482 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.miz.mizuu.BuildConfig;
+import com.miz.utils.LocalBroadcastUtils;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jcifs.smb.SmbFile;
+
+/**
+ * Keeps track of which network file sources are reachable, so the library
+ * filters can tell if a file is available without touching the network.
+ * The root of every SMB source and every UPnP server is probed in the
+ * background, and the names in each SMB folder are remembered from a single
+ * listing of the folder. {@link #isAvailable(Filepath)} only looks at that
+ * state, and queues a probe or a listing when it's missing or out of date.
+ * Listings are kept for every folder that has been asked about, so each
+ * folder is only listed once more every {@link #FOLDER_TIME_TO_LIVE}. When
+ * folders are listed for the first time, the libraries they belong to are
+ * told that availability has changed, so the filters can be applied again.
+ */
+public class AvailabilityMonitor {
+
+	private static final String TAG = "AvailabilityMonitor";
+
+	// Time before the reachability of a source is probed again
+	private static final long PROBE_INTERVAL = 2 * MizLib.MINUTE;
+
+	// Periodic probes stop when nobody has asked for a while
+	private static final long IDLE_TIMEOUT = 10 * MizLib.MINUTE;
+
+	// Time before the listing of a folder is considered out of date
+	private static final long FOLDER_TIME_TO_LIVE = 10 * MizLib.MINUTE;
+
+	// Longest time refresh() waits for sources to answer
+	private static final long REFRESH_TIMEOUT = 5000; // ms
+
+	// Folders listed within this time cause a single availability update
+	private static final long NOTIFY_DELAY = 2000; // ms
+
+	private static final int PROBE_TIMEOUT = 3000; // ms
+	private static final int POOL_SIZE = 3;
+
+	private static AvailabilityMonitor sInstance;
+
+	private final Context mContext;
+	private final ScheduledThreadPoolExecutor mExecutor;
+	private final ConcurrentHashMap<String, Root> mRoots = new ConcurrentHashMap<String, Root>();
+	private final ConcurrentHashMap<String, Folder> mFolders = new ConcurrentHashMap<String, Folder>();
+	private final Set<String> mPendingFolders = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private final AtomicBoolean mScheduled = new AtomicBoolean();
+	private final AtomicBoolean mNotifyScheduled = new AtomicBoolean();
+	private final AtomicBoolean mMoviesListed = new AtomicBoolean(), mShowsListed = new AtomicBoolean();
+	private volatile long mLastQuery;
+
+	private static final ThreadFactory sThreadFactory = new ThreadFactory() {
+		private final AtomicInteger mCount = new AtomicInteger(1);
+
+		public Thread newThread(final Runnable r) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+					r.run();
+				}
+			}, "AvailabilityMonitor #" + mCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+
+	/**
+	 * Reachability of an SMB source or a UPnP server.
+	 */
+	private static class Root {
+		final String path;
+		final int type;
+		volatile SmbLogin login;
+		volatile boolean reachable, movies, shows;
+		volatile long lastProbe; // 0 if it has never been probed
+		final AtomicBoolean queued = new AtomicBoolean(), probing = new AtomicBoolean();
+
+		Root(String path, int type, SmbLogin login) {
+			this.path = path;
+			this.type = type;
+			this.login = login;
+		}
+
+		boolean isStale(long now) {
+			return lastProbe == 0 || now - lastProbe > PROBE_INTERVAL;
+		}
+	}
+
+	/**
+	 * Names in a folder, from the last listing of it.
+	 */
+	private static class Folder {
+		final Set<String> names;
+		final long time;
+
+		Folder(Set<String> names, long time) {
+			this.names = names;
+			this.time = time;
+		}
+	}
+
+	private AvailabilityMonitor(Context context) {
+		mContext = context.getApplicationContext();
+		mExecutor = new ScheduledThreadPoolExecutor(POOL_SIZE, sThreadFactory);
+	}
+
+	public static synchronized AvailabilityMonitor getInstance(Context context) {
+		if (sInstance == null)
+			sInstance = new AvailabilityMonitor(context);
+		return sInstance;
+	}
+
+	/**
+	 * Reloads the network sources and probes every source that hasn't been
+	 * probed recently, waiting a few seconds at most for the results. Meant
+	 * to be called from a background thread before checking many files.
+	 */
+	public void refresh() {
+		touch();
+		loadSources();
+
+		long now = SystemClock.elapsedRealtime();
+		List<Root> stale = new ArrayList<Root>();
+		for (Root root : mRoots.values())
+			if (root.isStale(now))
+				stale.add(root);
+
+		if (stale.isEmpty())
+			return;
+
+		final CountDownLatch latch = new CountDownLatch(stale.size());
+		for (final Root root : stale)
+			mExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						probe(root);
+					} finally {
+						latch.countDown();
+					}
+				}
+			});
+
+		try {
+			latch.await(REFRESH_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Checks if a file can be played, based on what's known about its source.
+	 * Local files are checked directly. Network files are available if their
+	 * source is reachable and, for SMB files, the last listing of the folder
+	 * contains the file. Files in a folder that hasn't been listed yet aren't
+	 * available until the listing is done, at which point the library is told.
+	 */
+	public boolean isAvailable(Filepath path) {
+		if (!path.isNetworkFile())
+			return new File(path.getFilepath()).exists();
+
+		touch();
+
+		if (path.getType() == FileSource.SMB && !MizLib.isWifiConnected(mContext))
+			return false;
+
+		Root root = getRoot(path);
+		if (root == null)
+			return false;
+
+		if (root.isStale(SystemClock.elapsedRealtime()))
+			queueProbe(root);
+
+		if (!root.reachable)
+			return false;
+
+		if (root.type == FileSource.UPNP)
+			return true;
+
+		String filepath = path.getFilepath();
+		int index = filepath.lastIndexOf("/");
+		String folderPath = filepath.substring(0, index + 1);
+
+		Folder folder = mFolders.get(folderPath);
+		if (folder == null || SystemClock.elapsedRealtime() - folder.time > FOLDER_TIME_TO_LIVE) {
+			queueListing(folderPath, root, folder == null);
+			if (folder == null)
+				return false;
+		}
+
+		return folder.names.contains(filepath.substring(index + 1));
+	}
+
+	/**
+	 * Forgets the reachability of every source and all folder listings,
+	 * i.e. when sources have been added or removed.
+	 */
+	public void invalidate() {
+		mRoots.clear();
+		mFolders.clear();
+	}
+
+	private void touch() {
+		mLastQuery = SystemClock.elapsedRealtime();
+
+		if (mScheduled.compareAndSet(false, true))
+			mExecutor.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					if (SystemClock.elapsedRealtime() - mLastQuery > IDLE_TIMEOUT)
+						return;
+
+					for (Root root : mRoots.values())
+						if (root.isStale(SystemClock.elapsedRealtime()))
+							probe(root);
+				}
+			}, PROBE_INTERVAL, PROBE_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Adds the SMB sources of both libraries that aren't known yet,
+	 * and updates the login details of the ones that are.
+	 */
+	private void loadSources() {
+		List<FileSource> sources = new ArrayList<FileSource>();
+		sources.addAll(FileSourceRegistry.getSources(MizLib.TYPE_MOVIE, true));
+		sources.addAll(FileSourceRegistry.getSources(MizLib.TYPE_SHOWS, true));
+
+		for (FileSource source : sources) {
+			String key = getSmbKey(source.getFilepath());
+			SmbLogin login = MizLib.getLoginFromFilesource(source);
+
+			Root created = new Root(key, FileSource.SMB, login);
+			Root root = mRoots.putIfAbsent(key, created);
+			if (root != null)
+				root.login = login;
+			else
+				root = created;
+
+			if (source.isMovie())
+				root.movies = true;
+			else
+				root.shows = true;
+		}
+	}
+
+	/**
+	 * Finds the root of a network file. SMB files belong to their source,
+	 * see {@link FileSourceRegistry}, and UPnP files to the server they're on.
+	 * @return The root, or null if the file isn't in any known source
+	 */
+	private Root getRoot(Filepath path) {
+		String filepath = path.getFilepath();
+
+		if (path.getType() == FileSource.UPNP) {
+			String key = getUpnpKey(filepath);
+			if (key == null)
+				return null;
+
+			Root root = mRoots.get(key);
+			if (root == null) {
+				Root created = new Root(key, FileSource.UPNP, null);
+				root = mRoots.putIfAbsent(key, created);
+				if (root == null)
+					root = created;
+			}
+			return root;
+		}
+
+		FileSource source = FileSourceRegistry.findSource(MizLib.TYPE_MOVIE, filepath);
+		if (source == null)
+			source = FileSourceRegistry.findSource(MizLib.TYPE_SHOWS, filepath);
+		if (source == null)
+			return null;
+
+		String key = getSmbKey(source.getFilepath());
+		Root root = mRoots.get(key);
+		if (root == null) {
+			loadSources();
+			root = mRoots.get(key);
+		}
+
+		return root;
+	}
+
+	/**
+	 * Queues a probe of a root, unless one is already queued.
+	 */
+	private void queueProbe(final Root root) {
+		if (!root.queued.compareAndSet(false, true))
+			return;
+
+		mExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					probe(root);
+				} finally {
+					root.queued.set(false);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Probes a root, unless it's already being probed or has been probed
+	 * recently. SMB sources are checked with a single request for the shared
+	 * folder, and UPnP servers by opening a connection to them.
+	 */
+	private void probe(Root root) {
+		if (!root.probing.compareAndSet(false, true))
+			return;
+
+		try {
+			if (!root.isStale(SystemClock.elapsedRealtime()))
+				return;
+
+			boolean reachable;
+
+			if (root.type == FileSource.SMB) {
+				if (!MizLib.isWifiConnected(mContext)) {
+					reachable = false;
+				} else {
+					try {
+						SmbLogin login = root.login;
+						reachable = new SmbFile(MizLib.createSmbLoginString(
+								login.getDomain(),
+								login.getUsername(),
+								login.getPassword(),
+								root.path,
+								true)).exists();
+					} catch (Exception e) {
+						reachable = false;
+					}
+				}
+			} else {
+				Socket socket = new Socket();
+				try {
+					URL url = new URL(root.path);
+					socket.connect(new InetSocketAddress(url.getHost(), url.getPort() == -1 ? url.getDefaultPort() : url.getPort()), PROBE_TIMEOUT);
+					reachable = true;
+				} catch (Exception e) {
+					reachable = false;
+				} finally {
+					try {
+						socket.close();
+					} catch (Exception ignored) {}
+				}
+			}
+
+			if (BuildConfig.DEBUG && (reachable != root.reachable || root.lastProbe == 0))
+				Log.d(TAG, root.path + (reachable ? " is reachable" : " isn't reachable"));
+
+			root.reachable = reachable;
+			root.lastProbe = SystemClock.elapsedRealtime();
+		} finally {
+			root.probing.set(false);
+		}
+	}
+
+	/**
+	 * Queues a listing of a folder, unless one is already queued.
+	 * @param notify True to tell the library when the listing is done,
+	 *               i.e. for the first listing of the folder
+	 */
+	private void queueListing(final String folderPath, final Root root, final boolean notify) {
+		if (!mPendingFolders.add(folderPath))
+			return;
+
+		mExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					String[] list = MizLib.getSmbFolderListing(folderPath, root.login);
+
+					// A folder that can't be listed while the source is reachable has been removed
+					Set<String> names = new HashSet<String>();
+					if (list != null)
+						names.addAll(Arrays.asList(list));
+					else if (!root.reachable)
+						return;
+
+					mFolders.put(folderPath, new Folder(names, SystemClock.elapsedRealtime()));
+
+					if (notify)
+						notifyListed(root);
+				} finally {
+					mPendingFolders.remove(folderPath);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Tells the libraries of a root that availability has changed, once
+	 * the folders that are being listed at the same time are done. Only
+	 * the filters are applied again, so the library snapshots are kept.
+	 */
+	private void notifyListed(Root root) {
+		if (root.movies)
+			mMoviesListed.set(true);
+		if (root.shows)
+			mShowsListed.set(true);
+
+		if (mNotifyScheduled.compareAndSet(false, true))
+			mExecutor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					mNotifyScheduled.set(false);
+
+					if (mMoviesListed.getAndSet(false))
+						LocalBroadcastUtils.movieAvailabilityChanged(mContext);
+					if (mShowsListed.getAndSet(false))
+						LocalBroadcastUtils.tvShowAvailabilityChanged(mContext);
+				}
+			}, NOTIFY_DELAY, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * SMB sources are keyed by their path without login details and with a trailing slash.
+	 */
+	private static String getSmbKey(String filepath) {
+		String key = MizLib.transformSmbPath(filepath);
+		if (!key.endsWith("/"))
+			key += "/";
+		return key;
+	}
+
+	/**
+	 * UPnP servers are keyed by the scheme, host and port of their files.
+	 */
+	private static String getUpnpKey(String filepath) {
+		try {
+			URL url = new URL(filepath);
+			return url.getProtocol() + "://" + url.getHost() + (url.getPort() == -1 ? "" : ":" + url.getPort()) + "/";
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
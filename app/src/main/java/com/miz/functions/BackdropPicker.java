@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.support.v4.content.LocalBroadcastManager;
+
+import com.miz.mizuu.MizuuApplication;
+import com.miz.utils.FileUtils;
+import com.miz.utils.LocalBroadcastUtils;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Picks random backdrops from the library. The movie and TV show IDs are
+ * read from the database once and kept in memory until the library changes,
+ * so picking a backdrop doesn't require listing the backdrop folders.
+ */
+public class BackdropPicker {
+
+	// Number of random picks to try before giving up on finding a backdrop that exists
+	private static final int MAX_ATTEMPTS = 5;
+
+	private static BackdropPicker sInstance;
+
+	private final Context mContext;
+	private final Random mRandom = new Random();
+	private List<String> mMovieIds, mShowIds;
+
+	private final BroadcastReceiver mLibraryReceiver = new BroadcastReceiver() {
+		@Override
+		public void onReceive(Context context, Intent intent) {
+			synchronized (BackdropPicker.this) {
+				if (LocalBroadcastUtils.UPDATE_MOVIE_LIBRARY.equals(intent.getAction()))
+					mMovieIds = null;
+				else
+					mShowIds = null;
+			}
+		}
+	};
+
+	private BackdropPicker(Context context) {
+		mContext = context.getApplicationContext();
+
+		IntentFilter filter = new IntentFilter(LocalBroadcastUtils.UPDATE_MOVIE_LIBRARY);
+		filter.addAction(LocalBroadcastUtils.UPDATE_TV_SHOW_LIBRARY);
+		LocalBroadcastManager.getInstance(mContext).registerReceiver(mLibraryReceiver, filter);
+	}
+
+	public static synchronized BackdropPicker getInstance(Context context) {
+		if (sInstance == null)
+			sInstance = new BackdropPicker(context);
+		return sInstance;
+	}
+
+	/**
+	 * Gets the backdrop of a random movie or TV show in the library.
+	 * @return Backdrop file, or an empty file if no backdrop was found
+	 */
+	public synchronized File getRandomBackdrop() {
+		if (mMovieIds == null)
+			mMovieIds = MizuuApplication.getMovieAdapter().getMovieIds();
+		if (mShowIds == null)
+			mShowIds = MizuuApplication.getTvDbAdapter().getShowIds();
+
+		int count = mMovieIds.size() + mShowIds.size();
+		if (count == 0)
+			return new File("");
+
+		for (int i = 0; i < MAX_ATTEMPTS; i++) {
+			int index = mRandom.nextInt(count);
+
+			File backdrop = index < mMovieIds.size() ?
+					FileUtils.getMovieBackdrop(mContext, mMovieIds.get(index)) :
+					FileUtils.getTvShowBackdrop(mContext, mShowIds.get(index - mMovieIds.size()));
+
+			if (backdrop.exists())
+				return backdrop;
+		}
+
+		return new File("");
+	}
+}
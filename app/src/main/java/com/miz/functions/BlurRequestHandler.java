@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.text.TextUtils;
+
+import com.miz.mizuu.MizuuApplication;
+import com.miz.utils.FileUtils;
+import com.squareup.okhttp.Response;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Request;
+import com.squareup.picasso.RequestHandler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Picasso request handler for blurred versions of local and remote images.
+ * Blurred images are saved to disk, keyed by the source and blur radius, so
+ * only the first request for an image does the actual blurring. Saved
+ * images are re-created if the source file has changed since. The saved
+ * images are trimmed to {@link #MAX_CACHE_SIZE}, oldest first.
+ */
+public class BlurRequestHandler extends RequestHandler {
+
+	private static final String SCHEME = "blur";
+	private static final String PARAM_URL = "url";
+	private static final long MAX_CACHE_SIZE = 25 * 1024 * 1024; // 25 MB
+
+	private final Context mContext;
+
+	public BlurRequestHandler(Context context) {
+		mContext = context.getApplicationContext();
+	}
+
+	/**
+	 * Gets the Picasso URI for a blurred version of the given image.
+	 * @param image Local image file
+	 * @param radius Blur radius, between 1 and 25
+	 */
+	public static Uri getUri(File image, int radius) {
+		return new Uri.Builder()
+				.scheme(SCHEME)
+				.authority(String.valueOf(radius))
+				.path(image.getAbsolutePath())
+				.build();
+	}
+
+	/**
+	 * Gets the Picasso URI for a blurred version of a remote image.
+	 * @param url Image URL, or null if there isn't any
+	 * @param radius Blur radius, between 1 and 25
+	 * @return The URI, or null if there's no URL
+	 */
+	public static Uri getUri(String url, int radius) {
+		if (TextUtils.isEmpty(url))
+			return null;
+
+		return new Uri.Builder()
+				.scheme(SCHEME)
+				.authority(String.valueOf(radius))
+				.appendQueryParameter(PARAM_URL, url)
+				.build();
+	}
+
+	/**
+	 * Deletes the blurred versions of an image, i.e. when the image is removed.
+	 */
+	public static void delete(Context context, File image) {
+		File[] blurred = MizuuApplication.getBlurCacheFolder(context).listFiles();
+		if (blurred == null)
+			return;
+
+		String prefix = MizLib.md5(image.getAbsolutePath()) + "_";
+		for (File file : blurred)
+			if (file.getName().startsWith(prefix))
+				file.delete();
+	}
+
+	/**
+	 * Deletes all blurred images.
+	 */
+	public static void deleteAll(Context context) {
+		FileUtils.deleteRecursive(MizuuApplication.getBlurCacheFolder(context), false);
+	}
+
+	@Override
+	public boolean canHandleRequest(Request data) {
+		return data.uri != null && SCHEME.equals(data.uri.getScheme());
+	}
+
+	@Override
+	public Result load(Request request, int networkPolicy) throws IOException {
+		int radius;
+		try {
+			radius = Integer.parseInt(request.uri.getAuthority());
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid blur radius: " + request.uri);
+		}
+
+		String url = request.uri.getQueryParameter(PARAM_URL);
+		if (url != null)
+			return loadRemote(url, radius);
+
+		File source = new File(request.uri.getPath());
+		if (!source.exists())
+			throw new IOException("No such image: " + source);
+
+		File blurred = FileUtils.getBlurredImage(mContext, source, radius);
+		if (blurred.exists() && blurred.lastModified() >= source.lastModified()) {
+			Bitmap bitmap = decodeBlurred(blurred);
+			if (bitmap != null)
+				return new Result(bitmap, Picasso.LoadedFrom.DISK);
+		}
+
+		Bitmap bitmap = BitmapFactory.decodeFile(source.getAbsolutePath(), getSourceOptions());
+		if (bitmap == null)
+			throw new IOException("Couldn't decode " + source);
+
+		return new Result(blurAndSave(bitmap, radius, blurred), Picasso.LoadedFrom.DISK);
+	}
+
+	private Result loadRemote(String url, int radius) throws IOException {
+		File blurred = FileUtils.getBlurredImage(mContext, url, radius);
+		if (blurred.exists()) {
+			Bitmap bitmap = decodeBlurred(blurred);
+			if (bitmap != null)
+				return new Result(bitmap, Picasso.LoadedFrom.DISK);
+		}
+
+		com.squareup.okhttp.Request request = new com.squareup.okhttp.Request.Builder()
+				.url(url)
+				.build();
+
+		Response response = MizuuApplication.getOkHttpClient().newCall(request).execute();
+		if (!response.isSuccessful()) {
+			response.body().close();
+			throw new IOException("Couldn't download " + url + ": " + response.code());
+		}
+
+		byte[] data = response.body().bytes();
+		Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, getSourceOptions());
+		if (bitmap == null)
+			throw new IOException("Couldn't decode " + url);
+
+		return new Result(blurAndSave(bitmap, radius, blurred), Picasso.LoadedFrom.NETWORK);
+	}
+
+	private static Bitmap decodeBlurred(File blurred) {
+		Bitmap bitmap = BitmapFactory.decodeFile(blurred.getAbsolutePath());
+
+		// Mark it as recently used, so it's the last to go when the cache is trimmed
+		if (bitmap != null)
+			blurred.setLastModified(System.currentTimeMillis());
+
+		return bitmap;
+	}
+
+	private static BitmapFactory.Options getSourceOptions() {
+		// Blurring a half-size image looks the same and is a lot faster
+		BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inSampleSize = 2;
+		options.inMutable = true;
+		options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+		return options;
+	}
+
+	private Bitmap blurAndSave(Bitmap bitmap, int radius, File blurred) {
+		BlurService.getInstance(mContext).blur(bitmap, radius);
+		save(bitmap, blurred);
+		trimCache(blurred.getParentFile());
+		return bitmap;
+	}
+
+	/**
+	 * Deletes the least recently used blurred images until the
+	 * folder is no larger than {@link #MAX_CACHE_SIZE}.
+	 */
+	private static synchronized void trimCache(File folder) {
+		File[] files = folder.listFiles();
+		if (files == null)
+			return;
+
+		long size = 0;
+		for (File file : files)
+			size += file.length();
+
+		if (size <= MAX_CACHE_SIZE)
+			return;
+
+		final long[] lastModified = new long[files.length];
+		Integer[] order = new Integer[files.length];
+		for (int i = 0; i < files.length; i++) {
+			lastModified[i] = files[i].lastModified();
+			order[i] = i;
+		}
+
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer lhs, Integer rhs) {
+				return lastModified[lhs] < lastModified[rhs] ? -1 : (lastModified[lhs] == lastModified[rhs] ? 0 : 1);
+			}
+		});
+
+		for (int i = 0; i < order.length && size > MAX_CACHE_SIZE; i++) {
+			File file = files[order[i]];
+			long length = file.length();
+			if (file.delete())
+				size -= length;
+		}
+	}
+
+	private static void save(Bitmap bitmap, File file) {
+		File temp = new File(file.getAbsolutePath() + "." + Thread.currentThread().getId() + ".tmp");
+		FileOutputStream out = null;
+		try {
+			out = new FileOutputStream(temp);
+			bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+			out.close();
+			out = null;
+
+			if (!temp.renameTo(file))
+				temp.delete();
+		} catch (IOException e) {
+			temp.delete();
+		} finally {
+			if (out != null)
+				try {
+					out.close();
+				} catch (IOException ignored) {}
+		}
+	}
+}
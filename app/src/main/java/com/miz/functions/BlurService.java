@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.support.v8.renderscript.Allocation;
+import android.support.v8.renderscript.Element;
+import android.support.v8.renderscript.RenderScript;
+import android.support.v8.renderscript.ScriptIntrinsicBlur;
+
+/**
+ * Blurs bitmaps with a single, long-lived RenderScript context and
+ * blur script. The allocations are kept around and reused for as long
+ * as the bitmaps being blurred have the same size.
+ */
+public class BlurService {
+
+	private static BlurService sInstance;
+
+	private final RenderScript mRenderScript;
+	private final ScriptIntrinsicBlur mScript;
+	private Allocation mInput, mOutput;
+	private int mWidth, mHeight;
+
+	private BlurService(Context context) {
+		mRenderScript = RenderScript.create(context.getApplicationContext());
+		mScript = ScriptIntrinsicBlur.create(mRenderScript, Element.U8_4(mRenderScript));
+	}
+
+	public static synchronized BlurService getInstance(Context context) {
+		if (sInstance == null)
+			sInstance = new BlurService(context);
+		return sInstance;
+	}
+
+	/**
+	 * Blurs the bitmap in place.
+	 * @param bitmap Mutable ARGB_8888 bitmap
+	 * @param radius Blur radius, between 1 and 25
+	 * @return The blurred bitmap
+	 */
+	public synchronized Bitmap blur(Bitmap bitmap, int radius) {
+		if (mInput == null || bitmap.getWidth() != mWidth || bitmap.getHeight() != mHeight) {
+			destroyAllocations();
+
+			mInput = Allocation.createFromBitmap(mRenderScript, bitmap);
+			mOutput = Allocation.createTyped(mRenderScript, mInput.getType());
+			mWidth = bitmap.getWidth();
+			mHeight = bitmap.getHeight();
+		} else {
+			mInput.copyFrom(bitmap);
+		}
+
+		mScript.setRadius(radius);
+		mScript.setInput(mInput);
+		mScript.forEach(mOutput);
+		mOutput.copyTo(bitmap);
+
+		return bitmap;
+	}
+
+	private void destroyAllocations() {
+		if (mInput != null)
+			mInput.destroy();
+		if (mOutput != null)
+			mOutput.destroy();
+		mInput = null;
+		mOutput = null;
+	}
+}
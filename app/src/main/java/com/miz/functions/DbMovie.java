@@ -88,7 +88,7 @@ public class DbMovie {
 	}
 
 	public boolean hasOfflineCopy() {
-		return getOfflineCopyFile().exists();
+		return FileUtils.hasOfflineCopy(mContext, mFilepath);
 	}
 
 	public File getOfflineCopyFile() {
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of directory listings, i.e. the file names of a folder
+ * on a network file source. Entries expire after a fixed time, and the
+ * least recently used entries are evicted once either the number of
+ * folders or the total number of file names exceeds its limit.
+ * The cache is safe to use from multiple threads.
+ */
+public class DirectoryListingCache {
+
+	private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private final int mMaxEntries, mMaxNames;
+	private final long mTimeToLive;
+	private int mNameCount;
+
+	private static class Entry {
+		final String[] names;
+		final long time;
+
+		Entry(String[] names, long time) {
+			this.names = names;
+			this.time = time;
+		}
+	}
+
+	/**
+	 * @param maxEntries Maximum number of cached folders
+	 * @param maxNames Maximum number of file names across all cached folders
+	 * @param timeToLive Time in milliseconds before a listing expires
+	 */
+	public DirectoryListingCache(int maxEntries, int maxNames, long timeToLive) {
+		mMaxEntries = maxEntries;
+		mMaxNames = maxNames;
+		mTimeToLive = timeToLive;
+	}
+
+	/**
+	 * Gets the cached listing of a folder.
+	 * @param folder Path of the folder
+	 * @return File names in the folder, or null if the folder isn't cached or has expired
+	 */
+	public synchronized String[] get(String folder) {
+		String key = getKey(folder);
+		Entry entry = mEntries.get(key);
+		if (entry == null)
+			return null;
+
+		if (System.currentTimeMillis() - entry.time > mTimeToLive) {
+			remove(key);
+			return null;
+		}
+
+		return entry.names;
+	}
+
+	public synchronized void put(String folder, String[] names) {
+		if (names == null)
+			return;
+
+		String key = getKey(folder);
+		remove(key);
+
+		// Listings that can never fit aren't worth evicting everything else for
+		if (names.length > mMaxNames)
+			return;
+
+		mEntries.put(key, new Entry(names, System.currentTimeMillis()));
+		mNameCount += names.length;
+
+		trim();
+	}
+
+	public synchronized void invalidate(String folder) {
+		remove(getKey(folder));
+	}
+
+	public synchronized void clear() {
+		mEntries.clear();
+		mNameCount = 0;
+	}
+
+	public synchronized int size() {
+		return mEntries.size();
+	}
+
+	private void remove(String key) {
+		Entry entry = mEntries.remove(key);
+		if (entry != null)
+			mNameCount -= entry.names.length;
+	}
+
+	private void trim() {
+		Iterator<Map.Entry<String, Entry>> it = mEntries.entrySet().iterator();
+		while (it.hasNext() && (mEntries.size() > mMaxEntries || mNameCount > mMaxNames)) {
+			mNameCount -= it.next().getValue().names.length;
+			it.remove();
+		}
+	}
+
+	/**
+	 * Listings are keyed by the folder path without any login
+	 * details and with a trailing slash.
+	 */
+	private static String getKey(String folder) {
+		String key = MizLib.transformSmbPath(folder);
+		if (!key.endsWith("/"))
+			key += "/";
+		return key;
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.database.Cursor;
+
+import com.miz.db.DbAdapterSources;
+import com.miz.mizuu.MizuuApplication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps the file sources in memory, so they're only read from the database
+ * once, and finds the SMB source of a file path with a trie of the source
+ * paths. The source with the longest path that the file is in is used, and
+ * paths are compared one folder at a time. {@link DbAdapterSources} calls
+ * {@link #invalidate()} whenever a source is added or removed.
+ */
+public final class FileSourceRegistry {
+
+	private static volatile Snapshot sSnapshot;
+
+	private FileSourceRegistry() {} // No instantiation
+
+	/**
+	 * Sources of a library, read from the database at the same time.
+	 */
+	private static class Snapshot {
+		final List<FileSource> movieSources, showSources, movieNetworkSources, showNetworkSources;
+		final Node movieTrie = new Node(), showTrie = new Node();
+
+		Snapshot(List<FileSource> movieSources, List<FileSource> showSources) {
+			this.movieSources = Collections.unmodifiableList(movieSources);
+			this.showSources = Collections.unmodifiableList(showSources);
+			this.movieNetworkSources = Collections.unmodifiableList(index(movieSources, movieTrie));
+			this.showNetworkSources = Collections.unmodifiableList(index(showSources, showTrie));
+		}
+
+		/**
+		 * Adds the SMB sources to a trie.
+		 * @return The SMB sources
+		 */
+		private static List<FileSource> index(List<FileSource> sources, Node trie) {
+			List<FileSource> networkSources = new ArrayList<FileSource>();
+
+			for (FileSource source : sources) {
+				if (source.getFileSourceType() != FileSource.SMB)
+					continue;
+
+				networkSources.add(source);
+
+				Node node = trie;
+				for (String segment : split(source.getFilepath())) {
+					Node child = node.children.get(segment);
+					if (child == null) {
+						child = new Node();
+						node.children.put(segment, child);
+					}
+					node = child;
+				}
+
+				// If two sources have the same path, the first one is used
+				if (node.source == null)
+					node.source = source;
+			}
+
+			return networkSources;
+		}
+	}
+
+	private static class Node {
+		final HashMap<String, Node> children = new HashMap<String, Node>(4);
+		FileSource source;
+	}
+
+	/**
+	 * Gets the file sources of a library.
+	 * @param type {@link MizLib#TYPE_MOVIE} or {@link MizLib#TYPE_SHOWS}
+	 * @param onlyNetworkSources True to only get SMB sources
+	 * @return Unmodifiable list of file sources
+	 */
+	public static List<FileSource> getSources(int type, boolean onlyNetworkSources) {
+		Snapshot snapshot = getSnapshot();
+
+		if (type == MizLib.TYPE_MOVIE)
+			return onlyNetworkSources ? snapshot.movieNetworkSources : snapshot.movieSources;
+		return onlyNetworkSources ? snapshot.showNetworkSources : snapshot.showSources;
+	}
+
+	/**
+	 * Finds the SMB source that a file is in.
+	 * @param type {@link MizLib#TYPE_MOVIE} or {@link MizLib#TYPE_SHOWS}
+	 * @param filepath Path of the file, with or without login details
+	 * @return The source with the longest matching path, or null if there isn't any
+	 */
+	public static FileSource findSource(int type, String filepath) {
+		if (filepath == null)
+			return null;
+
+		Snapshot snapshot = getSnapshot();
+		Node node = type == MizLib.TYPE_MOVIE ? snapshot.movieTrie : snapshot.showTrie;
+		FileSource match = node.source;
+
+		for (String segment : split(filepath)) {
+			node = node.children.get(segment);
+			if (node == null)
+				break;
+
+			if (node.source != null)
+				match = node.source;
+		}
+
+		return match;
+	}
+
+	/**
+	 * Drops the sources in memory, so they're read from the database again on next use.
+	 * Waits for a snapshot that is being read, so it can't be published after this.
+	 */
+	public static synchronized void invalidate() {
+		sSnapshot = null;
+	}
+
+	private static Snapshot getSnapshot() {
+		Snapshot snapshot = sSnapshot;
+		if (snapshot != null)
+			return snapshot;
+
+		synchronized (FileSourceRegistry.class) {
+			if (sSnapshot == null) {
+				DbAdapterSources db = MizuuApplication.getSourcesAdapter();
+				sSnapshot = new Snapshot(readSources(db.fetchAllMovieSources()), readSources(db.fetchAllShowSources()));
+			}
+			return sSnapshot;
+		}
+	}
+
+	private static List<FileSource> readSources(Cursor c) {
+		List<FileSource> sources = new ArrayList<FileSource>();
+		if (c == null)
+			return sources;
+
+		ColumnIndexCache cache = new ColumnIndexCache();
+
+		try {
+			while (c.moveToNext()) {
+				sources.add(new FileSource(
+						c.getLong(cache.getColumnIndex(c, DbAdapterSources.KEY_ROWID)),
+						c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_FILEPATH)),
+						c.getInt(cache.getColumnIndex(c, DbAdapterSources.KEY_FILESOURCE_TYPE)),
+						c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_USER)),
+						c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_PASSWORD)),
+						c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_DOMAIN)),
+						c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_TYPE))
+				));
+			}
+		} catch (Exception e) {
+		} finally {
+			c.close();
+			cache.clear();
+		}
+
+		return sources;
+	}
+
+	/**
+	 * Splits a path into folders, without login details and empty parts,
+	 * i.e. "smb://user@server/share/Movies/" becomes smb:, server, share and Movies.
+	 */
+	private static List<String> split(String filepath) {
+		String path = MizLib.transformSmbPath(filepath);
+		List<String> segments = new ArrayList<String>();
+
+		int start = 0;
+		for (int i = 0; i <= path.length(); i++) {
+			if (i == path.length() || path.charAt(i) == '/') {
+				if (i > start)
+					segments.add(path.substring(start, i));
+				start = i + 1;
+			}
+		}
+
+		return segments;
+	}
+}
@@ -20,9 +20,12 @@ import android.content.Context;
 
 import com.miz.mizuu.R;
 
+import java.util.List;
+
 public class Filepath {
 
 	private final String mFilepath;
+	private List<String> mSplitParts;
 
 	public Filepath(String path) {
 		mFilepath = path;
@@ -88,6 +91,18 @@ public class Filepath {
 		}
 	}
 
+	/**
+	 * Gets the parts of a split file, if they've already been looked up.
+	 * @return Paths of all parts, or null if they haven't been looked up
+	 */
+	public List<String> getSplitParts() {
+		return mSplitParts;
+	}
+
+	public void setSplitParts(List<String> parts) {
+		mSplitParts = parts;
+	}
+
 	public boolean isNetworkFile() {
 		int type = getType();
 		return type == FileSource.SMB || type == FileSource.UPNP;
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+
+import com.miz.mizuu.MizuuApplication;
+import com.miz.utils.FileUtils;
+import com.miz.utils.ViewUtils;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Request;
+import com.squareup.picasso.RequestHandler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Picasso request handler for grid-sized covers. The first time a cover
+ * is requested in a given size bucket, a scaled down copy is created next to
+ * the other app images, and later requests simply decode that copy instead
+ * of the full-size cover. Copies are re-created if the cover has changed.
+ */
+public class GridThumbnailRequestHandler extends RequestHandler {
+
+	private static final String SCHEME = "gridthumb";
+	private static final int[] SIZE_BUCKETS = new int[]{120, 160, 200, 240, 320, 400, 500};
+
+	private final Context mContext;
+
+	public GridThumbnailRequestHandler(Context context) {
+		mContext = context.getApplicationContext();
+	}
+
+	/**
+	 * Gets the Picasso URI for a grid-sized version of the given cover.
+	 * @param cover Full-size cover image
+	 * @param thumbSize Column width of the grid, i.e. {@link ViewUtils#getGridViewThumbSize(Context)}
+	 */
+	public static Uri getUri(File cover, int thumbSize) {
+		return new Uri.Builder()
+				.scheme(SCHEME)
+				.authority(String.valueOf(getSizeBucket(thumbSize)))
+				.path(cover.getAbsolutePath())
+				.build();
+	}
+
+	/**
+	 * Rounds the column width up to one of a few fixed widths, so
+	 * small changes in layout don't require new copies of every cover.
+	 */
+	public static int getSizeBucket(int thumbSize) {
+		for (int bucket : SIZE_BUCKETS)
+			if (bucket >= thumbSize)
+				return bucket;
+		return SIZE_BUCKETS[SIZE_BUCKETS.length - 1];
+	}
+
+	/**
+	 * Creates the grid-sized copy of a cover for the current grid size.
+	 * Meant to be called on a background thread once a cover has been downloaded.
+	 */
+	public static void prepare(Context context, File cover) {
+		int bucket = getSizeBucket(ViewUtils.getGridViewThumbSize(context));
+		Bitmap bitmap = createThumbnail(cover, FileUtils.getGridThumb(context, cover, bucket), bucket);
+		if (bitmap != null)
+			bitmap.recycle();
+	}
+
+	/**
+	 * Deletes the grid-sized copies of a cover in every size, i.e. when the movie or TV show is removed.
+	 */
+	public static void delete(Context context, File cover) {
+		for (int bucket : SIZE_BUCKETS)
+			FileUtils.getGridThumb(context, cover, bucket).delete();
+	}
+
+	/**
+	 * Deletes the grid-sized copies of every cover in a folder, i.e. when a library is cleared.
+	 */
+	public static void deleteAll(Context context, File coverFolder) {
+		File[] thumbs = MizuuApplication.getGridThumbFolder(context).listFiles();
+		if (thumbs == null)
+			return;
+
+		String prefix = coverFolder.getName() + "_";
+		for (File thumb : thumbs)
+			if (thumb.getName().startsWith(prefix))
+				thumb.delete();
+	}
+
+	@Override
+	public boolean canHandleRequest(Request data) {
+		return data.uri != null && SCHEME.equals(data.uri.getScheme());
+	}
+
+	@Override
+	public Result load(Request request, int networkPolicy) throws IOException {
+		int bucket;
+		try {
+			bucket = Integer.parseInt(request.uri.getAuthority());
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid thumbnail size: " + request.uri);
+		}
+
+		File cover = new File(request.uri.getPath());
+		File thumb = FileUtils.getGridThumb(mContext, cover, bucket);
+
+		if (thumb.exists() && thumb.lastModified() >= cover.lastModified()) {
+			BitmapFactory.Options options = new BitmapFactory.Options();
+			options.inPreferredConfig = request.config != null ? request.config : MizuuApplication.getBitmapConfig();
+
+			Bitmap bitmap = BitmapFactory.decodeFile(thumb.getAbsolutePath(), options);
+			if (bitmap != null)
+				return new Result(bitmap, Picasso.LoadedFrom.DISK);
+		}
+
+		Bitmap bitmap = createThumbnail(cover, thumb, bucket);
+		if (bitmap == null)
+			throw new IOException("Couldn't create thumbnail for " + cover);
+
+		return new Result(bitmap, Picasso.LoadedFrom.DISK);
+	}
+
+	private static Bitmap createThumbnail(File cover, File thumb, int width) {
+		if (!cover.exists())
+			return null;
+
+		// Covers are usually posters, so that's the size they're sampled for
+		Bitmap bitmap = MizLib.decodeSampledBitmapFromFile(cover.getAbsolutePath(), width, (int) (width * 1.5));
+		if (bitmap == null)
+			return null;
+
+		if (bitmap.getWidth() > width) {
+			// Keep the aspect ratio of the cover, i.e. for custom covers that aren't posters
+			int height = Math.max(1, bitmap.getHeight() * width / bitmap.getWidth());
+			Bitmap scaled = Bitmap.createScaledBitmap(bitmap, width, height, true);
+			if (scaled != bitmap)
+				bitmap.recycle();
+			bitmap = scaled;
+		}
+
+		// Write to a temporary file first, so a half-written
+		// thumbnail is never picked up by another request
+		File temp = new File(thumb.getAbsolutePath() + "." + Thread.currentThread().getId() + ".tmp");
+		FileOutputStream out = null;
+		try {
+			out = new FileOutputStream(temp);
+			bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+			out.close();
+			out = null;
+
+			if (!temp.renameTo(thumb))
+				temp.delete();
+		} catch (IOException e) {
+			temp.delete();
+		} finally {
+			if (out != null)
+				try {
+					out.close();
+				} catch (IOException ignored) {}
+		}
+
+		return bitmap;
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Point;
+import android.view.Display;
+import android.view.WindowManager;
+
+import com.miz.mizuu.R;
+
+/**
+ * Image sizes that depend on the display, i.e. which TMDb image sizes
+ * to download and how large covers should be stored. The sizes only change
+ * with the configuration, so they're calculated once and reused until
+ * the configuration changes, rather than querying the display every time.
+ */
+public class ImageProfile {
+
+	private static ImageProfile sProfile;
+	private static Configuration sConfiguration;
+
+	private final String mCoverUrlSize, mBackdropUrlSize, mBackdropThumbUrlSize, mActorUrlSize;
+	private final int mThumbnailSize, mCoverWidth;
+
+	private ImageProfile(Context context) {
+		final int imageThumbSize = context.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_size);
+		final int imageThumbSpacing = context.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_spacing);
+
+		WindowManager window = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+		Display d = window.getDefaultDisplay();
+
+		Point size = new Point();
+		d.getSize(size);
+
+		final int largest = Math.max(size.x, size.y);
+		final int smallest = Math.min(size.x, size.y);
+
+		final int numColumns = (int) Math.floor(largest / (imageThumbSize + imageThumbSpacing));
+		final int columnWidth = numColumns > 0 ? (largest / numColumns) - imageThumbSpacing : 0;
+
+		// Covers
+		if (columnWidth > 300)
+			mCoverUrlSize = "w500";
+		else if (columnWidth > 185)
+			mCoverUrlSize = "w300";
+		else
+			mCoverUrlSize = "w185";
+
+		if (columnWidth > 320)
+			mThumbnailSize = 440;
+		else if (columnWidth > 240)
+			mThumbnailSize = 320;
+		else if (columnWidth > 180)
+			mThumbnailSize = 240;
+		else
+			mThumbnailSize = 180;
+
+		if (numColumns == 0)
+			mCoverWidth = 0;
+		else if (columnWidth > 300)
+			mCoverWidth = 500;
+		else if (columnWidth > 240)
+			mCoverWidth = 320;
+		else if (columnWidth > 180)
+			mCoverWidth = 240;
+		else
+			mCoverWidth = 180;
+
+		// Actor photos
+		if (columnWidth > 400)
+			mActorUrlSize = "h632";
+		else if (columnWidth >= 300)
+			mActorUrlSize = "w300";
+		else
+			mActorUrlSize = "w185";
+
+		// Backdrops. We only want to download full size images on tablets,
+		// as these are the only devices where you can see the difference
+		if (largest > 1280 && MizLib.isTablet(context))
+			mBackdropUrlSize = "original";
+		else if (largest > 780)
+			mBackdropUrlSize = "w1280";
+		else
+			mBackdropUrlSize = "w780";
+
+		if (smallest >= 780)
+			mBackdropThumbUrlSize = "w780";
+		else if (smallest >= 400)
+			mBackdropThumbUrlSize = "w500";
+		else
+			mBackdropThumbUrlSize = "w300";
+	}
+
+	/**
+	 * Gets the image profile for the current configuration.
+	 */
+	public static synchronized ImageProfile get(Context context) {
+		Configuration configuration = context.getResources().getConfiguration();
+		if (sProfile == null || !configuration.equals(sConfiguration)) {
+			sProfile = new ImageProfile(context);
+			sConfiguration = new Configuration(configuration);
+		}
+		return sProfile;
+	}
+
+	/**
+	 * TMDb image size for covers and posters, i.e. "w300".
+	 */
+	public String getCoverUrlSize() {
+		return mCoverUrlSize;
+	}
+
+	/**
+	 * TMDb image size for full backdrops.
+	 */
+	public String getBackdropUrlSize() {
+		return mBackdropUrlSize;
+	}
+
+	/**
+	 * TMDb image size for backdrop thumbnails and episode screenshots.
+	 */
+	public String getBackdropThumbUrlSize() {
+		return mBackdropThumbUrlSize;
+	}
+
+	/**
+	 * TMDb image size for actor photos.
+	 */
+	public String getActorUrlSize() {
+		return mActorUrlSize;
+	}
+
+	/**
+	 * Size in pixels of cover thumbnails.
+	 */
+	public int getThumbnailSize() {
+		return mThumbnailSize;
+	}
+
+	/**
+	 * Width in pixels that downloaded covers are resized to, or 0 if
+	 * covers shouldn't be resized. The height is 1.5 times the width.
+	 */
+	public int getCoverWidth() {
+		return mCoverWidth;
+	}
+}
@@ -16,26 +16,22 @@
 
 package com.miz.functions;
 
-import android.annotation.TargetApi;
 import android.os.Handler;
 import android.os.Message;
 import android.os.Process;
 
-import java.util.ArrayDeque;
-import java.util.concurrent.BlockingQueue;
+import com.miz.functions.LibraryTaskScheduler.Priority;
+
+import java.util.HashMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * *************************************
@@ -46,10 +42,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * executeOnExecutor() if needed.
  *
  * There are 3 changes in this copy of AsyncTask:
- *    -pre-HC a single thread executor is used for serial operation
- *    (Executors.newSingleThreadExecutor) and is the default
- *    -the default THREAD_POOL_EXECUTOR was changed to use DiscardOldestPolicy
- *    -a new fixed thread pool called DUAL_THREAD_EXECUTOR was added
+ *    -tasks are executed on the shared {@link LibraryTaskScheduler} rather than
+ *    a serial executor, with the priority set by {@link #setPriority}
+ *    -tasks can belong to a section, and executing a task cancels the
+ *    previous task in its section (see {@link #setSection})
+ *    -cancelled tasks are removed from the queue right away
  * *************************************
  *
  * <p>AsyncTask enables proper and easy use of the UI thread. This class allows to
@@ -185,91 +182,34 @@ import java.util.concurrent.atomic.AtomicInteger;
  * </ul>
  *
  * <h2>Order of execution</h2>
- * <p>When first introduced, AsyncTasks were executed serially on a single background
- * thread. Starting with {@link android.os.Build.VERSION_CODES#DONUT}, this was changed
- * to a pool of threads allowing multiple tasks to operate in parallel. Starting with
- * {@link android.os.Build.VERSION_CODES#HONEYCOMB}, tasks are executed on a single
- * thread to avoid common application errors caused by parallel execution.</p>
- * <p>If you truly want parallel execution, you can invoke
+ * <p>Tasks are executed in parallel on the {@link LibraryTaskScheduler}. Waiting tasks
+ * are started by priority, and in the order they were executed within a priority.
+ * If you need serial execution, invoke
  * {@link #executeOnExecutor(java.util.concurrent.Executor, Object[])} with
- * {@link #THREAD_POOL_EXECUTOR}.</p>
+ * a single thread executor.</p>
  */
 public abstract class LibrarySectionAsyncTask<Params, Progress, Result> {
     private static final String LOG_TAG = "AsyncTask";
 
-    private static final int CORE_POOL_SIZE = 2;
-    private static final int MAXIMUM_POOL_SIZE = 2;
-    private static final int KEEP_ALIVE = 1;
-
-    private static final ThreadFactory  sThreadFactory = new ThreadFactory() {
-        private final AtomicInteger mCount = new AtomicInteger(1);
-
-        public Thread newThread(Runnable r) {
-            return new Thread(r, "AsyncTask #" + mCount.getAndIncrement());
-        }
-    };
-
-    private static final BlockingQueue<Runnable> sPoolWorkQueue =
-            new LinkedBlockingQueue<Runnable>(10);
-
-    /**
-     * An {@link Executor} that can be used to execute tasks in parallel.
-     */
-    public static final Executor THREAD_POOL_EXECUTOR
-            = new ThreadPoolExecutor(CORE_POOL_SIZE, MAXIMUM_POOL_SIZE, KEEP_ALIVE,
-            TimeUnit.SECONDS, sPoolWorkQueue, sThreadFactory,
-            new ThreadPoolExecutor.DiscardOldestPolicy());
-
-    /**
-     * An {@link Executor} that executes tasks one at a time in serial
-     * order.  This serialization is global to a particular process.
-     */
-    public static final Executor SERIAL_EXECUTOR = new SerialExecutor();
-
-    public static final Executor DUAL_THREAD_EXECUTOR =
-            Executors.newFixedThreadPool(2, sThreadFactory);
-
     private static final int MESSAGE_POST_RESULT = 0x1;
     private static final int MESSAGE_POST_PROGRESS = 0x2;
 
     private static final InternalHandler sHandler = new InternalHandler();
 
-    private static volatile Executor sDefaultExecutor = SERIAL_EXECUTOR;
+    // Latest task of each section. Only accessed on the UI thread.
+    private static final HashMap<String, LibrarySectionAsyncTask<?, ?, ?>> sSections =
+            new HashMap<String, LibrarySectionAsyncTask<?, ?, ?>>();
+
     private final WorkerRunnable<Params, Result> mWorker;
     private final FutureTask<Result> mFuture;
 
     private volatile Status mStatus = Status.PENDING;
+    private volatile Priority mPriority = Priority.VISIBLE;
+    private String mSection;
 
     private final AtomicBoolean mCancelled = new AtomicBoolean();
     private final AtomicBoolean mTaskInvoked = new AtomicBoolean();
 
-    @TargetApi(11)
-    private static class SerialExecutor implements Executor {
-        final ArrayDeque<Runnable> mTasks = new ArrayDeque<Runnable>();
-        Runnable mActive;
-
-        public synchronized void execute(final Runnable r) {
-            mTasks.offer(new Runnable() {
-                public void run() {
-                    try {
-                        r.run();
-                    } finally {
-                        scheduleNext();
-                    }
-                }
-            });
-            if (mActive == null) {
-                scheduleNext();
-            }
-        }
-
-        protected synchronized void scheduleNext() {
-            if ((mActive = mTasks.poll()) != null) {
-                THREAD_POOL_EXECUTOR.execute(mActive);
-            }
-        }
-    }
-
     /**
      * Indicates the current status of the task. Each status will be set only once
      * during the lifetime of a task.
@@ -294,11 +234,6 @@ public abstract class LibrarySectionAsyncTask<Params, Progress, Result> {
         sHandler.getLooper();
     }
 
-    /** @hide */
-    public static void setDefaultExecutor(Executor exec) {
-        sDefaultExecutor = exec;
-    }
-
     /**
      * Creates a new asynchronous task. This constructor must be invoked on the UI thread.
      */
@@ -345,6 +280,38 @@ public abstract class LibrarySectionAsyncTask<Params, Progress, Result> {
         return result;
     }
 
+    /**
+     * Sets the priority of this task. If the task is waiting to run,
+     * it's queued again with the new priority. Defaults to
+     * {@link Priority#VISIBLE}.
+     *
+     * @return This instance of AsyncTask.
+     */
+    public final LibrarySectionAsyncTask<Params, Progress, Result> setPriority(Priority priority) {
+        if (mPriority != priority) {
+            mPriority = priority;
+            if (mStatus == Status.RUNNING && !mTaskInvoked.get())
+                LibraryTaskScheduler.getInstance().reprioritize(mFuture, priority);
+        }
+        return this;
+    }
+
+    public final Priority getPriority() {
+        return mPriority;
+    }
+
+    /**
+     * Puts this task in a section, i.e. a library section. Executing the task
+     * cancels the previous task in the same section, since its result would
+     * be replaced anyway. Must be called before the task is executed.
+     *
+     * @return This instance of AsyncTask.
+     */
+    public final LibrarySectionAsyncTask<Params, Progress, Result> setSection(String section) {
+        mSection = section;
+        return this;
+    }
+
     /**
      * Returns the current status of this task.
      *
@@ -486,7 +453,9 @@ public abstract class LibrarySectionAsyncTask<Params, Progress, Result> {
      */
     public final boolean cancel(boolean mayInterruptIfRunning) {
         mCancelled.set(true);
-        return mFuture.cancel(mayInterruptIfRunning);
+        boolean cancelled = mFuture.cancel(mayInterruptIfRunning);
+        LibraryTaskScheduler.getInstance().remove(mFuture);
+        return cancelled;
     }
 
     /**
@@ -528,17 +497,9 @@ public abstract class LibrarySectionAsyncTask<Params, Progress, Result> {
      * Executes the task with the specified parameters. The task returns
      * itself (this) so that the caller can keep a reference to it.
      *
-     * <p>Note: this function schedules the task on a queue for a single background
-     * thread or pool of threads depending on the platform version.  When first
-     * introduced, AsyncTasks were executed serially on a single background thread.
-     * Starting with {@link android.os.Build.VERSION_CODES#DONUT}, this was changed
-     * to a pool of threads allowing multiple tasks to operate in parallel. Starting
-     * {@link android.os.Build.VERSION_CODES#HONEYCOMB}, tasks are back to being
-     * executed on a single thread to avoid common application errors caused
-     * by parallel execution.  If you truly want parallel execution, you can use
-     * the {@link #executeOnExecutor} version of this method
-     * with {@link #THREAD_POOL_EXECUTOR}; however, see commentary there for warnings
-     * on its use.
+     * <p>Note: this function queues the task on the {@link LibraryTaskScheduler}
+     * with the priority set by {@link #setPriority}, and cancels the previous
+     * task in the same section, if any. Tasks may run in parallel.
      *
      * <p>This method must be invoked on the UI thread.
      *
@@ -553,17 +514,22 @@ public abstract class LibrarySectionAsyncTask<Params, Progress, Result> {
      * @see #execute(Runnable)
      */
     public final LibrarySectionAsyncTask<Params, Progress, Result> execute(Params... params) {
-        return executeOnExecutor(sDefaultExecutor, params);
+        if (mSection != null) {
+            LibrarySectionAsyncTask<?, ?, ?> previous = sSections.put(mSection, this);
+            if (previous != null && previous != this)
+                previous.cancel(true);
+        }
+
+        return executeOnExecutor(LibraryTaskScheduler.getInstance().getExecutor(mPriority), params);
     }
 
     /**
      * Executes the task with the specified parameters. The task returns
      * itself (this) so that the caller can keep a reference to it.
      *
-     * <p>This method is typically used with {@link #THREAD_POOL_EXECUTOR} to
-     * allow multiple tasks to run in parallel on a pool of threads managed by
-     * AsyncTask, however you can also use your own {@link Executor} for custom
-     * behavior.
+     * <p>This method can be used to run the task on your own {@link Executor}
+     * instead of the {@link LibraryTaskScheduler}. Priorities and sections
+     * only apply to tasks started with {@link #execute}.
      *
      * <p><em>Warning:</em> Allowing multiple tasks to run in parallel from
      * a thread pool is generally <em>not</em> what one wants, because the order
@@ -574,12 +540,11 @@ public abstract class LibrarySectionAsyncTask<Params, Progress, Result> {
      * of the data to be over-written by an older one, leading to obscure data
      * loss and stability issues.  Such changes are best
      * executed in serial; to guarantee such work is serialized regardless of
-     * platform version you can use this function with {@link #SERIAL_EXECUTOR}.
+     * platform version you can use this function with a single thread executor.
      *
      * <p>This method must be invoked on the UI thread.
      *
-     * @param exec The executor to use.  {@link #THREAD_POOL_EXECUTOR} is available as a
-     *              convenient process-wide thread pool for tasks that are loosely coupled.
+     * @param exec The executor to use.
      * @param params The parameters of the task.
      *
      * @return This instance of AsyncTask.
@@ -616,14 +581,13 @@ public abstract class LibrarySectionAsyncTask<Params, Progress, Result> {
 
     /**
      * Convenience version of {@link #execute(Object...)} for use with
-     * a simple Runnable object. See {@link #execute(Object[])} for more
-     * information on the order of execution.
+     * a simple Runnable object, queued with {@link Priority#VISIBLE}.
      *
      * @see #execute(Object[])
      * @see #executeOnExecutor(java.util.concurrent.Executor, Object[])
      */
     public static void execute(Runnable runnable) {
-        sDefaultExecutor.execute(runnable);
+        LibraryTaskScheduler.getInstance().execute(runnable, Priority.VISIBLE);
     }
 
     /**
@@ -648,6 +612,9 @@ public abstract class LibrarySectionAsyncTask<Params, Progress, Result> {
     }
 
     private void finish(Result result) {
+        if (mSection != null && sSections.get(mSection) == this)
+            sSections.remove(mSection);
+
         if (isCancelled()) {
             onCancelled(result);
         } else {
@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared thread pool for library work, i.e. loading library sections,
+ * loading movies ahead of the visible range and generating palettes.
+ * Queued tasks are run by priority, so loading the section that's on
+ * screen never has to wait for work the user can't see yet. Tasks with
+ * the same priority run in the order they were added.
+ */
+public class LibraryTaskScheduler {
+
+	private static final String TAG = "LibraryTaskScheduler";
+
+	public enum Priority {
+		/**
+		 * Loading the library section that's currently visible.
+		 */
+		VISIBLE,
+		/**
+		 * Loading sections or items that aren't visible yet.
+		 */
+		PREFETCH,
+		/**
+		 * Palettes and other artwork related work.
+		 */
+		ARTWORK
+	}
+
+	// Leave a core for the UI thread, but always allow the visible
+	// section to load while something else is running
+	private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+	private static final int POOL_SIZE = Math.max(2, Math.min(CPU_COUNT - 1, 4));
+	private static final int KEEP_ALIVE = 30; // seconds
+
+	private static LibraryTaskScheduler sInstance;
+
+	private final ThreadPoolExecutor mExecutor;
+	private final AtomicLong mSequence = new AtomicLong();
+	private final Lane[] mLanes = new Lane[Priority.values().length];
+
+	/**
+	 * Counters for one priority.
+	 */
+	private static class Lane {
+		final AtomicInteger queued = new AtomicInteger();
+		final AtomicLong completed = new AtomicLong();
+		final AtomicLong totalWaitTime = new AtomicLong();
+		final AtomicLong totalRunTime = new AtomicLong();
+		final AtomicLong maxWaitTime = new AtomicLong();
+	}
+
+	private LibraryTaskScheduler() {
+		for (int i = 0; i < mLanes.length; i++)
+			mLanes[i] = new Lane();
+
+		mExecutor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, KEEP_ALIVE, TimeUnit.SECONDS,
+				new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+			private final AtomicInteger mCount = new AtomicInteger(1);
+
+			@Override
+			public Thread newThread(final Runnable r) {
+				return new Thread(new Runnable() {
+					@Override
+					public void run() {
+						Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+						r.run();
+					}
+				}, "Library #" + mCount.getAndIncrement());
+			}
+		});
+		mExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	public static synchronized LibraryTaskScheduler getInstance() {
+		if (sInstance == null)
+			sInstance = new LibraryTaskScheduler();
+		return sInstance;
+	}
+
+	/**
+	 * Queues a task with the given priority.
+	 */
+	public void execute(Runnable task, Priority priority) {
+		execute(task, priority, SystemClock.elapsedRealtime());
+	}
+
+	private void execute(Runnable task, Priority priority, long queuedAt) {
+		mLanes[priority.ordinal()].queued.incrementAndGet();
+		mExecutor.execute(new QueuedTask(task, priority, mSequence.getAndIncrement(), queuedAt));
+	}
+
+	/**
+	 * Gets an {@link Executor} that queues tasks with the given priority,
+	 * i.e. for use with <code>executeOnExecutor()</code>.
+	 */
+	public Executor getExecutor(final Priority priority) {
+		return new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				LibraryTaskScheduler.this.execute(command, priority);
+			}
+		};
+	}
+
+	/**
+	 * Changes the priority of a task that's still waiting in the queue.
+	 * @return True if the task was waiting and has been queued again, false otherwise
+	 */
+	public boolean reprioritize(Runnable task, Priority priority) {
+		QueuedTask queued = find(task);
+		if (queued == null || queued.mPriority == priority || !mExecutor.remove(queued))
+			return false;
+
+		mLanes[queued.mPriority.ordinal()].queued.decrementAndGet();
+		execute(task, priority, queued.mQueuedAt);
+		return true;
+	}
+
+	/**
+	 * Removes a task from the queue, i.e. because it has been cancelled.
+	 * Tasks that are already running aren't affected.
+	 * @return True if the task was waiting and has been removed, false otherwise
+	 */
+	public boolean remove(Runnable task) {
+		QueuedTask queued = find(task);
+		if (queued == null || !mExecutor.remove(queued))
+			return false;
+
+		mLanes[queued.mPriority.ordinal()].queued.decrementAndGet();
+		return true;
+	}
+
+	private QueuedTask find(Runnable task) {
+		for (Runnable r : mExecutor.getQueue())
+			if (((QueuedTask) r).mTask == task)
+				return (QueuedTask) r;
+		return null;
+	}
+
+	/**
+	 * Number of tasks with the given priority waiting to run.
+	 */
+	public int getQueueDepth(Priority priority) {
+		return mLanes[priority.ordinal()].queued.get();
+	}
+
+	/**
+	 * Number of tasks with the given priority that have run.
+	 */
+	public long getCompletedCount(Priority priority) {
+		return mLanes[priority.ordinal()].completed.get();
+	}
+
+	/**
+	 * Average time in milliseconds that tasks with the given priority waited in the queue.
+	 */
+	public long getAverageWaitTime(Priority priority) {
+		Lane lane = mLanes[priority.ordinal()];
+		long completed = lane.completed.get();
+		return completed > 0 ? lane.totalWaitTime.get() / completed : 0;
+	}
+
+	/**
+	 * Longest time in milliseconds that a task with the given priority waited in the queue.
+	 */
+	public long getMaxWaitTime(Priority priority) {
+		return mLanes[priority.ordinal()].maxWaitTime.get();
+	}
+
+	/**
+	 * Average time in milliseconds that tasks with the given priority took to run.
+	 */
+	public long getAverageRunTime(Priority priority) {
+		Lane lane = mLanes[priority.ordinal()];
+		long completed = lane.completed.get();
+		return completed > 0 ? lane.totalRunTime.get() / completed : 0;
+	}
+
+	/**
+	 * Logs the counters of every priority.
+	 */
+	public void logStats() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(POOL_SIZE).append(" threads, ").append(mExecutor.getActiveCount()).append(" active");
+
+		for (Priority priority : Priority.values())
+			sb.append("\n  ").append(priority.name().toLowerCase(Locale.ENGLISH)).append(": ")
+					.append(getQueueDepth(priority)).append(" queued, ")
+					.append(getCompletedCount(priority)).append(" completed, ")
+					.append(getAverageWaitTime(priority)).append(" ms avg. wait (")
+					.append(getMaxWaitTime(priority)).append(" ms max), ")
+					.append(getAverageRunTime(priority)).append(" ms avg. run");
+
+		Log.d(TAG, sb.toString());
+	}
+
+	/**
+	 * Queue entry, ordered by priority and then by the order it was added in.
+	 */
+	private class QueuedTask implements Runnable, Comparable<QueuedTask> {
+
+		private final Runnable mTask;
+		private final Priority mPriority;
+		private final long mSequence, mQueuedAt;
+
+		QueuedTask(Runnable task, Priority priority, long sequence, long queuedAt) {
+			mTask = task;
+			mPriority = priority;
+			mSequence = sequence;
+			mQueuedAt = queuedAt;
+		}
+
+		@Override
+		public void run() {
+			Lane lane = mLanes[mPriority.ordinal()];
+			lane.queued.decrementAndGet();
+
+			long start = SystemClock.elapsedRealtime();
+			long wait = start - mQueuedAt;
+
+			try {
+				mTask.run();
+			} finally {
+				lane.completed.incrementAndGet();
+				lane.totalWaitTime.addAndGet(wait);
+				lane.totalRunTime.addAndGet(SystemClock.elapsedRealtime() - start);
+
+				long max;
+				while (wait > (max = lane.maxWaitTime.get()) && !lane.maxWaitTime.compareAndSet(max, wait));
+			}
+		}
+
+		@Override
+		public int compareTo(QueuedTask another) {
+			if (mPriority != another.mPriority)
+				return mPriority.ordinal() < another.mPriority.ordinal() ? -1 : 1;
+			return mSequence < another.mSequence ? -1 : (mSequence == another.mSequence ? 0 : 1);
+		}
+	}
+}
@@ -20,6 +20,8 @@ import android.content.Context;
 
 import com.miz.abstractclasses.MediumBaseMovie;
 
+import java.util.List;
+
 public class MediumMovie extends MediumBaseMovie {
 	
 	public MediumMovie(Context context, String title, String tmdbId, String rating, String releasedate,
@@ -29,5 +31,13 @@ public class MediumMovie extends MediumBaseMovie {
 		super(context, title, tmdbId, rating, releasedate, genres, favourite, cast, collection, collectionId,
 				toWatch, hasWatched, date_added, certification, runtime);
 	}
+
+	public MediumMovie(Context context, String title, String tmdbId, String rating, String releasedate,
+			String genres, String favourite, String cast, String collection, String collectionId, String toWatch, String hasWatched,
+			String date_added, String certification, String runtime, List<String> filepaths) {
+
+		super(context, title, tmdbId, rating, releasedate, genres, favourite, cast, collection, collectionId,
+				toWatch, hasWatched, date_added, certification, runtime, filepaths);
+	}
 	
 }
\ No newline at end of file
@@ -27,7 +27,6 @@ import android.content.SharedPreferences.Editor;
 import android.content.pm.ApplicationInfo;
 import android.content.res.Configuration;
 import android.content.res.Resources;
-import android.database.Cursor;
 import android.graphics.Bitmap;
 import android.graphics.Bitmap.Config;
 import android.graphics.BitmapFactory;
@@ -46,10 +45,6 @@ import android.os.Environment;
 import android.os.Looper;
 import android.os.StatFs;
 import android.preference.PreferenceManager;
-import android.support.v8.renderscript.Allocation;
-import android.support.v8.renderscript.Element;
-import android.support.v8.renderscript.RenderScript;
-import android.support.v8.renderscript.ScriptIntrinsicBlur;
 import android.text.TextUtils;
 import android.util.TypedValue;
 import android.view.Display;
@@ -62,9 +57,9 @@ import android.widget.FrameLayout;
 import android.widget.Toast;
 
 import com.miz.db.DbAdapterMovies;
-import com.miz.db.DbAdapterSources;
 import com.miz.db.DbAdapterTvShowEpisodes;
 import com.miz.db.DbAdapterTvShows;
+import com.miz.identification.FilenameParser;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.mizuu.R;
 import com.miz.mizuu.TvShow;
@@ -98,12 +93,16 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Random;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -588,149 +587,37 @@ public class MizLib {
     }
 
     public static int getThumbnailSize(Context c) {
-        final int mImageThumbSize = c.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_size);
-        final int mImageThumbSpacing = c.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_spacing);
-
-        WindowManager window = (WindowManager) c.getSystemService(Context.WINDOW_SERVICE);
-        Display d = window.getDefaultDisplay();
-
-        Point size = new Point();
-        d.getSize(size);
-
-        final int numColumns = (int) Math.floor(Math.max(size.x, size.y) / (mImageThumbSize + mImageThumbSpacing));
-
-        if (numColumns > 0) {
-            final int columnWidth = (Math.max(size.x, size.y) / numColumns) - mImageThumbSpacing;
-
-            if (columnWidth > 320)
-                return 440;
-            else if (columnWidth > 240)
-                return 320;
-            else if (columnWidth > 180)
-                return 240;
-        }
-
-        return 180;
+        return ImageProfile.get(c).getThumbnailSize();
     }
 
     public static void resizeBitmapFileToCoverSize(Context c, String filepath) {
+        final int imageWidth = ImageProfile.get(c).getCoverWidth();
 
-        final int mImageThumbSize = c.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_size);
-        final int mImageThumbSpacing = c.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_spacing);
-
-        WindowManager window = (WindowManager) c.getSystemService(Context.WINDOW_SERVICE);
-        Display d = window.getDefaultDisplay();
-
-        Point size = new Point();
-        d.getSize(size);
-
-        final int numColumns = (int) Math.floor(Math.max(size.x, size.y) / (mImageThumbSize + mImageThumbSpacing));
-
-        if (numColumns > 0) {
-            final int columnWidth = (Math.max(size.x, size.y) / numColumns) - mImageThumbSpacing;
-
-            int imageWidth = 0;
-
-            if (columnWidth > 300)
-                imageWidth = 500;
-            else if (columnWidth > 240)
-                imageWidth = 320;
-            else if (columnWidth > 180)
-                imageWidth = 240;
-            else
-                imageWidth = 180;
-
-            if (new File(filepath).exists())
-                try {
-                    Bitmap bm = decodeSampledBitmapFromFile(filepath, imageWidth, (int) (imageWidth * 1.5));
-                    bm = Bitmap.createScaledBitmap(bm, imageWidth, (int) (imageWidth * 1.5), true);
-                    FileOutputStream out = new FileOutputStream(filepath);
-                    bm.compress(Bitmap.CompressFormat.JPEG, 90, out);
-                    out.close();
-                    bm.recycle();
-                } catch (Exception e) {}
-        }
+        if (imageWidth > 0 && new File(filepath).exists())
+            try {
+                Bitmap bm = decodeSampledBitmapFromFile(filepath, imageWidth, (int) (imageWidth * 1.5));
+                bm = Bitmap.createScaledBitmap(bm, imageWidth, (int) (imageWidth * 1.5), true);
+                FileOutputStream out = new FileOutputStream(filepath);
+                bm.compress(Bitmap.CompressFormat.JPEG, 90, out);
+                out.close();
+                bm.recycle();
+            } catch (Exception e) {}
     }
 
     public static String getImageUrlSize(Context c) {
-        final int mImageThumbSize = c.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_size);
-        final int mImageThumbSpacing = c.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_spacing);
-
-        WindowManager window = (WindowManager) c.getSystemService(Context.WINDOW_SERVICE);
-        Display d = window.getDefaultDisplay();
-
-        Point size = new Point();
-        d.getSize(size);
-
-        final int numColumns = (int) Math.floor(Math.max(size.x, size.y) / (mImageThumbSize + mImageThumbSpacing));
-
-        if (numColumns > 0) {
-            final int columnWidth = (Math.max(size.x, size.y) / numColumns) - mImageThumbSpacing;
-
-            if (columnWidth > 300)
-                return "w500";
-            else if (columnWidth > 185)
-                return "w300";
-        }
-
-        return "w185";
+        return ImageProfile.get(c).getCoverUrlSize();
     }
 
     public static String getBackdropUrlSize(Context c) {
-        WindowManager window = (WindowManager) c.getSystemService(Context.WINDOW_SERVICE);
-        Display d = window.getDefaultDisplay();
-
-        Point size = new Point();
-        d.getSize(size);
-
-        final int width = Math.max(size.x, size.y);
-
-        if (width > 1280 && isTablet(c)) // We only want to download full size images on tablets, as these are the only devices where you can see the difference
-            return "original";
-        else if (width > 780)
-            return "w1280";
-        return "w780";
+        return ImageProfile.get(c).getBackdropUrlSize();
     }
 
     public static String getBackdropThumbUrlSize(Context c) {
-        WindowManager window = (WindowManager) c.getSystemService(Context.WINDOW_SERVICE);
-        Display d = window.getDefaultDisplay();
-
-        Point size = new Point();
-        d.getSize(size);
-
-        final int width = Math.min(size.x, size.y);
-
-        if (width >= 780)
-            return "w780";
-        if (width >= 400)
-            return "w500";
-        return "w300";
+        return ImageProfile.get(c).getBackdropThumbUrlSize();
     }
 
     public static String getActorUrlSize(Context c) {
-        final int mImageThumbSize = c.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_size);
-        final int mImageThumbSpacing = c.getResources().getDimensionPixelSize(R.dimen.image_thumbnail_spacing);
-
-        WindowManager window = (WindowManager) c.getSystemService(Context.WINDOW_SERVICE);
-        Display d = window.getDefaultDisplay();
-
-        Point size = new Point();
-        d.getSize(size);
-
-        final int numColumns = (int) Math.floor(Math.max(size.x, size.y) / (mImageThumbSize + mImageThumbSpacing));
-
-        if (numColumns > 0) {
-            final int columnWidth = (Math.max(size.x, size.y) / numColumns) - mImageThumbSpacing;
-
-            if (columnWidth > 400)
-                return "h632";
-
-            if (columnWidth >= 300)
-                return "w300";
-        }
-
-        return "w185";
+        return ImageProfile.get(c).getActorUrlSize();
     }
 
     public static boolean checkFileTypes(String file) {
@@ -770,24 +657,14 @@ public class MizLib {
     }
 
     /**
-     * Returns a blurred bitmap. It uses a RenderScript to blur the bitmap very fast.
+     * Returns a blurred bitmap. It uses the shared RenderScript context in {@link BlurService} to blur the bitmap very fast.
      * @param context
      * @param originalBitmap
      * @param radius
      * @return
      */
     public static Bitmap fastBlur(Context context, Bitmap originalBitmap, int radius) {
-        final RenderScript rs = RenderScript.create(context);
-
-        final Allocation input = Allocation.createFromBitmap(rs, originalBitmap);
-        final Allocation output = Allocation.createTyped(rs, input.getType());
-        final ScriptIntrinsicBlur script = ScriptIntrinsicBlur.create(rs, Element.U8_4(rs));
-        script.setRadius(radius);
-        script.setInput(input);
-        script.forEach(output);
-        output.copyTo(originalBitmap);
-
-        return originalBitmap;
+        return BlurService.getInstance(context).blur(originalBitmap, radius);
     }
 
     public static boolean downloadFile(String url, String savePath) {
@@ -849,11 +726,13 @@ public class MizLib {
                 .build();
 
         try {
+            // Rate limits are handled by the RateLimitInterceptor of the client
             Response response = client.newCall(request).execute();
 
             if (response.code() >= 429) {
                 // HTTP error 429 and above means that we've exceeded the query limit
-                // for TMDb. Sleep for 5 seconds and try again.
+                // for TMDb, or that the server had an error. Sleep for 5 seconds and try again.
+                response.body().close();
                 Thread.sleep(5000);
                 response = client.newCall(request).execute();
             }
@@ -922,52 +801,14 @@ public class MizLib {
 
     public static final int TYPE_MOVIE = 0, TYPE_SHOWS = 1;
 
+    /**
+     * Gets the file sources of a library. The sources are kept in memory
+     * by {@link FileSourceRegistry}, so this doesn't query the database.
+     * @param type {@link #TYPE_MOVIE} or {@link #TYPE_SHOWS}
+     * @param onlyNetworkSources True to only get SMB sources
+     */
     public static ArrayList<FileSource> getFileSources(int type, boolean onlyNetworkSources) {
-
-        ArrayList<FileSource> filesources = new ArrayList<FileSource>();
-        DbAdapterSources dbHelperSources = MizuuApplication.getSourcesAdapter();
-
-        Cursor c = null;
-        if (type == TYPE_MOVIE)
-            c = dbHelperSources.fetchAllMovieSources();
-        else
-            c = dbHelperSources.fetchAllShowSources();
-
-        ColumnIndexCache cache = new ColumnIndexCache();
-
-        try {
-            while (c.moveToNext()) {
-                if (onlyNetworkSources) {
-                    if (c.getInt(cache.getColumnIndex(c, DbAdapterSources.KEY_FILESOURCE_TYPE)) == FileSource.SMB) {
-                        filesources.add(new FileSource(
-                                c.getLong(cache.getColumnIndex(c, DbAdapterSources.KEY_ROWID)),
-                                c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_FILEPATH)),
-                                c.getInt(cache.getColumnIndex(c, DbAdapterSources.KEY_FILESOURCE_TYPE)),
-                                c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_USER)),
-                                c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_PASSWORD)),
-                                c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_DOMAIN)),
-                                c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_TYPE))
-                        ));
-                    }
-                } else {
-                    filesources.add(new FileSource(
-                            c.getLong(cache.getColumnIndex(c, DbAdapterSources.KEY_ROWID)),
-                            c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_FILEPATH)),
-                            c.getInt(cache.getColumnIndex(c, DbAdapterSources.KEY_FILESOURCE_TYPE)),
-                            c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_USER)),
-                            c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_PASSWORD)),
-                            c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_DOMAIN)),
-                            c.getString(cache.getColumnIndex(c, DbAdapterSources.KEY_TYPE))
-                    ));
-                }
-            }
-        } catch (Exception e) {
-        } finally {
-            c.close();
-            cache.clear();
-        }
-
-        return filesources;
+        return new ArrayList<FileSource>(FileSourceRegistry.getSources(type, onlyNetworkSources));
     }
 
     public static SmbLogin getLoginFromFilesource(FileSource source) {
@@ -982,18 +823,37 @@ public class MizLib {
     }
 
     public static SmbLogin getLoginFromFilepath(int type, String filepath) {
+        return getLoginFromFilesource(FileSourceRegistry.findSource(type, filepath));
+    }
 
-        ArrayList<FileSource> filesources = MizLib.getFileSources(type, true);
-        FileSource source = null;
+    /**
+     * Lists the file names of a network folder. Listings are shared through
+     * {@link MizuuApplication#getCifsFilesList(String)}, so a folder is only
+     * enumerated once for all lookups while its listing is cached.
+     * @param folder Path of the folder
+     * @param auth Login details for the file source
+     * @return File names in the folder, or null if it couldn't be listed
+     */
+    public static String[] getSmbFolderListing(String folder, SmbLogin auth) {
+        String[] list = MizuuApplication.getCifsFilesList(folder);
+        if (list != null)
+            return list;
 
-        for (int i = 0; i < filesources.size(); i++) {
-            if (filepath.contains(filesources.get(i).getFilepath())) {
-                source = filesources.get(i);
-                break;
-            }
+        try {
+            SmbFile s = new SmbFile(createSmbLoginString(
+                    auth.getDomain(),
+                    auth.getUsername(),
+                    auth.getPassword(),
+                    folder,
+                    true));
+
+            list = s.list();
+            MizuuApplication.putCifsFilesList(folder, list);
+        } catch (Exception e) {
+            return null;
         }
 
-        return getLoginFromFilesource(source);
+        return list;
     }
 
     public static int COVER = 1, BACKDROP = 2;
@@ -1004,24 +864,9 @@ public class MizLib {
 
         String filename = filepath.substring(0, filepath.lastIndexOf(".")).replaceAll("part[1-9]|cd[1-9]", "").trim();
 
-        String[] list = MizuuApplication.getCifsFilesList(parentPath);
-
-        if (list == null) {
-            SmbFile s = new SmbFile(createSmbLoginString(
-                    auth.getDomain(),
-                    auth.getUsername(),
-                    auth.getPassword(),
-                    parentPath,
-                    false));
-
-            try {
-                list = s.list();
-
-                MizuuApplication.putCifsFilesList(parentPath, list);
-            } catch (Exception e) {
-                return null;
-            }
-        }
+        String[] list = getSmbFolderListing(parentPath, auth);
+        if (list == null)
+            return null;
 
         String name = "", absolutePath = "", customCoverArt = "";
 
@@ -1094,31 +939,56 @@ public class MizLib {
     }
 
     public static String[] subtitleFormats = new String[]{".srt", ".sub", ".ssa", ".ssf", ".smi", ".txt", ".usf", ".ass", ".stp", ".idx", ".aqt", ".cvd", ".dks", ".jss", ".mpl", ".pjs", ".psb", ".rt", ".svcd", ".usf"};
+    private static final Set<String> SUBTITLE_EXTENSIONS = new HashSet<String>(Arrays.asList(subtitleFormats));
 
-    public static boolean isSubtitleFile(String s) {
-        int count = subtitleFormats.length;
-        for (int i = 0; i < count; i++)
-            if (s.endsWith(subtitleFormats[i]))
-                return true;
-        return false;
+    private static String getExtension(String s) {
+        int dot = s.lastIndexOf(".");
+        if (dot == -1)
+            return "";
+        return s.substring(dot).toLowerCase(Locale.ENGLISH);
     }
 
-    public static List<SmbFile> getSubtitleFiles(String filepath, SmbLogin auth) throws MalformedURLException, UnsupportedEncodingException {
-        ArrayList<SmbFile> subs = new ArrayList<SmbFile>();
-
-        String fileType = "";
-        if (filepath.contains(".")) {
-            fileType = filepath.substring(filepath.lastIndexOf("."));
-        }
+    public static boolean isSubtitleFile(String s) {
+        return SUBTITLE_EXTENSIONS.contains(getExtension(s));
+    }
 
-        int count = subtitleFormats.length;
-        for (int i = 0; i < count; i++) {
-            subs.add(new SmbFile(createSmbLoginString(
-                    auth.getDomain(),
-                    auth.getUsername(),
-                    auth.getPassword(),
-                    filepath.replace(fileType, subtitleFormats[i]),
-                    false)));
+    /**
+     * Finds the subtitle files belonging to a video file, i.e. files in the
+     * same folder named after the video with a subtitle extension, such as
+     * "Movie.srt" or "Movie.en.srt". The folder listing comes from
+     * {@link #getSmbFolderListing(String, SmbLogin)}.
+     * @param filepath Path of the video file
+     * @param auth Login details for the file source
+     * @return Subtitle files keyed by their file name
+     */
+    public static Map<String, SmbFile> getSubtitleFiles(String filepath, SmbLogin auth) throws MalformedURLException {
+        HashMap<String, SmbFile> subs = new HashMap<String, SmbFile>();
+
+        int slash = filepath.lastIndexOf("/");
+        String parentPath = filepath.substring(0, slash + 1);
+        String videoName = filepath.substring(slash + 1);
+        if (videoName.contains("."))
+            videoName = videoName.substring(0, videoName.lastIndexOf("."));
+
+        String[] list = getSmbFolderListing(parentPath, auth);
+        if (list == null)
+            return subs;
+
+        String prefix = videoName.toLowerCase(Locale.ENGLISH);
+        for (String name : list) {
+            String lowerCase = name.toLowerCase(Locale.ENGLISH);
+            if (!lowerCase.startsWith(prefix) || !isSubtitleFile(lowerCase))
+                continue;
+
+            // Either "Movie.srt" or "Movie.<tag>.srt"
+            String rest = lowerCase.substring(prefix.length());
+            if (rest.startsWith(".") && (rest.lastIndexOf(".") == 0 || rest.indexOf(".", 1) == rest.lastIndexOf(".")))
+                subs.put(name, new SmbFile(createSmbLoginString(
+                        auth.getDomain(),
+                        auth.getUsername(),
+                        auth.getPassword(),
+                        parentPath + name,
+                        false)));
         }
 
         return subs;
@@ -1441,97 +1311,23 @@ public class MizLib {
     }
 
     public static String decryptImdbId(String filename) {
-        Pattern p = Pattern.compile("(tt\\d{7})");
-        Matcher m = p.matcher(filename);
-        if (m.find())
-            return m.group(1);
-        return null;
+        return FilenameParser.decryptImdbId(filename);
     }
 
     public static String decryptName(String input, String customTags) {
-        if (TextUtils.isEmpty(input))
-            return "";
-
-        String output = getNameFromFilename(input);
-        output = fixAbbreviations(output);
-
-        // Used to remove [SET {title}] from the beginning of filenames
-        if (output.startsWith("[") && output.contains("]")) {
-            String after = "";
-
-            if (output.matches("(?i)^\\[SET .*\\].*?")) {
-                try {
-                    after = output.substring(output.indexOf("]") + 1, output.length());
-                } catch (Exception e) {}
-            }
-
-            if (!TextUtils.isEmpty(after))
-                output = after;
-        }
-
-        output = output.replaceAll(WAREZ_PATTERN + "|\\)|\\(|\\[|\\]|\\{|\\}|\\'|\\<|\\>|\\-", "");
-
-        // Improved support for French titles that start with C' or L'
-        if (output.matches("(?i)^(c|l)(\\_|\\.)\\w.*?")) {
-            StringBuilder sb = new StringBuilder(output);
-            sb.replace(1, 2, "'");
-            output = sb.toString();
-        }
-
-        if (!TextUtils.isEmpty(customTags)) {
-            String[] custom = customTags.split("<MiZ>");
-            int count = custom.length;
-            for (int i = 0; i < count; i++)
-                try {
-                    output = output.replaceAll("(?i)" + custom[i], "");
-                } catch (Exception e) {}
-        }
-
-        output = output.replaceAll("\\s\\-\\s|\\.|\\,|\\_", " "); // Remove separators
-        output = output.trim().replaceAll("(?i)(part)$", ""); // Remove "part" in the end of the string
-        output = output.trim().replaceAll("(?i)(?:s|season[ ._-]*)\\d{1,4}.*", ""); // Remove "season####" in the end of the string
-
-        return output.replaceAll(" +", " ").trim(); // replaceAll() needed to remove all instances of multiple spaces
+        return FilenameParser.decryptName(input, customTags);
     }
 
-    private final static String YEAR_PATTERN = "(18|19|20)[0-9][0-9]";
-    private final static String WAREZ_PATTERN = "(?i)(dvdscreener|dvdscreen|dvdscr|dvdrip|dvd5|dvd|xvid|divx|m\\-480p|m\\-576p|m\\-720p|m\\-864p|m\\-900p|m\\-1080p|m480p|m576p|m720p|m864p|m900p|m1080p|480p|576p|720p|864p|900p|1080p|1080i|720i|mhd|brrip|bdrip|brscreener|brscreen|brscr|aac|x264|bluray|dts|screener|hdtv|ac3|repack|2\\.1|5\\.1|ac3_6|7\\.1|h264|hdrip|ntsc|proper|readnfo|rerip|subbed|vcd|scvd|pdtv|sdtv|hqts|hdcam|multisubs|650mb|700mb|750mb|webdl|web-dl|bts|korrip|webrip|korsub|1link|sample|tvrip|tvr|extended.editions?|directors cut|tfe|unrated|\\(.*?torrent.*?\\)|\\[.*?\\]|\\(.*?\\)|\\{.*?\\}|part[0-9]|cd[0-9])";
-    private final static String ABBREVIATION_PATTERN = "(?<=(^|[.])[\\S&&\\D])[.](?=[\\S&&\\D]([.]|$))";
-
     public static String getNameFromFilename(String input) {
-        int lastIndex = 0;
-
-        Pattern searchPattern = Pattern.compile(YEAR_PATTERN);
-        Matcher searchMatcher = searchPattern.matcher(input);
-
-        while (searchMatcher.find())
-            lastIndex = searchMatcher.end();
-
-        if (lastIndex > 0)
-            try {
-                return input.substring(0, lastIndex - 4);
-            } catch (Exception e) {}
-
-        return input;
+        return FilenameParser.getNameFromFilename(input);
     }
 
     public static String fixAbbreviations(String input) {
-        return input.replaceAll(ABBREVIATION_PATTERN, "");
+        return FilenameParser.fixAbbreviations(input);
     }
 
     public static String decryptYear(String input) {
-        String result = "";
-        Pattern searchPattern = Pattern.compile(YEAR_PATTERN);
-        Matcher searchMatcher = searchPattern.matcher(input);
-
-        while (searchMatcher.find()) {
-            try {
-                int lastIndex = searchMatcher.end();
-                result = input.substring(lastIndex - 4, lastIndex);
-            } catch (Exception e) {}
-        }
-
-        return result;
+        return FilenameParser.decryptYear(input);
     }
 
     /**
@@ -1667,56 +1463,85 @@ public class MizLib {
         return mRuntimeInMinutes + minute;
     }
 
-    public static int getPartNumberFromFilepath(String filepath) {
-        if (filepath.matches(".*part[1-9].*"))
-            filepath = filepath.substring(filepath.lastIndexOf("part") + 4, filepath.length());
-        else if (filepath.matches(".*cd[1-9].*"))
-            filepath = filepath.substring(filepath.lastIndexOf("cd") + 2, filepath.length());
+    /**
+     * Matches the file name of a split file, such as "Movie.cd1.avi", "Movie part 2.mkv"
+     * or "Movie-disc10.mkv". Group 1 is the name before the part marker, group 2 is the
+     * marker, group 3 is the part number and group 4 is the remainder, i.e. the extension.
+     */
+    private static final Pattern SPLIT_PART_PATTERN = Pattern.compile("^(.*)(part|cd|disc|disk)[ ._-]?(\\d+)(\\D.*)?$", Pattern.CASE_INSENSITIVE);
 
-        filepath = filepath.substring(0, 1);
+    public static int getPartNumberFromFilepath(String filepath) {
+        Matcher matcher = SPLIT_PART_PATTERN.matcher(filepath.substring(filepath.lastIndexOf("/") + 1));
+        if (!matcher.matches())
+            return 0;
 
         try {
-            return Integer.valueOf(filepath);
+            return Integer.valueOf(matcher.group(3));
         } catch (NumberFormatException nfe) { return 0; }
     }
 
-    public static List<String> getSplitParts(String filepath, SmbLogin auth) throws MalformedURLException, UnsupportedEncodingException, SmbException {
+    /**
+     * Finds all parts of a split file. The parent folder is listed once
+     * (network listings are shared through {@link #getSmbFolderListing(String, SmbLogin)})
+     * and every name in it is matched against the part naming of the given file.
+     * @param filepath Path of one of the parts
+     * @param auth Login details for network files, or null for local files
+     * @return Paths of all parts, ordered by part number
+     */
+    public static List<String> getSplitParts(String filepath, SmbLogin auth) {
         ArrayList<String> parts = new ArrayList<String>();
 
-        String fileType = "";
-        if (filepath.contains(".")) {
-            fileType = filepath.substring(filepath.lastIndexOf("."));
-        }
+        int slash = filepath.lastIndexOf("/");
+        String parentPath = filepath.substring(0, slash + 1);
+
+        Matcher matcher = SPLIT_PART_PATTERN.matcher(filepath.substring(slash + 1));
+        if (!matcher.matches())
+            return parts;
+
+        String key = getSplitPartKey(matcher);
+
+        String[] list;
+        if (auth == null) // Check if it's a local file
+            list = new File(parentPath).list();
+        else // It's a network file
+            list = getSmbFolderListing(parentPath, auth);
 
-        if (filepath.matches(".*part[1-9].*"))
-            filepath = filepath.substring(0, filepath.lastIndexOf("part") + 4);
-        else if (filepath.matches(".*cd[1-9].*"))
-            filepath = filepath.substring(0, filepath.lastIndexOf("cd") + 2);
-
-        if (auth == null) { // Check if it's a local file
-            File temp;
-            for (int i = 1; i < 10; i++) {
-                temp = new File(filepath + i + fileType);
-                if (temp.exists())
-                    parts.add(temp.getAbsolutePath());
+        if (list == null)
+            return parts;
+
+        TreeMap<Long, String> sortedParts = new TreeMap<Long, String>();
+        for (String name : list) {
+            matcher = SPLIT_PART_PATTERN.matcher(name);
+            if (matcher.matches() && key.equals(getSplitPartKey(matcher))) {
+                try {
+                    sortedParts.put(Long.valueOf(matcher.group(3)), name);
+                } catch (NumberFormatException ignored) {}
             }
-        } else { // It's a network file
-            SmbFile temp;
-            for (int i = 1; i < 10; i++) {
-                temp = new SmbFile(createSmbLoginString(
+        }
+
+        for (String name : sortedParts.values()) {
+            if (auth == null)
+                parts.add(new File(parentPath + name).getAbsolutePath());
+            else
+                parts.add(createSmbLoginString(
                         auth.getDomain(),
                         auth.getUsername(),
                         auth.getPassword(),
-                        filepath + i + fileType,
+                        parentPath + name,
                         false));
-                if (temp.exists())
-                    parts.add(temp.getPath());
-            }
         }
 
         return parts;
     }
 
+    /**
+     * Parts of the same file share everything but the part number.
+     */
+    private static String getSplitPartKey(Matcher matcher) {
+        String remainder = matcher.group(4) == null ? "" : matcher.group(4);
+        return (matcher.group(1) + matcher.group(2) + "|" + remainder).toLowerCase(Locale.ENGLISH);
+    }
+
     public static String transformSmbPath(String smbPath) {
         if (smbPath.contains("smb") && smbPath.contains("@"))
             return "smb://" + smbPath.substring(smbPath.indexOf("@") + 1);
@@ -1764,22 +1589,7 @@ public class MizLib {
     }
 
     public static File getRandomBackdropFile(Context c) {
-        ArrayList<File> files = new ArrayList<File>();
-
-        File[] f = MizuuApplication.getMovieBackdropFolder(c).listFiles();
-        if (f != null)
-            Collections.addAll(files, f);
-
-        f = MizuuApplication.getTvShowBackdropFolder(c).listFiles();
-        if (f != null)
-            Collections.addAll(files, f);
-
-        if (files.size() > 0) {
-            Random rndm = new Random();
-            return files.get(rndm.nextInt(files.size()));
-        }
-
-        return new File("");
+        return BackdropPicker.getInstance(c).getRandomBackdrop();
     }
 
     public static boolean isValidFilename(String name) {
@@ -2004,14 +1814,25 @@ public class MizLib {
         }
     }
 
+    // In-memory copy of the stored TMDb base URL, so it isn't read from the preferences for every image
+    private static String sTmdbBaseUrl;
+    private static long sTmdbBaseUrlTime;
+
     public static String getTmdbImageBaseUrl(Context context) {
-        long time = PreferenceManager.getDefaultSharedPreferences(context).getLong(TMDB_BASE_URL_TIME, 0);
         long currentTime = System.currentTimeMillis();
 
+        if (sTmdbBaseUrl == null) {
+            SharedPreferences settings = PreferenceManager.getDefaultSharedPreferences(context);
+            if (settings.contains(TMDB_BASE_URL)) {
+                sTmdbBaseUrl = settings.getString(TMDB_BASE_URL, "");
+                sTmdbBaseUrlTime = settings.getLong(TMDB_BASE_URL_TIME, 0);
+            }
+        }
+
         // We store the TMDb base URL for 24 hours
-        if (((currentTime - time) < DAY && PreferenceManager.getDefaultSharedPreferences(context).contains(TMDB_BASE_URL)) |
+        if ((sTmdbBaseUrl != null && (currentTime - sTmdbBaseUrlTime) < DAY) |
                 Looper.getMainLooper().getThread() == Thread.currentThread()) {
-            return PreferenceManager.getDefaultSharedPreferences(context).getString(TMDB_BASE_URL, "");
+            return sTmdbBaseUrl != null ? sTmdbBaseUrl : "";
         }
 
         try {
@@ -2020,9 +1841,12 @@ public class MizLib {
 
             Editor editor = PreferenceManager.getDefaultSharedPreferences(context).edit();
             editor.putString(TMDB_BASE_URL, baseUrl);
-            editor.putLong(TMDB_BASE_URL_TIME, System.currentTimeMillis());
+            editor.putLong(TMDB_BASE_URL_TIME, currentTime);
             editor.commit();
 
+            sTmdbBaseUrl = baseUrl;
+            sTmdbBaseUrlTime = currentTime;
+
             return baseUrl;
         } catch (JSONException e) {
             return null;
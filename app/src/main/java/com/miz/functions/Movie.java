@@ -124,7 +124,7 @@ public class Movie extends MediumBaseMovie {
 	}
 
 	public boolean isSplitFile(String path) {
-		return path.matches(".*(cd1|part1).*");
+		return MizLib.getPartNumberFromFilepath(path) == 1;
 	}
 
 	public boolean isPartOfCollection() {
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.miz.mizuu.MizuuApplication;
+import com.miz.utils.StringUtils;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Names of the files in the offline storage folder, so checking if a video
+ * has an offline copy doesn't touch the disk. Offline copies are named after
+ * the MD5 hash of the video path, and those names are remembered as well,
+ * for every path that has been checked since the manifest was last invalidated.
+ * The folder is listed again when it has been modified, which is checked at
+ * most every few seconds, and at least once a minute in case the file system
+ * doesn't update the modification time of folders.
+ */
+public class OfflineManifest {
+
+	// Time between checks of the folder's modification time
+	private static final long CHECK_INTERVAL = 5 * MizLib.SECOND;
+
+	// Time before the folder is listed again, even if it looks unchanged
+	private static final long RELOAD_INTERVAL = MizLib.MINUTE;
+
+	private static OfflineManifest sInstance;
+
+	private final File mFolder;
+	private final ConcurrentHashMap<String, String> mNames = new ConcurrentHashMap<String, String>();
+	private volatile Set<String> mFiles = Collections.emptySet();
+	private volatile long mLastCheck, mLastReload;
+	private volatile boolean mLoaded;
+	private long mLastModified;
+
+	private OfflineManifest(Context context) {
+		mFolder = MizuuApplication.getAvailableOfflineFolder(context);
+	}
+
+	public static synchronized OfflineManifest getInstance(Context context) {
+		if (sInstance == null)
+			sInstance = new OfflineManifest(context.getApplicationContext());
+		return sInstance;
+	}
+
+	/**
+	 * Checks if a video has an offline copy.
+	 * @param filepath Path of the video
+	 */
+	public boolean contains(String filepath) {
+		Set<String> files = getFiles();
+
+		// Nothing to hash if there aren't any offline copies
+		if (files.isEmpty())
+			return false;
+
+		return files.contains(getName(filepath));
+	}
+
+	/**
+	 * Gets the offline copy of a video, whether it exists or not.
+	 * @param filepath Path of the video
+	 */
+	public File getFile(String filepath) {
+		return new File(mFolder, getName(filepath));
+	}
+
+	/**
+	 * Makes the next check list the folder again, i.e. after an offline copy
+	 * has been added or removed.
+	 */
+	public synchronized void invalidate() {
+		mNames.clear();
+		mLoaded = false;
+		mLastCheck = 0;
+	}
+
+	private Set<String> getFiles() {
+		long now = SystemClock.elapsedRealtime();
+		if (mLoaded && now - mLastCheck < CHECK_INTERVAL)
+			return mFiles;
+
+		synchronized (this) {
+			if (!mLoaded || now - mLastCheck >= CHECK_INTERVAL) {
+				long lastModified = mFolder.lastModified();
+
+				if (!mLoaded || lastModified != mLastModified || now - mLastReload >= RELOAD_INTERVAL) {
+					String[] list = mFolder.list();
+					mFiles = list == null ? Collections.<String>emptySet() : new HashSet<String>(Arrays.asList(list));
+					mLastModified = lastModified;
+					mLastReload = now;
+					mLoaded = true;
+				}
+
+				mLastCheck = now;
+			}
+
+			return mFiles;
+		}
+	}
+
+	/**
+	 * Gets the file name of the offline copy of a video.
+	 */
+	private String getName(String filepath) {
+		String name = mNames.get(filepath);
+		if (name == null) {
+			name = MizLib.md5(filepath) + "." + StringUtils.getExtension(filepath);
+			mNames.put(filepath, name);
+		}
+		return name;
+	}
+}
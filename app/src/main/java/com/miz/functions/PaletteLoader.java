@@ -2,6 +2,7 @@ package com.miz.functions;
 
 import android.animation.ArgbEvaluator;
 import android.animation.ObjectAnimator;
+import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.net.Uri;
 import android.support.v7.graphics.Palette;
@@ -11,11 +12,19 @@ import com.melnykov.fab.FloatingActionButton;
 import com.miz.mizuu.MizuuApplication;
 import com.squareup.picasso.Picasso;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-public class PaletteLoader extends AsyncTask<Void, Void, Palette> {
+public class PaletteLoader extends AsyncTask<Void, Void, int[]> {
+
+    /**
+     * Images are scaled down to fit within this size before generating
+     * a palette. The swatch colors are practically the same, and it's
+     * a lot faster than going through every pixel of a full-size image.
+     */
+    private static final int PALETTE_IMAGE_SIZE = 100;
 
     private final Picasso mPicasso;
     private final String mKey;
@@ -64,42 +73,112 @@ public class PaletteLoader extends AsyncTask<Void, Void, Palette> {
     }
 
     @Override
-    protected Palette doInBackground(Void... params) {
-        Palette palette = MizuuApplication.getPalette(getPaletteKey());
+    protected int[] doInBackground(Void... params) {
+        int[] colors = getColors(getPaletteKey());
 
-        if (palette == null) {
+        if (colors == null) {
             try {
-                palette = Palette.generate(mPicasso.load(getImage()).get());
+                Bitmap bitmap = mPicasso.load(getImage())
+                        .resize(PALETTE_IMAGE_SIZE, PALETTE_IMAGE_SIZE)
+                        .centerInside()
+                        .get();
+                colors = generate(getPaletteKey(), bitmap);
             } catch (IOException e) {}
         }
 
-        return palette;
+        return colors;
     }
 
     @Override
-    protected void onPostExecute(Palette result) {
+    protected void onPostExecute(int[] result) {
         if (result != null) {
-            // Add it to the Palette cache
-            MizuuApplication.addToPaletteCache(getPaletteKey(), result);
+            for (int color : result) {
+                if (color != 0) {
+                    // Set the found color
+                    mSwatchColor = color;
 
-            Palette.Swatch sw = result.getDarkVibrantSwatch();
+                    // Color the views
+                    colorViews();
 
-            if (sw == null)
-                sw = result.getDarkMutedSwatch();
+                    mOnPaletteLoadedCallback.onPaletteLoaded(getSwatchColor());
+                    break;
+                }
+            }
+        }
+    }
 
-            if (sw == null)
-                sw = result.getVibrantSwatch();
+    /**
+     * Generates and saves the palette of a local image, so it's ready once
+     * the image is shown. Meant to be called on a background thread, i.e.
+     * right after the image has been downloaded.
+     * @param key Palette key, i.e. the image URI used when loading the palette
+     * @param image Image file
+     */
+    public static void precompute(String key, File image) {
+        if (!image.exists())
+            return;
+
+        Bitmap bitmap = MizLib.decodeSampledBitmapFromFile(image.getAbsolutePath(), PALETTE_IMAGE_SIZE, PALETTE_IMAGE_SIZE);
+        if (bitmap != null) {
+            generate(key, bitmap);
+            bitmap.recycle();
+        }
+    }
 
-            if (sw != null) {
-                // Set the found color
-                mSwatchColor = sw.getRgb();
+    /**
+     * Forgets the palette of an image, i.e. because the image has been replaced
+     * or removed. Palettes are keyed by either the URI or the path of the image,
+     * so both are removed.
+     */
+    public static void delete(File image) {
+        for (String key : new String[]{Uri.fromFile(image).toString(), image.getAbsolutePath()}) {
+            MizuuApplication.removeFromPaletteCache(key);
+            MizuuApplication.getPalettesAdapter().deletePalette(key);
+        }
+    }
 
-                // Color the views
-                colorViews();
+    /**
+     * Forgets every palette, i.e. when a library is cleared.
+     */
+    public static void deleteAll() {
+        MizuuApplication.clearPaletteCache();
+        MizuuApplication.getPalettesAdapter().deleteAllPalettes();
+    }
 
-                mOnPaletteLoadedCallback.onPaletteLoaded(getSwatchColor());
-            }
+    /**
+     * Gets the swatch colors for an image from the in-memory cache,
+     * or from the database if they've been generated before.
+     */
+    private static int[] getColors(String key) {
+        int[] colors = MizuuApplication.getPaletteColors(key);
+
+        if (colors == null) {
+            colors = MizuuApplication.getPalettesAdapter().getPalette(key);
+            if (colors != null)
+                MizuuApplication.addToPaletteCache(key, colors);
         }
+
+        return colors;
+    }
+
+    private static int[] generate(String key, Bitmap bitmap) {
+        Palette palette = Palette.generate(bitmap);
+
+        // Dark vibrant, dark muted and vibrant, in order of preference
+        int[] colors = new int[]{
+                getRgb(palette.getDarkVibrantSwatch()),
+                getRgb(palette.getDarkMutedSwatch()),
+                getRgb(palette.getVibrantSwatch())
+        };
+
+        MizuuApplication.addToPaletteCache(key, colors);
+        MizuuApplication.getPalettesAdapter().createOrUpdatePalette(key, colors);
+
+        return colors;
+    }
+
+    private static int getRgb(Palette.Swatch swatch) {
+        return swatch != null ? swatch.getRgb() : 0;
     }
 
     public void colorViews() {
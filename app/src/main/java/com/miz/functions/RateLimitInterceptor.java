@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.text.TextUtils;
+
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Lets requests to rate limited API hosts through the host's {@link RateLimiter},
+ * and slows down when the server says so. Responses with HTTP 429 pause the host
+ * for as long as the Retry-After header asks, and the request is tried again.
+ * The X-RateLimit-Remaining and X-RateLimit-Reset headers pause the host until
+ * the limit is reset, once there are no requests left.
+ */
+public class RateLimitInterceptor implements Interceptor {
+
+	private static final int HTTP_TOO_MANY_REQUESTS = 429;
+	private static final int MAX_RETRIES = 2;
+
+	// Used when a 429 response doesn't say how long to wait
+	private static final long DEFAULT_RETRY_AFTER = 5000; // ms
+
+	// Longest pause we accept from a header, in case of a bogus value
+	private static final long MAX_PAUSE = 60000; // ms
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Request request = chain.request();
+
+		RateLimiter limiter = RateLimiter.forHost(request.httpUrl().host());
+		if (limiter == null)
+			return chain.proceed(request);
+
+		for (int attempt = 0; ; attempt++) {
+			try {
+				limiter.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for " + limiter.getHost());
+			}
+
+			Response response = chain.proceed(request);
+
+			if (response.code() != HTTP_TOO_MANY_REQUESTS) {
+				long reset = getResetTime(response);
+				if (reset > 0)
+					limiter.pause(reset);
+				return response;
+			}
+
+			long retryAfter = getRetryAfter(response);
+			limiter.pause(retryAfter > 0 ? retryAfter : DEFAULT_RETRY_AFTER);
+
+			if (attempt == MAX_RETRIES)
+				return response;
+
+			response.body().close();
+		}
+	}
+
+	/**
+	 * Gets the time to wait from a Retry-After header,
+	 * which is either a number of seconds or an HTTP date.
+	 * @return Time to wait in milliseconds, or 0 if there's no valid header
+	 */
+	static long getRetryAfter(Response response) {
+		String retryAfter = response.header("Retry-After");
+		if (TextUtils.isEmpty(retryAfter))
+			return 0;
+
+		long millis;
+		try {
+			millis = Long.parseLong(retryAfter.trim()) * 1000;
+		} catch (NumberFormatException e) {
+			try {
+				SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+				format.setTimeZone(TimeZone.getTimeZone("GMT"));
+				Date date = format.parse(retryAfter.trim());
+				millis = date.getTime() - System.currentTimeMillis();
+			} catch (Exception ignored) {
+				return 0;
+			}
+		}
+
+		return Math.max(0, Math.min(millis, MAX_PAUSE));
+	}
+
+	/**
+	 * Gets the time until the rate limit is reset, if there are no requests left.
+	 * @return Time to wait in milliseconds, or 0 if requests are still allowed
+	 */
+	static long getResetTime(Response response) {
+		String remaining = response.header("X-RateLimit-Remaining");
+		String reset = response.header("X-RateLimit-Reset");
+		if (TextUtils.isEmpty(remaining) || TextUtils.isEmpty(reset))
+			return 0;
+
+		try {
+			if (Integer.parseInt(remaining.trim()) > 0)
+				return 0;
+
+			// The reset time is in seconds since the epoch
+			long millis = Long.parseLong(reset.trim()) * 1000 - System.currentTimeMillis();
+			return Math.max(0, Math.min(millis, MAX_PAUSE));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.miz.mizuu.BuildConfig;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client-side token bucket for the requests to an API host. Requests take a
+ * token each, and tokens are added back at a fixed rate up to the size of the
+ * bucket. Callers that have to wait are served in the order they arrived.
+ * The server can pause the host for a while, i.e. when it answers with
+ * HTTP 429 and a Retry-After header, see {@link RateLimitInterceptor}.
+ */
+public class RateLimiter {
+
+	private static final String TAG = "RateLimiter";
+
+	// Time span that the current rate is measured over
+	private static final long RATE_WINDOW = 10000; // ms
+
+	private static final Map<String, RateLimiter> sLimiters;
+
+	static {
+		HashMap<String, RateLimiter> limiters = new HashMap<String, RateLimiter>();
+
+		// TMDb allows 40 requests every 10 seconds. A burst of 10 plus
+		// 3 requests a second keeps every 10 second window below that.
+		limiters.put("api.themoviedb.org", new RateLimiter("api.themoviedb.org", 10, 334));
+
+		// Trakt doesn't document a limit, so stay well clear of one
+		limiters.put("api.trakt.tv", new RateLimiter("api.trakt.tv", 5, 1000));
+
+		sLimiters = Collections.unmodifiableMap(limiters);
+	}
+
+	private final String mHost;
+	private final int mCapacity;
+	private final long mRefillInterval;
+
+	// Fair, so waiting callers get their token in the order they asked for it
+	private final ReentrantLock mLock = new ReentrantLock(true);
+	private double mTokens;
+	private long mLastRefill;
+
+	private final AtomicLong mPausedUntil = new AtomicLong();
+	private final AtomicInteger mWaiting = new AtomicInteger();
+	private final AtomicLong mRequestCount = new AtomicLong();
+	private final AtomicLong mThrottleCount = new AtomicLong();
+	private final ArrayDeque<Long> mRecent = new ArrayDeque<Long>();
+
+	/**
+	 * @param capacity Maximum number of requests in a burst
+	 * @param refillInterval Time in milliseconds between each token that's added back
+	 */
+	RateLimiter(String host, int capacity, long refillInterval) {
+		mHost = host;
+		mCapacity = capacity;
+		mRefillInterval = refillInterval;
+		mTokens = capacity;
+		mLastRefill = SystemClock.elapsedRealtime();
+	}
+
+	/**
+	 * Gets the rate limiter of an API host.
+	 * @return The rate limiter, or null if requests to the host aren't limited
+	 */
+	public static RateLimiter forHost(String host) {
+		return sLimiters.get(host);
+	}
+
+	/**
+	 * Gets the rate limiters of every limited API host.
+	 */
+	public static Collection<RateLimiter> getAll() {
+		return sLimiters.values();
+	}
+
+	/**
+	 * Blocks until a request to the host is allowed.
+	 */
+	public void acquire() throws InterruptedException {
+		mWaiting.incrementAndGet();
+		mLock.lockInterruptibly();
+		try {
+			long wait;
+			while ((wait = getWaitTime()) > 0)
+				Thread.sleep(wait);
+
+			mTokens -= 1;
+		} finally {
+			mLock.unlock();
+			mWaiting.decrementAndGet();
+		}
+
+		mRequestCount.incrementAndGet();
+
+		long now = SystemClock.elapsedRealtime();
+		synchronized (mRecent) {
+			mRecent.addLast(now);
+			prune(now);
+		}
+	}
+
+	/**
+	 * Refills the bucket and gets the time until the next token can be taken.
+	 * Must be called with the lock held.
+	 */
+	private long getWaitTime() {
+		long now = SystemClock.elapsedRealtime();
+
+		mTokens = Math.min(mCapacity, mTokens + (double) (now - mLastRefill) / mRefillInterval);
+		mLastRefill = now;
+
+		long pausedUntil = mPausedUntil.get();
+		if (now < pausedUntil)
+			return pausedUntil - now;
+
+		if (mTokens >= 1)
+			return 0;
+
+		return (long) Math.ceil((1 - mTokens) * mRefillInterval);
+	}
+
+	/**
+	 * Stops requests to the host for a while, i.e. because the server
+	 * asked for it with a Retry-After header.
+	 * @param millis Time to wait in milliseconds
+	 */
+	public void pause(long millis) {
+		long until = SystemClock.elapsedRealtime() + millis;
+
+		long current;
+		while (until > (current = mPausedUntil.get()) && !mPausedUntil.compareAndSet(current, until));
+
+		mThrottleCount.incrementAndGet();
+
+		if (BuildConfig.DEBUG)
+			Log.d(TAG, mHost + " paused for " + millis + " ms, " + getQueueLength() + " waiting");
+	}
+
+	public String getHost() {
+		return mHost;
+	}
+
+	/**
+	 * Number of requests per second over the last 10 seconds.
+	 */
+	public double getRate() {
+		synchronized (mRecent) {
+			prune(SystemClock.elapsedRealtime());
+			return mRecent.size() * 1000.0 / RATE_WINDOW;
+		}
+	}
+
+	/**
+	 * Number of requests waiting for their turn.
+	 */
+	public int getQueueLength() {
+		return mWaiting.get();
+	}
+
+	/**
+	 * Number of requests that have been let through.
+	 */
+	public long getRequestCount() {
+		return mRequestCount.get();
+	}
+
+	/**
+	 * Number of times the server has asked us to slow down.
+	 */
+	public long getThrottleCount() {
+		return mThrottleCount.get();
+	}
+
+	private void prune(long now) {
+		while (!mRecent.isEmpty() && mRecent.peekFirst() <= now - RATE_WINDOW)
+			mRecent.removeFirst();
+	}
+
+	/**
+	 * Logs the counters of every limited host.
+	 */
+	public static void logStats() {
+		StringBuilder sb = new StringBuilder();
+		for (RateLimiter limiter : getAll())
+			sb.append("\n  ").append(limiter.getHost()).append(": ")
+					.append(String.format(Locale.ENGLISH, "%.1f", limiter.getRate())).append(" req/s, ")
+					.append(limiter.getQueueLength()).append(" waiting, ")
+					.append(limiter.getRequestCount()).append(" requests, ")
+					.append(limiter.getThrottleCount()).append(" throttled");
+
+		Log.d(TAG, sb.toString());
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.functions;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.miz.mizuu.BuildConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the app startup work in named phases. Critical phases run right away
+ * on the calling thread, while deferred phases run one at a time on a
+ * background thread, in the order they were added. In debug builds, the
+ * time spent in every phase is logged once startup has completed, so
+ * startup time can be compared between builds.
+ */
+public class StartupInitializer {
+
+	private static final String TAG = "MizuuStartup";
+
+	private final List<Phase> mDeferred = new ArrayList<Phase>();
+	private final LinkedHashMap<String, Long> mTimings = new LinkedHashMap<String, Long>();
+	private long mCriticalTime;
+
+	private static class Phase {
+		final String name;
+		final Runnable task;
+
+		Phase(String name, Runnable task) {
+			this.name = name;
+			this.task = task;
+		}
+	}
+
+	/**
+	 * Runs a phase immediately on the calling thread.
+	 */
+	public StartupInitializer runNow(String name, Runnable task) {
+		long start = SystemClock.elapsedRealtime();
+		task.run();
+		long time = SystemClock.elapsedRealtime() - start;
+
+		synchronized (mTimings) {
+			mTimings.put(name, time);
+		}
+		mCriticalTime += time;
+
+		return this;
+	}
+
+	/**
+	 * Adds a phase to be run in the background once {@link #start()} is called,
+	 * after the deferred phases that were added before it.
+	 * @param name Name of the phase
+	 * @param task Work to do
+	 */
+	public StartupInitializer defer(String name, Runnable task) {
+		mDeferred.add(new Phase(name, task));
+		return this;
+	}
+
+	/**
+	 * Starts running the deferred phases on a background thread.
+	 */
+	public void start() {
+		final List<Phase> phases = new ArrayList<Phase>(mDeferred);
+
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+				long deferredTime = 0;
+				for (Phase phase : phases) {
+					long start = SystemClock.elapsedRealtime();
+					try {
+						phase.task.run();
+					} catch (Exception e) {
+						Log.e(TAG, "Startup phase '" + phase.name + "' failed", e);
+					}
+					long time = SystemClock.elapsedRealtime() - start;
+
+					synchronized (mTimings) {
+						mTimings.put(phase.name, time);
+					}
+					deferredTime += time;
+				}
+
+				if (BuildConfig.DEBUG)
+					logTimings(deferredTime);
+			}
+		}, "StartupInitializer").start();
+	}
+
+	/**
+	 * Gets the time in milliseconds spent in each phase that has completed.
+	 */
+	public Map<String, Long> getTimings() {
+		synchronized (mTimings) {
+			return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(mTimings));
+		}
+	}
+
+	private void logTimings(long deferredTime) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Startup took ").append(mCriticalTime).append(" ms on the main thread and ")
+				.append(deferredTime).append(" ms in the background");
+
+		for (Map.Entry<String, Long> timing : getTimings().entrySet())
+			sb.append("\n  ").append(timing.getKey()).append(": ").append(timing.getValue()).append(" ms");
+
+		Log.d(TAG, sb.toString());
+	}
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.identification;
+
+import android.os.Process;
+import android.text.TextUtils;
+
+import com.miz.functions.MizLib;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads artwork in the background for the identification classes.
+ * Jobs run on a small bounded pool, identical URL / target pairs that are
+ * already queued or downloading are collapsed into one job, failed downloads
+ * are retried with exponential backoff, and files are written to a temporary
+ * file that's renamed into place once the download is complete. Actions that
+ * need the images of an item, such as notifications, can be run once the
+ * downloads of that item are done with {@link #runAfter(List, Runnable)}.
+ */
+public class ArtworkDownloadManager {
+
+    private static final int POOL_SIZE = 3;
+    private static final int QUEUE_SIZE = 128;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long INITIAL_BACKOFF = 500; // milliseconds
+
+    private static ArtworkDownloadManager sInstance;
+
+    private final ConcurrentHashMap<String, Download> mInFlight = new ConcurrentHashMap<String, Download>();
+    private final ThreadPoolExecutor mExecutor, mFollowUpExecutor;
+
+    private static final ThreadFactory sThreadFactory = new ThreadFactory() {
+        private final AtomicInteger mCount = new AtomicInteger(1);
+
+        public Thread newThread(final Runnable r) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "ArtworkDownload #" + mCount.getAndIncrement());
+        }
+    };
+
+    private ArtworkDownloadManager() {
+        BlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>(QUEUE_SIZE);
+
+        // If the queue is full, the identification thread downloads
+        // the image itself, which keeps it from running too far ahead
+        mExecutor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+                queue, sThreadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        mExecutor.allowCoreThreadTimeOut(true);
+
+        // Follow-up actions run one at a time, in the order they were queued
+        mFollowUpExecutor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), sThreadFactory);
+        mFollowUpExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * A queued or running download, and the actions to run once it has succeeded.
+     * Identical downloads that are queued while it's in flight add their actions to it.
+     */
+    private class Download implements Callable<Boolean> {
+        private final String mUrl, mSavePath, mKey;
+        private final List<Runnable> mCallbacks = new ArrayList<Runnable>();
+        private final FutureTask<Boolean> mTask = new FutureTask<Boolean>(this);
+        private boolean mFinished;
+
+        Download(String url, String savePath, String key) {
+            mUrl = url;
+            mSavePath = savePath;
+            mKey = key;
+        }
+
+        /**
+         * @return False if the download has already finished, in which case the action isn't added
+         */
+        synchronized boolean addCallback(Runnable onSuccess) {
+            if (mFinished)
+                return false;
+            if (onSuccess != null)
+                mCallbacks.add(onSuccess);
+            return true;
+        }
+
+        @Override
+        public Boolean call() {
+            try {
+                boolean success = download(mUrl, mSavePath);
+
+                List<Runnable> callbacks;
+                synchronized (this) {
+                    mFinished = true;
+                    callbacks = new ArrayList<Runnable>(mCallbacks);
+                }
+
+                if (success)
+                    for (Runnable callback : callbacks)
+                        callback.run();
+
+                return success;
+            } finally {
+                mInFlight.remove(mKey);
+            }
+        }
+    }
+
+    public static synchronized ArtworkDownloadManager getInstance() {
+        if (sInstance == null)
+            sInstance = new ArtworkDownloadManager();
+        return sInstance;
+    }
+
+    public Future<Boolean> enqueue(String url, String savePath) {
+        return enqueue(url, savePath, null);
+    }
+
+    /**
+     * Queues an image download.
+     * @param url URL of the image
+     * @param savePath Path the image should be saved to
+     * @param onSuccess Optional action to run on the download thread once the image has been saved.
+     *                  If an identical download is already in flight, the action is added to that one.
+     * @return Future with the result of the download, shared with any identical download already in flight
+     */
+    public Future<Boolean> enqueue(final String url, final String savePath, final Runnable onSuccess) {
+        if (TextUtils.isEmpty(url) || TextUtils.isEmpty(savePath)) {
+            FutureTask<Boolean> failed = new FutureTask<Boolean>(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return false;
+                }
+            });
+            failed.run();
+            return failed;
+        }
+
+        final String key = url + "|" + savePath;
+
+        Download download = new Download(url, savePath, key);
+        download.addCallback(onSuccess);
+
+        Download existing = mInFlight.putIfAbsent(key, download);
+        if (existing != null) {
+            if (!existing.addCallback(onSuccess) && onSuccess != null) {
+                // The download finished while this one was being queued
+                try {
+                    if (existing.mTask.get())
+                        onSuccess.run();
+                } catch (Exception ignored) {}
+            }
+            return existing.mTask;
+        }
+
+        mExecutor.execute(download.mTask);
+
+        return download.mTask;
+    }
+
+    /**
+     * Runs an action in the background once a number of downloads have completed,
+     * whether they succeeded or not. Actions run one at a time, in the order they
+     * were queued.
+     * @return Future that completes when the action has run
+     */
+    public Future<Boolean> runAfter(final List<Future<Boolean>> downloads, final Runnable action) {
+        FutureTask<Boolean> task = new FutureTask<Boolean>(new Runnable() {
+            @Override
+            public void run() {
+                waitFor(downloads);
+                action.run();
+            }
+        }, true);
+
+        mFollowUpExecutor.execute(task);
+
+        return task;
+    }
+
+    /**
+     * Blocks until all of the given downloads have completed.
+     */
+    public static void waitFor(List<Future<Boolean>> downloads) {
+        for (Future<Boolean> download : downloads) {
+            try {
+                download.get();
+            } catch (Exception ignored) {}
+        }
+    }
+
+    private static boolean download(String url, String savePath) {
+        File target = new File(savePath);
+        File temp = new File(savePath + "." + Thread.currentThread().getId() + ".tmp");
+
+        long backoff = INITIAL_BACKOFF;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (MizLib.downloadFile(url, temp.getAbsolutePath())) {
+                if (temp.renameTo(target))
+                    return true;
+
+                temp.delete();
+                return false;
+            }
+
+            if (attempt < MAX_ATTEMPTS) {
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                backoff *= 2;
+            }
+        }
+
+        temp.delete();
+        return false;
+    }
+}
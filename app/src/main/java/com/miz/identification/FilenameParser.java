@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.identification;
+
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns file and folder names into titles, years and IMDb IDs. Every pattern
+ * is compiled once, custom tags are compiled again only when they change, and
+ * release tags like "720p", "x264" or "[group]" are removed in a single pass
+ * using a keyword trie rather than one huge regular expression.
+ */
+public final class FilenameParser {
+
+	private static final Pattern YEAR = Pattern.compile("(18|19|20)[0-9][0-9]");
+	private static final Pattern ABBREVIATION = Pattern.compile("(?<=(^|[.])[\\S&&\\D])[.](?=[\\S&&\\D]([.]|$))");
+	private static final Pattern IMDB_ID = Pattern.compile("(tt\\d{7})");
+	private static final Pattern SET_PREFIX = Pattern.compile("(?i)^\\[SET .*\\].*?");
+	private static final Pattern FRENCH_PREFIX = Pattern.compile("(?i)^(c|l)(\\_|\\.)\\w.*?");
+	private static final Pattern SEPARATORS = Pattern.compile("\\s\\-\\s|\\.|\\,|\\_");
+	private static final Pattern TRAILING_PART = Pattern.compile("(?i)(part)$");
+	private static final Pattern TRAILING_SEASON = Pattern.compile("(?i)(?:s|season[ ._-]*)\\d{1,4}.*");
+	private static final Pattern SPACES = Pattern.compile(" +");
+
+	private static final String CUSTOM_TAG_SEPARATOR = "<MiZ>";
+
+	// Release tags in order of precedence, i.e. "dvdscreener" is removed
+	// rather than "dvd", but "ac3" is removed rather than "ac3_6"
+	private static final String[] RELEASE_TAGS = {
+		"dvdscreener", "dvdscreen", "dvdscr", "dvdrip", "dvd5", "dvd", "xvid", "divx",
+		"m-480p", "m-576p", "m-720p", "m-864p", "m-900p", "m-1080p",
+		"m480p", "m576p", "m720p", "m864p", "m900p", "m1080p",
+		"480p", "576p", "720p", "864p", "900p", "1080p", "1080i", "720i", "mhd",
+		"brrip", "bdrip", "brscreener", "brscreen", "brscr", "aac", "x264", "bluray", "dts",
+		"screener", "hdtv", "ac3", "repack", "2.1", "5.1", "ac3_6", "7.1", "h264", "hdrip",
+		"ntsc", "proper", "readnfo", "rerip", "subbed", "vcd", "scvd", "pdtv", "sdtv", "hqts",
+		"hdcam", "multisubs", "650mb", "700mb", "750mb", "webdl", "web-dl", "bts", "korrip",
+		"webrip", "korsub", "1link", "sample", "tvrip", "tvr", "directors cut", "tfe", "unrated"
+	};
+
+	// Single characters that are removed after the release tags
+	private static final String REMOVED_CHARACTERS = ")([]{}'<>-";
+
+	private static final TrieNode RELEASE_TAG_TRIE = new TrieNode();
+
+	static {
+		for (int i = 0; i < RELEASE_TAGS.length; i++)
+			RELEASE_TAG_TRIE.add(RELEASE_TAGS[i], i);
+	}
+
+	// Custom tags from the most recent call, so they're only
+	// compiled again when the user changes them
+	private static volatile CustomTags sCustomTags;
+
+	private FilenameParser() {} // No instantiation
+
+	public static String decryptName(String input, String customTags) {
+		if (TextUtils.isEmpty(input))
+			return "";
+
+		String output = getNameFromFilename(input);
+		output = fixAbbreviations(output);
+
+		// Used to remove [SET {title}] from the beginning of filenames
+		if (output.startsWith("[") && output.contains("]")) {
+			String after = "";
+
+			if (SET_PREFIX.matcher(output).matches()) {
+				try {
+					after = output.substring(output.indexOf("]") + 1, output.length());
+				} catch (Exception e) {}
+			}
+
+			if (!TextUtils.isEmpty(after))
+				output = after;
+		}
+
+		output = stripReleaseTags(output);
+
+		// Improved support for French titles that start with C' or L'
+		if (FRENCH_PREFIX.matcher(output).matches()) {
+			StringBuilder sb = new StringBuilder(output);
+			sb.replace(1, 2, "'");
+			output = sb.toString();
+		}
+
+		if (!TextUtils.isEmpty(customTags))
+			for (Pattern tag : getCustomTags(customTags))
+				output = tag.matcher(output).replaceAll("");
+
+		output = SEPARATORS.matcher(output).replaceAll(" "); // Remove separators
+		output = TRAILING_PART.matcher(output.trim()).replaceAll(""); // Remove "part" in the end of the string
+		output = TRAILING_SEASON.matcher(output.trim()).replaceAll(""); // Remove "season####" in the end of the string
+
+		return SPACES.matcher(output).replaceAll(" ").trim(); // replaceAll() needed to remove all instances of multiple spaces
+	}
+
+	public static String decryptImdbId(String filename) {
+		Matcher m = IMDB_ID.matcher(filename);
+		if (m.find())
+			return m.group(1);
+		return null;
+	}
+
+	public static String getNameFromFilename(String input) {
+		int lastIndex = 0;
+
+		Matcher searchMatcher = YEAR.matcher(input);
+		while (searchMatcher.find())
+			lastIndex = searchMatcher.end();
+
+		if (lastIndex > 0)
+			try {
+				return input.substring(0, lastIndex - 4);
+			} catch (Exception e) {}
+
+		return input;
+	}
+
+	public static String fixAbbreviations(String input) {
+		return ABBREVIATION.matcher(input).replaceAll("");
+	}
+
+	public static String decryptYear(String input) {
+		String result = "";
+
+		Matcher searchMatcher = YEAR.matcher(input);
+		while (searchMatcher.find()) {
+			try {
+				int lastIndex = searchMatcher.end();
+				result = input.substring(lastIndex - 4, lastIndex);
+			} catch (Exception e) {}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Removes release tags, bracketed text and the characters in {@link #REMOVED_CHARACTERS}.
+	 * Tags are matched case-insensitively anywhere in the input, and the input is scanned
+	 * from left to right once, continuing after each removed tag.
+	 */
+	public static String stripReleaseTags(String input) {
+		int length = input.length();
+		StringBuilder sb = new StringBuilder(length);
+
+		int i = 0;
+		while (i < length) {
+			int end = matchReleaseTag(input, i);
+			if (end > i) {
+				i = end;
+			} else {
+				char c = input.charAt(i);
+				if (REMOVED_CHARACTERS.indexOf(c) < 0)
+					sb.append(c);
+				i++;
+			}
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Finds the release tag starting at the given index.
+	 * @return End index of the tag, or -1 if there's no tag at the index
+	 */
+	private static int matchReleaseTag(String input, int start) {
+		// Keywords take precedence over the patterns below. None of the patterns
+		// can start at the same position as a keyword, except "part#" which
+		// can never overlap "proper" or "pdtv".
+		int end = RELEASE_TAG_TRIE.match(input, start);
+		if (end > 0)
+			return end;
+
+		switch (toLowerCase(input.charAt(start))) {
+			case 'e': // extended.edition, extended editions
+				if (regionMatches(input, start, "extended")) {
+					int i = start + 8;
+					if (i < input.length() && !isLineTerminator(input.charAt(i))) {
+						i += Character.charCount(input.codePointAt(i));
+						if (regionMatches(input, i, "edition")) {
+							i += 7;
+							if (i < input.length() && toLowerCase(input.charAt(i)) == 's')
+								i++;
+							return i;
+						}
+					}
+				}
+				return -1;
+			case '(': // (... torrent ...) or (...)
+				end = matchTorrentParentheses(input, start);
+				return end > 0 ? end : matchEnclosed(input, start, ')');
+			case '[':
+				return matchEnclosed(input, start, ']');
+			case '{':
+				return matchEnclosed(input, start, '}');
+			case 'p': // part1, part2, ...
+				return regionMatches(input, start, "part") && isDigit(input, start + 4) ? start + 5 : -1;
+			case 'c': // cd1, cd2, ...
+				return regionMatches(input, start, "cd") && isDigit(input, start + 2) ? start + 3 : -1;
+			default:
+				return -1;
+		}
+	}
+
+	/**
+	 * Matches parentheses with "torrent" somewhere inside them, ending
+	 * at the first closing parenthesis after "torrent".
+	 */
+	private static int matchTorrentParentheses(String input, int start) {
+		for (int i = start + 1; i < input.length(); i++) {
+			if (isLineTerminator(input.charAt(i)))
+				return -1;
+			if (regionMatches(input, i, "torrent"))
+				return matchEnclosed(input, i + 6, ')');
+		}
+		return -1;
+	}
+
+	/**
+	 * Matches from the start index up to and including the first
+	 * following occurrence of the closing character on the same line.
+	 */
+	private static int matchEnclosed(String input, int start, char close) {
+		for (int i = start + 1; i < input.length(); i++) {
+			char c = input.charAt(i);
+			if (c == close)
+				return i + 1;
+			if (isLineTerminator(c))
+				return -1;
+		}
+		return -1;
+	}
+
+	private static boolean regionMatches(String input, int start, String lowerCase) {
+		if (start + lowerCase.length() > input.length())
+			return false;
+
+		for (int i = 0; i < lowerCase.length(); i++)
+			if (toLowerCase(input.charAt(start + i)) != lowerCase.charAt(i))
+				return false;
+
+		return true;
+	}
+
+	private static boolean isDigit(String input, int index) {
+		if (index >= input.length())
+			return false;
+		char c = input.charAt(index);
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	// Release tags are plain ASCII, so only ASCII letters are folded
+	private static char toLowerCase(char c) {
+		return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+	}
+
+	private static List<Pattern> getCustomTags(String customTags) {
+		CustomTags tags = sCustomTags;
+		if (tags == null || !tags.source.equals(customTags)) {
+			tags = new CustomTags(customTags);
+			sCustomTags = tags;
+		}
+		return tags.patterns;
+	}
+
+	/**
+	 * Custom tags compiled from the "&lt;MiZ&gt;" separated preference value.
+	 * Tags that aren't valid regular expressions are ignored.
+	 */
+	private static class CustomTags {
+
+		final String source;
+		final List<Pattern> patterns = new ArrayList<Pattern>();
+
+		CustomTags(String customTags) {
+			source = customTags;
+
+			for (String tag : customTags.split(CUSTOM_TAG_SEPARATOR))
+				try {
+					patterns.add(Pattern.compile("(?i)" + tag));
+				} catch (Exception e) {}
+		}
+	}
+
+	/**
+	 * Node in the release tag trie.
+	 */
+	private static class TrieNode {
+
+		private char[] mKeys = new char[0];
+		private TrieNode[] mChildren = new TrieNode[0];
+		private int mTag = -1; // Precedence of the tag ending here, if any
+
+		void add(String tag, int precedence) {
+			TrieNode node = this;
+			for (int i = 0; i < tag.length(); i++) {
+				TrieNode child = node.get(tag.charAt(i));
+				if (child == null) {
+					child = new TrieNode();
+					int count = node.mKeys.length;
+					char[] keys = new char[count + 1];
+					TrieNode[] children = new TrieNode[count + 1];
+					System.arraycopy(node.mKeys, 0, keys, 0, count);
+					System.arraycopy(node.mChildren, 0, children, 0, count);
+					keys[count] = tag.charAt(i);
+					children[count] = child;
+					node.mKeys = keys;
+					node.mChildren = children;
+				}
+				node = child;
+			}
+			if (node.mTag < 0)
+				node.mTag = precedence;
+		}
+
+		TrieNode get(char key) {
+			for (int i = 0; i < mKeys.length; i++)
+				if (mKeys[i] == key)
+					return mChildren[i];
+			return null;
+		}
+
+		/**
+		 * Walks the trie from the start index and picks the matching tag
+		 * with the highest precedence.
+		 * @return End index of the tag, or -1 if no tag matches
+		 */
+		int match(String input, int start) {
+			int end = -1, precedence = Integer.MAX_VALUE;
+
+			TrieNode node = this;
+			for (int i = start; i < input.length(); i++) {
+				node = node.get(toLowerCase(input.charAt(i)));
+				if (node == null)
+					break;
+				if (node.mTag >= 0 && node.mTag < precedence) {
+					precedence = node.mTag;
+					end = i + 1;
+				}
+			}
+
+			return end;
+		}
+	}
+}
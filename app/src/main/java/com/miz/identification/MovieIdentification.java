@@ -17,16 +17,19 @@
 package com.miz.identification;
 
 import android.content.Context;
+import android.net.Uri;
 import android.preference.PreferenceManager;
 import android.text.TextUtils;
 import android.util.SparseBooleanArray;
 
-import com.miz.abstractclasses.MovieApiService;
 import com.miz.apis.tmdb.Movie;
+import com.miz.db.DbAdapterCollectionCache;
 import com.miz.db.DbAdapterMovieMappings;
 import com.miz.db.DbAdapterMovies;
+import com.miz.functions.GridThumbnailRequestHandler;
 import com.miz.functions.MizLib;
 import com.miz.functions.MovieLibraryUpdateCallback;
+import com.miz.functions.PaletteLoader;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.utils.FileUtils;
 import com.miz.utils.LocalBroadcastUtils;
@@ -35,7 +38,9 @@ import com.squareup.picasso.Picasso;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import static com.miz.functions.PreferenceKeys.LANGUAGE_PREFERENCE;
 
@@ -45,8 +50,12 @@ public class MovieIdentification {
     private final MovieLibraryUpdateCallback mCallback;
     private final Context mContext;
     private final ArrayList<MovieStructure> mMovieStructures;
+    private final ArtworkDownloadManager mArtwork = ArtworkDownloadManager.getInstance();
+    private final List<Future<Boolean>> mDownloads = new ArrayList<Future<Boolean>>();
+    private final HashSet<String> mQueuedCollections = new HashSet<String>();
 
     private SparseBooleanArray mImdbMap = new SparseBooleanArray();
+    private SearchMemo<Movie> mSearchMemo;
     private String mMovieId = null, mCurrentMovieId = null, mLocale = null;
     private boolean mCancel = false;
     private int mCount = 0;
@@ -56,7 +65,7 @@ public class MovieIdentification {
         mCallback = callback;
         mMovieStructures = new ArrayList<MovieStructure>(files);
 
-        mPicasso = Picasso.with(mContext);
+        mPicasso = MizuuApplication.getPicasso(mContext);
 
         // Get the language preference
         getLanguagePreference();
@@ -105,6 +114,21 @@ public class MovieIdentification {
         mCancel = true;
     }
 
+    /**
+     * Number of lookups made during identification.
+     */
+    public int getLookupCount() {
+        return mSearchMemo != null ? mSearchMemo.getLookupCount() : 0;
+    }
+
+    /**
+     * Number of lookups that were answered from earlier
+     * results instead of making a request.
+     */
+    public int getLookupHitCount() {
+        return mSearchMemo != null ? mSearchMemo.getHitCount() : 0;
+    }
+
     public void start() {
 
         // Go through all files
@@ -117,7 +141,9 @@ public class MovieIdentification {
             mImdbMap.put(i, ms.hasImdbId());
         }
 
-        MovieApiService service = MizuuApplication.getMovieService(mContext);
+        // Lookups are remembered for the rest of the run, so files with
+        // the same name don't cause the same requests again
+        mSearchMemo = new SearchMemo<Movie>(MizuuApplication.getMovieService(mContext));
 
         for (MovieStructure ms : mMovieStructures) {
             if (mCancel)
@@ -131,37 +157,37 @@ public class MovieIdentification {
             if (!overrideMovieId()) {
                 // Check if there's an IMDb ID and attempt to search based on it
                 if (ms.hasImdbId()) {
-                    results = service.searchByImdbId(ms.getImdbId(), null);
+                    results = mSearchMemo.searchByImdbId(ms.getImdbId(), null);
                 }
 
                 // If there's no results, attempt to search based on the movie file name and year
                 if (results.size() == 0) {
                     int year = ms.getReleaseYear();
                     if (year >= 0)
-                        results = service.search(ms.getDecryptedFilename(), String.valueOf(year), null);
+                        results = mSearchMemo.search(ms.getDecryptedFilename(), String.valueOf(year), null);
                 }
 
                 // If there's still no results, attempt to search based on the movie file name without year
                 if (results.size() == 0)
-                    results = service.search(ms.getDecryptedFilename(), null);
+                    results = mSearchMemo.search(ms.getDecryptedFilename(), null);
 
                 // If there's still no results, attempt to search based on the parent folder name and year
                 if (results.size() == 0) {
                     int year = ms.getReleaseYear();
                     if (year >= 0)
-                        results = service.search(ms.getDecryptedParentFolderName(), String.valueOf(year), null);
+                        results = mSearchMemo.search(ms.getDecryptedParentFolderName(), String.valueOf(year), null);
                 }
 
                 // If there's still no results, search based on the parent folder name only
                 if (results.size() == 0)
-                    results = service.search(ms.getDecryptedParentFolderName(), null);
+                    results = mSearchMemo.search(ms.getDecryptedParentFolderName(), null);
             } else {
-                movie = service.get(getMovieId(), mLocale);
+                movie = mSearchMemo.get(getMovieId(), mLocale);
             }
 
             if (!overrideMovieId() && results.size() > 0) {
                 // Automatic library update
-                movie = service.get(results.get(0).getId(), mLocale);
+                movie = mSearchMemo.get(results.get(0).getId(), mLocale);
             }
 
             // Last check - is movie still null?
@@ -170,6 +196,9 @@ public class MovieIdentification {
 
             createMovie(ms, movie);
         }
+
+        // Let the artwork downloads finish before the update is reported as done
+        ArtworkDownloadManager.waitFor(mDownloads);
     }
 
     private void createMovie(MovieStructure ms, Movie movie) {
@@ -179,34 +208,62 @@ public class MovieIdentification {
             // We only want to download covers if the movie doesn't already exist
             downloadCovers = !MizuuApplication.getMovieAdapter().movieExists(movie.getId());
 
+        // Downloads of this movie, which the notification has to wait for
+        List<Future<Boolean>> artwork = new ArrayList<Future<Boolean>>();
+
         if (downloadCovers) {
-            String thumb_filepath = FileUtils.getMovieThumb(mContext, movie.getId()).getAbsolutePath();
+            // The images are downloaded in the background while identification continues
+            final File thumbFile = FileUtils.getMovieThumb(mContext, movie.getId());
+            artwork.add(mArtwork.enqueue(movie.getCover(), thumbFile.getAbsolutePath(), new Runnable() {
+                @Override
+                public void run() {
+                    GridThumbnailRequestHandler.prepare(mContext, thumbFile);
+                    PaletteLoader.precompute(Uri.fromFile(thumbFile).toString(), thumbFile);
+                }
+            }));
+
+            if (!TextUtils.isEmpty(movie.getBackdrop()))
+                artwork.add(mArtwork.enqueue(movie.getBackdrop(), FileUtils.getMovieBackdrop(mContext, movie.getId()).getAbsolutePath()));
 
-            // Download the cover image and try again if it fails
-            if (!MizLib.downloadFile(movie.getCover(), thumb_filepath))
-                MizLib.downloadFile(movie.getCover(), thumb_filepath);
+            mDownloads.addAll(artwork);
+        }
 
-            // Download the backdrop image and try again if it fails
-            if (!TextUtils.isEmpty(movie.getBackdrop())) {
-                String backdropFile = FileUtils.getMovieBackdrop(mContext, movie.getId()).getAbsolutePath();
+        // Check the collection once per run
+        if (!TextUtils.isEmpty(movie.getCollectionId()) && mQueuedCollections.add(movie.getCollectionId()))
+            downloadCollectionImage(movie);
 
-                if (!MizLib.downloadFile(movie.getBackdrop(), backdropFile))
-                    MizLib.downloadFile(movie.getBackdrop(), backdropFile);
-            }
+        addToDatabase(ms, movie, artwork);
+    }
 
-            // Download the collection image
-            if (!TextUtils.isEmpty(movie.getCollectionImage())) {
-                String collectionImage = FileUtils.getMovieThumb(mContext, movie.getCollectionId()).getAbsolutePath();
+    /**
+     * Caches the collection of a movie and downloads its poster,
+     * unless the same poster has been downloaded before.
+     */
+    private void downloadCollectionImage(Movie movie) {
+        final String collectionId = movie.getCollectionId();
+        final DbAdapterCollectionCache cache = MizuuApplication.getCollectionCacheAdapter();
 
-                if (!MizLib.downloadFile(movie.getCollectionImage(), collectionImage))
-                    MizLib.downloadFile(movie.getCollectionImage(), collectionImage);
-            }
-        }
+        String posterUrl = movie.getCollectionImage();
+        if (TextUtils.isEmpty(posterUrl))
+            posterUrl = cache.getPosterUrl(collectionId);
+
+        File posterFile = FileUtils.getMovieThumb(mContext, collectionId);
+        boolean downloaded = cache.isPosterDownloaded(collectionId, posterUrl) && posterFile.exists();
+
+        cache.createOrUpdateCollection(collectionId, movie.getCollectionTitle(), posterUrl);
 
-        addToDatabase(ms, movie);
+        if (TextUtils.isEmpty(posterUrl) || downloaded)
+            return;
+
+        mDownloads.add(mArtwork.enqueue(posterUrl, posterFile.getAbsolutePath(), new Runnable() {
+            @Override
+            public void run() {
+                cache.setPosterDownloaded(collectionId);
+            }
+        }));
     }
 
-    private void addToDatabase(MovieStructure ms, Movie movie) {
+    private void addToDatabase(MovieStructure ms, Movie movie, List<Future<Boolean>> artwork) {
         DbAdapterMovieMappings dbHelperMovieMapping = MizuuApplication.getMovieMappingAdapter();
         DbAdapterMovies dbHelper = MizuuApplication.getMovieAdapter();
 
@@ -253,10 +310,18 @@ public class MovieIdentification {
                 movie.getReleasedate(), movie.getCertification(), movie.getRuntime(), movie.getTrailer(), movie.getGenres(), "0",
                 movie.getCast(), movie.getCollectionTitle(), movie.getCollectionId(), "0", "0", String.valueOf(System.currentTimeMillis()));
 
-        updateNotification(movie);
+        // The notification and the library update wait for the artwork of the movie
+        final Movie added = movie;
+        final int count = mCount;
+        mDownloads.add(mArtwork.runAfter(artwork, new Runnable() {
+            @Override
+            public void run() {
+                updateNotification(added, count);
+            }
+        }));
     }
 
-    private void updateNotification(Movie movie) {
+    private void updateNotification(Movie movie, int count) {
         File backdropFile = FileUtils.getMovieBackdrop(mContext, movie.getId());
         if (!backdropFile.exists())
             backdropFile = FileUtils.getMovieThumb(mContext, movie.getId());
@@ -265,13 +330,13 @@ public class MovieIdentification {
             try {
                 mCallback.onMovieAdded(movie.getTitle(),
                         mPicasso.load(FileUtils.getMovieThumb(mContext, movie.getId())).resize(getNotificationImageSizeSmall(), (int) (getNotificationImageSizeSmall() * 1.5)).get(),
-                        mPicasso.load(backdropFile).resize(getNotificationImageWidth(), getNotificationImageHeight()).skipMemoryCache().get(), mCount);
+                        mPicasso.load(backdropFile).resize(getNotificationImageWidth(), getNotificationImageHeight()).skipMemoryCache().get(), count);
             } catch (Exception e) {
-                mCallback.onMovieAdded(movie.getTitle(), null, null, mCount);
+                mCallback.onMovieAdded(movie.getTitle(), null, null, count);
             }
         }
 
-        LocalBroadcastUtils.updateMovieLibrary(mContext);
+        LocalBroadcastUtils.updateMovieLibrary(mContext, movie.getId());
     }
 
     // These variables don't need to be re-initialized
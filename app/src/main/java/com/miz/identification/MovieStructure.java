@@ -23,6 +23,9 @@ import java.util.regex.Pattern;
 
 public class MovieStructure {
 
+	private static final Pattern PATH_SEPARATOR = Pattern.compile("/");
+	private static final Pattern RELEASE_YEAR = Pattern.compile(".*?((?:18|19|20)[0-9][0-9]).*?");
+
 	private final String mFilepath;
 	private String mFilename, mParentFolder = "", mImdbId, mCustomTags = "";
 
@@ -33,9 +36,8 @@ public class MovieStructure {
 	}
 	
 	public void split() {		
-		Pattern splitPattern = Pattern.compile("/"); // Pre-compiled pattern to speed things up
 		// UPnP files don't have an extension, so we add one in those cases in order to make everything work with titles like "G.I. Joe"
-		String[] split = splitPattern.split(mFilepath.contains("<MiZ>") ? (mFilepath.split("<MiZ>")[0] + ".mkv") : mFilepath);
+		String[] split = PATH_SEPARATOR.split(mFilepath.contains("<MiZ>") ? (mFilepath.split("<MiZ>")[0] + ".mkv") : mFilepath);
 		if (split.length >= 2) {
 			mFilename = split[split.length - 1];
 			mParentFolder = split[split.length - 2].trim();
@@ -100,10 +102,9 @@ public class MovieStructure {
 	 */
 	public int getReleaseYear() {
 		int result = -1;
-		Pattern pattern = Pattern.compile(".*?((?:18|19|20)[0-9][0-9]).*?");
 
 		// Attempt to match it against the file name first
-		Matcher matcher = pattern.matcher(getFilename());
+		Matcher matcher = RELEASE_YEAR.matcher(getFilename());
 
 		while (matcher.find())
 			result = MizLib.getInteger(matcher.group(1));
@@ -112,7 +113,7 @@ public class MovieStructure {
 			return result;
 
 		// Check if there's a release year in the parent folder name
-		matcher = pattern.matcher(getParentFolderName());
+		matcher = RELEASE_YEAR.matcher(getParentFolderName());
 
         while (matcher.find())
             result = MizLib.getInteger(matcher.group(1));
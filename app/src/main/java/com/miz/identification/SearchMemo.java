@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.identification;
+
+import com.miz.abstractclasses.ApiService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Remembers the results of search and get() calls to an {@link ApiService}
+ * during one identification run, so files that decrypt to the same name,
+ * i.e. multiple versions of a movie or part1 / part2 files, only cause one
+ * lookup. Queries are compared case insensitively and with whitespace collapsed.
+ * Not thread-safe, and not meant to outlive the run it was created for.
+ */
+class SearchMemo<T> {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ApiService<T> mService;
+    private final HashMap<String, List<T>> mSearches = new HashMap<String, List<T>>();
+    private final HashMap<String, T> mDetails = new HashMap<String, T>();
+    private int mLookups = 0, mHits = 0;
+
+    SearchMemo(ApiService<T> service) {
+        mService = service;
+    }
+
+    List<T> search(String query, String language) {
+        String key = key("search", query, null, language);
+        List<T> results = mSearches.get(key);
+        if (results == null) {
+            results = mService.search(query, language);
+            mSearches.put(key, results);
+        } else {
+            mHits++;
+        }
+        mLookups++;
+        return results;
+    }
+
+    List<T> search(String query, String year, String language) {
+        String key = key("search", query, year, language);
+        List<T> results = mSearches.get(key);
+        if (results == null) {
+            results = mService.search(query, year, language);
+            mSearches.put(key, results);
+        } else {
+            mHits++;
+        }
+        mLookups++;
+        return results;
+    }
+
+    List<T> searchByImdbId(String imdbId, String language) {
+        String key = key("imdb", imdbId, null, language);
+        List<T> results = mSearches.get(key);
+        if (results == null) {
+            results = mService.searchByImdbId(imdbId, language);
+            mSearches.put(key, results);
+        } else {
+            mHits++;
+        }
+        mLookups++;
+        return results;
+    }
+
+    T get(String id, String language) {
+        String key = key("get", id, null, language);
+        T result;
+        if (mDetails.containsKey(key)) {
+            result = mDetails.get(key);
+            mHits++;
+        } else {
+            result = mService.get(id, language);
+            mDetails.put(key, result);
+        }
+        mLookups++;
+        return result;
+    }
+
+    /**
+     * Number of lookups made through the memo, including the ones answered from it.
+     */
+    int getLookupCount() {
+        return mLookups;
+    }
+
+    /**
+     * Number of lookups answered from the memo without a request.
+     */
+    int getHitCount() {
+        return mHits;
+    }
+
+    private static String key(String type, String query, String year, String language) {
+        String normalised = query == null ? "" : WHITESPACE.matcher(query.trim()).replaceAll(" ").toLowerCase(Locale.ENGLISH);
+        return type + "\u0000" + normalised + "\u0000" + (year == null ? "" : year) + "\u0000" + (language == null ? "" : language);
+    }
+}
@@ -26,6 +26,29 @@ import java.util.regex.Pattern;
 
 public class ShowStructure {
 
+	private static final Pattern PATH_SEPARATOR = Pattern.compile("/");
+	private static final Pattern SEASON_FOLDER = Pattern.compile("^(?:season|staffel|series)[-_ \\.]?(\\d{1,4}).*?$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern SHORT_SEASON_FOLDER = Pattern.compile("^s[-_ \\.]?(\\d{1,4}).*?$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern NUMBER_FOLDER = Pattern.compile("^(\\d{1,4})$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern REVERSED_SEASON_FOLDER = Pattern.compile("^(\\d{1,4})[-_ \\.]?(?:season|staffel|series)$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern SPECIALS_FOLDER = Pattern.compile("^(([s][p][e][c][i][a][l](?:([s]*)|([-_ \\.]?[e][p][i][s][o][d][e][s]*)))|([e][x][t][r][a][s]*))$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern KNOWN_TAGS = Pattern.compile("(?i)(?:(m?[-]?\\d{3,4}[ip])|[hx]264|\\d{3,4}mb)");
+	private static final Pattern RELEASE_YEAR = Pattern.compile("^.*?((?:18|19|20)[0-9][0-9]).*?$");
+	private static final Pattern SEASON_EPISODE = Pattern.compile("(.*?)[s](\\d{1,4})[ ._-]*[e](\\d{1,3})", Pattern.CASE_INSENSITIVE);
+	private static final Pattern SEASON_EPISODES = Pattern.compile("(.*?)[s](\\d{1,4})[ ._-]*[e](\\d{1,3}(?:[-_ex]\\d{1,3})*)(.*)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern LEADING_SEASON_EPISODE = Pattern.compile("^(\\d{1,4})[ ._-]*[e](\\d{1,3})", Pattern.CASE_INSENSITIVE);
+	private static final Pattern SEASON_EPISODE_WORDS = Pattern.compile("(.*?)(?:season|staffel|series)[ ._-]*(\\d{1,4})[ ._-]*episode[ ._-]*(\\d{1,3})(.*)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern EPISODE = Pattern.compile("(.*?)[e][p](?:[i][s][o][d][e])?[ ._-]*(\\d{1,3})", Pattern.CASE_INSENSITIVE);
+	private static final Pattern EPISODES = Pattern.compile("(.*?)[e][p](?:[i][s][o][d][e])?[ ._-]*(\\d{1,3}(?:[-_ex]\\d{1,3})*)(.*)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern PART = Pattern.compile("(.*?)[p](?:[a][r])?[t][ ._-]*(\\d{1,3})", Pattern.CASE_INSENSITIVE);
+	private static final Pattern PARTS = Pattern.compile("(.*?)[p](?:[a][r])?[t][ ._-]*(\\d{1,3}(?:[-_ex]\\d{1,3})*)(.*)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern SEASON_X_EPISODE = Pattern.compile("(.*?)(\\d{1,4})[ ._-]*[x](\\d{1,3})", Pattern.CASE_INSENSITIVE);
+	private static final Pattern SEASON_X_EPISODES = Pattern.compile("(.*?)(\\d{1,4})[ ._-]*[x](\\d{1,3}(?:[-_ex]\\d{1,3})*)(.*)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern NUMBERS = Pattern.compile("(^.*?)((\\d){3,7})(.*?)$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern LEADING_EPISODE = Pattern.compile("^(\\d{1,3})(.*?)$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern SHORT_EPISODE = Pattern.compile("(.*?)(\\d{1,2})(.*?)$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern EPISODE_SEPARATOR = Pattern.compile("[-_ex]", Pattern.CASE_INSENSITIVE);
+
 	private final String mFilepath;
 	private String mFilename, mSeasonFolder = "", mShowFolder = "", mImdbId, mCustomTags = "";
 	private int mSeasonFolderNumber;
@@ -44,8 +67,7 @@ public class ShowStructure {
 	}
 
 	public void split() {
-		Pattern splitPattern = Pattern.compile("/"); // Pre-compiled pattern to speed things up
-		String[] split = splitPattern.split(mFilepath.contains("<MiZ>") ? mFilepath.split("<MiZ>")[0] : mFilepath);
+		String[] split = PATH_SEPARATOR.split(mFilepath.contains("<MiZ>") ? mFilepath.split("<MiZ>")[0] : mFilepath);
 		if (split.length >= 3) {
 			mFilename = split[split.length - 1];
 
@@ -143,32 +165,27 @@ public class ShowStructure {
 		folderName = folderName.trim();
 
 		// Season ## or Season## [1-4] [has to begin with it]
-		Pattern pattern = Pattern.compile("^(?:season|staffel|series)[-_ \\.]?(\\d{1,4}).*?$", Pattern.CASE_INSENSITIVE);
-		Matcher matcher = pattern.matcher(folderName);
+		Matcher matcher = SEASON_FOLDER.matcher(folderName);
 		if (matcher.find())
 			return MizLib.getInteger(matcher.group(1));
 
 		// S## or S ## [1-4] [has to begin with it]
-		pattern = Pattern.compile("^s[-_ \\.]?(\\d{1,4}).*?$", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(folderName);
+		matcher = SHORT_SEASON_FOLDER.matcher(folderName);
 		if (matcher.find())
 			return MizLib.getInteger(matcher.group(1));
 
 		// ## [1-4] [has to contain just that]
-		pattern = Pattern.compile("^(\\d{1,4})$", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(folderName);
+		matcher = NUMBER_FOLDER.matcher(folderName);
 		if (matcher.find())
 			return MizLib.getInteger(matcher.group(1));
 
         // ## season / staffel / series [1-4] [has to contain just that]
-        pattern = Pattern.compile("^(\\d{1,4})[-_ \\.]?(?:season|staffel|series)$", Pattern.CASE_INSENSITIVE);
-        matcher = pattern.matcher(folderName);
+        matcher = REVERSED_SEASON_FOLDER.matcher(folderName);
         if (matcher.find())
             return MizLib.getInteger(matcher.group(1));
 
 		// special / specials / special episode / special episodes [has to contain just that]
-		pattern = Pattern.compile("^(([s][p][e][c][i][a][l](?:([s]*)|([-_ \\.]?[e][p][i][s][o][d][e][s]*)))|([e][x][t][r][a][s]*))$", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(folderName);
+		matcher = SPECIALS_FOLDER.matcher(folderName);
 		if (matcher.find())
 			return 0; // Specials use 0 as the season number
 
@@ -187,23 +204,21 @@ public class ShowStructure {
 		if (mEpisodes.size() == 0)
 			return -1;
 
-		Pattern pattern = Pattern.compile("^.*?((?:18|19|20)[0-9][0-9]).*?$");
-
 		// Attempt to match it against the show folder name first
-		Matcher matcher = pattern.matcher(getShowFolderName());
+		Matcher matcher = RELEASE_YEAR.matcher(getShowFolderName());
 
 		if (matcher.find())
 			return MizLib.getInteger(matcher.group(1));
 
 		// Check if there's a release year in the "before" part
 		// of a filename, i.e. 2008 for "anything (2008) S01E01.mkv"
-		matcher = pattern.matcher(mEpisodes.get(0).getBefore()); // Safe to use the 0-th element for the "before" part regardless of mEpisodes.size()
+		matcher = RELEASE_YEAR.matcher(mEpisodes.get(0).getBefore()); // Safe to use the 0-th element for the "before" part regardless of mEpisodes.size()
 		if (matcher.find())
 			return MizLib.getInteger(matcher.group(1));
 
 		// Check if there's a release year in the "after" part
 		// of a filename, i.e. 2008 for "anything S01E01 (2008).mkv"
-		matcher = pattern.matcher(mEpisodes.get(mEpisodes.size() - 1).getAfter()); // Use the last element to check the "after" part
+		matcher = RELEASE_YEAR.matcher(mEpisodes.get(mEpisodes.size() - 1).getAfter()); // Use the last element to check the "after" part
 		if (matcher.find())
 			return MizLib.getInteger(matcher.group(1));
 
@@ -216,13 +231,12 @@ public class ShowStructure {
 
 	public ArrayList<Episode> decryptEpisodes(String filename) {
 		// Remove known tags that can mess up the decryption stuff
-		filename = filename.replaceAll("(?i)(?:(m?[-]?\\d{3,4}[ip])|[hx]264|\\d{3,4}mb)", ""); // i.e. m480p, 720p, 1080i, h264, x264, 700mb
+		filename = KNOWN_TAGS.matcher(filename).replaceAll(""); // i.e. m480p, 720p, 1080i, h264, x264, 700mb
 
 		ArrayList<Episode> episodes = new ArrayList<Episode>();
 
 		// S##E##
-		Pattern pattern = Pattern.compile("(.*?)[s](\\d{1,4})[ ._-]*[e](\\d{1,3})", Pattern.CASE_INSENSITIVE);
-		Matcher matcher = pattern.matcher(filename);
+		Matcher matcher = SEASON_EPISODE.matcher(filename);
 
 		if (matcher.find()) {			
 			int count = 1; // We already have one match
@@ -246,8 +260,7 @@ public class ShowStructure {
 			} else {
 				// We're dealing with a single instance of S##E## or a multi-episode format (i.e. S##E##E##E##)
 
-				pattern = Pattern.compile("(.*?)[s](\\d{1,4})[ ._-]*[e](\\d{1,3}(?:[-_ex]\\d{1,3})*)(.*)", Pattern.CASE_INSENSITIVE);
-				matcher = pattern.matcher(filename);
+				matcher = SEASON_EPISODES.matcher(filename);
 
 				// Go through all matches and add each one
 				while (matcher.find()) {
@@ -255,10 +268,7 @@ public class ShowStructure {
 					String after = matcher.group(4);
 					int season = MizLib.getInteger(matcher.group(2));
 
-					// Pre-compiled Pattern to speed up to the splitting process
-					Pattern splitPattern = Pattern.compile("[-_ex]", Pattern.CASE_INSENSITIVE);
-
-					for (String episode : splitPattern.split(matcher.group(3)))
+					for (String episode : EPISODE_SEPARATOR.split(matcher.group(3)))
 						episodes.add(new Episode(season, MizLib.getInteger(episode), before, after));				
 				}
 			}
@@ -269,8 +279,7 @@ public class ShowStructure {
 			return episodes;
 
 		// ##E## (has to begin with it)
-		pattern = Pattern.compile("^(\\d{1,4})[ ._-]*[e](\\d{1,3})", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(filename);
+		matcher = LEADING_SEASON_EPISODE.matcher(filename);
 
 		if (matcher.find()) {
 			int season = MizLib.getInteger(matcher.group(1));
@@ -283,8 +292,7 @@ public class ShowStructure {
 			return episodes;
 
 		// season ## episode ##
-		pattern = Pattern.compile("(.*?)(?:season|staffel|series)[ ._-]*(\\d{1,4})[ ._-]*episode[ ._-]*(\\d{1,3})(.*)", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(filename);
+		matcher = SEASON_EPISODE_WORDS.matcher(filename);
 
 		if (matcher.find()) {
 			String before = matcher.group(1);
@@ -298,8 +306,7 @@ public class ShowStructure {
 			return episodes;
 
 		// ep##, episode##
-		pattern = Pattern.compile("(.*?)[e][p](?:[i][s][o][d][e])?[ ._-]*(\\d{1,3})", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(filename);
+		matcher = EPISODE.matcher(filename);
 
 		if (matcher.find()) {
 			int count = 1; // We already have one match
@@ -324,8 +331,7 @@ public class ShowStructure {
 			} else {
 				// We're dealing with a single instance of ep## or a multi-episode format (i.e. ep##x##e##)
 
-				pattern = Pattern.compile("(.*?)[e][p](?:[i][s][o][d][e])?[ ._-]*(\\d{1,3}(?:[-_ex]\\d{1,3})*)(.*)", Pattern.CASE_INSENSITIVE);
-				matcher = pattern.matcher(filename);
+				matcher = EPISODES.matcher(filename);
 
 				int season = 1; // Assumed since there's no season information with this naming convention
 
@@ -334,10 +340,7 @@ public class ShowStructure {
 					String before = matcher.group(1);
 					String after = matcher.group(3);
 
-					// Pre-compiled Pattern to speed up to the splitting process
-					Pattern splitPattern = Pattern.compile("[-_ex]", Pattern.CASE_INSENSITIVE);
-
-					for (String episode : splitPattern.split(matcher.group(2)))
+					for (String episode : EPISODE_SEPARATOR.split(matcher.group(2)))
 						episodes.add(new Episode(season, MizLib.getInteger(episode), before, after));				
 				}
 			}
@@ -348,8 +351,7 @@ public class ShowStructure {
 			return episodes;
 
 		// part##, pt##
-		pattern = Pattern.compile("(.*?)[p](?:[a][r])?[t][ ._-]*(\\d{1,3})", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(filename);
+		matcher = PART.matcher(filename);
 
 		if (matcher.find()) {
 			int count = 1; // We already have one match
@@ -374,8 +376,7 @@ public class ShowStructure {
 			} else {
 				// We're dealing with a single instance of part## or a multi-episode format (i.e. pt##x##e##)
 
-				pattern = Pattern.compile("(.*?)[p](?:[a][r])?[t][ ._-]*(\\d{1,3}(?:[-_ex]\\d{1,3})*)(.*)", Pattern.CASE_INSENSITIVE);
-				matcher = pattern.matcher(filename);
+				matcher = PARTS.matcher(filename);
 
 				int season = 1; // Assumed since there's no season information with this naming convention
 
@@ -384,10 +385,7 @@ public class ShowStructure {
 					String before = matcher.group(1);
 					String after = matcher.group(3);
 
-					// Pre-compiled Pattern to speed up to the splitting process
-					Pattern splitPattern = Pattern.compile("[-_ex]", Pattern.CASE_INSENSITIVE);
-
-					for (String episode : splitPattern.split(matcher.group(2)))
+					for (String episode : EPISODE_SEPARATOR.split(matcher.group(2)))
 						episodes.add(new Episode(season, MizLib.getInteger(episode), before, after));				
 				}
 			}
@@ -398,8 +396,7 @@ public class ShowStructure {
 			return episodes;
 
 		// ##x##
-		pattern = Pattern.compile("(.*?)(\\d{1,4})[ ._-]*[x](\\d{1,3})", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(filename);
+		matcher = SEASON_X_EPISODE.matcher(filename);
 
 		if (matcher.find()) {
 			int count = 1; // We already have one match
@@ -423,8 +420,7 @@ public class ShowStructure {
 			} else {
 				// We're dealing with a single instance of ##x## or a multi-episode format (i.e. ##x##x##e##)
 
-				pattern = Pattern.compile("(.*?)(\\d{1,4})[ ._-]*[x](\\d{1,3}(?:[-_ex]\\d{1,3})*)(.*)", Pattern.CASE_INSENSITIVE);
-				matcher = pattern.matcher(filename);
+				matcher = SEASON_X_EPISODES.matcher(filename);
 
 				// Go through all matches and add each one
 				while (matcher.find()) {
@@ -432,10 +428,7 @@ public class ShowStructure {
 					String after = matcher.group(4);
 					int season = MizLib.getInteger(matcher.group(2));
 
-					// Pre-compiled Pattern to speed up to the splitting process
-					Pattern splitPattern = Pattern.compile("[-_ex]", Pattern.CASE_INSENSITIVE);
-
-					for (String episode : splitPattern.split(matcher.group(3)))
+					for (String episode : EPISODE_SEPARATOR.split(matcher.group(3)))
 						episodes.add(new Episode(season, MizLib.getInteger(episode), before, after));				
 				}
 			}
@@ -446,8 +439,7 @@ public class ShowStructure {
 			return episodes;
 
 		// ### [3-7]
-		pattern = Pattern.compile("(^.*?)((\\d){3,7})(.*?)$", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(filename);
+		matcher = NUMBERS.matcher(filename);
 		if (matcher.find()) { // We only want a single set of results here	
 			int season = 0, episode = 0;
 			String before = matcher.group(1);
@@ -484,8 +476,7 @@ public class ShowStructure {
 			return episodes;
 
 		// ## [1-3] episode information only (has to start with this)
-		pattern = Pattern.compile("^(\\d{1,3})(.*?)$", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(filename);
+		matcher = LEADING_EPISODE.matcher(filename);
 		if (matcher.find()) { // We only want a single set of results here	
 			int season = 1; // Assumed since there's no season information
 			int episode = MizLib.getInteger(matcher.group(1));
@@ -498,8 +489,7 @@ public class ShowStructure {
 			return episodes;
 
 		// ## [1-2] episode information only (anywhere in the string)
-		pattern = Pattern.compile("(.*?)(\\d{1,2})(.*?)$", Pattern.CASE_INSENSITIVE);
-		matcher = pattern.matcher(filename);
+		matcher = SHORT_EPISODE.matcher(filename);
 		if (matcher.find()) { // We only want a single set of results here
 			String before = matcher.group(1);
 			int season = 1; // Assumed since there's no season information
@@ -17,6 +17,7 @@
 package com.miz.identification;
 
 import android.content.Context;
+import android.net.Uri;
 import android.database.Cursor;
 import android.preference.PreferenceManager;
 import android.text.TextUtils;
@@ -24,12 +25,13 @@ import android.util.SparseBooleanArray;
 
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
-import com.miz.abstractclasses.TvShowApiService;
 import com.miz.apis.thetvdb.Episode;
 import com.miz.apis.thetvdb.TvShow;
 import com.miz.db.DbAdapterTvShowEpisodes;
 import com.miz.db.DbAdapterTvShows;
+import com.miz.functions.GridThumbnailRequestHandler;
 import com.miz.functions.MizLib;
+import com.miz.functions.PaletteLoader;
 import com.miz.functions.TvShowLibraryUpdateCallback;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.utils.FileUtils;
@@ -39,7 +41,10 @@ import com.squareup.picasso.Picasso;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import static com.miz.functions.PreferenceKeys.LANGUAGE_PREFERENCE;
 
@@ -48,10 +53,15 @@ public class TvShowIdentification {
     private final Picasso mPicasso;
     private final TvShowLibraryUpdateCallback mCallback;
     private final Context mContext;
+    private final ArtworkDownloadManager mArtwork = ArtworkDownloadManager.getInstance();
+    private final List<Future<Boolean>> mDownloads = new ArrayList<Future<Boolean>>();
+    private final HashSet<String> mQueuedSeasonCovers = new HashSet<String>();
+    private final HashMap<String, List<Future<Boolean>>> mShowArtwork = new HashMap<String, List<Future<Boolean>>>();
 
     private ArrayList<ShowStructure> mShowStructures = new ArrayList<ShowStructure>();
     private Multimap<String, Integer> mShowFolderNameMap = LinkedListMultimap.create();
     private SparseBooleanArray mImdbMap = new SparseBooleanArray();
+    private SearchMemo<TvShow> mSearchMemo;
     private String mShowId = null, mLocale = null;
     private int mSeason = -1, mEpisode = -1;
     private boolean mCancel = false;
@@ -124,6 +134,21 @@ public class TvShowIdentification {
         mCancel = true;
     }
 
+    /**
+     * Number of lookups made during identification.
+     */
+    public int getLookupCount() {
+        return mSearchMemo != null ? mSearchMemo.getLookupCount() : 0;
+    }
+
+    /**
+     * Number of lookups that were answered from earlier
+     * results instead of making a request.
+     */
+    public int getLookupHitCount() {
+        return mSearchMemo != null ? mSearchMemo.getHitCount() : 0;
+    }
+
     public void start() {
 
         // Go through all files
@@ -137,7 +162,9 @@ public class TvShowIdentification {
             mImdbMap.put(i, ss.hasImdbId());
         }
 
-        TvShowApiService service = MizuuApplication.getTvShowService(mContext);
+        // Lookups are remembered for the rest of the run, so files with
+        // the same name don't cause the same requests again
+        mSearchMemo = new SearchMemo<TvShow>(MizuuApplication.getTvShowService(mContext));
 
         for (String showFolderName : mShowFolderNameMap.keySet()) {
 
@@ -153,20 +180,20 @@ public class TvShowIdentification {
 
                 // Check if there's an IMDb ID and attempt to search based on it
                 if (ss.hasImdbId())
-                    results = service.searchByImdbId(ss.getImdbId(), null);
+                    results = mSearchMemo.searchByImdbId(ss.getImdbId(), null);
 
                 // If there's no results, attempt to search based on the show folder name and year
                 if (results.size() == 0) {
                     int year = mShowStructures.get(mShowFolderNameMap.get(showFolderName).iterator().next()).getReleaseYear();
                     if (year >= 0)
-                        results = service.search(showFolderName + " " + year, null);
+                        results = mSearchMemo.search(showFolderName + " " + year, null);
                 }
 
                 // If there's still no results, search based on the show folder name only
                 if (results.size() == 0)
-                    results = service.search(showFolderName, null);
+                    results = mSearchMemo.search(showFolderName, null);
             } else
-                show = service.get(getShowId(), mLocale);
+                show = mSearchMemo.get(getShowId(), mLocale);
 
             // Check if the show folder name results in any matches
             // - if it does, use that to identify all files
@@ -174,7 +201,7 @@ public class TvShowIdentification {
 
                 // Get the TV show and create it in the database
                 if (!overrideShowId())
-                    show = service.get(results.get(0).getId(), mLocale);
+                    show = mSearchMemo.get(results.get(0).getId(), mLocale);
                 createShow(show);
 
                 int episodeCount = 0;
@@ -208,24 +235,24 @@ public class TvShowIdentification {
 
                     // Check if there's an IMDb ID and attempt to search based on it
                     if (ss.hasImdbId())
-                        results = service.searchByImdbId(ss.getImdbId(), null);
+                        results = mSearchMemo.searchByImdbId(ss.getImdbId(), null);
 
                     // If there's no results, attempt to search based on the show folder name and year
                     if (results.size() == 0) {
                         int year = ss.getReleaseYear();
                         if (year >= 0)
-                            results = service.search(ss.getDecryptedFilename() + " " + year, null);
+                            results = mSearchMemo.search(ss.getDecryptedFilename() + " " + year, null);
                     }
 
                     // If there's still no results, search based on the show folder name only
                     if (results.size() == 0)
-                        results = service.search(ss.getDecryptedFilename(), null);
+                        results = mSearchMemo.search(ss.getDecryptedFilename(), null);
 
                     if (results.size() == 0) {
                         show = new TvShow();
                         show.setId(DbAdapterTvShows.UNIDENTIFIED_ID);
                     } else {
-                        show = service.get(results.get(0).getId(), mLocale);
+                        show = mSearchMemo.get(results.get(0).getId(), mLocale);
                     }
 
                     createShow(show);
@@ -241,12 +268,25 @@ public class TvShowIdentification {
                 }
             }
         }
+
+        // Let the artwork downloads finish before the update is reported as done
+        ArtworkDownloadManager.waitFor(mDownloads);
     }
 
-    private void showAddedShowNotification(TvShow show, int episodeCount) {
+    private void showAddedShowNotification(final TvShow show, final int episodeCount) {
         if (show == null)
             return;
 
+        // The notification and the library update wait for the artwork of the show
+        mDownloads.add(mArtwork.runAfter(getShowArtwork(show), new Runnable() {
+            @Override
+            public void run() {
+                updateShowNotification(show, episodeCount);
+            }
+        }));
+    }
+
+    private void updateShowNotification(TvShow show, int episodeCount) {
         File coverFile = FileUtils.getTvShowThumb(mContext, show.getId());
         File backdropFile = FileUtils.getTvShowBackdrop(mContext, show.getId());
         if (!backdropFile.exists())
@@ -259,7 +299,7 @@ public class TvShowIdentification {
             mCallback.onTvShowAdded(show.getId(), show.getTitle(), null, null, episodeCount);
         }
 
-        LocalBroadcastUtils.updateTvShowLibrary(mContext);
+        LocalBroadcastUtils.updateTvShowLibrary(mContext, show.getId());
         LocalBroadcastUtils.updateTvShowSeasonsOverview(mContext);
     }
 
@@ -278,20 +318,26 @@ public class TvShowIdentification {
 
         if (downloadCovers) {
             if (!TextUtils.isEmpty(thisShow.getId()) && !thisShow.getId().equals(DbAdapterTvShows.UNIDENTIFIED_ID)) {
-                String thumb_filepath = FileUtils.getTvShowThumb(mContext, thisShow.getId()).getAbsolutePath();
+                final String thumb_filepath = FileUtils.getTvShowThumb(mContext, thisShow.getId()).getAbsolutePath();
                 String backdrop_filepath = FileUtils.getTvShowBackdrop(mContext, thisShow.getId()).getAbsolutePath();
 
-                // Download the cover file and try again if it fails
+                // The images are downloaded in the background while identification continues
+                List<Future<Boolean>> artwork = new ArrayList<Future<Boolean>>();
                 if (!TextUtils.isEmpty(thisShow.getCoverUrl()))
-                    if (!MizLib.downloadFile(thisShow.getCoverUrl(), thumb_filepath))
-                        MizLib.downloadFile(thisShow.getCoverUrl(), thumb_filepath);
-
-                MizLib.resizeBitmapFileToCoverSize(mContext, thumb_filepath);
+                    artwork.add(mArtwork.enqueue(thisShow.getCoverUrl(), thumb_filepath, new Runnable() {
+                        @Override
+                        public void run() {
+                            MizLib.resizeBitmapFileToCoverSize(mContext, thumb_filepath);
+                            GridThumbnailRequestHandler.prepare(mContext, new File(thumb_filepath));
+                            PaletteLoader.precompute(thumb_filepath, new File(thumb_filepath));
+                        }
+                    }));
 
-                // Download the backdrop image file and try again if it fails
                 if (!TextUtils.isEmpty(thisShow.getBackdropUrl()))
-                    if (!MizLib.downloadFile(thisShow.getBackdropUrl(), backdrop_filepath))
-                        MizLib.downloadFile(thisShow.getBackdropUrl(), backdrop_filepath);
+                    artwork.add(mArtwork.enqueue(thisShow.getBackdropUrl(), backdrop_filepath));
+
+                mDownloads.addAll(artwork);
+                mShowArtwork.put(thisShow.getId(), artwork);
 
                 DbAdapterTvShows dbHelper = MizuuApplication.getTvDbAdapter();
                 dbHelper.createShow(thisShow.getId(), thisShow.getTitle(), thisShow.getDescription(), thisShow.getActors(), thisShow.getGenres(),
@@ -322,26 +368,42 @@ public class TvShowIdentification {
             thisEpisode.setSeason(season);
         }
 
-        // Download the episode screenshot file and try again if it fails
+        // Downloads the notification of this episode has to wait for
+        List<Future<Boolean>> artwork = new ArrayList<Future<Boolean>>(getShowArtwork(thisShow));
+
+        // Download the episode screenshot file in the background
         if (!TextUtils.isEmpty(thisEpisode.getScreenshotUrl())) {
-            String screenshotFile = FileUtils.getTvShowEpisode(mContext, thisShow.getId(), season, episode).getAbsolutePath();
-            if (!MizLib.downloadFile(thisEpisode.getScreenshotUrl(), screenshotFile))
-                MizLib.downloadFile(thisEpisode.getScreenshotUrl(), screenshotFile);
+            final File screenshotFile = FileUtils.getTvShowEpisode(mContext, thisShow.getId(), season, episode);
+            Future<Boolean> screenshot = mArtwork.enqueue(thisEpisode.getScreenshotUrl(), screenshotFile.getAbsolutePath(), new Runnable() {
+                @Override
+                public void run() {
+                    PaletteLoader.precompute(Uri.fromFile(screenshotFile).toString(), screenshotFile);
+                }
+            });
+            artwork.add(screenshot);
+            mDownloads.add(screenshot);
         }
 
-        // Download season cover if it hasn't already been downloaded
-        if (thisShow.hasSeason(thisEpisode.getSeason())) {
+        // Download season cover if it hasn't already been downloaded - each
+        // season is only checked once per identification run
+        if (thisShow.hasSeason(thisEpisode.getSeason()) && mQueuedSeasonCovers.add(thisShow.getId() + "_" + season)) {
             File seasonFile = FileUtils.getTvShowSeason(mContext, thisShow.getId(), season);
-            if (!seasonFile.exists()) {
-                if (!MizLib.downloadFile(thisShow.getSeason(thisEpisode.getSeason()).getCoverPath(), seasonFile.getAbsolutePath()))
-                    MizLib.downloadFile(thisShow.getSeason(thisEpisode.getSeason()).getCoverPath(), seasonFile.getAbsolutePath());
-            }
+            if (!seasonFile.exists())
+                mDownloads.add(mArtwork.enqueue(thisShow.getSeason(thisEpisode.getSeason()).getCoverPath(), seasonFile.getAbsolutePath()));
         }
 
-        addToDatabase(thisShow, thisEpisode, filepath);
+        addToDatabase(thisShow, thisEpisode, filepath, artwork);
     }
 
-    private void addToDatabase(TvShow thisShow, Episode ep, String filepath) {
+    /**
+     * Gets the downloads of the show cover and backdrop queued in this run, if any.
+     */
+    private List<Future<Boolean>> getShowArtwork(TvShow show) {
+        List<Future<Boolean>> artwork = mShowArtwork.get(show.getId());
+        return artwork != null ? artwork : new ArrayList<Future<Boolean>>();
+    }
+
+    private void addToDatabase(final TvShow thisShow, final Episode ep, final String filepath, List<Future<Boolean>> artwork) {
         DbAdapterTvShowEpisodes dbHelper = MizuuApplication.getTvEpisodeDbAdapter();
 
         if (thisShow.getId().equals(DbAdapterTvShows.UNIDENTIFIED_ID)) {
@@ -355,7 +417,12 @@ public class TvShowIdentification {
                     ep.getWriter(), ep.getGueststars(), "0", "0");
         }
 
-        updateNotification(thisShow, ep, filepath);
+        mDownloads.add(mArtwork.runAfter(artwork, new Runnable() {
+            @Override
+            public void run() {
+                updateNotification(thisShow, ep, filepath);
+            }
+        }));
     }
 
     private void updateNotification(TvShow thisShow, Episode ep, String filepath) {
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.loader;
+
+import com.miz.functions.Filepath;
+
+import java.util.List;
+
+/**
+ * The fields used by {@link MovieLoader#matchesFilter(MovieFilter, FilterableMovie, android.content.Context)}
+ * to filter movies.
+ */
+public interface FilterableMovie {
+
+    String getGenres();
+
+    String getCertification();
+
+    String getReleaseYear();
+
+    List<Filepath> getFilepaths();
+}
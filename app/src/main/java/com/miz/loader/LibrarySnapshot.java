@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.loader;
+
+import android.content.Context;
+
+import com.miz.functions.LibraryTaskScheduler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
+import com.miz.mizuu.MizuuApplication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compact copy of the last list shown in a library section. The loaders
+ * show the snapshot straight away while the library is loaded from the
+ * database, and replace it once loading has finished. Each row is a
+ * list of strings, whose meaning is up to the loader that wrote it.
+ * Whenever the library changes, its snapshots are marked as stale right
+ * away and deleted in the background, so invalidating them never touches
+ * the disk on the caller's thread.
+ */
+public class LibrarySnapshot {
+
+	// Bump this whenever the row layout of any loader changes
+	private static final int VERSION = 1;
+
+	static final String MOVIES = "movies_", TV_SHOWS = "tvshows_";
+
+	// Number of deletions queued for each library. Its snapshots
+	// are stale, and aren't read or written, until they're done.
+	private static final AtomicInteger sPendingMovies = new AtomicInteger(), sPendingTvShows = new AtomicInteger();
+
+	private LibrarySnapshot() {} // No instantiation
+
+	private static File getFolder(Context context) {
+		return new File(MizuuApplication.getCacheFolder(context), "library-snapshots");
+	}
+
+	private static File getFile(Context context, String name) {
+		return new File(getFolder(context), name);
+	}
+
+	private static AtomicInteger getPendingDeletions(String name) {
+		return name.startsWith(MOVIES) ? sPendingMovies : sPendingTvShows;
+	}
+
+	private static boolean isStale(String name) {
+		return getPendingDeletions(name).get() > 0;
+	}
+
+	static boolean exists(Context context, String name) {
+		return !isStale(name) && getFile(context, name).exists();
+	}
+
+	/**
+	 * Reads a snapshot.
+	 * @return Rows of the snapshot, or null if there's no valid snapshot
+	 */
+	static List<String[]> read(Context context, String name) {
+		if (isStale(name))
+			return null;
+
+		File file = getFile(context, name);
+		if (!file.exists())
+			return null;
+
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+			if (in.readInt() != VERSION)
+				return null;
+
+			int count = in.readInt();
+			List<String[]> rows = new ArrayList<String[]>(count);
+			for (int i = 0; i < count; i++) {
+				String[] row = new String[in.readInt()];
+				for (int j = 0; j < row.length; j++)
+					row[j] = in.readUTF();
+				rows.add(row);
+			}
+
+			return rows;
+		} catch (IOException e) {
+			file.delete();
+			return null;
+		} finally {
+			if (in != null)
+				try {
+					in.close();
+				} catch (IOException ignored) {}
+		}
+	}
+
+	/**
+	 * Saves a snapshot, replacing any existing snapshot with the same name.
+	 */
+	static void write(Context context, String name, List<String[]> rows) {
+		if (isStale(name))
+			return;
+
+		File folder = getFolder(context);
+		folder.mkdirs();
+
+		File file = getFile(context, name);
+		File temp = new File(folder, name + "." + Thread.currentThread().getId() + ".tmp");
+
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+			out.writeInt(VERSION);
+			out.writeInt(rows.size());
+			for (String[] row : rows) {
+				out.writeInt(row.length);
+				for (String value : row)
+					out.writeUTF(value != null ? value : "");
+			}
+			out.close();
+			out = null;
+
+			// Checked again with the lock held, so a deletion can't run in between
+			synchronized (LibrarySnapshot.class) {
+				if (isStale(name) || !temp.renameTo(file))
+					temp.delete();
+			}
+		} catch (IOException e) {
+			temp.delete();
+		} finally {
+			if (out != null)
+				try {
+					out.close();
+				} catch (IOException ignored) {}
+		}
+	}
+
+	/**
+	 * Checks if two snapshots contain the same rows in the same order.
+	 */
+	static boolean equals(List<String[]> first, List<String[]> second) {
+		if (first == null || second == null || first.size() != second.size())
+			return false;
+
+		for (int i = 0; i < first.size(); i++)
+			if (!Arrays.equals(first.get(i), second.get(i)))
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Marks all snapshots whose name starts with the given prefix as stale,
+	 * and deletes them in the background.
+	 * @param prefix Either {@link #MOVIES} or {@link #TV_SHOWS}
+	 */
+	static void invalidate(Context context, final String prefix) {
+		final Context appContext = context.getApplicationContext();
+		final AtomicInteger pending = getPendingDeletions(prefix);
+		pending.incrementAndGet();
+
+		LibraryTaskScheduler.getInstance().execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					synchronized (LibrarySnapshot.class) {
+						File[] files = getFolder(appContext).listFiles();
+						if (files == null)
+							return;
+
+						for (File file : files)
+							if (file.getName().startsWith(prefix))
+								file.delete();
+					}
+				} finally {
+					pending.decrementAndGet();
+				}
+			}
+		}, Priority.PREFETCH);
+	}
+
+	public static void invalidateMovies(Context context) {
+		invalidate(context, MOVIES);
+	}
+
+	public static void invalidateTvShows(Context context) {
+		invalidate(context, TV_SHOWS);
+	}
+}
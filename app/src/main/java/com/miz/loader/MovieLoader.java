@@ -29,27 +29,32 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Lists;
 import com.miz.db.DbAdapterMovieMappings;
 import com.miz.db.DbAdapterMovies;
+import com.miz.functions.AvailabilityMonitor;
 import com.miz.functions.ColumnIndexCache;
-import com.miz.functions.FileSource;
 import com.miz.functions.Filepath;
 import com.miz.functions.LibrarySectionAsyncTask;
+import com.miz.functions.LibraryTaskScheduler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
 import com.miz.functions.MediumMovie;
 import com.miz.functions.MizLib;
 import com.miz.functions.PreferenceKeys;
+import com.miz.functions.RateLimiter;
+import com.miz.mizuu.BuildConfig;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.mizuu.R;
 
-import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TreeMap;
 import java.util.regex.Pattern;
 
-import jcifs.smb.SmbFile;
-
 public class MovieLoader {
 
     // For MovieLibraryType
@@ -78,16 +83,33 @@ public class MovieLoader {
             SORT_DATE_ADDED = "sortAdded",
             SORT_DURATION = "sortDuration";
 
+    // Number of fixed fields in each snapshot row
+    private static final int SNAPSHOT_FIELDS = 11;
+
+    // Larger updates are handled as a full load
+    private static final int MAX_INCREMENTAL_UPDATE = 250;
+
+    // Libraries with at least this many movies are paged
+    private static final int PAGING_THRESHOLD = 2000;
+
     private final Context mContext;
     private final MovieLibraryType mLibraryType;
     private final OnLoadCompletedCallback mCallback;
     private final DbAdapterMovies mDatabase;
 
     private MovieSortType mSortType;
-    private ArrayList<MediumMovie> mResults = new ArrayList<>();
+    private List<MediumMovie> mResults = new ArrayList<>();
     private HashSet<MovieFilter> mFilters = new HashSet<>();
-    private MovieLoaderAsyncTask mAsyncTask;
+    private LibrarySectionAsyncTask<Void, Void, Void> mAsyncTask;
+    private final HashSet<String> mPendingIds = new HashSet<>();
+
+    // Movies that have changed since the paged results were loaded,
+    // so the windows they're in can't be reused by the next load
+    private final HashSet<String> mChangedPagedIds = new HashSet<>();
     private boolean mShowingSearchResults = false;
+    private String mQuery = "";
+    private volatile List<String[]> mSnapshot;
+    private Priority mPriority = Priority.VISIBLE;
 
     public MovieLoader(Context context, MovieLibraryType libraryType, OnLoadCompletedCallback callback) {
         mContext = context;
@@ -216,14 +238,108 @@ public class MovieLoader {
      * @param query
      */
     private void load(String query) {
+        load(query, false);
+    }
+
+    /**
+     * @param reuseWindows True to keep the loaded windows of paged results
+     *                     that don't contain any of the changed movies
+     */
+    private void load(String query, boolean reuseWindows) {
         if (mAsyncTask != null) {
             mAsyncTask.cancel(true);
         }
 
+        // A full load includes any changes waiting to be applied
+        mPendingIds.clear();
+        if (!reuseWindows)
+            mChangedPagedIds.clear();
+
+        mQuery = query;
         mShowingSearchResults = !TextUtils.isEmpty(query);
 
-        mAsyncTask = new MovieLoaderAsyncTask(query);
-        mAsyncTask.execute();
+        // The snapshot is only shown until the first load has completed
+        mAsyncTask = new MovieLoaderAsyncTask(query, mResults.isEmpty() && isDefaultView(query),
+                reuseWindows && mResults instanceof PagedMovieList ? (PagedMovieList) mResults : null, new ArrayList<>(mChangedPagedIds));
+        mAsyncTask.setSection(getSection()).setPriority(mPriority).execute();
+    }
+
+    /**
+     * Loads the movies again with the current search query, if the
+     * available files filter is active. Used when the availability of
+     * network files has changed, which doesn't affect any other results.
+     * @return True if a load was started
+     */
+    public boolean reloadAvailableFiles() {
+        for (MovieFilter filter : getFilters()) {
+            if (filter.getType() == MovieFilter.AVAILABLE_FILES) {
+                load(mQuery);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies changes to the given movies to the current results, rather
+     * than loading the entire library again. Falls back to a full load if
+     * the results can't be updated one movie at a time.
+     * @param tmdbIds IDs of movies that have been added, changed or removed
+     */
+    public void update(Collection<String> tmdbIds) {
+        // Paged results read the index again, but keep the windows that haven't changed
+        if (mResults instanceof PagedMovieList && !isShowingSearchResults() && getFilters().isEmpty()) {
+            mChangedPagedIds.addAll(tmdbIds);
+            load("", true);
+            return;
+        }
+
+        if (tmdbIds.size() > MAX_INCREMENTAL_UPDATE || isShowingSearchResults() || !getFilters().isEmpty()
+                || getType() == MovieLibraryType.COLLECTIONS) {
+            load();
+            return;
+        }
+
+        mPendingIds.addAll(tmdbIds);
+
+        // If a load or update is already running, the changes
+        // are applied once it has finished
+        if (mAsyncTask == null || mAsyncTask.getStatus() == LibrarySectionAsyncTask.Status.FINISHED)
+            applyPendingUpdates();
+    }
+
+    private void applyPendingUpdates() {
+        if (mPendingIds.isEmpty())
+            return;
+
+        if (mPendingIds.size() > MAX_INCREMENTAL_UPDATE) {
+            load();
+            return;
+        }
+
+        mAsyncTask = new MovieUpdateAsyncTask(new ArrayList<>(mPendingIds), mResults);
+        mPendingIds.clear();
+        mAsyncTask.setSection(getSection()).setPriority(mPriority).execute();
+    }
+
+    /**
+     * Gets the selection used for the current library type.
+     */
+    private String getSelection() {
+        switch (mLibraryType) {
+            case FAVORITES:
+                return DbAdapterMovies.SELECTION_FAVORITES;
+            case NEW_RELEASES:
+                return DbAdapterMovies.SELECTION_NEW_RELEASES;
+            case WATCHLIST:
+                return DbAdapterMovies.SELECTION_WATCHLIST;
+            case WATCHED:
+                return DbAdapterMovies.SELECTION_WATCHED;
+            case UNWATCHED:
+                return DbAdapterMovies.SELECTION_UNWATCHED;
+            default:
+                return null;
+        }
     }
 
     /**
@@ -258,31 +374,161 @@ public class MovieLoader {
             ColumnIndexCache cache = new ColumnIndexCache();
 
             try {
-                while (cursor.moveToNext()) {
-                    list.add(new MediumMovie(mContext,
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TITLE)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TMDB_ID)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_RATING)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_RELEASEDATE)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_GENRES)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_FAVOURITE)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_ACTORS)),
-                            collectionsMap.get(cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_COLLECTION_ID))),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_COLLECTION_ID)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TO_WATCH)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_HAS_WATCHED)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_DATE_ADDED)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_CERTIFICATION)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_RUNTIME))
-                    ));
-                }
+                while (cursor.moveToNext())
+                    list.add(movieFromCursor(mContext, cursor, cache, collectionsMap, null));
             } catch (Exception e) {} finally {
                 cursor.close();
                 cache.clear();
             }
         }
 
-        mResults = list;
+        return list;
+    }
+
+    /**
+     * Checks if a movie matches a filter. Offline and available files
+     * need the file system or network, and are checked by the loader itself.
+     * @param context Only used for file source filters
+     * @return True if the movie matches, false if it doesn't or the filter type isn't handled here
+     */
+    public static boolean matchesFilter(MovieFilter filter, FilterableMovie movie, Context context) {
+        switch (filter.getType()) {
+            case MovieFilter.GENRE:
+
+                if (movie.getGenres().contains(filter.getFilter())) {
+                    String[] genres = movie.getGenres().split(",");
+                    for (String genre : genres) {
+                        if (genre.trim().equals(filter.getFilter()))
+                            return true;
+                    }
+                }
+
+                return false;
+
+            case MovieFilter.CERTIFICATION:
+
+                return movie.getCertification().trim().equals(filter.getFilter());
+
+            case MovieFilter.FILE_SOURCE:
+
+                for (Filepath path : movie.getFilepaths()) {
+                    if (path.getTypeAsString(context).equals(filter.getFilter()))
+                        return true;
+                }
+
+                return false;
+
+            case MovieFilter.RELEASE_YEAR:
+
+                return movie.getReleaseYear().trim().contains(filter.getFilter());
+
+            case MovieFilter.FOLDER:
+
+                for (Filepath path : movie.getFilepaths()) {
+                    if (path.getFilepath().trim().startsWith(filter.getFilter()))
+                        return true;
+                }
+
+                return false;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Creates a movie object from the current row of a Cursor.
+     * @param filepaths Filepaths of the movie, or null to look them up
+     */
+    static MediumMovie movieFromCursor(Context context, Cursor cursor, ColumnIndexCache cache, HashMap<String, String> collectionsMap, List<String> filepaths) {
+        return new MediumMovie(context,
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TITLE)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TMDB_ID)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_RATING)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_RELEASEDATE)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_GENRES)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_FAVOURITE)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_ACTORS)),
+                collectionsMap.get(cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_COLLECTION_ID))),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_COLLECTION_ID)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TO_WATCH)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_HAS_WATCHED)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_DATE_ADDED)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_CERTIFICATION)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_RUNTIME)),
+                filepaths
+        );
+    }
+
+    /**
+     * The snapshot only covers the library without any filters or search query.
+     */
+    private boolean isDefaultView(String query) {
+        return TextUtils.isEmpty(query) && getFilters().isEmpty();
+    }
+
+    /**
+     * Sets the priority of loading, i.e. {@link Priority#PREFETCH} while
+     * the section isn't visible. Also applies to a load that's waiting to start.
+     */
+    public void setPriority(Priority priority) {
+        mPriority = priority;
+        if (mAsyncTask != null)
+            mAsyncTask.setPriority(priority);
+    }
+
+    /**
+     * Loads of the same library section replace each other, even across loader instances.
+     */
+    private String getSection() {
+        return LibrarySnapshot.MOVIES + mLibraryType.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private String getSnapshotName() {
+        return LibrarySnapshot.MOVIES + mLibraryType.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Creates snapshot rows for a list of movies. Each row contains the
+     * fields needed to show and sort the movie, followed by its filepaths.
+     */
+    private static List<String[]> toSnapshot(List<MediumMovie> movies) {
+        List<String[]> rows = new ArrayList<String[]>(movies.size());
+
+        for (MediumMovie movie : movies) {
+            ArrayList<Filepath> paths = movie.getFilepaths();
+            String[] row = new String[SNAPSHOT_FIELDS + paths.size()];
+            row[0] = movie.getTitle();
+            row[1] = movie.getTmdbId();
+            row[2] = String.valueOf(movie.getRawRating());
+            row[3] = movie.getReleasedate();
+            row[4] = movie.isFavourite() ? "1" : "0";
+            row[5] = movie.getCollection() != null ? movie.getCollection() : "";
+            row[6] = movie.getCollectionId();
+            row[7] = movie.toWatch() ? "1" : "0";
+            row[8] = movie.hasWatched() ? "1" : "0";
+            row[9] = movie.getDateAdded();
+            row[10] = movie.getRuntime();
+            for (int i = 0; i < paths.size(); i++)
+                row[SNAPSHOT_FIELDS + i] = paths.get(i).getFilepath();
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    private ArrayList<MediumMovie> fromSnapshot(List<String[]> rows) {
+        ArrayList<MediumMovie> list = new ArrayList<MediumMovie>(rows.size());
+
+        try {
+            for (String[] row : rows) {
+                list.add(new MediumMovie(mContext, row[0], row[1], row[2], row[3], "", row[4], "", row[5], row[6],
+                        row[7], row[8], row[9], "", row[10], Arrays.asList(row).subList(SNAPSHOT_FIELDS, row.length)));
+            }
+        } catch (Exception e) {
+            // Snapshot doesn't match the current row layout
+            return new ArrayList<MediumMovie>();
+        }
 
         return list;
     }
@@ -291,10 +537,39 @@ public class MovieLoader {
      * Get the results of the most recently loaded movies.
      * @return List of movie objects.
      */
-    public ArrayList<MediumMovie> getResults() {
+    public List<MediumMovie> getResults() {
         return mResults;
     }
 
+    /**
+     * Shows the movies of a window once paged results have loaded it.
+     */
+    private final Runnable mOnWindowLoaded = new Runnable() {
+        @Override
+        public void run() {
+            if (mResults instanceof PagedMovieList)
+                mCallback.onLoadCompleted();
+        }
+    };
+
+    /**
+     * Lets paged results load the movies around the visible range ahead of time.
+     * Does nothing if the results aren't paged.
+     */
+    public void setVisibleRange(int first, int last) {
+        if (mResults instanceof PagedMovieList)
+            ((PagedMovieList) mResults).setVisibleRange(first, last);
+    }
+
+    /**
+     * Drops movies that aren't visible from paged results when memory is running low.
+     * @param level Level from {@link android.content.ComponentCallbacks2#onTrimMemory(int)}
+     */
+    public void trimMemory(int level) {
+        if (mResults instanceof PagedMovieList)
+            ((PagedMovieList) mResults).trimMemory(level);
+    }
+
     /**
      * Handles everything related to loading, filtering, sorting
      * and delivering the callback when everything is finished.
@@ -303,10 +578,22 @@ public class MovieLoader {
 
         private final ArrayList<MediumMovie> mMovieList;
         private final String mSearchQuery;
-
-        public MovieLoaderAsyncTask(String searchQuery) {
+        private final boolean mShowSnapshot;
+        private final PagedMovieList mPreviousPagedList;
+        private final List<String> mChangedIds;
+        private ArrayList<MediumMovie> mSnapshotList;
+        private PagedMovieList mPagedList;
+
+        /**
+         * @param previousPagedList Paged results to reuse unchanged windows from, or null
+         * @param changedIds Movies that have changed since the previous results were loaded
+         */
+        public MovieLoaderAsyncTask(String searchQuery, boolean showSnapshot, PagedMovieList previousPagedList, List<String> changedIds) {
             // Lowercase in order to search more efficiently
             mSearchQuery = searchQuery.toLowerCase(Locale.getDefault());
+            mShowSnapshot = showSnapshot;
+            mPreviousPagedList = previousPagedList;
+            mChangedIds = changedIds;
 
             mMovieList = new ArrayList<MediumMovie>();
         }
@@ -314,6 +601,37 @@ public class MovieLoader {
         @Override
         protected Void doInBackground(Void... params) {
 
+            // Very large libraries without filters or a search query are paged,
+            // so only the IDs and sort keys are read up front
+            if (getType() != MovieLibraryType.COLLECTIONS && isDefaultView(mSearchQuery)
+                    && mDatabase.count(getSelection()) >= PAGING_THRESHOLD) {
+                List<PagedMovieList.Entry> index = PagedMovieList.readIndex(mDatabase.getMovieIndex(getSelection()));
+                Collections.sort(index, getSortType().getComparator());
+
+                if (!isCancelled()) {
+                    mPagedList = new PagedMovieList(mContext, mDatabase, index,
+                            MizuuApplication.getCollectionsAdapter().getCollectionsMap(), mOnWindowLoaded);
+                    if (mPreviousPagedList != null)
+                        mPagedList.reuseWindows(mPreviousPagedList, mChangedIds);
+                }
+
+                return null;
+            }
+
+            // Show the previous list while the library is loaded from the database
+            if (mShowSnapshot) {
+                if (mSnapshot == null)
+                    mSnapshot = LibrarySnapshot.read(mContext, getSnapshotName());
+
+                if (mSnapshot != null) {
+                    mSnapshotList = fromSnapshot(mSnapshot);
+                    Collections.sort(mSnapshotList, getSortType().getComparator());
+
+                    if (!isCancelled() && !mSnapshotList.isEmpty())
+                        publishProgress();
+                }
+            }
+
             switch (mLibraryType) {
                 case ALL_MOVIES:
                     mMovieList.addAll(listFromCursor(mDatabase.getAllMovies()));
@@ -341,8 +659,12 @@ public class MovieLoader {
             }
 
             int totalSize = mMovieList.size();
+            AvailabilityMonitor availability = AvailabilityMonitor.getInstance(mContext);
 
             for (MovieFilter filter : getFilters()) {
+                if (filter.getType() == MovieFilter.AVAILABLE_FILES)
+                    availability.refresh();
+
                 for (int i = 0; i < totalSize; i++) {
 
                     if (isCancelled())
@@ -351,52 +673,6 @@ public class MovieLoader {
                     boolean condition = false;
 
                     switch (filter.getType()) {
-                        case MovieFilter.GENRE:
-
-                            if (mMovieList.get(i).getGenres().contains(filter.getFilter())) {
-                                String[] genres = mMovieList.get(i).getGenres().split(",");
-                                for (String genre : genres) {
-                                    if (genre.trim().equals(filter.getFilter())) {
-                                        condition = true;
-                                        break;
-                                    }
-                                }
-                            }
-
-                            break;
-
-                        case MovieFilter.CERTIFICATION:
-
-                            condition = mMovieList.get(i).getCertification().trim().equals(filter.getFilter());
-
-                            break;
-
-                        case MovieFilter.FILE_SOURCE:
-
-                            for (Filepath path : mMovieList.get(i).getFilepaths()) {
-                                condition = path.getTypeAsString(mContext).equals(filter.getFilter());
-                                if (condition)
-                                    break;
-                            }
-
-                            break;
-
-                        case MovieFilter.RELEASE_YEAR:
-
-                            condition = mMovieList.get(i).getReleaseYear().trim().contains(filter.getFilter());
-
-                            break;
-
-                        case MovieFilter.FOLDER:
-
-                            for (Filepath path : mMovieList.get(i).getFilepaths()) {
-                                condition = path.getFilepath().trim().startsWith(filter.getFilter());
-                                if (condition)
-                                    break;
-                            }
-
-                            break;
-
                         case MovieFilter.OFFLINE_FILES:
 
                             for (Filepath path : mMovieList.get(i).getFilepaths()) {
@@ -409,59 +685,19 @@ public class MovieLoader {
 
                         case MovieFilter.AVAILABLE_FILES:
 
-                            ArrayList<FileSource> filesources = MizLib.getFileSources(MizLib.TYPE_MOVIE, true);
-
-                            if (isCancelled())
-                                return null;
-
                             for (Filepath path : mMovieList.get(i).getFilepaths()) {
-                                if (path.isNetworkFile())
-                                    if (mMovieList.get(i).hasOfflineCopy(path)) {
-                                        condition = true;
-                                        break; // break inner loop to continue to the next movie
-                                    } else {
-                                        if (path.getType() == FileSource.SMB) {
-                                            if (MizLib.isWifiConnected(mContext)) {
-                                                FileSource source = null;
-
-                                                for (int j = 0; j < filesources.size(); j++)
-                                                    if (path.getFilepath().contains(filesources.get(j).getFilepath())) {
-                                                        source = filesources.get(j);
-                                                        break;
-                                                    }
-
-                                                if (source == null)
-                                                    continue;
-
-                                                try {
-                                                    final SmbFile file = new SmbFile(
-                                                            MizLib.createSmbLoginString(
-                                                                    source.getDomain(),
-                                                                    source.getUser(),
-                                                                    source.getPassword(),
-                                                                    path.getFilepath(),
-                                                                    false
-                                                            ));
-                                                    if (file.exists()) {
-                                                        condition = true;
-                                                        break; // break inner loop to continue to the next movie
-                                                    }
-                                                } catch (Exception e) {}  // Do nothing - the file isn't available (either MalformedURLException or SmbException)
-                                            }
-                                        } else if (path.getType() == FileSource.UPNP) {
-                                            if (MizLib.exists(path.getFilepath())) {
-                                                condition = true;
-                                                break; // break inner loop to continue to the next movie
-                                            }
-                                        }
-                                    } else {
-                                    if (new File(path.getFilepath()).exists()) {
-                                        condition = true;
-                                        break; // break inner loop to continue to the next movie
-                                    }
+                                if ((path.isNetworkFile() && mMovieList.get(i).hasOfflineCopy(path)) || availability.isAvailable(path)) {
+                                    condition = true;
+                                    break; // break inner loop to continue to the next movie
                                 }
                             }
 
+                            break;
+
+                        default:
+
+                            condition = matchesFilter(filter, mMovieList.get(i), mContext);
+
                             break;
                     }
 
@@ -547,37 +783,126 @@ public class MovieLoader {
             // Sort
             Collections.sort(mMovieList, getSortType().getComparator());
 
+            // Save a snapshot for the next time the library is opened,
+            // unless it's identical to the one that's already saved
+            if (isDefaultView(mSearchQuery) && !isCancelled()) {
+                List<String[]> snapshot = toSnapshot(mMovieList);
+                if (!LibrarySnapshot.equals(snapshot, mSnapshot) || !LibrarySnapshot.exists(mContext, getSnapshotName())) {
+                    LibrarySnapshot.write(mContext, getSnapshotName(), snapshot);
+                    mSnapshot = snapshot;
+                }
+            }
+
             return null;
         }
 
+        @Override
+        protected void onProgressUpdate(Void... values) {
+            if (!isCancelled() && mResults.isEmpty() && mSnapshotList != null) {
+                mResults = mSnapshotList;
+                mCallback.onLoadCompleted();
+            }
+        }
+
         @Override
         protected void onPostExecute(Void result) {
             if (!isCancelled()) {
-                mResults = new ArrayList<>(mMovieList);
+                if (mPagedList != null)
+                    mResults = mPagedList;
+                else
+                    mResults = new ArrayList<>(mMovieList);
+                mChangedPagedIds.removeAll(mChangedIds);
                 mCallback.onLoadCompleted();
+                applyPendingUpdates();
+
+                // Queue depths and wait times of the shared library threads,
+                // and the request rates of the rate limited APIs
+                if (BuildConfig.DEBUG) {
+                    LibraryTaskScheduler.getInstance().logStats();
+                    RateLimiter.logStats();
+                }
             } else
                 mMovieList.clear();
         }
     }
 
+    /**
+     * Replaces, adds or removes a few movies in the current results
+     * and sorts them again, instead of loading every movie.
+     */
+    private class MovieUpdateAsyncTask extends LibrarySectionAsyncTask<Void, Void, Void> {
+
+        private final List<String> mIds;
+        private final ArrayList<MediumMovie> mMovieList;
+
+        public MovieUpdateAsyncTask(List<String> ids, List<MediumMovie> currentResults) {
+            mIds = ids;
+            mMovieList = new ArrayList<MediumMovie>(currentResults);
+        }
+
+        @Override
+        protected Void doInBackground(Void... params) {
+            DbAdapterMovieMappings mappings = MizuuApplication.getMovieMappingAdapter();
+            HashMap<String, String> collectionsMap = MizuuApplication.getCollectionsAdapter().getCollectionsMap();
+            ArrayList<MediumMovie> changed = new ArrayList<MediumMovie>();
+
+            // Movies that no longer match the library type simply aren't returned
+            Cursor cursor = mDatabase.getMovies(getSelection(), mIds);
+            if (cursor != null) {
+                ColumnIndexCache cache = new ColumnIndexCache();
+                try {
+                    while (cursor.moveToNext()) {
+                        String tmdbId = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TMDB_ID));
+                        changed.add(movieFromCursor(mContext, cursor, cache, collectionsMap, mappings.getMovieFilepaths(tmdbId)));
+                    }
+                } catch (Exception e) {} finally {
+                    cursor.close();
+                    cache.clear();
+                }
+            }
+
+            if (isCancelled())
+                return null;
+
+            HashSet<String> ids = new HashSet<String>(mIds);
+            for (int i = mMovieList.size() - 1; i >= 0; i--)
+                if (ids.contains(mMovieList.get(i).getTmdbId()))
+                    mMovieList.remove(i);
+
+            mMovieList.addAll(changed);
+            Collections.sort(mMovieList, getSortType().getComparator());
+
+            if (!isCancelled()) {
+                List<String[]> snapshot = toSnapshot(mMovieList);
+                LibrarySnapshot.write(mContext, getSnapshotName(), snapshot);
+                mSnapshot = snapshot;
+            }
+
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(Void result) {
+            if (!isCancelled()) {
+                mResults = mMovieList;
+                mCallback.onLoadCompleted();
+                applyPendingUpdates();
+            }
+        }
+    }
+
     /**
      * Show genres filter dialog.
      * @param activity
      */
     public void showGenresFilterDialog(Activity activity) {
         final TreeMap<String, Integer> map = new TreeMap<String, Integer>();
-        String[] splitGenres;
-        for (int i = 0; i < mResults.size(); i++) {
-            if (!mResults.get(i).getGenres().isEmpty()) {
-                splitGenres = mResults.get(i).getGenres().split(",");
-                for (int j = 0; j < splitGenres.length; j++) {
-                    if (map.containsKey(splitGenres[j].trim())) {
-                        map.put(splitGenres[j].trim(), map.get(splitGenres[j].trim()) + 1);
-                    } else {
-                        map.put(splitGenres[j].trim(), 1);
-                    }
-                }
-            }
+        if (mResults instanceof PagedMovieList) {
+            for (Map.Entry<String, Integer> entry : countPagedValues(DbAdapterMovies.KEY_GENRES).entrySet())
+                addGenres(map, entry.getKey(), entry.getValue());
+        } else {
+            for (int i = 0; i < mResults.size(); i++)
+                addGenres(map, mResults.get(i).getGenres(), 1);
         }
 
         createAndShowAlertDialog(activity, setupItemArray(map), R.string.selectGenre, MovieFilter.GENRE);
@@ -589,14 +914,15 @@ public class MovieLoader {
      */
     public void showCertificationsFilterDialog(Activity activity) {
         final TreeMap<String, Integer> map = new TreeMap<String, Integer>();
-        for (int i = 0; i < mResults.size(); i++) {
-            String certification = mResults.get(i).getCertification();
-            if (!TextUtils.isEmpty(certification)) {
-                if (map.containsKey(certification.trim())) {
-                    map.put(certification.trim(), map.get(certification.trim()) + 1);
-                } else {
-                    map.put(certification.trim(), 1);
-                }
+        if (mResults instanceof PagedMovieList) {
+            for (Map.Entry<String, Integer> entry : countPagedValues(DbAdapterMovies.KEY_CERTIFICATION).entrySet())
+                if (!TextUtils.isEmpty(entry.getKey().trim()))
+                    addCount(map, entry.getKey().trim(), entry.getValue());
+        } else {
+            for (int i = 0; i < mResults.size(); i++) {
+                String certification = mResults.get(i).getCertification();
+                if (!TextUtils.isEmpty(certification))
+                    addCount(map, certification.trim(), 1);
             }
         }
 
@@ -609,14 +935,14 @@ public class MovieLoader {
      */
     public void showReleaseYearFilterDialog(Activity activity) {
         final TreeMap<String, Integer> map = new TreeMap<String, Integer>();
-        for (int i = 0; i < mResults.size(); i++) {
-            String year = mResults.get(i).getReleaseYear().trim();
-            if (!TextUtils.isEmpty(year)) {
-                if (map.containsKey(year)) {
-                    map.put(year, map.get(year) + 1);
-                } else {
-                    map.put(year, 1);
-                }
+        if (mResults instanceof PagedMovieList) {
+            for (Map.Entry<String, Integer> entry : countPagedValues(DbAdapterMovies.KEY_RELEASEDATE).entrySet())
+                addCount(map, MediumMovie.getReleaseYear(activity, entry.getKey()).trim(), entry.getValue());
+        } else {
+            for (int i = 0; i < mResults.size(); i++) {
+                String year = mResults.get(i).getReleaseYear().trim();
+                if (!TextUtils.isEmpty(year))
+                    addCount(map, year, 1);
             }
         }
 
@@ -629,17 +955,8 @@ public class MovieLoader {
      */
     public void showFileSourcesFilterDialog(Activity activity) {
         final TreeMap<String, Integer> map = new TreeMap<String, Integer>();
-
-        for (int i = 0; i < mResults.size(); i++) {
-            for (Filepath path : mResults.get(i).getFilepaths()) {
-                String type = path.getTypeAsString(activity);
-                if (map.containsKey(type)) {
-                    map.put(type, map.get(type) + 1);
-                } else {
-                    map.put(type, 1);
-                }
-            }
-        }
+        for (Filepath path : getAllFilepaths())
+            addCount(map, path.getTypeAsString(activity), 1);
 
         createAndShowAlertDialog(activity, setupItemArray(map), R.string.selectFileSource, MovieFilter.FILE_SOURCE);
     }
@@ -650,22 +967,79 @@ public class MovieLoader {
      */
     public void showFoldersFilterDialog(Activity activity) {
         final TreeMap<String, Integer> map = new TreeMap<String, Integer>();
-        for (int i = 0; i < mResults.size(); i++) {
-            for (Filepath path : mResults.get(i).getFilepaths()) {
-                String folder = path.getFolder();
-                if (!TextUtils.isEmpty(folder)) {
-                    if (map.containsKey(folder)) {
-                        map.put(folder, map.get(folder) + 1);
-                    } else {
-                        map.put(folder, 1);
-                    }
-                }
-            }
+        for (Filepath path : getAllFilepaths()) {
+            String folder = path.getFolder();
+            if (!TextUtils.isEmpty(folder))
+                addCount(map, folder, 1);
         }
 
         createAndShowAlertDialog(activity, setupItemArray(map), R.string.selectFolder, MovieFilter.FOLDER);
     }
 
+    private static void addCount(TreeMap<String, Integer> map, String key, int count) {
+        Integer current = map.get(key);
+        map.put(key, current == null ? count : current + count);
+    }
+
+    private static void addGenres(TreeMap<String, Integer> map, String genres, int count) {
+        if (TextUtils.isEmpty(genres))
+            return;
+
+        for (String genre : genres.split(","))
+            addCount(map, genre.trim(), count);
+    }
+
+    /**
+     * Counts the movies in the library with each value of a column. Paged
+     * results only hold placeholders for movies that haven't been loaded,
+     * so the filter options are read from the database instead.
+     * @return Map of values, with null values as empty strings, to the number of movies
+     */
+    private TreeMap<String, Integer> countPagedValues(String column) {
+        TreeMap<String, Integer> values = new TreeMap<String, Integer>();
+
+        Cursor cursor = mDatabase.countValues(column, getSelection());
+        if (cursor == null)
+            return values;
+
+        try {
+            while (cursor.moveToNext()) {
+                String value = cursor.getString(0);
+                addCount(values, value == null ? "" : value, cursor.getInt(1));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        return values;
+    }
+
+    /**
+     * Gets the filepaths of every movie in the results. For paged
+     * results, they're read from the database, see {@link #countPagedValues(String)}.
+     */
+    private List<Filepath> getAllFilepaths() {
+        List<Filepath> filepaths = new ArrayList<>();
+
+        if (mResults instanceof PagedMovieList) {
+            Cursor cursor = MizuuApplication.getMovieMappingAdapter().getFilepathsInSelection(getSelection());
+            if (cursor == null)
+                return filepaths;
+
+            try {
+                while (cursor.moveToNext())
+                    filepaths.add(new Filepath(cursor.getString(0)));
+            } finally {
+                cursor.close();
+            }
+        } else {
+            for (int i = 0; i < mResults.size(); i++)
+                filepaths.addAll(mResults.get(i).getFilepaths());
+        }
+
+        return filepaths;
+    }
+
     /**
      * Used to set up an array of items for the alert dialog.
      * @param map
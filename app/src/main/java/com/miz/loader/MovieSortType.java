@@ -18,8 +18,6 @@ package com.miz.loader;
 
 import android.text.TextUtils;
 
-import com.miz.functions.MediumMovie;
-
 import java.util.Comparator;
 
 public enum MovieSortType {
@@ -48,10 +46,10 @@ public enum MovieSortType {
             return mAscendingSort;
         }
 
-        public Comparator<MediumMovie> getComparator() {
-            return new Comparator<MediumMovie>() {
+        public Comparator<SortableMovie> getComparator() {
+            return new Comparator<SortableMovie>() {
                 @Override
-                public int compare(MediumMovie lhs, MediumMovie rhs) {
+                public int compare(SortableMovie lhs, SortableMovie rhs) {
 
                     // Let's assume that they're equal to begin with
                     int result = 0;
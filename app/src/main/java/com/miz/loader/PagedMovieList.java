@@ -0,0 +1,378 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.loader;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import com.miz.db.DbAdapterMovieMappings;
+import com.miz.db.DbAdapterMovies;
+import com.miz.functions.ColumnIndexCache;
+import com.miz.functions.LibraryTaskScheduler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
+import com.miz.functions.MediumMovie;
+import com.miz.functions.MizLib;
+import com.miz.mizuu.MizuuApplication;
+import com.miz.utils.StringUtils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Movie list for very large libraries. Only an index with the ID and sort
+ * keys of each movie is kept in memory, and full movie objects are loaded
+ * from the database in windows of {@link #WINDOW_SIZE} movies, when they're
+ * needed. Windows around the visible range are loaded ahead of time, and
+ * the least recently used windows are dropped when there are too many of
+ * them or memory is running low. Movies in a window that isn't loaded yet
+ * are shown with the fields from the index while the window is loaded in
+ * the background.
+ */
+class PagedMovieList extends AbstractList<MediumMovie> {
+
+	// Number of movies loaded at a time
+	static final int WINDOW_SIZE = 48;
+
+	// Number of loaded windows kept in memory
+	private static final int MAX_WINDOWS = 8;
+
+	private final Context mContext;
+	private final DbAdapterMovies mDatabase;
+	private final List<Entry> mIndex;
+	private final HashMap<String, String> mCollectionsMap;
+	private final LruCache<Integer, MediumMovie[]> mWindows = new LruCache<Integer, MediumMovie[]>(MAX_WINDOWS);
+	private final LruCache<Integer, MediumMovie[]> mPlaceholders = new LruCache<Integer, MediumMovie[]>(MAX_WINDOWS);
+	private final Set<Integer> mQueued = Collections.synchronizedSet(new HashSet<Integer>());
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+	private final Runnable mOnWindowLoaded;
+	private volatile int mFirstVisibleWindow, mLastVisibleWindow;
+
+	/**
+	 * @param index Sorted index of the movies to show
+	 * @param collectionsMap Collection names by collection ID
+	 * @param onWindowLoaded Run on the main thread when a window that was
+	 *                       shown with placeholders has been loaded
+	 */
+	PagedMovieList(Context context, DbAdapterMovies database, List<Entry> index, HashMap<String, String> collectionsMap, Runnable onWindowLoaded) {
+		mContext = context;
+		mDatabase = database;
+		mIndex = index;
+		mCollectionsMap = collectionsMap;
+		mOnWindowLoaded = onWindowLoaded;
+	}
+
+	/**
+	 * Reads an index Cursor from {@link DbAdapterMovies#getMovieIndex(String)} and closes it.
+	 */
+	static List<Entry> readIndex(Cursor cursor) {
+		List<Entry> index = new ArrayList<Entry>();
+
+		if (cursor != null) {
+			ColumnIndexCache cache = new ColumnIndexCache();
+			try {
+				while (cursor.moveToNext())
+					index.add(new Entry(cursor, cache));
+			} catch (Exception e) {} finally {
+				cursor.close();
+				cache.clear();
+			}
+		}
+
+		return index;
+	}
+
+	@Override
+	public int size() {
+		return mIndex.size();
+	}
+
+	@Override
+	public MediumMovie get(int position) {
+		int window = position / WINDOW_SIZE;
+
+		MediumMovie[] movies = mWindows.get(window);
+		if (movies != null)
+			return movies[position % WINDOW_SIZE];
+
+		// Not loaded ahead of time, so the index is shown until it has been loaded
+		queueLoad(window, Priority.VISIBLE, true);
+
+		MediumMovie[] placeholders = mPlaceholders.get(window);
+		if (placeholders == null) {
+			placeholders = new MediumMovie[Math.min(WINDOW_SIZE, mIndex.size() - window * WINDOW_SIZE)];
+			mPlaceholders.put(window, placeholders);
+		}
+
+		MediumMovie placeholder = placeholders[position % WINDOW_SIZE];
+		if (placeholder == null) {
+			placeholder = mIndex.get(position).toMovie(mContext);
+			placeholders[position % WINDOW_SIZE] = placeholder;
+		}
+
+		return placeholder;
+	}
+
+	/**
+	 * Keeps the loaded windows of the previous list that are unchanged,
+	 * i.e. the same movies in the same positions, none of which have changed.
+	 * @param changedIds IDs of movies that have been added, changed or removed
+	 */
+	void reuseWindows(PagedMovieList previous, Collection<String> changedIds) {
+		Set<String> changed = new HashSet<String>(changedIds);
+		int lastWindow = (Math.min(mIndex.size(), previous.mIndex.size()) - 1) / WINDOW_SIZE;
+
+		for (int window = 0; window <= lastWindow; window++) {
+			MediumMovie[] movies = previous.mWindows.get(window);
+			if (movies == null || movies.length != Math.min(WINDOW_SIZE, mIndex.size() - window * WINDOW_SIZE))
+				continue;
+
+			boolean unchanged = true;
+			for (int i = 0; i < movies.length && unchanged; i++) {
+				String tmdbId = mIndex.get(window * WINDOW_SIZE + i).mTmdbId;
+				unchanged = tmdbId.equals(movies[i].getTmdbId()) && !changed.contains(tmdbId);
+			}
+
+			if (unchanged)
+				mWindows.put(window, movies);
+		}
+
+		mFirstVisibleWindow = previous.mFirstVisibleWindow;
+		mLastVisibleWindow = previous.mLastVisibleWindow;
+	}
+
+	/**
+	 * Loads the windows around the visible range in the background,
+	 * so they're ready by the time they're scrolled into view.
+	 */
+	void setVisibleRange(int first, int last) {
+		if (mIndex.isEmpty())
+			return;
+
+		mFirstVisibleWindow = first / WINDOW_SIZE;
+		mLastVisibleWindow = last / WINDOW_SIZE;
+
+		int lastWindow = (mIndex.size() - 1) / WINDOW_SIZE;
+		for (int window = Math.max(0, mFirstVisibleWindow - 1); window <= Math.min(lastWindow, mLastVisibleWindow + 1); window++)
+			queueLoad(window, Priority.PREFETCH, false);
+	}
+
+	/**
+	 * Loads a window in the background, unless it's loaded or queued already.
+	 * @param notify True to run the callback once it has been loaded
+	 */
+	private void queueLoad(final int window, Priority priority, final boolean notify) {
+		if (mWindows.get(window) != null || !mQueued.add(window))
+			return;
+
+		LibraryTaskScheduler.getInstance().execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					if (mWindows.get(window) == null)
+						mWindows.put(window, load(window));
+				} finally {
+					mQueued.remove(window);
+				}
+
+				mPlaceholders.remove(window);
+
+				if (notify && mOnWindowLoaded != null)
+					mHandler.post(mOnWindowLoaded);
+			}
+		}, priority);
+	}
+
+	/**
+	 * Drops every loaded window except the visible ones,
+	 * if the system is running low on memory.
+	 * @param level Level from {@link ComponentCallbacks2#onTrimMemory(int)}
+	 */
+	void trimMemory(int level) {
+		if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+			return;
+
+		HashMap<Integer, MediumMovie[]> visible = new HashMap<Integer, MediumMovie[]>();
+		for (int window = mFirstVisibleWindow; window <= mLastVisibleWindow; window++) {
+			MediumMovie[] movies = mWindows.get(window);
+			if (movies != null)
+				visible.put(window, movies);
+		}
+
+		mWindows.evictAll();
+
+		for (Integer window : visible.keySet())
+			mWindows.put(window, visible.get(window));
+	}
+
+	/**
+	 * Loads the movies in a window from the database.
+	 */
+	private MediumMovie[] load(int window) {
+		int start = window * WINDOW_SIZE;
+		int end = Math.min(start + WINDOW_SIZE, mIndex.size());
+
+		HashMap<String, Integer> positions = new HashMap<String, Integer>();
+		for (int i = start; i < end; i++)
+			positions.put(mIndex.get(i).mTmdbId, i - start);
+
+		MediumMovie[] movies = new MediumMovie[end - start];
+		HashMap<String, List<String>> filepaths = loadFilepaths(positions.keySet());
+
+		Cursor cursor = mDatabase.getMovies(null, positions.keySet());
+		if (cursor != null) {
+			ColumnIndexCache cache = new ColumnIndexCache();
+			try {
+				while (cursor.moveToNext()) {
+					List<String> paths = filepaths.get(cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TMDB_ID)));
+					MediumMovie movie = MovieLoader.movieFromCursor(mContext, cursor, cache, mCollectionsMap,
+							paths != null ? paths : new ArrayList<String>());
+					Integer position = positions.get(movie.getTmdbId());
+					if (position != null)
+						movies[position] = movie;
+				}
+			} catch (Exception e) {} finally {
+				cursor.close();
+				cache.clear();
+			}
+		}
+
+		// Movies that have been removed since the index was read
+		// are shown with the fields from the index until the next load
+		for (int i = 0; i < movies.length; i++)
+			if (movies[i] == null)
+				movies[i] = mIndex.get(start + i).toMovie(mContext);
+
+		return movies;
+	}
+
+	/**
+	 * Loads the filepaths of the movies in a window with a single query.
+	 */
+	private static HashMap<String, List<String>> loadFilepaths(Collection<String> tmdbIds) {
+		HashMap<String, List<String>> filepaths = new HashMap<String, List<String>>();
+
+		Cursor cursor = MizuuApplication.getMovieMappingAdapter().getFilepaths(tmdbIds);
+		if (cursor != null) {
+			ColumnIndexCache cache = new ColumnIndexCache();
+			try {
+				while (cursor.moveToNext()) {
+					String tmdbId = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovieMappings.KEY_TMDB_ID));
+					List<String> paths = filepaths.get(tmdbId);
+					if (paths == null) {
+						paths = new ArrayList<String>();
+						filepaths.put(tmdbId, paths);
+					}
+					paths.add(cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovieMappings.KEY_FILEPATH)));
+				}
+			} catch (Exception e) {} finally {
+				cursor.close();
+				cache.clear();
+			}
+		}
+
+		return filepaths;
+	}
+
+	/**
+	 * ID and sort keys of a movie in the index.
+	 */
+	static class Entry implements SortableMovie {
+
+		private final String mTmdbId, mTitle, mRating, mReleasedate, mFavourite, mHasWatched, mDateAdded, mRuntime;
+		private final double mRawRating;
+
+		Entry(Cursor cursor, ColumnIndexCache cache) {
+			mTmdbId = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TMDB_ID));
+			mTitle = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_TITLE));
+			mRating = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_RATING));
+			mReleasedate = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_RELEASEDATE));
+			mFavourite = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_FAVOURITE));
+			mHasWatched = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_HAS_WATCHED));
+			mDateAdded = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_DATE_ADDED));
+			mRuntime = cursor.getString(cache.getColumnIndex(cursor, DbAdapterMovies.KEY_RUNTIME));
+
+			double rating;
+			try {
+				rating = Double.valueOf(mRating);
+			} catch (Exception e) {
+				rating = 0.0;
+			}
+			mRawRating = rating;
+		}
+
+		@Override
+		public String getTitle() {
+			return mTitle != null ? mTitle : "";
+		}
+
+		@Override
+		public String getCollection() {
+			return ""; // The collections section is never paged
+		}
+
+		@Override
+		public String getReleasedate() {
+			return mReleasedate;
+		}
+
+		@Override
+		public double getRawRating() {
+			return mRawRating;
+		}
+
+		@Override
+		public double getWeightedRating() {
+			return MediumMovie.getWeightedRating(mRawRating, "1".equals(mFavourite), !"0".equals(mHasWatched));
+		}
+
+		@Override
+		public String getDateAdded() {
+			if (TextUtils.isEmpty(mDateAdded) || !MizLib.isNumber(mDateAdded))
+				return "0";
+			return mDateAdded;
+		}
+
+		@Override
+		public String getRuntime() {
+			if (TextUtils.isEmpty(mRuntime))
+				return "0";
+			String runtime = mRuntime.replace("min", "").trim();
+			return TextUtils.isEmpty(runtime) ? "0" : runtime;
+		}
+
+		/**
+		 * Creates a movie with the fields from the index, without looking up its filepaths.
+		 * Unidentified movies use the filepath as ID, so it's used for the title instead.
+		 */
+		MediumMovie toMovie(Context context) {
+			String title = TextUtils.isEmpty(mTitle) ? StringUtils.getFilenameWithoutExtension(mTmdbId) : mTitle;
+			return new MediumMovie(context, title, mTmdbId, mRating, mReleasedate, "", mFavourite, "", "", "",
+					"0", mHasWatched, mDateAdded, "", mRuntime != null ? mRuntime : "", new ArrayList<String>());
+		}
+	}
+}
@@ -19,22 +19,18 @@ import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 
 import com.miz.db.DbAdapterTvShowEpisodes;
-import com.miz.functions.FileSource;
+import com.miz.functions.AvailabilityMonitor;
 import com.miz.functions.Filepath;
 import com.miz.functions.GridEpisode;
 import com.miz.functions.LibrarySectionAsyncTask;
-import com.miz.functions.MizLib;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.mizuu.R;
 import com.miz.utils.FileUtils;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 
-import jcifs.smb.SmbFile;
-
 import static com.miz.functions.PreferenceKeys.TVSHOWS_EPISODE_ORDER;
 
 public class TvShowEpisodeLoader {
@@ -142,7 +138,7 @@ public class TvShowEpisodeLoader {
         }
 
         mAsyncTask = new TvShowEpisodeLoaderAsyncTask();
-        mAsyncTask.execute();
+        mAsyncTask.setSection("episodes_" + mShowId + "_" + mShowSeason).execute();
     }
 
     /**
@@ -192,61 +188,19 @@ public class TvShowEpisodeLoader {
             }
 
             if (showAvailableFiles()) {
-                for (int i = 0; i < totalSize; i++) {
-                    ArrayList<FileSource> filesources = MizLib.getFileSources(MizLib.TYPE_SHOWS, true);
+                AvailabilityMonitor availability = AvailabilityMonitor.getInstance(mContext);
+                availability.refresh();
 
+                for (int i = 0; i < totalSize; i++) {
                     if (isCancelled())
                         return null;
 
                     boolean condition = false;
 
                     for (Filepath path : mEpisodeList.get(i).getFilepaths()) {
-                        if (path.isNetworkFile())
-                            if (FileUtils.hasOfflineCopy(mContext, path)) {
-                                condition = true;
-                                break; // break inner loop to continue to the next episode
-                            } else {
-                                if (path.getType() == FileSource.SMB) {
-                                    if (MizLib.isWifiConnected(mContext)) {
-                                        FileSource source = null;
-
-                                        for (int j = 0; j < filesources.size(); j++)
-                                            if (path.getFilepath().contains(filesources.get(j).getFilepath())) {
-                                                source = filesources.get(j);
-                                                break;
-                                            }
-
-                                        if (source == null)
-                                            continue;
-
-                                        try {
-                                            final SmbFile file = new SmbFile(
-                                                    MizLib.createSmbLoginString(
-                                                            source.getDomain(),
-                                                            source.getUser(),
-                                                            source.getPassword(),
-                                                            path.getFilepath(),
-                                                            false
-                                                    ));
-                                            if (file.exists()) {
-                                                condition = true;
-                                                break; // break inner loop to continue to the next episode
-                                            }
-                                        } catch (Exception e) {
-                                        }  // Do nothing - the file isn't available (either MalformedURLException or SmbException)
-                                    }
-                                } else if (path.getType() == FileSource.UPNP) {
-                                    if (MizLib.exists(path.getFilepath())) {
-                                        condition = true;
-                                        break; // break inner loop to continue to the next episode
-                                    }
-                                }
-                            }
-                        else {
-                            if (new File(path.getFilepath()).exists()) {
-                                condition = true;
-                                break; // break inner loop to continue to the next episode
-                            }
+                        if ((path.isNetworkFile() && FileUtils.hasOfflineCopy(mContext, path)) || availability.isAvailable(path)) {
+                            condition = true;
+                            break; // break inner loop to continue to the next episode
                         }
                     }
 
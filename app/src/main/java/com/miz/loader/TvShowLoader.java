@@ -26,29 +26,32 @@ import android.text.TextUtils;
 import com.google.common.collect.Lists;
 import com.miz.db.DbAdapterTvShowEpisodes;
 import com.miz.db.DbAdapterTvShows;
+import com.miz.functions.AvailabilityMonitor;
 import com.miz.functions.ColumnIndexCache;
-import com.miz.functions.FileSource;
 import com.miz.functions.Filepath;
 import com.miz.functions.LibrarySectionAsyncTask;
+import com.miz.functions.LibraryTaskScheduler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
 import com.miz.functions.MizLib;
 import com.miz.functions.PreferenceKeys;
+import com.miz.functions.RateLimiter;
+import com.miz.mizuu.BuildConfig;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.mizuu.R;
 import com.miz.mizuu.TvShow;
 
-import java.io.File;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.TreeMap;
 import java.util.regex.Pattern;
 
-import jcifs.smb.SmbFile;
-
 public class TvShowLoader {
 
     // For TvShowLibraryType
@@ -74,6 +77,12 @@ public class TvShowLoader {
             SORT_NEWEST_EPISODE = "sortNewestEpisode",
             SORT_DURATION = "sortDuration";
 
+    // Number of fields in each snapshot row
+    private static final int SNAPSHOT_FIELDS = 7;
+
+    // Larger updates are handled as a full load
+    private static final int MAX_INCREMENTAL_UPDATE = 250;
+
     private final Context mContext;
     private final TvShowLibraryType mLibraryType;
     private final OnLoadCompletedCallback mCallback;
@@ -83,8 +92,12 @@ public class TvShowLoader {
     private TvShowSortType mSortType;
     private ArrayList<TvShow> mResults = new ArrayList<>();
     private HashSet<TvShowFilter> mFilters = new HashSet<>();
-    private TvShowLoaderAsyncTask mAsyncTask;
+    private LibrarySectionAsyncTask<Void, Void, Void> mAsyncTask;
+    private final HashSet<String> mPendingIds = new HashSet<>();
     private boolean mShowingSearchResults = false;
+    private String mQuery = "";
+    private volatile List<String[]> mSnapshot;
+    private Priority mPriority = Priority.VISIBLE;
 
     public TvShowLoader(Context context, TvShowLibraryType libraryType, OnLoadCompletedCallback callback) {
         mContext = context;
@@ -209,10 +222,66 @@ public class TvShowLoader {
             mAsyncTask.cancel(true);
         }
 
+        // A full load includes any changes waiting to be applied
+        mPendingIds.clear();
+
+        mQuery = query;
         mShowingSearchResults = !TextUtils.isEmpty(query);
 
-        mAsyncTask = new TvShowLoaderAsyncTask(query);
-        mAsyncTask.execute();
+        // The snapshot is only shown until the first load has completed
+        mAsyncTask = new TvShowLoaderAsyncTask(query, mResults.isEmpty() && isDefaultView(query));
+        mAsyncTask.setSection(getSection()).setPriority(mPriority).execute();
+    }
+
+    /**
+     * Loads the TV shows again with the current search query, if the
+     * available files filter is active. Used when the availability of
+     * network files has changed, which doesn't affect any other results.
+     * @return True if a load was started
+     */
+    public boolean reloadAvailableFiles() {
+        for (TvShowFilter filter : getFilters()) {
+            if (filter.getType() == TvShowFilter.AVAILABLE_FILES) {
+                load(mQuery);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies changes to the given TV shows to the current results, rather
+     * than loading the entire library again. Falls back to a full load if
+     * the results can't be updated one show at a time.
+     * @param showIds IDs of TV shows that have been added, changed or removed
+     */
+    public void update(Collection<String> showIds) {
+        if (showIds.size() > MAX_INCREMENTAL_UPDATE || isShowingSearchResults() || !getFilters().isEmpty()
+                || getType() == TvShowLibraryType.RECENTLY_AIRED) {
+            load();
+            return;
+        }
+
+        mPendingIds.addAll(showIds);
+
+        // If a load or update is already running, the changes
+        // are applied once it has finished
+        if (mAsyncTask == null || mAsyncTask.getStatus() == LibrarySectionAsyncTask.Status.FINISHED)
+            applyPendingUpdates();
+    }
+
+    private void applyPendingUpdates() {
+        if (mPendingIds.isEmpty())
+            return;
+
+        if (mPendingIds.size() > MAX_INCREMENTAL_UPDATE) {
+            load();
+            return;
+        }
+
+        mAsyncTask = new TvShowUpdateAsyncTask(new ArrayList<>(mPendingIds), mResults);
+        mPendingIds.clear();
+        mAsyncTask.setSection(getSection()).setPriority(mPriority).execute();
     }
 
     /**
@@ -244,22 +313,8 @@ public class TvShowLoader {
             ColumnIndexCache cache = new ColumnIndexCache();
 
             try {
-                while (cursor.moveToNext()) {
-                    list.add(new TvShow(
-                            mContext,
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_ID)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_TITLE)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_PLOT)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_RATING)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_GENRES)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_ACTORS)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_CERTIFICATION)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_FIRST_AIRDATE)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_RUNTIME)),
-                            cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_FAVOURITE)),
-                            mTvShowEpisodeDatabase.getLatestEpisodeAirdate(cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_ID)))
-                    ));
-                }
+                while (cursor.moveToNext())
+                    list.add(showFromCursor(cursor, cache));
             } catch (Exception e) {
             } finally {
                 cursor.close();
@@ -267,7 +322,88 @@ public class TvShowLoader {
             }
         }
 
-        mResults = list;
+        return list;
+    }
+
+    /**
+     * Creates a TV show object from the current row of a Cursor.
+     */
+    private TvShow showFromCursor(Cursor cursor, ColumnIndexCache cache) {
+        return new TvShow(
+                mContext,
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_ID)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_TITLE)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_PLOT)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_RATING)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_GENRES)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_ACTORS)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_CERTIFICATION)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_FIRST_AIRDATE)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_RUNTIME)),
+                cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_FAVOURITE)),
+                mTvShowEpisodeDatabase.getLatestEpisodeAirdate(cursor.getString(cache.getColumnIndex(cursor, DbAdapterTvShows.KEY_SHOW_ID)))
+        );
+    }
+
+    /**
+     * The snapshot only covers the library without any filters or search query.
+     */
+    private boolean isDefaultView(String query) {
+        return TextUtils.isEmpty(query) && getFilters().isEmpty();
+    }
+
+    /**
+     * Sets the priority of loading, i.e. {@link Priority#PREFETCH} while
+     * the section isn't visible. Also applies to a load that's waiting to start.
+     */
+    public void setPriority(Priority priority) {
+        mPriority = priority;
+        if (mAsyncTask != null)
+            mAsyncTask.setPriority(priority);
+    }
+
+    /**
+     * Loads of the same library section replace each other, even across loader instances.
+     */
+    private String getSection() {
+        return LibrarySnapshot.TV_SHOWS + mLibraryType.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private String getSnapshotName() {
+        return LibrarySnapshot.TV_SHOWS + mLibraryType.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Creates snapshot rows with the fields needed to show and sort the TV shows.
+     */
+    private static List<String[]> toSnapshot(List<TvShow> shows) {
+        List<String[]> rows = new ArrayList<String[]>(shows.size());
+
+        for (TvShow show : shows) {
+            String[] row = new String[SNAPSHOT_FIELDS];
+            row[0] = show.getId();
+            row[1] = show.getTitle();
+            row[2] = show.getRating();
+            row[3] = show.getFirstAirdate();
+            row[4] = show.getRuntime();
+            row[5] = show.getFavorite();
+            row[6] = show.getLatestEpisodeAirdate();
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    private ArrayList<TvShow> fromSnapshot(List<String[]> rows) {
+        ArrayList<TvShow> list = new ArrayList<TvShow>(rows.size());
+
+        try {
+            for (String[] row : rows)
+                list.add(new TvShow(mContext, row[0], row[1], "", row[2], "", "", "", row[3], row[4], row[5], row[6]));
+        } catch (Exception e) {
+            // Snapshot doesn't match the current row layout
+            return new ArrayList<TvShow>();
+        }
 
         return list;
     }
@@ -280,10 +416,13 @@ public class TvShowLoader {
 
         private final ArrayList<TvShow> mTvShowList;
         private final String mSearchQuery;
+        private final boolean mShowSnapshot;
+        private ArrayList<TvShow> mSnapshotList;
 
-        public TvShowLoaderAsyncTask(String searchQuery) {
+        public TvShowLoaderAsyncTask(String searchQuery, boolean showSnapshot) {
             // Lowercase in order to search more efficiently
             mSearchQuery = searchQuery.toLowerCase(Locale.getDefault());
+            mShowSnapshot = showSnapshot;
 
             mTvShowList = new ArrayList<TvShow>();
         }
@@ -291,6 +430,20 @@ public class TvShowLoader {
         @Override
         protected Void doInBackground(Void... params) {
 
+            // Show the previous list while the library is loaded from the database
+            if (mShowSnapshot) {
+                if (mSnapshot == null)
+                    mSnapshot = LibrarySnapshot.read(mContext, getSnapshotName());
+
+                if (mSnapshot != null) {
+                    mSnapshotList = fromSnapshot(mSnapshot);
+                    Collections.sort(mSnapshotList, getSortType().getComparator());
+
+                    if (!isCancelled() && !mSnapshotList.isEmpty())
+                        publishProgress();
+                }
+            }
+
             switch (mLibraryType) {
                 case ALL_SHOWS:
                     mTvShowList.addAll(listFromCursor(mTvShowDatabase.getAllShows()));
@@ -360,8 +513,12 @@ public class TvShowLoader {
             }
 
             int totalSize = mTvShowList.size();
+            AvailabilityMonitor availability = AvailabilityMonitor.getInstance(mContext);
 
             for (TvShowFilter filter : getFilters()) {
+                if (filter.getType() == TvShowFilter.AVAILABLE_FILES)
+                    availability.refresh();
+
                 for (int i = 0; i < totalSize; i++) {
 
                     if (isCancelled())
@@ -434,56 +591,10 @@ public class TvShowLoader {
 
                         case TvShowFilter.AVAILABLE_FILES:
 
-                            ArrayList<FileSource> filesources = MizLib.getFileSources(MizLib.TYPE_SHOWS, true);
-
-                            if (isCancelled())
-                                return null;
-
                             for (Filepath path : paths) {
-                                if (path.isNetworkFile())
-                                    if (mTvShowList.get(i).hasOfflineCopy(path)) {
-                                        condition = true;
-                                        break; // break inner loop to continue to the next TV show
-                                    } else {
-                                        if (path.getType() == FileSource.SMB) {
-                                            if (MizLib.isWifiConnected(mContext)) {
-                                                FileSource source = null;
-
-                                                for (int j = 0; j < filesources.size(); j++)
-                                                    if (path.getFilepath().contains(filesources.get(j).getFilepath())) {
-                                                        source = filesources.get(j);
-                                                        break;
-                                                    }
-
-                                                if (source == null)
-                                                    continue;
-
-                                                try {
-                                                    final SmbFile file = new SmbFile(
-                                                            MizLib.createSmbLoginString(
-                                                                    source.getDomain(),
-                                                                    source.getUser(),
-                                                                    source.getPassword(),
-                                                                    path.getFilepath(),
-                                                                    false
-                                                            ));
-                                                    if (file.exists()) {
-                                                        condition = true;
-                                                        break; // break inner loop to continue to the next TV show
-                                                    }
-                                                } catch (Exception e) {}  // Do nothing - the file isn't available (either MalformedURLException or SmbException)
-                                            }
-                                        } else if (path.getType() == FileSource.UPNP) {
-                                            if (MizLib.exists(path.getFilepath())) {
-                                                condition = true;
-                                                break; // break inner loop to continue to the next TV show
-                                            }
-                                        }
-                                    } else {
-                                    if (new File(path.getFilepath()).exists()) {
-                                        condition = true;
-                                        break; // break inner loop to continue to the next TV show
-                                    }
+                                if ((path.isNetworkFile() && mTvShowList.get(i).hasOfflineCopy(path)) || availability.isAvailable(path)) {
+                                    condition = true;
+                                    break; // break inner loop to continue to the next TV show
                                 }
                             }
 
@@ -547,19 +658,116 @@ public class TvShowLoader {
             // Sort
             Collections.sort(mTvShowList, getSortType().getComparator());
 
+            // Save a snapshot for the next time the library is opened,
+            // unless it's identical to the one that's already saved
+            if (isDefaultView(mSearchQuery) && !isCancelled()) {
+                List<String[]> snapshot = toSnapshot(mTvShowList);
+                if (!LibrarySnapshot.equals(snapshot, mSnapshot) || !LibrarySnapshot.exists(mContext, getSnapshotName())) {
+                    LibrarySnapshot.write(mContext, getSnapshotName(), snapshot);
+                    mSnapshot = snapshot;
+                }
+            }
+
             return null;
         }
 
+        @Override
+        protected void onProgressUpdate(Void... values) {
+            if (!isCancelled() && mResults.isEmpty() && mSnapshotList != null) {
+                mResults = mSnapshotList;
+                mCallback.onLoadCompleted();
+            }
+        }
+
         @Override
         protected void onPostExecute(Void result) {
             if (!isCancelled()) {
                 mResults = new ArrayList<>(mTvShowList);
                 mCallback.onLoadCompleted();
+                applyPendingUpdates();
+
+                // Queue depths and wait times of the shared library threads,
+                // and the request rates of the rate limited APIs
+                if (BuildConfig.DEBUG) {
+                    LibraryTaskScheduler.getInstance().logStats();
+                    RateLimiter.logStats();
+                }
             } else
                 mTvShowList.clear();
         }
     }
 
+    /**
+     * Replaces, adds or removes a few TV shows in the current results
+     * and sorts them again, instead of loading every show.
+     */
+    private class TvShowUpdateAsyncTask extends LibrarySectionAsyncTask<Void, Void, Void> {
+
+        private final List<String> mIds;
+        private final ArrayList<TvShow> mTvShowList;
+
+        public TvShowUpdateAsyncTask(List<String> ids, List<TvShow> currentResults) {
+            mIds = ids;
+            mTvShowList = new ArrayList<TvShow>(currentResults);
+        }
+
+        @Override
+        protected Void doInBackground(Void... params) {
+            ArrayList<TvShow> changed = new ArrayList<TvShow>();
+
+            // Shows that no longer match the library type simply aren't returned
+            Cursor cursor = mTvShowDatabase.getShows(mLibraryType == TvShowLibraryType.FAVORITES ?
+                    DbAdapterTvShows.SELECTION_FAVORITES : DbAdapterTvShows.SELECTION_ALL, mIds);
+            if (cursor != null) {
+                ColumnIndexCache cache = new ColumnIndexCache();
+                try {
+                    while (cursor.moveToNext()) {
+                        TvShow show = showFromCursor(cursor, cache);
+
+                        if (mLibraryType == TvShowLibraryType.WATCHED || mLibraryType == TvShowLibraryType.UNWATCHED) {
+                            boolean unwatched = mTvShowEpisodeDatabase.hasUnwatchedEpisodes(show.getId());
+                            if (unwatched != (mLibraryType == TvShowLibraryType.UNWATCHED))
+                                continue;
+                        }
+
+                        changed.add(show);
+                    }
+                } catch (Exception e) {} finally {
+                    cursor.close();
+                    cache.clear();
+                }
+            }
+
+            if (isCancelled())
+                return null;
+
+            HashSet<String> ids = new HashSet<String>(mIds);
+            for (int i = mTvShowList.size() - 1; i >= 0; i--)
+                if (ids.contains(mTvShowList.get(i).getId()))
+                    mTvShowList.remove(i);
+
+            mTvShowList.addAll(changed);
+            Collections.sort(mTvShowList, getSortType().getComparator());
+
+            if (!isCancelled()) {
+                List<String[]> snapshot = toSnapshot(mTvShowList);
+                LibrarySnapshot.write(mContext, getSnapshotName(), snapshot);
+                mSnapshot = snapshot;
+            }
+
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(Void result) {
+            if (!isCancelled()) {
+                mResults = mTvShowList;
+                mCallback.onLoadCompleted();
+                applyPendingUpdates();
+            }
+        }
+    }
+
     /**
      * Show genres filter dialog.
      * @param activity
@@ -17,7 +17,6 @@
 package com.miz.loader;
 
 import com.miz.functions.MizLib;
-import com.miz.mizuu.TvShow;
 
 import java.util.Comparator;
 
@@ -46,10 +45,10 @@ public enum TvShowSortType {
             return mAscendingSort;
         }
 
-        public Comparator<TvShow> getComparator() {
-            return new Comparator<TvShow>() {
+        public Comparator<SortableTvShow> getComparator() {
+            return new Comparator<SortableTvShow>() {
                 @Override
-                public int compare(TvShow lhs, TvShow rhs) {
+                public int compare(SortableTvShow lhs, SortableTvShow rhs) {
 
                     // Let's assume that they're equal to begin with
                     int result = 0;
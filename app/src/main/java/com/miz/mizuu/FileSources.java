@@ -37,6 +37,7 @@ import android.widget.TextView;
 
 import com.miz.base.MizActivity;
 import com.miz.db.DbAdapterSources;
+import com.miz.functions.AvailabilityMonitor;
 import com.miz.functions.FileSource;
 import com.miz.utils.TypefaceUtils;
 
@@ -162,6 +163,7 @@ public class FileSources extends MizActivity {
 
 	public void removeSelectedSource(int id) {
 		mDatabase.deleteSource(mItems.get(id).getFileSource().getRowId());
+		AvailabilityMonitor.getInstance(this).invalidate();
 		loadSources();
 	}
 
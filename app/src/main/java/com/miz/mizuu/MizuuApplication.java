@@ -21,20 +21,30 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Typeface;
 import android.preference.PreferenceManager;
-import android.support.v7.graphics.Palette;
+import android.util.LruCache;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.miz.abstractclasses.MovieApiService;
 import com.miz.abstractclasses.TvShowApiService;
 import com.miz.apis.tmdb.TMDbMovieService;
 import com.miz.apis.tmdb.TMDbTvShowService;
+import com.miz.db.AbstractDbAdapter;
+import com.miz.db.DbAdapterCollectionCache;
 import com.miz.db.DbAdapterCollections;
 import com.miz.db.DbAdapterMovieMappings;
 import com.miz.db.DbAdapterMovies;
+import com.miz.db.DbAdapterPalettes;
 import com.miz.db.DbAdapterSources;
 import com.miz.db.DbAdapterTvShowEpisodeMappings;
 import com.miz.db.DbAdapterTvShowEpisodes;
 import com.miz.db.DbAdapterTvShows;
+import com.miz.functions.BlurRequestHandler;
+import com.miz.functions.DirectoryListingCache;
+import com.miz.functions.GridThumbnailRequestHandler;
+import com.miz.functions.MizLib;
+import com.miz.functions.RateLimitInterceptor;
+import com.miz.functions.StartupInitializer;
+import com.miz.utils.FileUtils;
 import com.squareup.okhttp.Cache;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.otto.Bus;
@@ -50,19 +60,21 @@ import static com.miz.functions.PreferenceKeys.LANGUAGE_PREFERENCE;
 
 public class MizuuApplication extends Application {
 
-	private static DbAdapterTvShows sDbTvShow;
-	private static DbAdapterTvShowEpisodes sDbTvShowEpisode;
-	private static DbAdapterTvShowEpisodeMappings sDbTvShowEpisodeMappings;
-	private static DbAdapterSources sDbSources;
-	private static DbAdapterMovies sDbMovies;
-	private static DbAdapterMovieMappings sDbMovieMapping;
-	private static DbAdapterCollections sDbCollections;
-	private static HashMap<String, String[]> sMap = new HashMap<String, String[]>();
+	private static volatile DbAdapterTvShows sDbTvShow;
+	private static volatile DbAdapterTvShowEpisodes sDbTvShowEpisode;
+	private static volatile DbAdapterTvShowEpisodeMappings sDbTvShowEpisodeMappings;
+	private static volatile DbAdapterSources sDbSources;
+	private static volatile DbAdapterMovies sDbMovies;
+	private static volatile DbAdapterMovieMappings sDbMovieMapping;
+	private static volatile DbAdapterCollections sDbCollections;
+	private static volatile DbAdapterCollectionCache sDbCollectionCache;
+	private static volatile DbAdapterPalettes sDbPalettes;
+	private static DirectoryListingCache sCifsListings = new DirectoryListingCache(500, 50000, 10 * MizLib.MINUTE);
 	private static Picasso sPicasso;
 	private static HashMap<String, Typeface> sTypefaces = new HashMap<String, Typeface>();
-	private static HashMap<String, Palette> sPalettes = new HashMap<String, Palette>();
+	private static LruCache<String, int[]> sPalettes = new LruCache<String, int[]>(200);
 	private static Bus sBus;
-	private static File sBaseAppFolder, sMovieThumbFolder, sMovieBackdropFolder, sTvShowThumbFolder, sTvShowBackdropFolder, sTvShowEpisodeFolder, sTvShowSeasonFolder, sAvailableOfflineFolder, sCacheFolder;
+	private static File sBaseAppFolder, sMovieThumbFolder, sMovieBackdropFolder, sTvShowThumbFolder, sTvShowBackdropFolder, sTvShowEpisodeFolder, sTvShowSeasonFolder, sAvailableOfflineFolder, sCacheFolder, sGridThumbFolder, sBlurCacheFolder;
 	private static Context mInstance;
 	private static ArrayListMultimap<String, String> mMovieFilepaths;
 	private static OkHttpClient mOkHttpClient;
@@ -73,41 +85,79 @@ public class MizuuApplication extends Application {
 
 		mInstance = this;
 
-		jcifs.Config.setProperty("jcifs.smb.client.disablePlainTextPasswords", "false");
-
-		// Initialize the preferences
-		initializePreferences();
-
-		// Database setup
-		sDbMovies = new DbAdapterMovies(this);
-		sDbMovieMapping = new DbAdapterMovieMappings(this);
-		sDbTvShowEpisode = new DbAdapterTvShowEpisodes(this);
-		sDbTvShow = new DbAdapterTvShows(this);
-		sDbTvShowEpisodeMappings = new DbAdapterTvShowEpisodeMappings(this);
-		sDbSources = new DbAdapterSources(this);
-		sDbCollections = new DbAdapterCollections(this);
-
-		getMovieThumbFolder(this);
-		getMovieBackdropFolder(this);
-		getTvShowThumbFolder(this);
-		getTvShowBackdropFolder(this);
-		getTvShowEpisodeFolder(this);
-		getTvShowSeasonFolder(this);
-		getAvailableOfflineFolder(this);
-
-		transitionLocalizationPreference();
+		// Only the bare minimum is done before the first screen is shown. Database
+		// adapters and app folders are also created on first use, so the deferred
+		// phases merely make sure that doesn't happen on the main thread.
+		new StartupInitializer()
+				.runNow("jcifs", new Runnable() {
+					@Override
+					public void run() {
+						jcifs.Config.setProperty("jcifs.smb.client.disablePlainTextPasswords", "false");
+					}
+				})
+				// The default values have to be in place before the first screen reads any preferences
+				.runNow("preferences", new Runnable() {
+					@Override
+					public void run() {
+						initializePreferences();
+					}
+				})
+				.defer("localization", new Runnable() {
+					@Override
+					public void run() {
+						transitionLocalizationPreference();
+					}
+				})
+				.defer("database", new Runnable() {
+					@Override
+					public void run() {
+						getMovieAdapter();
+						getMovieMappingAdapter();
+						getTvEpisodeDbAdapter();
+						getTvDbAdapter();
+						getTvShowEpisodeMappingsDbAdapter();
+						getSourcesAdapter();
+						getCollectionsAdapter();
+						getCollectionCacheAdapter();
+						getPalettesAdapter();
+					}
+				})
+				.defer("folders", new Runnable() {
+					@Override
+					public void run() {
+						getMovieThumbFolder(mInstance);
+						getMovieBackdropFolder(mInstance);
+						getTvShowThumbFolder(mInstance);
+						getTvShowBackdropFolder(mInstance);
+						getTvShowEpisodeFolder(mInstance);
+						getTvShowSeasonFolder(mInstance);
+						getAvailableOfflineFolder(mInstance);
+
+						// Grid thumbnails used to be stretched to 2:3 and saved in this folder
+						FileUtils.deleteRecursive(getSubAppFolder(mInstance, "grid-thumbs"), true);
+					}
+				})
+				.start();
 	}
 
 	@Override
 	public void onTerminate() {
 		super.onTerminate();
 
-		sDbTvShow.close();
-		sDbTvShowEpisode.close();
-		sDbSources.close();
-		sDbMovies.close();
-		sDbMovieMapping.close();
-		sDbCollections.close();
+		closeAdapter(sDbTvShow);
+		closeAdapter(sDbTvShowEpisode);
+		closeAdapter(sDbTvShowEpisodeMappings);
+		closeAdapter(sDbSources);
+		closeAdapter(sDbMovies);
+		closeAdapter(sDbMovieMapping);
+		closeAdapter(sDbCollections);
+		closeAdapter(sDbCollectionCache);
+		closeAdapter(sDbPalettes);
+	}
+
+	private static void closeAdapter(AbstractDbAdapter adapter) {
+		if (adapter != null)
+			adapter.close();
 	}
 
 	public static Context getContext() {
@@ -133,49 +183,138 @@ public class MizuuApplication extends Application {
 			languagePref = PreferenceManager.getDefaultSharedPreferences(this).getString(LANGUAGE_PREFERENCE, "en");
 		}
 
-		PreferenceManager.getDefaultSharedPreferences(this).edit().putString(LANGUAGE_PREFERENCE, languagePref).commit();
+		PreferenceManager.getDefaultSharedPreferences(this).edit().putString(LANGUAGE_PREFERENCE, languagePref).apply();
 	}
 
+	// The database adapters are created once and then read without locking,
+	// since they're requested all the time, including from the main thread
+
 	public static DbAdapterTvShows getTvDbAdapter() {
-		return sDbTvShow;
+		DbAdapterTvShows adapter = sDbTvShow;
+		if (adapter == null) {
+			synchronized (MizuuApplication.class) {
+				if (sDbTvShow == null)
+					sDbTvShow = new DbAdapterTvShows(mInstance);
+				adapter = sDbTvShow;
+			}
+		}
+		return adapter;
 	}
 
 	public static DbAdapterTvShowEpisodes getTvEpisodeDbAdapter() {
-		return sDbTvShowEpisode;
+		DbAdapterTvShowEpisodes adapter = sDbTvShowEpisode;
+		if (adapter == null) {
+			synchronized (MizuuApplication.class) {
+				if (sDbTvShowEpisode == null)
+					sDbTvShowEpisode = new DbAdapterTvShowEpisodes(mInstance);
+				adapter = sDbTvShowEpisode;
+			}
+		}
+		return adapter;
 	}
 
 	public static DbAdapterTvShowEpisodeMappings getTvShowEpisodeMappingsDbAdapter() {
-		return sDbTvShowEpisodeMappings;
+		DbAdapterTvShowEpisodeMappings adapter = sDbTvShowEpisodeMappings;
+		if (adapter == null) {
+			synchronized (MizuuApplication.class) {
+				if (sDbTvShowEpisodeMappings == null)
+					sDbTvShowEpisodeMappings = new DbAdapterTvShowEpisodeMappings(mInstance);
+				adapter = sDbTvShowEpisodeMappings;
+			}
+		}
+		return adapter;
 	}
 
 	public static DbAdapterSources getSourcesAdapter() {
-		return sDbSources;
+		DbAdapterSources adapter = sDbSources;
+		if (adapter == null) {
+			synchronized (MizuuApplication.class) {
+				if (sDbSources == null)
+					sDbSources = new DbAdapterSources(mInstance);
+				adapter = sDbSources;
+			}
+		}
+		return adapter;
 	}
 
 	public static DbAdapterMovies getMovieAdapter() {
-		return sDbMovies;
+		DbAdapterMovies adapter = sDbMovies;
+		if (adapter == null) {
+			synchronized (MizuuApplication.class) {
+				if (sDbMovies == null)
+					sDbMovies = new DbAdapterMovies(mInstance);
+				adapter = sDbMovies;
+			}
+		}
+		return adapter;
 	}
 
 	public static DbAdapterMovieMappings getMovieMappingAdapter() {
-		return sDbMovieMapping;
+		DbAdapterMovieMappings adapter = sDbMovieMapping;
+		if (adapter == null) {
+			synchronized (MizuuApplication.class) {
+				if (sDbMovieMapping == null)
+					sDbMovieMapping = new DbAdapterMovieMappings(mInstance);
+				adapter = sDbMovieMapping;
+			}
+		}
+		return adapter;
 	}
 
 	public static DbAdapterCollections getCollectionsAdapter() {
-		return sDbCollections;
+		DbAdapterCollections adapter = sDbCollections;
+		if (adapter == null) {
+			synchronized (MizuuApplication.class) {
+				if (sDbCollections == null)
+					sDbCollections = new DbAdapterCollections(mInstance);
+				adapter = sDbCollections;
+			}
+		}
+		return adapter;
+	}
+
+	public static DbAdapterCollectionCache getCollectionCacheAdapter() {
+		DbAdapterCollectionCache adapter = sDbCollectionCache;
+		if (adapter == null) {
+			synchronized (MizuuApplication.class) {
+				if (sDbCollectionCache == null)
+					sDbCollectionCache = new DbAdapterCollectionCache(mInstance);
+				adapter = sDbCollectionCache;
+			}
+		}
+		return adapter;
+	}
+
+	public static DbAdapterPalettes getPalettesAdapter() {
+		DbAdapterPalettes adapter = sDbPalettes;
+		if (adapter == null) {
+			synchronized (MizuuApplication.class) {
+				if (sDbPalettes == null)
+					sDbPalettes = new DbAdapterPalettes(mInstance);
+				adapter = sDbPalettes;
+			}
+		}
+		return adapter;
 	}
 
 	public static String[] getCifsFilesList(String parentPath) {
-		return sMap.get(parentPath);
+		return sCifsListings.get(parentPath);
 	}
 
 	public static void putCifsFilesList(String parentPath, String[] list) {
-		if (!sMap.containsKey(parentPath))
-			sMap.put(parentPath, list);
+		sCifsListings.put(parentPath, list);
+	}
+
+	public static void clearCifsFilesLists() {
+		sCifsListings.clear();
 	}
 
 	public static Picasso getPicasso(Context context) {
 		if (sPicasso == null)
-			sPicasso = Picasso.with(context);
+			sPicasso = new Picasso.Builder(context.getApplicationContext())
+					.addRequestHandler(new GridThumbnailRequestHandler(context))
+					.addRequestHandler(new BlurRequestHandler(context))
+					.build();
 		return sPicasso;
 	}
 
@@ -189,12 +328,20 @@ public class MizuuApplication extends Application {
 		return sTypefaces.get(key);
 	}
 
-	public static Palette getPalette(String key) {
+	public static int[] getPaletteColors(String key) {
 		return sPalettes.get(key);
 	}
 
-	public static void addToPaletteCache(String key, Palette palette) {
-		sPalettes.put(key, palette);
+	public static void addToPaletteCache(String key, int[] colors) {
+		sPalettes.put(key, colors);
+	}
+
+	public static void removeFromPaletteCache(String key) {
+		sPalettes.remove(key);
+	}
+
+	public static void clearPaletteCache() {
+		sPalettes.evictAll();
 	}
 
 	public static void setupTheme(Context context) {
@@ -295,6 +442,28 @@ public class MizuuApplication extends Application {
 		return sAvailableOfflineFolder;
 	}
 
+	/*
+	 * Please refrain from using this when you need a File object for a specific image.
+	 */
+	public static File getGridThumbFolder(Context c) {
+		if (sGridThumbFolder == null) {
+			sGridThumbFolder = getSubAppFolder(c, "grid-thumbnails");
+			sGridThumbFolder.mkdirs();
+		}
+		return sGridThumbFolder;
+	}
+
+	/*
+	 * Please refrain from using this when you need a File object for a specific image.
+	 */
+	public static File getBlurCacheFolder(Context c) {
+		if (sBlurCacheFolder == null) {
+			sBlurCacheFolder = getSubAppFolder(c, "blur-cache");
+			sBlurCacheFolder.mkdirs();
+		}
+		return sBlurCacheFolder;
+	}
+
 	/*
 	 * Cache folder is used to store videos that are available offline as well
 	 * as user profile photo from Trakt.
@@ -333,13 +502,16 @@ public class MizuuApplication extends Application {
 	 * OkHttpClient singleton with 2 MB cache.
 	 * @return
 	 */
-	public static OkHttpClient getOkHttpClient() {
+	public static synchronized OkHttpClient getOkHttpClient() {
 		if (mOkHttpClient == null) {
 			mOkHttpClient = new OkHttpClient();
 
 			File cacheDir = getContext().getCacheDir();
 			Cache cache = new Cache(cacheDir, 2 * 1024 * 1024);
 			mOkHttpClient.setCache(cache);
+
+			// Throttle requests to TMDb and Trakt, and respect their rate limits
+			mOkHttpClient.interceptors().add(new RateLimitInterceptor());
 		}
 
 		return mOkHttpClient;
@@ -21,12 +21,13 @@ import android.text.TextUtils;
 
 import com.miz.functions.Filepath;
 import com.miz.functions.MizLib;
+import com.miz.loader.SortableTvShow;
 import com.miz.utils.FileUtils;
 import com.miz.utils.StringUtils;
 
 import java.io.File;
 
-public class TvShow implements Comparable<TvShow> {
+public class TvShow implements Comparable<TvShow>, SortableTvShow {
 
 	private Context mContext;
 	private String TITLE, DESCRIPTION, RATING, GENRES, ACTORS, CERTIFICATION, FIRST_AIR_DATE, RUNTIME, LATEST_EPISODE_AIR_DATE;
@@ -228,7 +229,7 @@ public class TvShow implements Comparable<TvShow> {
 	}
 
     public boolean hasOfflineCopy(Filepath path) {
-        return getOfflineCopyFile(path).exists();
+        return FileUtils.hasOfflineCopy(mContext, path);
     }
 
     public File getOfflineCopyFile(Filepath path) {
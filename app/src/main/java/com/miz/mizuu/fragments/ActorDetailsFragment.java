@@ -37,8 +37,10 @@ import android.widget.TextView;
 
 import com.miz.apis.tmdb.TMDbMovieService;
 import com.miz.base.MizActivity;
-import com.miz.functions.BlurTransformation;
+import com.miz.functions.BlurRequestHandler;
 import com.miz.functions.CompleteActor;
+import com.miz.functions.LibraryTaskScheduler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
 import com.miz.functions.MizLib;
 import com.miz.functions.PaletteLoader;
 import com.miz.mizuu.MizuuApplication;
@@ -327,7 +329,7 @@ public class ActorDetailsFragment extends Fragment {
                     mPaletteLoader.addView(mPhotoCards.getSeeMoreView());
                     mPaletteLoader.addView(mTaggedPhotoCards.getSeeMoreView());
 
-                    mPaletteLoader.execute();
+                    mPaletteLoader.executeOnExecutor(LibraryTaskScheduler.getInstance().getExecutor(Priority.ARTWORK));
                 } else {
                     // Clear old views after configuration change
                     mPaletteLoader.clearViews();
@@ -351,8 +353,7 @@ public class ActorDetailsFragment extends Fragment {
         });
 
         if (!MizLib.isPortrait(mContext)) {
-            String backdropImage = mActor.getBackdropImage();
-            mPicasso.load(backdropImage).placeholder(R.drawable.bg).error(R.drawable.bg).transform(new BlurTransformation(mContext, backdropImage, 2)).into(mBackdrop);
+            mPicasso.load(BlurRequestHandler.getUri(mActor.getBackdropImage(), 2)).placeholder(R.drawable.bg).error(R.drawable.bg).into(mBackdrop);
             mBackdrop.setColorFilter(Color.parseColor("#88181818"), android.graphics.PorterDuff.Mode.SRC_OVER);
         }
     }
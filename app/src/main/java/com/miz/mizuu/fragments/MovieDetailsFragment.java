@@ -64,6 +64,8 @@ import com.miz.functions.Actor;
 import com.miz.functions.FileSource;
 import com.miz.functions.Filepath;
 import com.miz.functions.IntentKeys;
+import com.miz.functions.LibraryTaskScheduler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
 import com.miz.functions.MizLib;
 import com.miz.functions.Movie;
 import com.miz.functions.PaletteLoader;
@@ -90,7 +92,6 @@ import com.squareup.picasso.Picasso;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 import static com.miz.functions.PreferenceKeys.ALWAYS_DELETE_FILE;
 import static com.miz.functions.PreferenceKeys.SHOW_FILE_LOCATION;
@@ -434,7 +435,7 @@ public class MovieDetailsFragment extends Fragment {
                     mPaletteLoader.addView(mActorsLayout.getSeeMoreView());
                     mPaletteLoader.setFab(mFab);
 
-                    mPaletteLoader.execute();
+                    mPaletteLoader.executeOnExecutor(LibraryTaskScheduler.getInstance().getExecutor(Priority.ARTWORK));
                 } else {
                     // Clear old views after configuration change
                     mPaletteLoader.clearViews();
@@ -764,7 +765,7 @@ public class MovieDetailsFragment extends Fragment {
     }
 
     private void notifyDatasetChanges() {
-        LocalBroadcastUtils.updateMovieLibrary(mContext);
+        LocalBroadcastUtils.updateMovieLibrary(mContext, mMovie.getTmdbId());
     }
 
     private void checkIn() {
@@ -787,7 +788,7 @@ public class MovieDetailsFragment extends Fragment {
                     checkIn();
                 }
             } else {
-                playMovie(paths.get(0).getFilepath(), paths.get(0).getType());
+                playMovie(paths.get(0));
             }
         } else {
             boolean hasOfflineCopy = false;
@@ -809,16 +810,19 @@ public class MovieDetailsFragment extends Fragment {
                     @Override
                     public void onClick(DialogInterface dialog, int which) {
                         Filepath path = mMovie.getFilepaths().get(which);
-                        playMovie(path.getFilepath(), path.getType());
+                        playMovie(path);
                     }
                 });
             }
         }
     }
 
-    private void playMovie(String filepath, int filetype) {
-        if (filepath.toLowerCase(Locale.getDefault()).matches(".*(cd1|part1).*")) {
-            new GetSplitFiles(filepath, filetype).execute();
+    private void playMovie(Filepath path) {
+        String filepath = path.getFilepath();
+        int filetype = path.getType();
+
+        if (MizLib.getPartNumberFromFilepath(filepath) == 1) {
+            new GetSplitFiles(path).execute();
         } else {
             mVideoPlaybackStarted = System.currentTimeMillis();
             boolean playbackStarted = VideoUtils.playVideo(getActivity(), filepath, filetype, mMovie);
@@ -845,12 +849,14 @@ public class MovieDetailsFragment extends Fragment {
     private class GetSplitFiles extends AsyncTask<String, Void, List<SplitFile>> {
 
         private ProgressDialog progress;
+        private Filepath mPath;
         private String orig_filepath;
         private int fileType;
 
-        public GetSplitFiles(String filepath, int filetype) {
-            this.orig_filepath = filepath;
-            fileType = filetype;
+        public GetSplitFiles(Filepath path) {
+            mPath = path;
+            orig_filepath = path.getFilepath();
+            fileType = path.getType();
         }
 
         @Override
@@ -868,10 +874,17 @@ public class MovieDetailsFragment extends Fragment {
             List<String> temp;
 
             try {
-                if (fileType == FileSource.SMB)
-                    temp = MizLib.getSplitParts(orig_filepath, MizLib.getLoginFromFilepath(MizLib.TYPE_MOVIE, orig_filepath));
-                else
-                    temp = MizLib.getSplitParts(orig_filepath, null);
+                // The parts are only looked up once per file
+                temp = mPath.getSplitParts();
+                if (temp == null) {
+                    if (fileType == FileSource.SMB)
+                        temp = MizLib.getSplitParts(orig_filepath, MizLib.getLoginFromFilepath(MizLib.TYPE_MOVIE, orig_filepath));
+                    else
+                        temp = MizLib.getSplitParts(orig_filepath, null);
+
+                    if (temp.size() > 0)
+                        mPath.setSplitParts(temp);
+                }
 
                 for (int i = 0; i < temp.size(); i++)
                     parts.add(new SplitFile(temp.get(i)));
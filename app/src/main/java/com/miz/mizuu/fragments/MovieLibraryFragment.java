@@ -18,10 +18,12 @@ package com.miz.mizuu.fragments;
 
 import android.app.SearchManager;
 import android.content.BroadcastReceiver;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.SharedPreferences;
+import android.content.res.Configuration;
 import android.graphics.Bitmap.Config;
 import android.graphics.Typeface;
 import android.os.Bundle;
@@ -54,6 +56,8 @@ import android.widget.TextView;
 
 import com.github.ksoichiro.android.observablescrollview.ObservableGridView;
 import com.miz.functions.CoverItem;
+import com.miz.functions.GridThumbnailRequestHandler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
 import com.miz.functions.MediumMovie;
 import com.miz.functions.MizLib;
 import com.miz.loader.MovieFilter;
@@ -136,7 +140,9 @@ public class MovieLibraryFragment extends Fragment implements SharedPreferences.
         mAdapter = new LoaderAdapter(mContext);
 
         LocalBroadcastManager.getInstance(mContext).registerReceiver(mMessageReceiver, new IntentFilter(LocalBroadcastUtils.UPDATE_MOVIE_LIBRARY));
+        LocalBroadcastManager.getInstance(mContext).registerReceiver(mMessageReceiver, new IntentFilter(LocalBroadcastUtils.MOVIE_AVAILABILITY_CHANGED));
         LocalBroadcastManager.getInstance(getActivity()).registerReceiver(mMessageReceiver, new IntentFilter("mizuu-movie-actor-search"));
+        mContext.registerComponentCallbacks(mMemoryCallbacks);
     }
 
     @Override
@@ -145,6 +151,7 @@ public class MovieLibraryFragment extends Fragment implements SharedPreferences.
 
         // Unregister since the activity is about to be closed.
         LocalBroadcastManager.getInstance(mContext).unregisterReceiver(mMessageReceiver);
+        mContext.unregisterComponentCallbacks(mMemoryCallbacks);
         PreferenceManager.getDefaultSharedPreferences(mContext).unregisterOnSharedPreferenceChangeListener(this);
     }
 
@@ -152,6 +159,19 @@ public class MovieLibraryFragment extends Fragment implements SharedPreferences.
         @Override
         public void onReceive(Context context, Intent intent) {
             if (mMovieLoader != null) {
+                if (LocalBroadcastUtils.MOVIE_AVAILABILITY_CHANGED.equals(intent.getAction())) {
+                    // Only the available files filter depends on it
+                    if (mMovieLoader.reloadAvailableFiles())
+                        showProgressBar();
+                    return;
+                }
+
+                if (intent.hasExtra(LocalBroadcastUtils.EXTRA_IDS)) {
+                    // Only a few items have changed, so there's no need to show the progress bar
+                    mMovieLoader.update(intent.getStringArrayListExtra(LocalBroadcastUtils.EXTRA_IDS));
+                    return;
+                }
+
                 if (intent.filterEquals(new Intent("mizuu-movie-actor-search"))) {
                     mMovieLoader.search("actor: " + intent.getStringExtra("intent_extra_data_key"));
                 } else {
@@ -162,6 +182,22 @@ public class MovieLibraryFragment extends Fragment implements SharedPreferences.
         }
     };
 
+    private ComponentCallbacks2 mMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (mMovieLoader != null)
+                mMovieLoader.trimMemory(level);
+        }
+
+        @Override
+        public void onLowMemory() {
+            onTrimMemory(TRIM_MEMORY_COMPLETE);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {}
+    };
+
     private OnLoadCompletedCallback mCallback = new OnLoadCompletedCallback() {
         @Override
         public void onLoadCompleted() {
@@ -192,6 +228,16 @@ public class MovieLibraryFragment extends Fragment implements SharedPreferences.
                 viewMovieDetails(arg2, arg1);
             }
         });
+        mGridView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {}
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (mMovieLoader != null && visibleItemCount > 0)
+                    mMovieLoader.setVisibleRange(firstVisibleItem, firstVisibleItem + visibleItemCount - 1);
+            }
+        });
 
         // We only want to display the contextual menu if we're showing movies, not collections
         if (getArguments().getInt("type") != MovieLoader.COLLECTIONS) {
@@ -261,6 +307,7 @@ public class MovieLibraryFragment extends Fragment implements SharedPreferences.
         }
 
         mMovieLoader = new MovieLoader(mContext, MovieLibraryType.fromInt(getArguments().getInt("type")), mCallback);
+        mMovieLoader.setPriority(getUserVisibleHint() ? Priority.VISIBLE : Priority.PREFETCH);
         mMovieLoader.load();
         showProgressBar();
 
@@ -377,8 +424,8 @@ public class MovieLibraryFragment extends Fragment implements SharedPreferences.
 
             holder.cover.setImageResource(R.color.card_background_dark);
 
-            mPicasso.load(mMovieLoader.getType() == MovieLibraryType.COLLECTIONS ?
-                    movie.getCollectionPoster() : movie.getThumbnail()).placeholder(R.drawable.bg).config(mConfig).into(holder);
+            mPicasso.load(GridThumbnailRequestHandler.getUri(mMovieLoader.getType() == MovieLibraryType.COLLECTIONS ?
+                    movie.getCollectionPoster() : movie.getThumbnail(), mImageThumbSize)).placeholder(R.drawable.bg).config(mConfig).into(holder);
 
             if (mChecked.contains(position)) {
                 holder.cardview.setForeground(getResources().getDrawable(R.drawable.checked_foreground_drawable));
@@ -404,6 +451,16 @@ public class MovieLibraryFragment extends Fragment implements SharedPreferences.
         }
     }
 
+    @Override
+    public void setUserVisibleHint(boolean isVisibleToUser) {
+        super.setUserVisibleHint(isVisibleToUser);
+
+        // Sections next to the visible one are created by the ViewPager as well,
+        // but they shouldn't hold up loading the one that's on screen
+        if (mMovieLoader != null)
+            mMovieLoader.setPriority(isVisibleToUser ? Priority.VISIBLE : Priority.PREFETCH);
+    }
+
     private void onSearchViewCollapsed() {
         mMovieLoader.load();
         showProgressBar();
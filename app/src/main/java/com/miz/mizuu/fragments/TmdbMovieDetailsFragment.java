@@ -46,6 +46,8 @@ import com.miz.apis.tmdb.Movie;
 import com.miz.apis.tmdb.TMDbMovieService;
 import com.miz.apis.trakt.Trakt;
 import com.miz.base.MizActivity;
+import com.miz.functions.LibraryTaskScheduler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
 import com.miz.functions.MizLib;
 import com.miz.functions.PaletteLoader;
 import com.miz.functions.SimpleAnimatorListener;
@@ -374,7 +376,7 @@ public class TmdbMovieDetailsFragment extends Fragment {
                         mPaletteLoader.addView(mSimilarMoviesLayout.getSeeMoreView());
                         mPaletteLoader.setFab(mFab);
 
-                        mPaletteLoader.execute();
+                        mPaletteLoader.executeOnExecutor(LibraryTaskScheduler.getInstance().getExecutor(Priority.ARTWORK));
                     } else {
                         // Clear old views after configuration change
                         mPaletteLoader.clearViews();
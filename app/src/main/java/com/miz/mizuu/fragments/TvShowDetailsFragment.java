@@ -62,6 +62,8 @@ import com.miz.functions.FileSource;
 import com.miz.functions.Filepath;
 import com.miz.functions.GridSeason;
 import com.miz.functions.IntentKeys;
+import com.miz.functions.LibraryTaskScheduler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
 import com.miz.functions.MizLib;
 import com.miz.functions.PaletteLoader;
 import com.miz.functions.SimpleAnimatorListener;
@@ -405,7 +407,7 @@ public class TvShowDetailsFragment extends Fragment {
                     mPaletteLoader.addView(mSeasonsLayout.getSeeMoreView());
                     mPaletteLoader.setFab(mFab);
 
-                    mPaletteLoader.execute();
+                    mPaletteLoader.executeOnExecutor(LibraryTaskScheduler.getInstance().getExecutor(Priority.ARTWORK));
                 } else {
                     // Clear old views after configuration change
                     mPaletteLoader.clearViews();
@@ -573,7 +575,7 @@ public class TvShowDetailsFragment extends Fragment {
 
             Toast.makeText(mContext, getString(thisShow.isFavorite() ? R.string.addedToFavs : R.string.removedFromFavs), Toast.LENGTH_SHORT).show();
 
-            LocalBroadcastUtils.updateTvShowLibrary(mContext);
+            LocalBroadcastUtils.updateTvShowLibrary(mContext, thisShow.getId());
 
         } else Toast.makeText(mContext, getString(R.string.errorOccured), Toast.LENGTH_SHORT).show();
 
@@ -603,7 +605,7 @@ public class TvShowDetailsFragment extends Fragment {
                 .setPositiveButton(getString(android.R.string.yes), new DialogInterface.OnClickListener() {
                     public void onClick(DialogInterface dialog, int id) {
                         MizLib.deleteShow(getActivity().getApplicationContext(), thisShow, true);
-                        LocalBroadcastUtils.updateTvShowLibrary(getActivity().getApplicationContext());
+                        LocalBroadcastUtils.updateTvShowLibrary(getActivity().getApplicationContext(), thisShow.getId());
                         getActivity().finish();
                     }
                 })
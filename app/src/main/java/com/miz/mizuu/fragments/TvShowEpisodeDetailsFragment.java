@@ -53,9 +53,11 @@ import android.widget.Toast;
 import com.melnykov.fab.FloatingActionButton;
 import com.miz.apis.trakt.Trakt;
 import com.miz.db.DbAdapterTvShowEpisodes;
-import com.miz.functions.BlurTransformation;
+import com.miz.functions.BlurRequestHandler;
 import com.miz.functions.FileSource;
 import com.miz.functions.Filepath;
+import com.miz.functions.LibraryTaskScheduler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
 import com.miz.functions.MizLib;
 import com.miz.functions.PaletteLoader;
 import com.miz.functions.SimpleAnimatorListener;
@@ -277,7 +279,7 @@ import static com.miz.functions.PreferenceKeys.SHOW_FILE_LOCATION;
                     mPaletteLoader.addView(mDetailsArea);
                     mPaletteLoader.setFab(mFab);
 
-                    mPaletteLoader.execute();
+                    mPaletteLoader.executeOnExecutor(LibraryTaskScheduler.getInstance().getExecutor(Priority.ARTWORK));
                 } else {
                     // Clear old views after configuration change
                     mPaletteLoader.clearViews();
@@ -293,12 +295,12 @@ import static com.miz.functions.PreferenceKeys.SHOW_FILE_LOCATION;
         });
 
         if (!MizLib.isPortrait(getActivity()))
-            mPicasso.load(mEpisode.getEpisodePhoto()).placeholder(R.drawable.bg).error(R.drawable.bg).transform(new BlurTransformation(getActivity().getApplicationContext(), mEpisode.getEpisodePhoto().getAbsolutePath() + "-blur", 4)).into(mBackdrop, new Callback() {
+            mPicasso.load(BlurRequestHandler.getUri(mEpisode.getEpisodePhoto(), 4)).placeholder(R.drawable.bg).error(R.drawable.bg).into(mBackdrop, new Callback() {
                 @Override public void onError() {
                     if (!isAdded())
                         return;
 
-                    mPicasso.load(mEpisode.getTvShowBackdrop()).placeholder(R.drawable.bg).error(R.drawable.nobackdrop).transform(new BlurTransformation(getActivity().getApplicationContext(), mEpisode.getTvShowBackdrop().getAbsolutePath() + "-blur", 4)).into(mBackdrop, new Callback() {
+                    mPicasso.load(BlurRequestHandler.getUri(mEpisode.getTvShowBackdrop(), 4)).placeholder(R.drawable.bg).error(R.drawable.nobackdrop).into(mBackdrop, new Callback() {
                         @Override
                         public void onError() {}
 
@@ -610,7 +612,7 @@ import static com.miz.functions.PreferenceKeys.SHOW_FILE_LOCATION;
     }
 
     private void notifyDatasetChanges() {
-        LocalBroadcastUtils.updateTvShowLibrary(getActivity());
+        LocalBroadcastUtils.updateTvShowLibrary(getActivity(), mEpisode.getShowId());
     }
 
     private void checkIn() {
@@ -421,7 +421,7 @@ public class TvShowEpisodesFragment extends Fragment {
 				if (MizuuApplication.getTvEpisodeDbAdapter().getEpisodeCountForSeason(mShowId, MizLib.addIndexZero(mSeason)) == 0) {
 
 					// Update the TV show library
-					LocalBroadcastUtils.updateTvShowLibrary(activityContext);
+					LocalBroadcastUtils.updateTvShowLibrary(activityContext, mShowId);
 
 					// Finish the Activity
 					getActivity().finish();
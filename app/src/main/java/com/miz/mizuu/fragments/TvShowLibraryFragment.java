@@ -55,6 +55,8 @@ import android.widget.TextView;
 
 import com.github.ksoichiro.android.observablescrollview.ObservableGridView;
 import com.miz.functions.CoverItem;
+import com.miz.functions.GridThumbnailRequestHandler;
+import com.miz.functions.LibraryTaskScheduler.Priority;
 import com.miz.functions.MizLib;
 import com.miz.loader.OnLoadCompletedCallback;
 import com.miz.loader.TvShowFilter;
@@ -137,6 +139,7 @@ public class TvShowLibraryFragment extends Fragment implements SharedPreferences
         mAdapter = new LoaderAdapter(mContext);
 
         LocalBroadcastManager.getInstance(mContext).registerReceiver(mMessageReceiver, new IntentFilter(LocalBroadcastUtils.UPDATE_TV_SHOW_LIBRARY));
+        LocalBroadcastManager.getInstance(mContext).registerReceiver(mMessageReceiver, new IntentFilter(LocalBroadcastUtils.TV_SHOW_AVAILABILITY_CHANGED));
         LocalBroadcastManager.getInstance(getActivity()).registerReceiver(mMessageReceiver, new IntentFilter("mizuu-shows-actor-search"));
     }
 
@@ -153,6 +156,19 @@ public class TvShowLibraryFragment extends Fragment implements SharedPreferences
         @Override
         public void onReceive(Context context, Intent intent) {
             if (mTvShowLoader != null) {
+                if (LocalBroadcastUtils.TV_SHOW_AVAILABILITY_CHANGED.equals(intent.getAction())) {
+                    // Only the available files filter depends on it
+                    if (mTvShowLoader.reloadAvailableFiles())
+                        showProgressBar();
+                    return;
+                }
+
+                if (intent.hasExtra(LocalBroadcastUtils.EXTRA_IDS)) {
+                    // Only a few items have changed, so there's no need to show the progress bar
+                    mTvShowLoader.update(intent.getStringArrayListExtra(LocalBroadcastUtils.EXTRA_IDS));
+                    return;
+                }
+
                 if (intent.filterEquals(new Intent("mizuu-shows-actor-search"))) {
                     mTvShowLoader.search("actor: " + intent.getStringExtra("intent_extra_data_key"));
                 } else {
@@ -251,6 +267,7 @@ public class TvShowLibraryFragment extends Fragment implements SharedPreferences
         });
 
         mTvShowLoader = new TvShowLoader(mContext, TvShowLibraryType.fromInt(getArguments().getInt("type")), mCallback);
+        mTvShowLoader.setPriority(getUserVisibleHint() ? Priority.VISIBLE : Priority.PREFETCH);
         mTvShowLoader.load();
         showProgressBar();
 
@@ -359,7 +376,7 @@ public class TvShowLibraryFragment extends Fragment implements SharedPreferences
 
             holder.cover.setImageResource(R.color.card_background_dark);
 
-            mPicasso.load(show.getThumbnail()).placeholder(R.drawable.bg).config(mConfig).into(holder);
+            mPicasso.load(GridThumbnailRequestHandler.getUri(show.getThumbnail(), mImageThumbSize)).placeholder(R.drawable.bg).config(mConfig).into(holder);
 
             if (mChecked.contains(position)) {
                 holder.cardview.setForeground(getResources().getDrawable(R.drawable.checked_foreground_drawable));
@@ -385,6 +402,16 @@ public class TvShowLibraryFragment extends Fragment implements SharedPreferences
         }
     }
 
+    @Override
+    public void setUserVisibleHint(boolean isVisibleToUser) {
+        super.setUserVisibleHint(isVisibleToUser);
+
+        // Sections next to the visible one are created by the ViewPager as well,
+        // but they shouldn't hold up loading the one that's on screen
+        if (mTvShowLoader != null)
+            mTvShowLoader.setPriority(isVisibleToUser ? Priority.VISIBLE : Priority.PREFETCH);
+    }
+
     private void onSearchViewCollapsed() {
         mTvShowLoader.load();
         showProgressBar();
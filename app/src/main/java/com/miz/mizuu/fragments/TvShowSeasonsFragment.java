@@ -294,7 +294,7 @@ public class TvShowSeasonsFragment extends Fragment {
                 if (MizuuApplication.getTvEpisodeDbAdapter().getEpisodeCount(mShowId) == 0) {
 
                     // Update the TV show library
-                    LocalBroadcastUtils.updateTvShowLibrary(activityContext);
+                    LocalBroadcastUtils.updateTvShowLibrary(activityContext, mShowId);
 
                     // Finish the Activity
                     getActivity().finish();
@@ -23,6 +23,7 @@ import android.os.Looper;
 import android.widget.Toast;
 
 import com.miz.functions.FileSource;
+import com.miz.functions.FileSourceRegistry;
 import com.miz.functions.MizLib;
 import com.miz.mizuu.R;
 
@@ -42,16 +43,8 @@ public class DeleteFile extends IntentService {
 		String file = intent.getExtras().getString("filepath");
 
 		if (file.startsWith("smb://")) {
-			ArrayList<FileSource> filesources = MizLib.getFileSources(MizLib.TYPE_MOVIE, true);
-
 			if (MizLib.isWifiConnected(this)) {
-				FileSource source = null;
-
-				for (int j = 0; j < filesources.size(); j++)
-					if (file.contains(filesources.get(j).getFilepath())) {
-						source = filesources.get(j);
-						break;
-					}
+				FileSource source = FileSourceRegistry.findSource(MizLib.TYPE_MOVIE, file);
 
 				if (source == null)
 					return;
@@ -27,7 +27,9 @@ import android.os.Looper;
 import android.support.v4.app.NotificationCompat;
 import android.widget.Toast;
 
+import com.miz.functions.ImageProfile;
 import com.miz.functions.MizLib;
+import com.miz.functions.PaletteLoader;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.mizuu.R;
 import com.miz.utils.FileUtils;
@@ -105,6 +107,7 @@ public class DownloadImageService extends IntentService {
 	}
 
 	private void setup() {
+		ImageProfile profile = ImageProfile.get(this);
 
 		switch (mImageType) {
 		case IMAGE_TYPE_TVSHOW_COVER:
@@ -116,7 +119,7 @@ public class DownloadImageService extends IntentService {
 		case IMAGE_TYPE_TVSHOW_BACKDROP:
 
             // TMDb URL's need to have part of it replaced with something else
-            mImageUrl = mImageUrl.replace(MizLib.getBackdropThumbUrlSize(this), MizLib.getBackdropUrlSize(this));
+            mImageUrl = mImageUrl.replace(profile.getBackdropThumbUrlSize(), profile.getBackdropUrlSize());
 
 			mDownloadPath = FileUtils.getTvShowBackdrop(this, mContentId).getAbsolutePath();
 
@@ -131,7 +134,7 @@ public class DownloadImageService extends IntentService {
 		case IMAGE_TYPE_MOVIE_BACKDROP:
 
 			// TMDb URL's need to have part of it replaced with something else
-			mImageUrl = mImageUrl.replace(MizLib.getBackdropThumbUrlSize(this), MizLib.getBackdropUrlSize(this));
+			mImageUrl = mImageUrl.replace(profile.getBackdropThumbUrlSize(), profile.getBackdropUrlSize());
 
 			mDownloadPath = FileUtils.getMovieBackdrop(this, mContentId).getAbsolutePath();
 
@@ -162,8 +165,9 @@ public class DownloadImageService extends IntentService {
 	}
 
 	private void download() {
-		// Delete the old file
+		// Delete the old file and its palette
 		new File(mDownloadPath).delete();
+		PaletteLoader.delete(new File(mDownloadPath));
 		
 		// Download the new file
 		MizLib.downloadFile(mImageUrl, mDownloadPath);
@@ -38,8 +38,8 @@ import com.miz.identification.ShowStructure;
 import com.miz.identification.TvShowIdentification;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.mizuu.R;
-import com.miz.utils.FileUtils;
 import com.miz.utils.LocalBroadcastUtils;
+import com.miz.utils.TvShowDatabaseUtils;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -134,8 +134,7 @@ public class IdentifyTvShowService extends IntentService implements TvShowLibrar
 		boolean result = MizuuApplication.getTvShowEpisodeMappingsDbAdapter().deleteAllFilepaths(mOldShowId);
 		if (result) {
 			// Delete the old TV show thumb and backdrop images
-			FileUtils.getTvShowThumb(this, mOldShowId).delete();
-			FileUtils.getTvShowBackdrop(this, mOldShowId).delete();
+			TvShowDatabaseUtils.deleteShowImages(this, mOldShowId);
 
 			// Delete season photos
 			File[] seasonPhotos = MizuuApplication.getTvShowSeasonFolder(this).listFiles();
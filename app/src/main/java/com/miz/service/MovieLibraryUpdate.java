@@ -333,6 +333,9 @@ public class MovieLibraryUpdate extends IntentService implements MovieLibraryUpd
 		mMovieFileSources = new ArrayList<MovieFileSource<?>>();
 		mMovieQueue = new ArrayList<MovieStructure>();
 
+		// Network folders are listed again, so files added since the last update are found
+		MizuuApplication.clearCifsFilesLists();
+
 		// Booleans
 		mClearLibrary = false;
 		mClearUnavailable = false;
@@ -403,6 +406,11 @@ public class MovieLibraryUpdate extends IntentService implements MovieLibraryUpd
 			mBuilder.setContentTitle(getString(R.string.stringUpdateCancelled));
 			mBuilder.setContentText(getString(R.string.stringJustAdded) + " " + mCount + " " + getResources().getQuantityString(R.plurals.moviesInLibrary, mCount, mCount));
 		}
+
+		// Show how many lookups were answered without a request
+		if (mMovieIdentification != null && mMovieIdentification.getLookupHitCount() > 0)
+			mBuilder.setSubText(getString(R.string.reused_lookups, mMovieIdentification.getLookupHitCount(), mMovieIdentification.getLookupCount()));
+
 		mBuilder.setContentIntent(contentIntent);
 		mBuilder.setAutoCancel(true);
 
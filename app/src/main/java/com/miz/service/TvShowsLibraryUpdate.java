@@ -355,6 +355,9 @@ public class TvShowsLibraryUpdate extends IntentService implements TvShowLibrary
 		mFiles = new ArrayList<ShowStructure>();
 		mUniqueShowIds = new HashSet<String>();
 
+		// Network folders are listed again, so files added since the last update are found
+		MizuuApplication.clearCifsFilesLists();
+
 		// Booleans
 		mClearLibrary = false;
 		mClearUnavailable = false;
@@ -472,6 +475,11 @@ public class TvShowsLibraryUpdate extends IntentService implements TvShowLibrary
 			mBuilder.setContentTitle(getString(R.string.stringUpdateCancelled));
 			mBuilder.setContentText(getString(R.string.stringJustAdded) + " " + mShowCount + " " + getResources().getQuantityString(R.plurals.showsInLibrary, mShowCount, mShowCount) + " (" + mEpisodeCount + " " + getResources().getQuantityString(R.plurals.episodes, mEpisodeCount, mEpisodeCount) + ")");
 		}
+
+		// Show how many lookups were answered without a request
+		if (mIdentification != null && mIdentification.getLookupHitCount() > 0)
+			mBuilder.setSubText(getString(R.string.reused_lookups, mIdentification.getLookupHitCount(), mIdentification.getLookupCount()));
+
 		mBuilder.setContentIntent(contentIntent);
 		mBuilder.setAutoCancel(true);
 
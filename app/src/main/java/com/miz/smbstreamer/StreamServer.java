@@ -109,6 +109,21 @@ public abstract class StreamServer {
 		} catch (Exception e) {}
 	}
 
+	/**
+	 * Reads HTTP header lines up to the first empty line.
+	 * NOTE: this forces header names lowercase since they are
+	 * case insensitive and vary by client.
+	 */
+	public static void decodeHeaderLines(BufferedReader in, Properties header) throws IOException {
+		String line = in.readLine();
+		while (line != null && line.trim().length() > 0) {
+			int p = line.indexOf(':');
+			if (p >= 0)
+				header.put( line.substring(0,p).trim().toLowerCase(Locale.ENGLISH), line.substring(p + 1).trim());
+			line = in.readLine();
+		}
+	}
+
 	/**
 	 * Handles one session, i.e. parses the HTTP request
 	 * and returns the response.
@@ -212,17 +227,8 @@ public abstract class StreamServer {
 
 				// If there's another token, it's protocol version,
 				// followed by HTTP headers. Ignore version but parse headers.
-				// NOTE: this now forces header names lowercase since they are
-				// case insensitive and vary by client.
-				if (st.hasMoreTokens()) {
-					String line = in.readLine();
-					while (line != null && line.trim().length() > 0) {
-						int p = line.indexOf(':');
-						if (p >= 0)
-							header.put( line.substring(0,p).trim().toLowerCase(Locale.ENGLISH), line.substring(p + 1).trim());
-						line = in.readLine();
-					}
-				}
+				if (st.hasMoreTokens())
+					decodeHeaderLines(in, header);
 
 				pre.put("uri", uri);
 			} catch (IOException ioe) {
@@ -318,7 +324,7 @@ public abstract class StreamServer {
 
 				if (data != null) {
 					data.open();
-					byte[] buff = new byte[mBufferSize];
+					byte[] buff = new byte[data.getBufferSize()];
 					int read = 0;
 					while ((read = data.read(buff)) > 0) {
 						out.write( buff, 0, read );
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.smbstreamer;
+
+import com.miz.functions.MizLib;
+import com.miz.functions.SmbLogin;
+
+import java.util.Collections;
+import java.util.Map;
+
+import jcifs.smb.SmbFile;
+
+/**
+ * A single playback session on the {@link Streamer}. Each session
+ * is addressed by its own token in the request URL and keeps its
+ * own source file, extra files (subtitles, etc.) and buffer size,
+ * so several streams can be served at once without cross-talk.
+ * @author Michell
+ *
+ */
+public class StreamSession {
+
+	private final String mToken;
+	private final SmbFile mFile;
+	private final String mFilepath;
+	private final SmbLogin mAuth;
+	private final int mBufferSize;
+	private Map<String, SmbFile> mExtras; // subtitles, etc.
+	private volatile long mLastAccess;
+
+	public StreamSession(String token, SmbFile file, String filepath, SmbLogin auth, int bufferSize) {
+		mToken = token;
+		mFile = file;
+		mFilepath = filepath;
+		mAuth = auth;
+		mBufferSize = bufferSize;
+		mLastAccess = System.currentTimeMillis();
+	}
+
+	public String getToken() {
+		return mToken;
+	}
+
+	public SmbFile getFile() {
+		return mFile;
+	}
+
+	public int getBufferSize() {
+		return mBufferSize;
+	}
+
+	/**
+	 * Finds the file in this session with the given name.
+	 * @param name File name from the request URI
+	 * @return The matching file or null if the session doesn't contain it
+	 */
+	public SmbFile getFileByName(String name) {
+		if (name == null)
+			return null;
+
+		if (mFile != null && mFile.getName().equals(name))
+			return mFile;
+
+		return getExtras().get(name);
+	}
+
+	/**
+	 * Extra files are only looked up the first time the player
+	 * asks for something other than the video itself.
+	 */
+	private synchronized Map<String, SmbFile> getExtras() {
+		if (mExtras == null) {
+			try {
+				mExtras = MizLib.getSubtitleFiles(mFilepath, mAuth);
+			} catch (Exception e) {
+				mExtras = Collections.emptyMap();
+			}
+		}
+		return mExtras;
+	}
+
+	public void touch() {
+		mLastAccess = System.currentTimeMillis();
+	}
+
+	public boolean isExpired(long now, long idleTimeout) {
+		return now - mLastAccess > idleTimeout;
+	}
+}
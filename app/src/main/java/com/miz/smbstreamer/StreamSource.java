@@ -30,6 +30,7 @@ public class StreamSource {
 	protected int bufferSize;
 	protected SmbFile file;
 	protected InputStream input;
+	protected StreamSession session;
 
 	public StreamSource(SmbFile file) throws SmbException{
 		fp = 0;
@@ -40,6 +41,13 @@ public class StreamSource {
 		bufferSize = 16 * 1024;
 	}
 
+	public StreamSource(SmbFile file, StreamSession session) throws SmbException {
+		this(file);
+		this.session = session;
+		if (session != null)
+			bufferSize = session.getBufferSize();
+	}
+
 	public void open() throws IOException {
 		try {
 			input = new SmbFileInputStreamOld(file, bufferSize, 1);
@@ -66,6 +74,10 @@ public class StreamSource {
 	}
 
 	public void close() {
+		// Long-running transfers count as activity for the session
+		if (session != null)
+			session.touch();
+
 		try {
 			input.close();
 		} catch (IOException e) {
@@ -18,12 +18,15 @@ package com.miz.smbstreamer;
 
 import android.util.Log;
 
+import com.miz.functions.SmbLogin;
 import com.miz.utils.NetworkUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.security.SecureRandom;
+import java.util.Iterator;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jcifs.smb.SmbFile;
 
@@ -36,10 +39,16 @@ import static com.miz.smbstreamer.Response.HTTP_RANGE_NOT_SATISFIABLE;
 public class Streamer extends StreamServer {
 
 	public static final int PORT = 50002;
+
+	/**
+	 * Sessions that haven't been requested for this long are discarded.
+	 */
+	public static final long SESSION_IDLE_TIMEOUT = 3 * 60 * 60 * 1000; // 3 hours
+
 	private String mUrl = "http://127.0.0.1:" + PORT;
-	
-	private SmbFile mFile;
-	private List<SmbFile> mExtras; // subtitles, etc.
+
+	private final ConcurrentHashMap<String, StreamSession> mSessions = new ConcurrentHashMap<String, StreamSession>();
+	private final SecureRandom mRandom = new SecureRandom();
 	private static Streamer sInstance;
 
 	protected Streamer(int port) throws IOException {
@@ -62,27 +71,72 @@ public class Streamer extends StreamServer {
 		return sInstance;
 	}
 
-	public void setStreamSrc(SmbFile file,List<SmbFile> extraFiles) {
-		mFile = file;
-		mExtras = extraFiles;
-    }
+	/**
+	 * Registers a new playback session for the given file. Extra files,
+	 * i.e. subtitles, are discovered next to the file when first requested.
+	 * @param file Main video file
+	 * @param filepath Path of the video file on the file source
+	 * @param auth Login details for the file source
+	 * @param bufferSize Buffer size used when streaming files in this session
+	 * @return Unguessable session token, which must be the first path segment of requests
+	 */
+	public String newSession(SmbFile file, String filepath, SmbLogin auth, int bufferSize) {
+		removeExpiredSessions();
+
+		String token;
+		do {
+			token = generateToken();
+		} while (mSessions.containsKey(token));
+
+		mSessions.put(token, new StreamSession(token, file, filepath, auth, bufferSize));
+
+		return token;
+	}
+
+	/**
+	 * Returns the streaming URL for a file in the given session.
+	 * @param token Session token from {@link #newSession(SmbFile, String, SmbLogin, int)}
+	 * @param encodedPath Encoded path of the file, starting with a slash
+	 */
+	public String getSessionUrl(String token, String encodedPath) {
+		return mUrl + "/" + token + encodedPath;
+	}
+
+	public void removeSession(String token) {
+		if (token != null)
+			mSessions.remove(token);
+	}
+
+	private void removeExpiredSessions() {
+		long now = System.currentTimeMillis();
+		Iterator<StreamSession> it = mSessions.values().iterator();
+		while (it.hasNext())
+			if (it.next().isExpired(now, SESSION_IDLE_TIMEOUT))
+				it.remove();
+	}
+
+	private String generateToken() {
+		byte[] bytes = new byte[16];
+		mRandom.nextBytes(bytes);
+
+		StringBuilder sb = new StringBuilder(32);
+		for (byte b : bytes)
+			sb.append(String.format("%02x", b & 0xff));
+
+		return sb.toString();
+	}
 
 	@Override
 	public Response serve(String uri, String method, Properties header, Properties parms, Properties files) {
 		Response res = null;
 		try {
 			SmbFile sourceFile = null;
-			String name = getNameFromPath(uri);
-			if (mFile != null && mFile.getName().equals(name))
-				sourceFile = mFile;
-			else if (mExtras != null){
-				for (SmbFile i : mExtras){
-					if (i != null && i.getName().equals(name)){
-						sourceFile = i;
-						break;
-					}
-				}
+			StreamSession session = getSession(getTokenFromPath(uri));
+			if (session != null) {
+				session.touch();
+				sourceFile = session.getFileByName(getNameFromPath(uri));
 			}
+
 			if (sourceFile == null)
 				res = new Response(HTTP_NOTFOUND, MIME_PLAINTEXT, null);
 			else {
@@ -104,7 +158,7 @@ public class Streamer extends StreamServer {
 				Log.d("Streamer", "Request: " + range + " from: " + startFrom + ", to: " + endAt);
 
 				// Change return code and add Content-Range header when skipping is requested
-				final StreamSource source = new StreamSource(sourceFile);
+				final StreamSource source = new StreamSource(sourceFile, session);
 				long fileLen = source.length();
 				if (range != null && startFrom > 0) {
 					if (startFrom >= fileLen) {
@@ -140,6 +194,32 @@ public class Streamer extends StreamServer {
 		return res;
 	}
 
+	private StreamSession getSession(String token) {
+		if (token == null)
+			return null;
+
+		StreamSession session = mSessions.get(token);
+		if (session != null && session.isExpired(System.currentTimeMillis(), SESSION_IDLE_TIMEOUT)) {
+			mSessions.remove(token);
+			return null;
+		}
+
+		return session;
+	}
+
+	/**
+	 * Gets the session token, i.e. the first segment of the request path.
+	 */
+	public static String getTokenFromPath(String path) {
+		if (path == null || path.length() < 2)
+			return null;
+		int start = path.startsWith("/") ? 1 : 0;
+		int slash = path.indexOf('/', start);
+		if (slash == -1)
+			return null;
+		return path.substring(start, slash);
+	}
+
 	public static String getNameFromPath(String path) {
 		if (path == null || path.length() < 2)
 			return null;
@@ -21,6 +21,7 @@ import android.content.Context;
 import com.miz.db.DatabaseHelper;
 import com.miz.functions.Filepath;
 import com.miz.functions.MizLib;
+import com.miz.functions.OfflineManifest;
 import com.miz.mizuu.MizuuApplication;
 
 import java.io.File;
@@ -98,16 +99,50 @@ public class FileUtils {
 		return getTvShowSeason(c, showId, String.valueOf(season));
 	}
 
+	/**
+	 * Gets the file for a scaled down copy of a cover, i.e. for use in library grids.
+	 * @param cover Full-size cover image
+	 * @param size Width of the copy
+	 */
+	public static File getGridThumb(Context c, File cover, int size) {
+		String name = cover.getName();
+		if (name.contains("."))
+			name = name.substring(0, name.lastIndexOf("."));
+		return new File(MizuuApplication.getGridThumbFolder(c), cover.getParentFile().getName() + "_" + name + "_" + size + ".jpg");
+	}
+
+	/**
+	 * Gets the file for a blurred copy of an image.
+	 * @param image Source image
+	 * @param radius Blur radius
+	 */
+	public static File getBlurredImage(Context c, File image, int radius) {
+		return new File(MizuuApplication.getBlurCacheFolder(c), MizLib.md5(image.getAbsolutePath()) + "_" + radius + ".jpg");
+	}
+
+	/**
+	 * Gets the file for a blurred copy of a remote image.
+	 * @param url Source image URL
+	 * @param radius Blur radius
+	 */
+	public static File getBlurredImage(Context c, String url, int radius) {
+		return new File(MizuuApplication.getBlurCacheFolder(c), MizLib.md5(url) + "_" + radius + ".jpg");
+	}
+
 	public static File getOfflineFile(Context c, String filepath) {
-		return new File(MizuuApplication.getAvailableOfflineFolder(c), MizLib.md5(filepath) + "." + StringUtils.getExtension(filepath));
+		return OfflineManifest.getInstance(c).getFile(filepath);
 	}
 
     public static boolean hasOfflineCopy(Context c, Filepath path) {
-        return getOfflineCopyFile(c, path).exists();
+        return hasOfflineCopy(c, path.getFilepath());
     }
 
-    private static File getOfflineCopyFile(Context c, Filepath path) {
-        return getOfflineFile(c, path.getFilepath());
+    /**
+     * Checks if a video has an offline copy, without touching the disk.
+     * See {@link OfflineManifest}.
+     */
+    public static boolean hasOfflineCopy(Context c, String filepath) {
+        return OfflineManifest.getInstance(c).contains(filepath);
     }
 
     public static String copyDatabase(Context context) {
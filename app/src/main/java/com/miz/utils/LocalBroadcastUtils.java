@@ -18,37 +18,174 @@ package com.miz.utils;
 
 import android.content.Context;
 import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.v4.content.LocalBroadcastManager;
 
+import com.miz.loader.LibrarySnapshot;
 import com.miz.mizuu.MizuuApplication;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 public class LocalBroadcastUtils {
 
 	public static final String UPDATE_MOVIE_LIBRARY = "mizuu-movies-update";
 	public static final String UPDATE_TV_SHOW_LIBRARY = "mizuu-tvshows-update";
+	public static final String MOVIE_AVAILABILITY_CHANGED = "mizuu-movies-availability-changed";
+	public static final String TV_SHOW_AVAILABILITY_CHANGED = "mizuu-tvshows-availability-changed";
 	public static final String CLEAR_IMAGE_CACHE = "clear-image-cache";
     public static final String UPDATE_TV_SHOW_SEASONS_OVERVIEW = "mizuu-tvshows-seasons-update";
     public static final String UPDATE_TV_SHOW_EPISODES_OVERVIEW = "mizuu-tvshows-episodes-update";
     public static final String UPDATE_TV_SHOW_EPISODE_DETAILS_OVERVIEW = "mizuu-tvshows-episode-details-update";
-	
+
+	/**
+	 * Optional extra with the IDs of the movies or TV shows that have changed.
+	 * Library updates without it mean that everything should be reloaded.
+	 */
+	public static final String EXTRA_IDS = "ids";
+
+	// Changes to single items are collected for this long before they're sent
+	private static final long COALESCE_DELAY = 750; // milliseconds
+
+	private static final PendingUpdate sPendingMovies = new PendingUpdate(UPDATE_MOVIE_LIBRARY);
+	private static final PendingUpdate sPendingTvShows = new PendingUpdate(UPDATE_TV_SHOW_LIBRARY);
+	private static Handler sHandler;
+
 	private LocalBroadcastUtils() {} // No instantiation
+
+	private static synchronized Handler getHandler() {
+		if (sHandler == null)
+			sHandler = new Handler(Looper.getMainLooper());
+		return sHandler;
+	}
+
+	/**
+	 * IDs of changed items waiting to be sent as one library update.
+	 */
+	private static class PendingUpdate {
+		private final String mAction;
+		private final Set<String> mIds = new LinkedHashSet<String>();
+		private Context mContext;
+		private boolean mScheduled;
+
+		private final Runnable mFlush = new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		};
+
+		PendingUpdate(String action) {
+			mAction = action;
+		}
+
+		synchronized void add(Context context, String id) {
+			mContext = context.getApplicationContext();
+			mIds.add(id);
+
+			if (!mScheduled) {
+				mScheduled = true;
+				getHandler().postDelayed(mFlush, COALESCE_DELAY);
+			}
+		}
+
+		/**
+		 * Drops the pending IDs, i.e. because a full update is sent instead.
+		 */
+		synchronized void clear() {
+			mIds.clear();
+			if (mScheduled) {
+				mScheduled = false;
+				getHandler().removeCallbacks(mFlush);
+			}
+		}
+
+		private void flush() {
+			Context context;
+			ArrayList<String> ids;
+
+			synchronized (this) {
+				mScheduled = false;
+				if (mIds.isEmpty())
+					return;
+
+				context = mContext;
+				ids = new ArrayList<String>(mIds);
+				mIds.clear();
+			}
+
+			invalidateSnapshots(context, mAction);
+			LocalBroadcastManager.getInstance(context).sendBroadcast(new Intent(mAction).putStringArrayListExtra(EXTRA_IDS, ids));
+		}
+	}
+
+	private static void invalidateSnapshots(Context context, String action) {
+		if (UPDATE_MOVIE_LIBRARY.equals(action))
+			LibrarySnapshot.invalidateMovies(context);
+		else
+			LibrarySnapshot.invalidateTvShows(context);
+	}
 	
 	/**
 	 * Force the movie library to clear the cache and reload everything.
 	 * @param context
 	 */
 	public static void updateMovieLibrary(Context context) {
+		sPendingMovies.clear();
+		invalidateSnapshots(context, UPDATE_MOVIE_LIBRARY);
 		LocalBroadcastManager.getInstance(context).sendBroadcast(new Intent(UPDATE_MOVIE_LIBRARY));
 	}
+
+	/**
+	 * Tell the movie library that a single movie has been added, changed or removed.
+	 * Changes are collected for a short while and sent as one update.
+	 * @param context
+	 * @param movieId TMDb ID of the movie
+	 */
+	public static void updateMovieLibrary(Context context, String movieId) {
+		sPendingMovies.add(context, movieId);
+	}
 	
 	/**
 	 * Force the TV show library to clear the cache and reload everything.
 	 * @param context
 	 */
 	public static void updateTvShowLibrary(Context context) {
+		sPendingTvShows.clear();
+		invalidateSnapshots(context, UPDATE_TV_SHOW_LIBRARY);
 		LocalBroadcastManager.getInstance(context).sendBroadcast(new Intent(UPDATE_TV_SHOW_LIBRARY));
 	}
+
+	/**
+	 * Tell the TV show library that a single show has been added, changed or removed.
+	 * Changes are collected for a short while and sent as one update.
+	 * @param context
+	 * @param showId ID of the TV show
+	 */
+	public static void updateTvShowLibrary(Context context, String showId) {
+		sPendingTvShows.add(context, showId);
+	}
 	
+	/**
+	 * Tell the movie library that the availability of network files has changed.
+	 * Nothing in the library itself has changed, so the snapshot is kept.
+	 * @param context
+	 */
+	public static void movieAvailabilityChanged(Context context) {
+		LocalBroadcastManager.getInstance(context).sendBroadcast(new Intent(MOVIE_AVAILABILITY_CHANGED));
+	}
+
+	/**
+	 * Tell the TV show library that the availability of network files has changed.
+	 * Nothing in the library itself has changed, so the snapshot is kept.
+	 * @param context
+	 */
+	public static void tvShowAvailabilityChanged(Context context) {
+		LocalBroadcastManager.getInstance(context).sendBroadcast(new Intent(TV_SHOW_AVAILABILITY_CHANGED));
+	}
+
 	/**
 	 * Clear the image cache.
 	 * @param context
@@ -17,15 +17,20 @@
 package com.miz.utils;
 
 import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 import android.widget.Toast;
 
 import com.miz.apis.trakt.Trakt;
+import com.miz.db.DatabaseHelper;
 import com.miz.db.DbAdapterMovies;
+import com.miz.functions.GridThumbnailRequestHandler;
 import com.miz.functions.MediumMovie;
+import com.miz.functions.PaletteLoader;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.mizuu.R;
 
+import java.util.Collection;
 import java.util.List;
 
 public class MovieDatabaseUtils {
@@ -49,6 +54,10 @@ public class MovieDatabaseUtils {
 		// Delete all downloaded image files from the device
 		FileUtils.deleteRecursive(MizuuApplication.getMovieThumbFolder(context), false);
 		FileUtils.deleteRecursive(MizuuApplication.getMovieBackdropFolder(context), false);
+		GridThumbnailRequestHandler.deleteAll(context, MizuuApplication.getMovieThumbFolder(context));
+
+		// Delete the palettes of the images
+		PaletteLoader.deleteAll();
 	}
 
 	public static void removeAllUnidentifiedFiles() {
@@ -72,6 +81,29 @@ public class MovieDatabaseUtils {
 
         // Finally, delete all filepath mappings to this movie ID
         MizuuApplication.getMovieMappingAdapter().deleteMovie(tmdbId);
+
+        // Delete the grid-sized copies of the cover and the palettes of the movie images
+        GridThumbnailRequestHandler.delete(context, FileUtils.getMovieThumb(context, tmdbId));
+        PaletteLoader.delete(FileUtils.getMovieThumb(context, tmdbId));
+        PaletteLoader.delete(FileUtils.getMovieBackdrop(context, tmdbId));
+    }
+
+    /**
+     * Deletes a number of movies in a single transaction.
+     */
+    public static void deleteMovies(Context context, Collection<String> tmdbIds) {
+        if (tmdbIds.isEmpty())
+            return;
+
+        SQLiteDatabase database = DatabaseHelper.getHelper(context).getWritableDatabase();
+        database.beginTransaction();
+        try {
+            for (String tmdbId : tmdbIds)
+                deleteMovie(context, tmdbId);
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
     }
 
     public static void setMoviesFavourite(final Context context,
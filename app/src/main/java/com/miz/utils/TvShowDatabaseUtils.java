@@ -18,21 +18,31 @@ package com.miz.utils;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.widget.Toast;
 
 import com.miz.apis.trakt.Trakt;
+import com.miz.db.DatabaseHelper;
 import com.miz.db.DbAdapterTvShowEpisodeMappings;
 import com.miz.db.DbAdapterTvShowEpisodes;
 import com.miz.db.DbAdapterTvShows;
+import com.miz.functions.DbEpisode;
 import com.miz.functions.GridEpisode;
+import com.miz.functions.BlurRequestHandler;
+import com.miz.functions.GridThumbnailRequestHandler;
 import com.miz.functions.MizLib;
+import com.miz.functions.PaletteLoader;
 import com.miz.functions.TvShowEpisode;
 import com.miz.mizuu.MizuuApplication;
 import com.miz.mizuu.R;
 import com.miz.mizuu.TvShow;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class TvShowDatabaseUtils {
 
@@ -57,6 +67,11 @@ public class TvShowDatabaseUtils {
         FileUtils.deleteRecursive(MizuuApplication.getTvShowBackdropFolder(context), false);
         FileUtils.deleteRecursive(MizuuApplication.getTvShowSeasonFolder(context), false);
         FileUtils.deleteRecursive(MizuuApplication.getTvShowEpisodeFolder(context), false);
+        GridThumbnailRequestHandler.deleteAll(context, MizuuApplication.getTvShowThumbFolder(context));
+        BlurRequestHandler.deleteAll(context);
+
+        // Delete the palettes of the images
+        PaletteLoader.deleteAll();
     }
 
 	/**
@@ -82,6 +97,8 @@ public class TvShowDatabaseUtils {
 		// Remove all episode images
 		for (GridEpisode episode : episodesInSeason) {
 			episode.getCover().delete();
+			BlurRequestHandler.delete(context, episode.getCover());
+			PaletteLoader.delete(episode.getCover());
 		}
 
 		// Remove season image
@@ -92,11 +109,8 @@ public class TvShowDatabaseUtils {
 			// Remove the TV show from the TV show database
 			showAdapter.deleteShow(showId);
 
-			// Remove the TV show thumbnail image
-			FileUtils.getTvShowThumb(context, showId).delete();
-
-			// Remove the TV show backdrop image
-			FileUtils.getTvShowBackdrop(context, showId).delete();
+			// Remove the TV show images
+			deleteShowImages(context, showId);
 		}
 	}
 
@@ -123,7 +137,10 @@ public class TvShowDatabaseUtils {
 						episodeAdapter.deleteEpisode(showId, MizLib.getInteger(season), MizLib.getInteger(episode));
 
 						// Delete the episode photo
-						FileUtils.getTvShowEpisode(context, showId, season, episode).delete();
+						File photo = FileUtils.getTvShowEpisode(context, showId, season, episode);
+						photo.delete();
+						BlurRequestHandler.delete(context, photo);
+						PaletteLoader.delete(photo);
 
 						// Check if the season contains any more mapped filepaths
 						if (episodeAdapter.getEpisodesInSeason(context, showId, MizLib.getInteger(season)).size() == 0) {
@@ -144,11 +161,8 @@ public class TvShowDatabaseUtils {
 			// Remove the TV show from the TV show database
 			showAdapter.deleteShow(showId);
 
-			// Remove the TV show thumbnail image
-			FileUtils.getTvShowThumb(context, showId).delete();
-
-			// Remove the TV show backdrop image
-			FileUtils.getTvShowBackdrop(context, showId).delete();
+			// Remove the TV show images
+			deleteShowImages(context, showId);
 		}	
 	}
 
@@ -170,7 +184,10 @@ public class TvShowDatabaseUtils {
         episodeAdapter.deleteEpisode(showId, season, episode);
 
         // Delete the episode photo
-        FileUtils.getTvShowEpisode(context, showId, season, episode).delete();
+        File photo = FileUtils.getTvShowEpisode(context, showId, season, episode);
+        photo.delete();
+        BlurRequestHandler.delete(context, photo);
+        PaletteLoader.delete(photo);
 
         // Check if the season contains any more mapped filepaths
         if (episodeAdapter.getEpisodesInSeason(context, showId, season).size() == 0) {
@@ -185,14 +202,72 @@ public class TvShowDatabaseUtils {
 			// Remove the TV show from the TV show database
 			showAdapter.deleteShow(showId);
 
-			// Remove the TV show thumbnail image
-			FileUtils.getTvShowThumb(context, showId).delete();
-
-			// Remove the TV show backdrop image
-			FileUtils.getTvShowBackdrop(context, showId).delete();
+			// Remove the TV show images
+			deleteShowImages(context, showId);
 		}	
 	}
 	
+	/**
+	 * Deletes a number of episodes in a single transaction, along with the
+	 * TV shows that have no episodes left, and then removes their images.
+	 */
+	public static void deleteEpisodes(Context context, Collection<DbEpisode> episodes) {
+		if (episodes.isEmpty())
+			return;
+
+		DbAdapterTvShows showAdapter = MizuuApplication.getTvDbAdapter();
+		DbAdapterTvShowEpisodes episodeAdapter = MizuuApplication.getTvEpisodeDbAdapter();
+
+		List<DbEpisode> removedEpisodes = new ArrayList<DbEpisode>();
+		Set<String> removedShows = new HashSet<String>();
+
+		SQLiteDatabase database = DatabaseHelper.getHelper(context).getWritableDatabase();
+		database.beginTransaction();
+		try {
+			for (DbEpisode episode : episodes)
+				if (episodeAdapter.deleteEpisode(episode.getShowId(), MizLib.getInteger(episode.getSeason()), MizLib.getInteger(episode.getEpisode())))
+					removedEpisodes.add(episode);
+
+			// Remove the TV shows that don't have any episodes left
+			for (DbEpisode episode : removedEpisodes)
+				if (!removedShows.contains(episode.getShowId()) && episodeAdapter.getEpisodeCount(episode.getShowId()) == 0 &&
+						showAdapter.deleteShow(episode.getShowId()))
+					removedShows.add(episode.getShowId());
+
+			database.setTransactionSuccessful();
+		} finally {
+			database.endTransaction();
+		}
+
+		// Remove the images once the database changes are in place
+		for (DbEpisode episode : removedEpisodes) {
+			File photo = new File(episode.getEpisodeCoverPath());
+			MizLib.deleteFile(photo);
+			BlurRequestHandler.delete(context, photo);
+			PaletteLoader.delete(photo);
+		}
+
+		for (String showId : removedShows)
+			deleteShowImages(context, showId);
+	}
+
+	/**
+	 * Removes the thumbnail and backdrop of a TV show, along with the
+	 * grid-sized copies of the thumbnail, the blurred backdrop and their palettes.
+	 */
+	public static void deleteShowImages(Context context, String showId) {
+		File thumb = FileUtils.getTvShowThumb(context, showId);
+		File backdrop = FileUtils.getTvShowBackdrop(context, showId);
+
+		thumb.delete();
+		backdrop.delete();
+		GridThumbnailRequestHandler.delete(context, thumb);
+		BlurRequestHandler.delete(context, backdrop);
+
+		PaletteLoader.delete(thumb);
+		PaletteLoader.delete(backdrop);
+	}
+
 	public static void deleteAllUnidentifiedFiles() {
 		MizuuApplication.getTvShowEpisodeMappingsDbAdapter().deleteAllUnidentifiedFilepaths();
 	}
@@ -35,7 +35,6 @@ import com.miz.mizuu.TvShowEpisode;
 import com.miz.smbstreamer.Streamer;
 
 import java.io.File;
-import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 
 import jcifs.smb.SmbFile;
@@ -78,15 +77,14 @@ public class VideoUtils {
 		else bufferSize = 8192;
 
 		final Streamer s = Streamer.getInstance();
-		if (s != null)
-			s.setBufferSize(bufferSize);
-		else {
+		if (s == null) {
 			Toast.makeText(activity, activity.getString(R.string.errorOccured), Toast.LENGTH_SHORT).show();
 			return false;
 		}
 
 		int contentType = (videoObject instanceof Movie) ? MizLib.TYPE_MOVIE : MizLib.TYPE_SHOWS;
 		final SmbLogin auth = MizLib.getLoginFromFilepath(contentType, filepath);
+		final int sessionBufferSize = bufferSize;
 
 		new Thread(){
 			public void run(){
@@ -100,15 +98,15 @@ public class VideoUtils {
 									false
 							));
 
-					s.setStreamSrc(file, MizLib.getSubtitleFiles(filepath, auth)); //the second argument can be a list of subtitle files
+					final String token = s.newSession(file, filepath, auth, sessionBufferSize);
 					activity.runOnUiThread(new Runnable(){
 						public void run(){
 							try{
-								Uri uri = Uri.parse(s.getUrl() + Uri.fromFile(new File(Uri.parse(filepath).getPath())).getEncodedPath());
+								Uri uri = Uri.parse(s.getSessionUrl(token, Uri.fromFile(new File(Uri.parse(filepath).getPath())).getEncodedPath()));
 								activity.startActivity(getVideoIntent(uri, videoObject));
 							} catch (Exception e) {
 								try { // Attempt to launch intent based on wildcard MIME type
-									Uri uri = Uri.parse(s.getUrl() + Uri.fromFile(new File(Uri.parse(filepath).getPath())).getEncodedPath());
+									Uri uri = Uri.parse(s.getSessionUrl(token, Uri.fromFile(new File(Uri.parse(filepath).getPath())).getEncodedPath()));
 									activity.startActivity(getVideoIntent(uri, "video/*", videoObject));
 								} catch (Exception e2) {
 									Toast.makeText(activity, activity.getString(R.string.noVideoPlayerFound), Toast.LENGTH_LONG).show();
@@ -118,7 +116,6 @@ public class VideoUtils {
 					});
 				}
 				catch (MalformedURLException e) {}
-				catch (UnsupportedEncodingException e1) {}
 			}
 		}.start();
 
@@ -138,9 +135,7 @@ public class VideoUtils {
 		else bufferSize = 8192;
 
 		final Streamer s = Streamer.getInstance();
-		if (s != null)
-			s.setBufferSize(bufferSize);
-		else {
+		if (s == null) {
 			Toast.makeText(activity, activity.getString(R.string.errorOccured), Toast.LENGTH_SHORT).show();
 			return "";
 		}
@@ -148,26 +143,24 @@ public class VideoUtils {
 		int contentType = (videoObject instanceof Movie) ? MizLib.TYPE_MOVIE : MizLib.TYPE_SHOWS;
 		final SmbLogin auth = MizLib.getLoginFromFilepath(contentType, filepath);
 
-		new Thread(){
-			public void run(){
-				try{
-					final SmbFile file = new SmbFile(
-							MizLib.createSmbLoginString(
-									auth.getDomain(),
-									auth.getUsername(),
-									auth.getPassword(),
-									filepath,
-									false
-							));
-
-					s.setStreamSrc(file, MizLib.getSubtitleFiles(filepath, auth)); //the second argument can be a list of subtitle files
-				}
-				catch (MalformedURLException e) {}
-				catch (UnsupportedEncodingException e1) {}
-			}
-		}.start();
+		// Creating the SmbFile objects doesn't touch the network, so the session
+		// can be registered before the URL is handed out
+		String token;
+		try {
+			SmbFile file = new SmbFile(
+					MizLib.createSmbLoginString(
+							auth.getDomain(),
+							auth.getUsername(),
+							auth.getPassword(),
+							filepath,
+							false
+					));
+
+			token = s.newSession(file, filepath, auth, bufferSize);
+		}
+		catch (MalformedURLException e) { return ""; }
 
-		return Uri.parse(s.getUrl() + Uri.fromFile(new File(Uri.parse(filepath).getPath())).getEncodedPath()).toString();
+		return Uri.parse(s.getSessionUrl(token, Uri.fromFile(new File(Uri.parse(filepath).getPath())).getEncodedPath())).toString();
 	}
 
 	public static void playTrailer(final Activity activity, final Movie movie) {
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.benchmark;
+
+import com.miz.functions.MizLib;
+import com.miz.identification.MovieStructure;
+import com.miz.identification.ShowStructure;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Identification of every path in the recorded TV show and movie corpora,
+ * i.e. the paths from TvShowFilenameTests and MovieFilenameTests.
+ */
+@State(Scope.Benchmark)
+public class FilenameBenchmark extends BaseBenchmark {
+
+	private static final String CUSTOM_TAGS = "FoV<MiZ>YIFY<MiZ>RARBG";
+
+	private List<String> mTvShowPaths, mMoviePaths;
+
+	@Setup
+	public void setUp() {
+		mTvShowPaths = Fixtures.readLines("tv_paths.txt");
+		mMoviePaths = Fixtures.readLines("movie_paths.txt");
+	}
+
+	@Benchmark
+	public void decryptName(Blackhole blackhole) {
+		for (String path : mMoviePaths) {
+			String filename = path.substring(path.lastIndexOf('/') + 1);
+			blackhole.consume(MizLib.decryptName(MizLib.getFilenameWithoutExtension(filename), CUSTOM_TAGS));
+		}
+	}
+
+	@Benchmark
+	public void decryptYear(Blackhole blackhole) {
+		for (String path : mMoviePaths)
+			blackhole.consume(MizLib.decryptYear(path));
+	}
+
+	@Benchmark
+	public void showStructure(Blackhole blackhole) {
+		for (String path : mTvShowPaths) {
+			ShowStructure ss = new ShowStructure(path);
+			ss.setCustomTags(CUSTOM_TAGS);
+			blackhole.consume(ss.getDecryptedFilename());
+			blackhole.consume(ss.getDecryptedShowFolderName());
+			blackhole.consume(ss.getReleaseYear());
+		}
+	}
+
+	@Benchmark
+	public void movieStructure(Blackhole blackhole) {
+		for (String path : mMoviePaths) {
+			MovieStructure ms = new MovieStructure(path);
+			ms.setCustomTags(CUSTOM_TAGS);
+			blackhole.consume(ms.getDecryptedFilename());
+			blackhole.consume(ms.getDecryptedParentFolderName());
+			blackhole.consume(ms.getReleaseYear());
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.benchmark;
+
+import com.miz.loader.MovieFilter;
+import com.miz.loader.MovieLoader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Filtering a movie library the way MovieLoader does it, i.e. one pass per
+ * filter over the list with {@link MovieLoader#matchesFilter}, removing movies
+ * that don't match in place. Only the filters that don't need a Context, file
+ * system or network access are included.
+ */
+@State(Scope.Benchmark)
+public class FilterBenchmark extends BaseBenchmark {
+
+	@Param({"500", "5000"})
+	int size;
+
+	private List<Fixtures.Movie> mLibrary;
+	private HashSet<MovieFilter> mFilters;
+
+	@Setup
+	public void setUp() {
+		mLibrary = Fixtures.createMovies(size);
+
+		mFilters = new HashSet<MovieFilter>();
+		mFilters.add(filter(MovieFilter.GENRE, "Drama"));
+		mFilters.add(filter(MovieFilter.CERTIFICATION, "PG-13"));
+		mFilters.add(filter(MovieFilter.FOLDER, "smb://nas/"));
+	}
+
+	private static MovieFilter filter(int type, String value) {
+		MovieFilter filter = new MovieFilter(type);
+		filter.setFilter(value);
+		return filter;
+	}
+
+	@Benchmark
+	public List<Fixtures.Movie> filter() {
+		List<Fixtures.Movie> movieList = new ArrayList<Fixtures.Movie>(mLibrary);
+		int totalSize = movieList.size();
+
+		for (MovieFilter filter : mFilters) {
+			for (int i = 0; i < totalSize; i++) {
+				boolean condition = MovieLoader.matchesFilter(filter, movieList.get(i), null);
+
+				if (!condition && movieList.size() > i) {
+					movieList.remove(i);
+					i--;
+					totalSize--;
+				}
+			}
+		}
+
+		return movieList;
+	}
+}
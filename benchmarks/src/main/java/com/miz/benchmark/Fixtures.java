@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.benchmark;
+
+import com.miz.abstractclasses.MediumBaseMovie;
+import com.miz.functions.Filepath;
+import com.miz.loader.FilterableMovie;
+import com.miz.loader.SortableMovie;
+import com.miz.loader.SortableTvShow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Loads the recorded fixtures in src/main/resources/fixtures and builds
+ * synthetic libraries. Libraries are generated from a fixed seed, so every
+ * run sorts and filters the same data.
+ */
+final class Fixtures {
+
+	private static final String[] WORDS = {"the", "dark", "knight", "lost", "city", "return", "of", "star",
+		"night", "house", "last", "man", "woman", "war", "love", "story", "matrix", "blade", "runner", "alien"};
+	private static final String[] GENRES = {"Action", "Adventure", "Animation", "Comedy", "Crime", "Drama",
+		"Family", "Fantasy", "Horror", "Mystery", "Romance", "Science Fiction", "Thriller", "War"};
+	private static final String[] CERTIFICATIONS = {"G", "PG", "PG-13", "R", "NC-17", ""};
+	private static final String[] FOLDERS = {"/mnt/sdcard/Movies/", "smb://nas/movies/", "smb://nas/kids/", "http://192.168.1.2:8200/"};
+
+	private Fixtures() {} // No instantiation
+
+	/**
+	 * Reads the non-empty lines of a fixture.
+	 */
+	static List<String> readLines(String name) {
+		List<String> lines = new ArrayList<String>();
+		for (String line : read(name).split("\n"))
+			if (!line.trim().isEmpty())
+				lines.add(line);
+		return lines;
+	}
+
+	/**
+	 * Reads a fixture with blocks separated by empty lines, i.e. recorded HTTP requests.
+	 */
+	static List<String> readBlocks(String name) {
+		List<String> blocks = new ArrayList<String>();
+		for (String block : read(name).split("\n\n"))
+			if (!block.trim().isEmpty())
+				blocks.add(block.replace("\n", "\r\n") + "\r\n\r\n");
+		return blocks;
+	}
+
+	static String read(String name) {
+		InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name);
+		if (in == null)
+			throw new IllegalStateException("Missing fixture: " + name);
+
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+			StringBuilder sb = new StringBuilder();
+			String line;
+			while ((line = reader.readLine()) != null)
+				sb.append(line).append('\n');
+			reader.close();
+			return sb.toString();
+		} catch (IOException e) {
+			throw new IllegalStateException("Couldn't read fixture: " + name, e);
+		}
+	}
+
+	static List<Movie> createMovies(int count) {
+		Random random = new Random(count);
+		List<Movie> movies = new ArrayList<Movie>(count);
+		for (int i = 0; i < count; i++)
+			movies.add(new Movie(random, i));
+		return movies;
+	}
+
+	static List<TvShow> createTvShows(int count) {
+		Random random = new Random(count);
+		List<TvShow> shows = new ArrayList<TvShow>(count);
+		for (int i = 0; i < count; i++)
+			shows.add(new TvShow(random));
+		return shows;
+	}
+
+	private static String title(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int words = 1 + random.nextInt(4);
+		for (int i = 0; i < words; i++) {
+			String word = WORDS[random.nextInt(WORDS.length)];
+			if (i > 0)
+				sb.append(' ');
+			sb.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+		}
+		return sb.toString();
+	}
+
+	private static String date(Random random) {
+		return String.format(Locale.US, "%04d-%02d-%02d", 1950 + random.nextInt(66), 1 + random.nextInt(12), 1 + random.nextInt(28));
+	}
+
+	/**
+	 * Movie with the fields used by the movie library sort types and filters.
+	 */
+	static class Movie implements SortableMovie, FilterableMovie {
+
+		final String mTitle, mCollection, mReleasedate, mDateAdded, mRuntime, mGenres, mCertification;
+		final List<Filepath> mFilepaths;
+		final double mRating;
+		final boolean mFavourite, mWatched;
+
+		Movie(Random random, int index) {
+			mTitle = title(random);
+			mCollection = random.nextInt(5) == 0 ? title(random) + " Collection" : "";
+			mReleasedate = date(random);
+			mDateAdded = String.valueOf(1400000000000L + random.nextInt(100000000) * 1000L);
+			mRuntime = String.valueOf(80 + random.nextInt(100));
+			mRating = random.nextInt(100) / 10.0;
+			mFavourite = random.nextInt(10) == 0;
+			mWatched = random.nextInt(3) == 0;
+			mCertification = CERTIFICATIONS[random.nextInt(CERTIFICATIONS.length)];
+			mFilepaths = Collections.singletonList(new Filepath(FOLDERS[random.nextInt(FOLDERS.length)] + mTitle.replace(' ', '.') + "." + index + ".mkv"));
+
+			StringBuilder genres = new StringBuilder();
+			int count = 1 + random.nextInt(3);
+			for (int i = 0; i < count; i++) {
+				if (i > 0)
+					genres.append(", ");
+				genres.append(GENRES[random.nextInt(GENRES.length)]);
+			}
+			mGenres = genres.toString();
+		}
+
+		@Override
+		public String getTitle() {
+			return mTitle;
+		}
+
+		@Override
+		public String getCollection() {
+			return mCollection;
+		}
+
+		@Override
+		public String getReleasedate() {
+			return mReleasedate;
+		}
+
+		@Override
+		public double getRawRating() {
+			return mRating;
+		}
+
+		@Override
+		public double getWeightedRating() {
+			return MediumBaseMovie.getWeightedRating(mRating, mFavourite, mWatched);
+		}
+
+		@Override
+		public String getDateAdded() {
+			return mDateAdded;
+		}
+
+		@Override
+		public String getRuntime() {
+			return mRuntime;
+		}
+
+		@Override
+		public String getGenres() {
+			return mGenres;
+		}
+
+		@Override
+		public String getCertification() {
+			return mCertification;
+		}
+
+		@Override
+		public String getReleaseYear() {
+			return mReleasedate.substring(0, 4);
+		}
+
+		@Override
+		public List<Filepath> getFilepaths() {
+			return mFilepaths;
+		}
+	}
+
+	/**
+	 * TV show with the fields used by the TV show library sort types.
+	 */
+	static class TvShow implements SortableTvShow {
+
+		final String mTitle, mFirstAirdate, mLatestEpisodeAirdate, mRuntime;
+		final double mRating;
+		final boolean mFavorite;
+
+		TvShow(Random random) {
+			mTitle = title(random);
+			mFirstAirdate = date(random);
+			mLatestEpisodeAirdate = date(random);
+			mRuntime = String.valueOf(20 + random.nextInt(40));
+			mRating = random.nextInt(100) / 10.0;
+			mFavorite = random.nextInt(10) == 0;
+		}
+
+		@Override
+		public String getTitle() {
+			return mTitle;
+		}
+
+		@Override
+		public String getFirstAirdate() {
+			return mFirstAirdate;
+		}
+
+		@Override
+		public String getLatestEpisodeAirdate() {
+			return mLatestEpisodeAirdate;
+		}
+
+		@Override
+		public double getRawRating() {
+			return mRating;
+		}
+
+		@Override
+		public double getWeightedRating() {
+			return mFavorite ? (10 + mRating) / 2 : (mRating + 5) / 2;
+		}
+
+		@Override
+		public String getRuntime() {
+			return mRuntime;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.benchmark;
+
+import com.miz.loader.MovieSortType;
+import com.miz.loader.SortableMovie;
+import com.miz.loader.SortableTvShow;
+import com.miz.loader.TvShowSortType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorting a library with the comparators of the library sort types.
+ */
+public class SortBenchmark extends BaseBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Movies {
+
+		@Param({"500", "5000"})
+		int size;
+
+		@Param({"TITLE", "RELEASE", "DURATION", "RATING", "WEIGHTED_RATING", "DATE_ADDED", "COLLECTION_TITLE"})
+		MovieSortType sortType;
+
+		List<Fixtures.Movie> library;
+		Comparator<SortableMovie> comparator;
+
+		@Setup
+		public void setUp() {
+			library = Fixtures.createMovies(size);
+			comparator = sortType.getComparator();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class TvShows {
+
+		@Param({"100", "1000"})
+		int size;
+
+		@Param({"TITLE", "FIRST_AIR_DATE", "NEWEST_EPISODE", "DURATION", "RATING", "WEIGHTED_RATING"})
+		TvShowSortType sortType;
+
+		List<Fixtures.TvShow> library;
+		Comparator<SortableTvShow> comparator;
+
+		@Setup
+		public void setUp() {
+			library = Fixtures.createTvShows(size);
+			comparator = sortType.getComparator();
+		}
+	}
+
+	@Benchmark
+	public List<Fixtures.Movie> sortMovies(Movies state) {
+		List<Fixtures.Movie> list = new ArrayList<Fixtures.Movie>(state.library);
+		Collections.sort(list, state.comparator);
+		return list;
+	}
+
+	@Benchmark
+	public List<Fixtures.TvShow> sortTvShows(TvShows state) {
+		List<Fixtures.TvShow> list = new ArrayList<Fixtures.TvShow>(state.library);
+		Collections.sort(list, state.comparator);
+		return list;
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.benchmark;
+
+import com.miz.smbstreamer.StreamServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Parsing the headers of the requests that video players send to the
+ * streaming server, recorded in http_requests.txt.
+ */
+@State(Scope.Benchmark)
+public class StreamHeaderBenchmark extends BaseBenchmark {
+
+	private List<String> mRequests;
+
+	@Setup
+	public void setUp() {
+		mRequests = Fixtures.readBlocks("http_requests.txt");
+	}
+
+	@Benchmark
+	public void decodeHeaders(Blackhole blackhole) throws IOException {
+		for (String request : mRequests) {
+			BufferedReader in = new BufferedReader(new StringReader(request));
+			blackhole.consume(in.readLine()); // Request line
+
+			Properties header = new Properties();
+			StreamServer.decodeHeaderLines(in, header);
+			blackhole.consume(header);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2014 Michell Bak
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.miz.benchmark;
+
+import com.miz.apis.tmdb.Movie;
+import com.miz.apis.tmdb.TMDbMovieService;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Mapping a TMDb movie response with releases, trailers, credits and
+ * images appended to a Movie, as done during library updates.
+ */
+@State(Scope.Benchmark)
+public class TmdbMappingBenchmark extends BaseBenchmark {
+
+	private static final String BASE_URL = "https://image.tmdb.org/t/p/";
+
+	private String mJson;
+	private JSONObject mParsed;
+
+	@Setup
+	public void setUp() throws JSONException {
+		mJson = Fixtures.read("tmdb_movie.json");
+		mParsed = new JSONObject(mJson);
+	}
+
+	@Benchmark
+	public Movie parseAndMap() throws JSONException {
+		Movie movie = new Movie();
+		TMDbMovieService.readMovie(movie, new JSONObject(mJson), "en", BASE_URL, "w342", "w1280");
+		return movie;
+	}
+
+	@Benchmark
+	public Movie map() {
+		Movie movie = new Movie();
+		TMDbMovieService.readMovie(movie, mParsed, "en", BASE_URL, "w342", "w1280");
+		return movie;
+	}
+}